@@ -0,0 +1,12 @@
+-- 号段分配表（zlink.link.sequence.store = mysql 时使用）
+-- 每次申请号段执行 max_id = max_id + step，返回 [max_id - step, max_id) 作为本节点号段
+CREATE TABLE `z_id_segment`
+(
+    `biz_tag`     varchar(64) NOT NULL COMMENT '业务标识',
+    `max_id`      bigint      NOT NULL DEFAULT '0' COMMENT '已分配的最大序列号（不含）',
+    `description` varchar(255)         DEFAULT NULL COMMENT '描述',
+    `update_time` datetime    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`biz_tag`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='号段分配表';
+
+INSERT IGNORE INTO `z_id_segment` (`biz_tag`, `max_id`, `description`) VALUES ('short_url', 0, '短链接序列号');
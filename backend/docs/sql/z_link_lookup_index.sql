@@ -0,0 +1,56 @@
+-- z_link 跳转与短链接占用检查索引（单表与 z_link_0 ~ z_link_N 分表均适用），可重复执行
+-- 1. uk_short_url：唯一索引 (short_url, delete_time)，ZLinkMapper.existsShortUrl 的 SELECT 1 ... LIMIT 1 在此定位第一条即返回；
+--    已存在以 short_url 开头的唯一索引时不再创建
+-- 2. idx_short_url_redirect：(short_url, delete_flag, enable_status, valid_data_type, valid_date, origin_url)，
+--    ZLinkMapper.selectRedirectInfo 的全部条件与返回列都在索引内，不回表读取描述、图标等字段；
+--    utf8mb4 下索引键最多 3072 字节（每字符按 4 字节计），short_url 与 origin_url 合计超过约 760 字符时 origin_url 不纳入索引，
+--    此时命中后回表一次取 origin_url，
+--    不存在、已删除、已禁用、已过期的判断仍只读索引
+
+DELIMITER $$
+DROP PROCEDURE IF EXISTS `z_link_add_lookup_indexes` $$
+CREATE PROCEDURE `z_link_add_lookup_indexes`()
+BEGIN
+    DECLARE done INT DEFAULT 0;
+    DECLARE t VARCHAR(64);
+    DECLARE tables CURSOR FOR
+        SELECT `TABLE_NAME` FROM `information_schema`.`TABLES`
+        WHERE `TABLE_SCHEMA` = DATABASE() AND (`TABLE_NAME` = 'z_link' OR `TABLE_NAME` REGEXP '^z_link_[0-9]+$');
+    DECLARE CONTINUE HANDLER FOR NOT FOUND SET done = 1;
+
+    OPEN tables;
+    table_loop: LOOP
+        FETCH tables INTO t;
+        IF done THEN
+            LEAVE table_loop;
+        END IF;
+
+        IF NOT EXISTS (SELECT 1 FROM `information_schema`.`STATISTICS`
+                       WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = t AND `NON_UNIQUE` = 0
+                         AND `SEQ_IN_INDEX` = 1 AND `COLUMN_NAME` = 'short_url') THEN
+            SET @ddl = CONCAT('ALTER TABLE `', t, '` ADD UNIQUE KEY `uk_short_url` (`short_url`, `delete_time`)');
+            PREPARE stmt FROM @ddl;
+            EXECUTE stmt;
+            DEALLOCATE PREPARE stmt;
+        END IF;
+
+        IF NOT EXISTS (SELECT 1 FROM `information_schema`.`STATISTICS`
+                       WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = t AND `INDEX_NAME` = 'idx_short_url_redirect') THEN
+            -- 其余列（tinyint x3、datetime、长度前缀）按 32 字节预留
+            SET @covering = (SELECT IF(SUM(`CHARACTER_MAXIMUM_LENGTH`) * 4 + 32 <= 3072, ', `origin_url`', '')
+                             FROM `information_schema`.`COLUMNS`
+                             WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = t
+                               AND `COLUMN_NAME` IN ('short_url', 'origin_url'));
+            SET @ddl = CONCAT('ALTER TABLE `', t, '` ADD INDEX `idx_short_url_redirect` ',
+                              '(`short_url`, `delete_flag`, `enable_status`, `valid_data_type`, `valid_date`', @covering, ')');
+            PREPARE stmt FROM @ddl;
+            EXECUTE stmt;
+            DEALLOCATE PREPARE stmt;
+        END IF;
+    END LOOP;
+    CLOSE tables;
+END $$
+DELIMITER ;
+
+CALL `z_link_add_lookup_indexes`();
+DROP PROCEDURE IF EXISTS `z_link_add_lookup_indexes`;
@@ -0,0 +1,65 @@
+-- z_link 分组分页索引（单表与 z_link_0 ~ z_link_N 分表均适用），可重复执行
+-- ZLinkMapper.selectPageByGid 按 (排序列, id) 游标降序翻页，每种排序一个索引 (gid, delete_flag, 排序列, id)：
+-- 等值条件 gid、delete_flag 之后按排序列与主键有序，游标条件直接定位起点，倒序读取 LIMIT 行后结束，不做 filesort；
+-- ZLinkMapper.countByGids 只在分组数量缓存未命中时执行，同样由 (gid, delete_flag, ...) 前缀覆盖
+-- 1. idx_gid_create_time：(gid, delete_flag, create_time, id)，默认按创建时间排序
+-- 2. idx_gid_total_pv / idx_gid_total_uv / idx_gid_total_uip：(gid, delete_flag, total_x, id)，按访问量排序；
+--    访问统计更新 total_x 时同时维护对应索引，写入放大换取排序查询不扫描整个分组
+-- 分片模式下分组分页与分组数量改由 z_link_gid_route 上的同名索引承担（见 z_link_sharding.sql），z_link 分表只按短链接定点查询
+
+DELIMITER $$
+DROP PROCEDURE IF EXISTS `z_link_add_page_indexes` $$
+CREATE PROCEDURE `z_link_add_page_indexes`()
+BEGIN
+    DECLARE done INT DEFAULT 0;
+    DECLARE t VARCHAR(64);
+    DECLARE tables CURSOR FOR
+        SELECT `TABLE_NAME` FROM `information_schema`.`TABLES`
+        WHERE `TABLE_SCHEMA` = DATABASE() AND (`TABLE_NAME` = 'z_link' OR `TABLE_NAME` REGEXP '^z_link_[0-9]+$');
+    DECLARE CONTINUE HANDLER FOR NOT FOUND SET done = 1;
+
+    OPEN tables;
+    table_loop: LOOP
+        FETCH tables INTO t;
+        IF done THEN
+            LEAVE table_loop;
+        END IF;
+
+        IF NOT EXISTS (SELECT 1 FROM `information_schema`.`STATISTICS`
+                       WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = t AND `INDEX_NAME` = 'idx_gid_create_time') THEN
+            SET @ddl = CONCAT('ALTER TABLE `', t, '` ADD INDEX `idx_gid_create_time` (`gid`, `delete_flag`, `create_time`, `id`)');
+            PREPARE stmt FROM @ddl;
+            EXECUTE stmt;
+            DEALLOCATE PREPARE stmt;
+        END IF;
+
+        IF NOT EXISTS (SELECT 1 FROM `information_schema`.`STATISTICS`
+                       WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = t AND `INDEX_NAME` = 'idx_gid_total_pv') THEN
+            SET @ddl = CONCAT('ALTER TABLE `', t, '` ADD INDEX `idx_gid_total_pv` (`gid`, `delete_flag`, `total_pv`, `id`)');
+            PREPARE stmt FROM @ddl;
+            EXECUTE stmt;
+            DEALLOCATE PREPARE stmt;
+        END IF;
+
+        IF NOT EXISTS (SELECT 1 FROM `information_schema`.`STATISTICS`
+                       WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = t AND `INDEX_NAME` = 'idx_gid_total_uv') THEN
+            SET @ddl = CONCAT('ALTER TABLE `', t, '` ADD INDEX `idx_gid_total_uv` (`gid`, `delete_flag`, `total_uv`, `id`)');
+            PREPARE stmt FROM @ddl;
+            EXECUTE stmt;
+            DEALLOCATE PREPARE stmt;
+        END IF;
+
+        IF NOT EXISTS (SELECT 1 FROM `information_schema`.`STATISTICS`
+                       WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = t AND `INDEX_NAME` = 'idx_gid_total_uip') THEN
+            SET @ddl = CONCAT('ALTER TABLE `', t, '` ADD INDEX `idx_gid_total_uip` (`gid`, `delete_flag`, `total_uip`, `id`)');
+            PREPARE stmt FROM @ddl;
+            EXECUTE stmt;
+            DEALLOCATE PREPARE stmt;
+        END IF;
+    END LOOP;
+    CLOSE tables;
+END $$
+DELIMITER ;
+
+CALL `z_link_add_page_indexes`();
+DROP PROCEDURE IF EXISTS `z_link_add_page_indexes`;
@@ -0,0 +1,65 @@
+-- z_link 分表与分组路由表（sharding profile 使用），分片数 16，与 shardingsphere-config.yaml 保持一致
+-- 分片槽 = CRC32(分片键) % 16，与 ZLinkHashShardingAlgorithm 一致，存量数据可直接按槽迁移
+
+-- 分组路由表：按 gid 分片，同一分组的路由落在同一张表，分组查询不扫描全部 z_link 分表
+-- 只保存未删除的短链接；排序列冗余自 z_link（访问统计写回时同步累加），
+-- 分组分页按 (gid, 排序列, link_id) 索引游标翻页后按 short_url 定点查询 z_link，分组数量按主键前缀统计
+CREATE TABLE `z_link_gid_route`
+(
+    `gid`         varchar(32)  NOT NULL COMMENT '分组标识',
+    `short_url`   varchar(128) NOT NULL COMMENT '短链接',
+    `link_id`     bigint       NOT NULL COMMENT '短链接主键',
+    `create_time` datetime     NOT NULL COMMENT '短链接创建时间',
+    `total_pv`    int          NOT NULL DEFAULT 0 COMMENT '历史PV',
+    `total_uv`    int          NOT NULL DEFAULT 0 COMMENT '历史UV',
+    `total_uip`   int          NOT NULL DEFAULT 0 COMMENT '历史UIP',
+    PRIMARY KEY (`gid`, `short_url`),
+    KEY `idx_gid_create_time` (`gid`, `create_time`, `link_id`),
+    KEY `idx_gid_total_pv` (`gid`, `total_pv`, `link_id`),
+    KEY `idx_gid_total_uv` (`gid`, `total_uv`, `link_id`),
+    KEY `idx_gid_total_uip` (`gid`, `total_uip`, `link_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='短链接分组路由表';
+
+DELIMITER $$
+DROP PROCEDURE IF EXISTS `z_link_create_shards` $$
+CREATE PROCEDURE `z_link_create_shards`(IN shard_count INT)
+BEGIN
+    DECLARE i INT DEFAULT 0;
+    WHILE i < shard_count DO
+        -- 分表与单表结构、索引完全一致
+        SET @ddl = CONCAT('CREATE TABLE IF NOT EXISTS `z_link_', i, '` LIKE `z_link`');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+        SET @ddl = CONCAT('CREATE TABLE IF NOT EXISTS `z_link_gid_route_', i, '` LIKE `z_link_gid_route`');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+        SET i = i + 1;
+    END WHILE;
+END $$
+
+-- 存量迁移：单表数据按槽拷贝到分表并生成分组路由，迁移期间需停止写入；可重复执行
+DROP PROCEDURE IF EXISTS `z_link_migrate_shards` $$
+CREATE PROCEDURE `z_link_migrate_shards`(IN shard_count INT)
+BEGIN
+    DECLARE i INT DEFAULT 0;
+    WHILE i < shard_count DO
+        SET @dml = CONCAT('INSERT IGNORE INTO `z_link_', i, '` SELECT * FROM `z_link` WHERE CRC32(`short_url`) % ', shard_count, ' = ', i);
+        PREPARE stmt FROM @dml;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+        SET @dml = CONCAT('INSERT IGNORE INTO `z_link_gid_route_', i, '` ',
+                          '(`gid`, `short_url`, `link_id`, `create_time`, `total_pv`, `total_uv`, `total_uip`) ',
+                          'SELECT `gid`, `short_url`, `id`, `create_time`, `total_pv`, `total_uv`, `total_uip` FROM `z_link` ',
+                          'WHERE `gid` IS NOT NULL AND `delete_flag` = 0 AND CRC32(`gid`) % ', shard_count, ' = ', i);
+        PREPARE stmt FROM @dml;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+        SET i = i + 1;
+    END WHILE;
+END $$
+DELIMITER ;
+
+CALL `z_link_create_shards`(16);
+-- CALL `z_link_migrate_shards`(16);
@@ -0,0 +1,29 @@
+-- 短链接访问统计预聚合表，由访问统计消费者按批 upsert，查询只读取区间内的聚合行，不扫描原始访问记录
+-- 按小时聚合 PV 与新访客数（每个短链接每天最多24行）
+CREATE TABLE `z_link_access_stats`
+(
+    `id`          bigint       NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `short_url`   varchar(128) NOT NULL COMMENT '完整短链接',
+    `date`        date         NOT NULL COMMENT '日期',
+    `hour`        tinyint      NOT NULL COMMENT '小时 0-23',
+    `pv`          bigint       NOT NULL DEFAULT '0' COMMENT '访问次数',
+    `uv`          bigint       NOT NULL DEFAULT '0' COMMENT '新访客数（首次访问该短链接的访客）',
+    `uip`         bigint       NOT NULL DEFAULT '0' COMMENT '新IP数（首次访问该短链接的IP）',
+    `update_time` datetime     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `idx_unique_access_stats` (`short_url`, `date`, `hour`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='短链接小时访问统计表';
+
+-- 按天聚合各维度取值的访问次数（操作系统/浏览器/设备/网络）
+CREATE TABLE `z_link_dimension_stats`
+(
+    `id`          bigint       NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `short_url`   varchar(128) NOT NULL COMMENT '完整短链接',
+    `date`        date         NOT NULL COMMENT '日期',
+    `dimension`   varchar(16)  NOT NULL COMMENT '维度 os/browser/device/network',
+    `dim_value`   varchar(64)  NOT NULL COMMENT '维度取值',
+    `cnt`         bigint       NOT NULL DEFAULT '0' COMMENT '访问次数',
+    `update_time` datetime     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `idx_unique_dimension_stats` (`short_url`, `date`, `dimension`, `dim_value`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='短链接维度访问统计表';
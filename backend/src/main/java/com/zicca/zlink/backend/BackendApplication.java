@@ -3,10 +3,12 @@ package com.zicca.zlink.backend;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 //@EnableDiscoveryClient
 @MapperScan("com.zicca.zlink.backend.dao.mapper")
 @SpringBootApplication
+@EnableScheduling
 public class BackendApplication {
 
     public static void main(String[] args) {
@@ -1,11 +1,16 @@
 package com.zicca.zlink.backend.cache.holder;
 
+import com.zicca.zlink.backend.cache.service.BloomFilterRebuildService;
 import com.zicca.zlink.backend.cache.service.LocalBloomFilterService;
 import com.zicca.zlink.backend.cache.service.RedisBloomFilterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @Slf4j(topic = "BloomFilterHolder")
 @RequiredArgsConstructor
@@ -13,6 +18,7 @@ public class BloomFilterHolder {
 
     private final RedisBloomFilterService redisBloomFilterService;
     private final LocalBloomFilterService localBloomFilterService;
+    private final BloomFilterRebuildService bloomFilterRebuildService;
 
 
     public boolean mightContains(String key) {
@@ -30,10 +36,47 @@ public class BloomFilterHolder {
         return redisBloomFilterService.mightContains(key);
     }
 
+    /**
+     * 记录布隆过滤器拦截了不存在的短链接（用于统计实际误判率）
+     */
+    public void recordRejected() {
+        bloomFilterRebuildService.recordRejected();
+    }
+
+    /**
+     * 记录布隆过滤器放行但数据库确认不存在的短链接（用于统计实际误判率）
+     */
+    public void recordFalsePositive() {
+        bloomFilterRebuildService.recordFalsePositive();
+    }
+
     public void add(String key) {
         localBloomFilterService.add(key);
         redisBloomFilterService.add(key);
     }
 
+    /**
+     * 批量判断是否可能存在：本地或Redis任一命中即视为可能存在，仅本地未命中的键批量查询Redis
+     *
+     * @param keys 键集合
+     * @return 键 -> 是否可能存在
+     */
+    public Map<String, Boolean> mightContainAll(Collection<String> keys) {
+        Map<String, Boolean> result = localBloomFilterService.mightContainAll(keys);
+        List<String> localMissed = result.entrySet().stream()
+                .filter(entry -> !entry.getValue())
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!localMissed.isEmpty()) {
+            result.putAll(redisBloomFilterService.mightContainAll(localMissed));
+        }
+        return result;
+    }
+
+    public void addBatch(Collection<String> keys) {
+        localBloomFilterService.addAll(keys);
+        redisBloomFilterService.addBatch(keys);
+    }
+
 
 }
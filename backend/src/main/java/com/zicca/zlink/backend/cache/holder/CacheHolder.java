@@ -1,6 +1,7 @@
 package com.zicca.zlink.backend.cache.holder;
 
 import cn.hutool.core.util.StrUtil;
+import com.zicca.zlink.backend.cache.service.LinkCacheValue;
 import com.zicca.zlink.backend.cache.service.LocalCacheService;
 import com.zicca.zlink.backend.cache.service.RedisCacheService;
 import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
@@ -8,6 +9,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j(topic = "CacheHolder")
@@ -23,6 +25,10 @@ public class CacheHolder {
         localCacheService.put(key, value);
     }
 
+    public void putToLocal(String key, String value, Long validDate) {
+        localCacheService.put(key, value, validDate);
+    }
+
     public void putToRedis(String key, String value) {
         redisCacheService.put(key, value);
     }
@@ -63,44 +69,109 @@ public class CacheHolder {
     }
 
     public void putToCache(String key, String value, Long validDate) {
-        localCacheService.put(key, value);
+        localCacheService.put(key, value, validDate);
         redisCacheService.put(key, value, validDate);
     }
 
     public void putToCache(String key, String value, Long time, TimeUnit unit) {
-        localCacheService.put(key, value);
+        localCacheService.put(key, value, unit.toMillis(time));
         redisCacheService.put(key, value, time, unit);
     }
 
+    /**
+     * 按链接过期时刻写入两级缓存，过期后各级缓存直接返回空值标识
+     *
+     * @param expireAt 链接过期时刻（毫秒），永久有效为 {@link LinkCacheValue#PERMANENT}
+     */
+    public void putToCacheUntil(String key, String value, long expireAt) {
+        localCacheService.putUntil(key, value, expireAt);
+        if (expireAt <= System.currentTimeMillis()) {
+            redisCacheService.putNull(key, RedisKeyConstants.LINK_NOT_EXIST_VALUE);
+            return;
+        }
+        redisCacheService.putUntil(key, value, expireAt);
+    }
+
+    /**
+     * 批量写入Redis缓存（单次 pipeline），批量创建的短链接不预热本地缓存，避免挤占热点数据
+     */
+    public void putBatchToRedis(Map<String, String> values, Long validDate) {
+        redisCacheService.putBatch(values, validDate);
+    }
+
+    /**
+     * 按链接过期时刻批量写入Redis缓存（单次 pipeline），不预热本地缓存
+     */
+    public void putBatchToRedisUntil(Map<String, String> values, long expireAt) {
+        redisCacheService.putBatchUntil(values, expireAt);
+    }
+
+    public void removeFromLocal(String key) {
+        localCacheService.remove(key);
+    }
+
     public String getFromCache(String key) {
         String value = localCacheService.get(key);
-        if (StrUtil.isNotBlank(value)) {
-            log.info(">>>本地缓存命中");
+        if (value != null) {
             return value;
         }
-        value = redisCacheService.get(key);
-        if (StrUtil.isNotBlank(value)) {
-            log.info(">>>Redis缓存命中");
-            // 同步到本地缓存
-            localCacheService.put(key, value);
-        }
-        return value;
+        return getFromRedis(key);
     }
 
+    /**
+     * 查询本地缓存，跳转热路径，命中时不打印日志、不分配对象
+     */
     public String getFromLocal(String key) {
-        String value = localCacheService.get(key);
-        if (StrUtil.isNotBlank(value)) {
-            log.info(">>>本地缓存命中");
-        }
-        return value;
+        return localCacheService.get(key);
     }
 
+    /**
+     * 查询Redis缓存，命中时连同链接过期时刻同步到本地缓存（空值使用空值过期时间），已过期的链接返回空值标识
+     * 读取期间本地缓存被失效时不同步，避免把失效前读到的旧值写回本地
+     */
     public String getFromRedis(String key) {
-        String value = redisCacheService.get(key);
-        if (StrUtil.isNotBlank(value)) {
-            log.info(">>>Redis缓存命中");
+        long seq = localCacheService.invalidationSeq();
+        String raw = redisCacheService.get(key);
+        if (StrUtil.isBlank(raw)) {
+            return raw;
+        }
+        log.debug(">>>Redis缓存命中: key={}", key);
+        LinkCacheValue value = LinkCacheValue.decode(raw);
+        if (value.isExpired(System.currentTimeMillis())) {
+            localCacheService.putIfNotInvalidated(key, RedisKeyConstants.LINK_NOT_EXIST_VALUE, LinkCacheValue.PERMANENT, seq);
+            return RedisKeyConstants.LINK_NOT_EXIST_VALUE;
         }
-        return value;
+        localCacheService.putIfNotInvalidated(key, value.value(), value.expireAt(), seq);
+        return value.value();
+    }
+
+    /**
+     * 回源前记录缓存版本，回填时传入 {@link #refill}
+     */
+    public CacheVersion currentVersion() {
+        long seq = localCacheService.invalidationSeq();
+        return new CacheVersion(seq, redisCacheService.currentVersion());
+    }
+
+    /**
+     * 回源后回填两级缓存，回源期间被失效（修改 / 删除）的短链接不回填
+     *
+     * @param value    原始链接 / 空值标识
+     * @param expireAt 链接过期时刻（毫秒），永久有效为 {@link LinkCacheValue#PERMANENT}
+     * @param version  回源前的缓存版本
+     */
+    public void refill(String key, String value, long expireAt, CacheVersion version) {
+        localCacheService.putIfNotInvalidated(key, value, expireAt, version.localSeq());
+        redisCacheService.putIfNotInvalidated(key, value, expireAt, version.version());
+    }
+
+    /**
+     * 缓存版本
+     *
+     * @param localSeq 本地缓存失效序号
+     * @param version  全局失效版本号
+     */
+    public record CacheVersion(long localSeq, long version) {
     }
 
 
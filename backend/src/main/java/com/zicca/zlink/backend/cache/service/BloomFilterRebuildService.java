@@ -0,0 +1,249 @@
+package com.zicca.zlink.backend.cache.service;
+
+import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import com.zicca.zlink.backend.dao.entity.ZLink;
+import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
+import com.zicca.zlink.backend.toolkit.BloomFilterUtil;
+import com.zicca.zlink.framework.execption.ServiceException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 布隆过滤器重建服务
+ * 1. 统计跳转链路中布隆过滤器的实际误判率：布隆过滤器放行但数据库确认不存在记为误判，布隆过滤器拦截记为正确拒绝
+ * 2. 误判率超过阈值，或定时检查发现已扩容出多代时，从 z_link 全量重建到新纪元，包括已删除的短链接，保证不会重新发放
+ * 3. 重建期间新增的键通过增量流回放补齐，元数据原子切换纪元后旧纪元按配置保留备份或删除
+ */
+@Slf4j(topic = "BloomFilterRebuildService")
+@Service
+@RequiredArgsConstructor
+public class BloomFilterRebuildService {
+
+    private final RedisBloomFilterService redisBloomFilterService;
+    private final ZLinkMapper zLinkMapper;
+    private final RedissonClient redissonClient;
+
+    @Value("${zlink.bloom.expectedInsertions}")
+    private long expectedInsertions;
+    @Value("${zlink.bloom.batchSize:1000}")
+    private int batchSize;
+    @Value("${zlink.bloom.delta.pollInterval:1000}")
+    private long deltaPollInterval;
+    @Value("${zlink.bloom.rebuild.enabled:true}")
+    private boolean enabled;
+    @Value("${zlink.bloom.rebuild.collisionThreshold:0.05}")
+    private double collisionThreshold;
+    @Value("${zlink.bloom.rebuild.minSamples:1000}")
+    private long minSamples;
+    @Value("${zlink.bloom.rebuild.maxRebuildTime:3600}")
+    private long maxRebuildTime;
+    @Value("${zlink.bloom.rebuild.backupEnabled:true}")
+    private boolean backupEnabled;
+    @Value("${zlink.bloom.rebuild.backupRetention:86400}")
+    private long backupRetention;
+
+    private ExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    /**
+     * 当前统计窗口
+     */
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder falsePositiveCount = new LongAdder();
+    /**
+     * 上一个统计窗口的误判率
+     */
+    private volatile double lastObservedFpp;
+    private final AtomicLong rebuildCount = new AtomicLong(0);
+
+    @PostConstruct
+    public void init() {
+        rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "zlink-bloom-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 布隆过滤器拦截了不存在的短链接
+     */
+    public void recordRejected() {
+        rejectedCount.increment();
+    }
+
+    /**
+     * 布隆过滤器放行但数据库确认短链接不存在
+     */
+    public void recordFalsePositive() {
+        falsePositiveCount.increment();
+    }
+
+    /**
+     * 当前统计窗口的误判率：误判 / (误判 + 正确拒绝)
+     */
+    public double observedFalsePositiveRate() {
+        long falsePositives = falsePositiveCount.sum();
+        long samples = falsePositives + rejectedCount.sum();
+        return samples == 0 ? 0 : (double) falsePositives / samples;
+    }
+
+    /**
+     * 按检查间隔评估误判率，样本充足且超过阈值时触发重建
+     */
+    @Scheduled(fixedDelayString = "${zlink.bloom.rebuild.checkInterval:86400}",
+            initialDelayString = "${zlink.bloom.rebuild.checkInterval:86400}", timeUnit = TimeUnit.SECONDS)
+    public void checkFalsePositiveRate() {
+        long falsePositives = falsePositiveCount.sumThenReset();
+        long samples = falsePositives + rejectedCount.sumThenReset();
+        lastObservedFpp = samples == 0 ? 0 : (double) falsePositives / samples;
+        log.info(">>>布隆过滤器误判率检查: 误判={}, 样本={}, 误判率={}", falsePositives, samples, lastObservedFpp);
+        if (samples >= minSamples && lastObservedFpp > collisionThreshold) {
+            triggerRebuild("误判率超过阈值");
+        }
+    }
+
+    /**
+     * 定时整理：已扩容出多代时重建为单代，减少查询位数
+     */
+    @Scheduled(cron = "${zlink.bloom.rebuild.rebuildCron:0 0 2 * * ?}")
+    public void scheduledRebuild() {
+        if (redisBloomFilterService.refreshMeta().generations() > 1) {
+            triggerRebuild("已扩容为多代");
+        }
+    }
+
+    /**
+     * 异步触发重建，已在重建中时忽略
+     *
+     * @param reason 触发原因
+     */
+    public void triggerRebuild(String reason) {
+        if (!enabled) {
+            return;
+        }
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info(">>>布隆过滤器正在重建，忽略本次触发: reason={}", reason);
+            return;
+        }
+        rebuildExecutor.execute(() -> {
+            try {
+                rebuild(reason);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    public String getStats() {
+        return String.format(">>>布隆过滤器重建统计 - 当前窗口误判率: %.4f, 上一窗口误判率: %.4f, 重建次数: %d, 重建中: %s",
+                observedFalsePositiveRate(), lastObservedFpp, rebuildCount.get(), rebuilding.get());
+    }
+
+    /**
+     * 跨节点只允许一个重建任务，锁租期即最大重建时间
+     */
+    private void rebuild(String reason) {
+        RLock lock = redissonClient.getLock(RedisKeyConstants.BLOOM_FILTER_REBUILD_LOCK_KEY);
+        boolean locked = false;
+        RedisBloomFilterService.Meta target = null;
+        try {
+            locked = lock.tryLock(0, maxRebuildTime, TimeUnit.SECONDS);
+            if (!locked) {
+                log.info(">>>其他节点正在重建布隆过滤器");
+                return;
+            }
+            long startTime = System.currentTimeMillis();
+            long deadline = startTime + TimeUnit.SECONDS.toMillis(maxRebuildTime);
+            RedisBloomFilterService.Meta current = redisBloomFilterService.refreshMeta();
+            // 先记录增量位置，扫描期间新增的键在切换前回放
+            String deltaId = redisBloomFilterService.latestDeltaId();
+            // 已删除的短链接同样需要写入，容量按全部记录计算
+            Long linkCount = zLinkMapper.selectCount(null);
+            long capacity = Math.max(expectedInsertions, linkCount * BloomFilterUtil.GROWTH_FACTOR);
+            target = new RedisBloomFilterService.Meta(current.epoch() + 1, 1, capacity);
+            // 清理上次中断的重建残留
+            redisBloomFilterService.retireEpoch(target, null);
+            log.info(">>>开始重建布隆过滤器: reason={}, epoch={} -> {}, 短链接数量={}, capacity={}",
+                    reason, current.epoch(), target.epoch(), linkCount, capacity);
+
+            long lastId = 0;
+            long scanned = 0;
+            List<ZLink> page;
+            while (!(page = zLinkMapper.selectShortUrlPage(lastId, batchSize)).isEmpty()) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new ServiceException("布隆过滤器重建超时");
+                }
+                redisBloomFilterService.addToEpoch(target, page.stream().map(ZLink::getShortUrl).toList());
+                lastId = page.get(page.size() - 1).getId();
+                scanned += page.size();
+            }
+
+            deltaId = replayDeltas(target, deltaId);
+            if (!redisBloomFilterService.switchEpoch(current, target)) {
+                throw new ServiceException("布隆过滤器纪元已被修改");
+            }
+            // 等待各节点刷新元数据，再回放按旧纪元写入的增量
+            Thread.sleep(deltaPollInterval * 2);
+            replayDeltas(target, deltaId);
+            redisBloomFilterService.retireEpoch(current, backupEnabled ? Duration.ofSeconds(backupRetention) : null);
+            rebuildCount.incrementAndGet();
+            log.info(">>>布隆过滤器重建完成: epoch={}, 扫描数量={}, 耗时={}ms",
+                    target.epoch(), scanned, System.currentTimeMillis() - startTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error(">>>布隆过滤器重建失败", e);
+            RedisBloomFilterService.Meta meta = redisBloomFilterService.getMeta();
+            if (target != null && meta.epoch() != target.epoch()) {
+                redisBloomFilterService.retireEpoch(target, null);
+            }
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 回放指定位置之后的增量到目标纪元
+     *
+     * @return 回放到的位置
+     */
+    private String replayDeltas(RedisBloomFilterService.Meta target, String fromId) {
+        if (redisBloomFilterService.isDeltaTrimmedAfter(fromId)) {
+            throw new ServiceException("布隆过滤器增量已被裁剪，无法回放");
+        }
+        String deltaId = fromId;
+        List<MapRecord<String, Object, Object>> records;
+        while (!(records = redisBloomFilterService.readDeltas(deltaId, batchSize)).isEmpty()) {
+            for (MapRecord<String, Object, Object> record : records) {
+                redisBloomFilterService.addToEpoch(target, RedisBloomFilterService.parseDeltaKeys(record));
+                deltaId = record.getId().getValue();
+            }
+        }
+        return deltaId;
+    }
+}
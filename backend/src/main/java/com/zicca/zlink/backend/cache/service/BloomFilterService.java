@@ -1,5 +1,8 @@
 package com.zicca.zlink.backend.cache.service;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface BloomFilterService {
 
     /**
@@ -22,6 +25,21 @@ public interface BloomFilterService {
      */
     public void add(String key);
 
+    /**
+     * 批量判断布隆过滤器是否包含指定的key
+     *
+     * @param keys 键集合
+     * @return 键 -> 是否可能存在
+     */
+    public Map<String, Boolean> mightContainAll(Collection<String> keys);
+
+    /**
+     * 向布隆过滤器中批量添加键
+     *
+     * @param keys 键集合
+     */
+    public void addAll(Collection<String> keys);
+
     /**
      * 获取布隆过滤器的统计信息
      *
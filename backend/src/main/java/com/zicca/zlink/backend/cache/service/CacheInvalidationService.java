@@ -0,0 +1,214 @@
+package com.zicca.zlink.backend.cache.service;
+
+import cn.hutool.core.util.IdUtil;
+import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 短链接缓存跨节点失效
+ * 1. 修改 / 删除短链接的事务提交后，递增全局版本号，Redis 中写入墓碑并删除缓存，本节点本地缓存写入墓碑
+ * 2. 失效条目进入发送队列，由单个线程通过 Redis pub/sub 广播；发送期间积压的条目合并为一条消息，
+ *    变更频繁时自动成批，空闲时逐条立即发送，不引入额外延迟。消息格式：{节点标识}|{版本号}:{短链接},{版本号}:{短链接}...
+ * 3. 各节点订阅频道后把消息中的短链接在本地缓存替换为墓碑，忽略本节点发出的消息
+ * 4. 回源前记录本地失效序号与全局版本号，回填时两级缓存分别检查墓碑，回源期间被失效的旧值不会写回缓存
+ * pub/sub 不保证送达，节点断线期间错过的消息由本地缓存过期时间兜底
+ */
+@Slf4j(topic = "CacheInvalidationService")
+@Service
+@RequiredArgsConstructor
+public class CacheInvalidationService implements MessageListener {
+
+    private static final char NODE_SEPARATOR = '|';
+
+    private static final char ENTRY_SEPARATOR = ',';
+
+    private static final char VERSION_SEPARATOR = ':';
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final RedisCacheService redisCacheService;
+    private final LocalCacheService localCacheService;
+
+    @Value("${zlink.cache.invalidation.subscribe:true}")
+    private boolean subscribe;
+    @Value("${zlink.cache.invalidation.tombstoneTtl:60000}")
+    private long tombstoneTtl;
+    @Value("${zlink.cache.invalidation.batchSize:500}")
+    private int batchSize;
+    @Value("${zlink.cache.invalidation.queueCapacity:100000}")
+    private int queueCapacity;
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    private BlockingQueue<String> pending;
+    private Thread publisher;
+    private volatile boolean running;
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final AtomicLong publishedMessages = new AtomicLong(0);
+    private final AtomicLong publishedEntries = new AtomicLong(0);
+    private final AtomicLong receivedEntries = new AtomicLong(0);
+    private final AtomicLong droppedEntries = new AtomicLong(0);
+
+    @PostConstruct
+    public void init() {
+        pending = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        publisher = new Thread(this::publishLoop, "zlink-cache-invalidation-publish");
+        publisher.setDaemon(true);
+        publisher.start();
+        if (subscribe) {
+            listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(redisConnectionFactory);
+            listenerContainer.addMessageListener(this, new ChannelTopic(RedisKeyConstants.LINK_INVALIDATION_CHANNEL));
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+        }
+        log.info(">>>缓存失效广播初始化完成: nodeId={}, subscribe={}", nodeId, subscribe);
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        running = false;
+        publisher.join(5000);
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+        log.info(">>>缓存失效广播停止: {}", getStats());
+    }
+
+    /**
+     * 事务提交后失效短链接缓存，无事务时立即失效
+     *
+     * @param shortUrls 短链接
+     */
+    public void invalidateAfterCommit(Collection<String> shortUrls) {
+        if (shortUrls.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(shortUrls);
+                }
+            });
+            return;
+        }
+        invalidate(shortUrls);
+    }
+
+    /**
+     * 失效短链接缓存：Redis 写入墓碑并删除，本地写入墓碑，再加入广播队列
+     *
+     * @param shortUrls 短链接
+     * @return 失效版本号，Redis 失效失败时为 0
+     */
+    public long invalidate(Collection<String> shortUrls) {
+        long version = 0;
+        try {
+            version = redisCacheService.invalidate(shortUrls, tombstoneTtl);
+        } catch (Exception e) {
+            // Redis 缓存由过期时间兜底，本地缓存与广播照常执行
+            log.error(">>>失效Redis缓存失败: shortUrls={}", shortUrls, e);
+        }
+        for (String shortUrl : shortUrls) {
+            localCacheService.invalidate(shortUrl, version);
+            if (!pending.offer(Long.toString(version) + VERSION_SEPARATOR + shortUrl)) {
+                droppedEntries.incrementAndGet();
+                log.warn(">>>缓存失效广播队列已满，丢弃: shortUrl={}, version={}", shortUrl, version);
+            }
+        }
+        return version;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int node = body.indexOf(NODE_SEPARATOR);
+        if (node < 0 || (node == nodeId.length() && body.startsWith(nodeId))) {
+            // 本节点发出的消息已在发送前处理
+            return;
+        }
+        int start = node + 1;
+        while (start < body.length()) {
+            int end = body.indexOf(ENTRY_SEPARATOR, start);
+            if (end < 0) {
+                end = body.length();
+            }
+            int colon = body.indexOf(VERSION_SEPARATOR, start);
+            if (colon > start && colon < end) {
+                try {
+                    localCacheService.invalidate(body.substring(colon + 1, end), Long.parseLong(body, start, colon, 10));
+                    receivedEntries.incrementAndGet();
+                } catch (NumberFormatException e) {
+                    log.warn(">>>无法解析缓存失效消息: entry={}", body.substring(start, end));
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    public String getStats() {
+        return String.format(">>>缓存失效广播 - 发送消息: %d, 发送条目: %d, 接收条目: %d, 丢弃条目: %d, 待发送: %d",
+                publishedMessages.get(), publishedEntries.get(), receivedEntries.get(), droppedEntries.get(),
+                pending == null ? 0 : pending.size());
+    }
+
+    private void publishLoop() {
+        List<String> batch = new ArrayList<>(batchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                String first = pending.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, batchSize - 1);
+                publish(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error(">>>发送缓存失效消息失败: count={}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(List<String> batch) {
+        StringBuilder message = new StringBuilder(nodeId.length() + batch.size() * 24).append(nodeId).append(NODE_SEPARATOR);
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                message.append(ENTRY_SEPARATOR);
+            }
+            message.append(batch.get(i));
+        }
+        redisTemplate.convertAndSend(RedisKeyConstants.LINK_INVALIDATION_CHANNEL, message.toString());
+        publishedMessages.incrementAndGet();
+        publishedEntries.addAndGet(batch.size());
+    }
+}
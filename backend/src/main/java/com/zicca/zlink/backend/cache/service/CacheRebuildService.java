@@ -0,0 +1,177 @@
+package com.zicca.zlink.backend.cache.service;
+
+import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 缓存重建服务（两级请求合并）
+ * <p>
+ * 1. 进程内 single-flight：同一短链接在本 JVM 内只有一个线程回源，其余线程等待同一个 Future
+ * 2. 跨节点租约（可选）：回源线程在有限时间内尝试获取分布式锁，获取失败则二次检查缓存后直接回源数据库，不再无限排队
+ */
+@Slf4j(topic = "CacheRebuildService")
+@Service
+@RequiredArgsConstructor
+public class CacheRebuildService {
+
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${zlink.cache.rebuild.leaseEnabled:true}")
+    private boolean leaseEnabled;
+    @Value("${zlink.cache.rebuild.leaseWaitMillis:200}")
+    private long leaseWaitMillis;
+    @Value("${zlink.cache.rebuild.leaseTimeMillis:3000}")
+    private long leaseTimeMillis;
+    @Value("${zlink.cache.rebuild.waitTimeoutMillis:3000}")
+    private long waitTimeoutMillis;
+
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private Counter leaderLoads;
+    private Counter coalescedWaits;
+    private Counter waitTimeouts;
+    private Counter leaseAcquired;
+    private Counter leaseTimeouts;
+    private Timer coalescedWaitTimer;
+    private Timer leaseWaitTimer;
+
+    @PostConstruct
+    public void init() {
+        leaderLoads = rebuildCounter("leader");
+        coalescedWaits = rebuildCounter("coalesced");
+        waitTimeouts = rebuildCounter("wait_timeout");
+        leaseAcquired = rebuildCounter("lease_acquired");
+        leaseTimeouts = rebuildCounter("lease_timeout");
+        coalescedWaitTimer = waitTimer("coalesced");
+        leaseWaitTimer = waitTimer("lease");
+    }
+
+    /**
+     * 合并加载缓存值
+     *
+     * @param key     短链接
+     * @param recheck 二次检查（缓存），返回非 null 时直接使用，不再回源
+     * @param loader  回源加载（数据库），返回原始链接或空值标识，并负责重建缓存
+     * @return 原始链接 / 空值标识
+     */
+    public String load(String key, Supplier<String> recheck, Supplier<String> loader) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return awaitLeader(key, existing, loader);
+        }
+        leaderLoads.increment();
+        try {
+            String value = loadWithLease(key, recheck, loader);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public int inFlightSize() {
+        return inFlight.size();
+    }
+
+    public String getStats() {
+        return String.format(">>>缓存重建统计 - 回源: %.0f, 合并等待: %.0f, 等待超时: %.0f, 获取租约: %.0f, 租约超时: %.0f, 进行中: %d",
+                leaderLoads.count(), coalescedWaits.count(), waitTimeouts.count(),
+                leaseAcquired.count(), leaseTimeouts.count(), inFlight.size());
+    }
+
+    private String awaitLeader(String key, CompletableFuture<String> leader, Supplier<String> loader) {
+        coalescedWaits.increment();
+        long startNanos = System.nanoTime();
+        try {
+            String value = leader.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+            coalescedWaitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            return value;
+        } catch (TimeoutException e) {
+            coalescedWaitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            // 回源线程迟迟未返回，不再等待，直接回源
+            waitTimeouts.increment();
+            log.warn(">>>等待缓存重建超时，直接回源: key={}", key);
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private String loadWithLease(String key, Supplier<String> recheck, Supplier<String> loader) {
+        if (!leaseEnabled) {
+            return loader.get();
+        }
+        RLock lock = redissonClient.getLock(RedisKeyConstants.LINK_LOCK_KEY_PREFIX + key);
+        boolean locked = false;
+        long startNanos = System.nanoTime();
+        try {
+            locked = lock.tryLock(leaseWaitMillis, leaseTimeMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn(">>>获取缓存重建租约失败: key={}, error={}", key, e.getMessage());
+        }
+        leaseWaitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (!locked) {
+            // 其他节点持有租约：二次检查缓存，仍未命中则直接回源，保证尾延迟有上限
+            leaseTimeouts.increment();
+            String value = recheck.get();
+            return value != null ? value : loader.get();
+        }
+        leaseAcquired.increment();
+        try {
+            String value = recheck.get();
+            return value != null ? value : loader.get();
+        } finally {
+            try {
+                lock.unlock();
+            } catch (Exception e) {
+                // 租约已过期被自动释放
+                log.warn(">>>释放缓存重建租约失败: key={}, error={}", key, e.getMessage());
+            }
+        }
+    }
+
+    private Counter rebuildCounter(String result) {
+        return Counter.builder("zlink.cache.rebuild")
+                .description("短链接缓存重建（请求合并）次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Timer waitTimer(String type) {
+        return Timer.builder("zlink.cache.rebuild.wait")
+                .description("短链接缓存重建等待耗时（合并等待 / 获取租约）")
+                .tag("type", type)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
+
+}
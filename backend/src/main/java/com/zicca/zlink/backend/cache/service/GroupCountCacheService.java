@@ -0,0 +1,174 @@
+package com.zicca.zlink.backend.cache.service;
+
+import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import com.zicca.zlink.backend.dao.mapper.ZLinkGidRouteMapper;
+import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
+import com.zicca.zlink.backend.dto.resp.ZLinkGroupCountQueryRespDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分组短链接数量缓存
+ * 1. 每个分组一个 Redis 计数器，创建 / 删除 / 移动分组的事务提交后按增量累加，查询时一次 MGET 返回，不对 z_link 做 COUNT
+ * 2. 计数器只在存在时累加（脚本判断），不存在时由下一次查询对缺失的分组统计一次数据库并 SET NX 初始化，
+ *    避免增量先于初始化写入而把计数器从 0 开始累加
+ * 3. 初始化与并发增量之间可能有少量偏差，计数器带过期时间，到期后按数据库重新初始化
+ * 分片模式下 z_link 按短链接分片，缺失分组改为在分组路由表（按 gid 分片）上统计，不向全部 z_link 分表广播
+ */
+@Slf4j(topic = "GroupCountCacheService")
+@Service
+@RequiredArgsConstructor
+public class GroupCountCacheService {
+
+    /**
+     * 计数器存在时累加
+     * KEYS 计数器；ARGV 对应的增量
+     */
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "local updated = 0 " +
+            "for i = 1, #KEYS do " +
+            "  if redis.call('EXISTS', KEYS[i]) == 1 then redis.call('INCRBY', KEYS[i], ARGV[i]) updated = updated + 1 end " +
+            "end " +
+            "return updated", Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ZLinkMapper zLinkMapper;
+    private final ZLinkGidRouteMapper zLinkGidRouteMapper;
+
+    @Value("${zlink.cache.groupCount.ttl:86400000}")
+    private long ttl;
+    @Value("${zlink.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    /**
+     * 事务提交后累加单个分组数量，无事务时立即累加
+     *
+     * @param gid   分组标识，为空时忽略
+     * @param delta 增量
+     */
+    public void incrementAfterCommit(String gid, long delta) {
+        Map<String, Long> changes = new HashMap<>(2);
+        changes.put(gid, delta);
+        incrementAfterCommit(changes);
+    }
+
+    /**
+     * 事务提交后累加分组数量，无事务时立即累加
+     *
+     * @param changes 分组标识 -> 增量，分组标识为空或增量为 0 的忽略
+     */
+    public void incrementAfterCommit(Map<String, Long> changes) {
+        Map<String, Long> deltas = new HashMap<>(changes.size() * 2);
+        changes.forEach((gid, delta) -> {
+            if (gid != null && delta != 0) {
+                deltas.merge(gid, delta, Long::sum);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(deltas);
+                }
+            });
+            return;
+        }
+        increment(deltas);
+    }
+
+    /**
+     * 累加分组数量，失败只记录日志，偏差在计数器过期后修正
+     *
+     * @param deltas 分组标识 -> 增量
+     */
+    public void increment(Map<String, Long> deltas) {
+        List<String> keys = new ArrayList<>(deltas.size());
+        Object[] args = new Object[deltas.size()];
+        deltas.forEach((gid, delta) -> {
+            args[keys.size()] = String.valueOf(delta);
+            keys.add(RedisKeyConstants.COUNT_CACHE_KEY + gid);
+        });
+        try {
+            redisTemplate.execute(INCREMENT_SCRIPT, keys, args);
+        } catch (Exception e) {
+            log.error(">>>累加分组短链接数量失败: deltas={}", deltas, e);
+        }
+    }
+
+    /**
+     * 查询分组短链接数量，未缓存的分组统计数据库后写入缓存
+     *
+     * @param gids 分组标识
+     * @return 各分组数量，与入参顺序一致
+     */
+    public List<ZLinkGroupCountQueryRespDTO> get(List<String> gids) {
+        List<String> cached;
+        try {
+            cached = redisTemplate.opsForValue().multiGet(gids.stream().map(gid -> RedisKeyConstants.COUNT_CACHE_KEY + gid).toList());
+        } catch (Exception e) {
+            log.error(">>>读取分组短链接数量缓存失败，统计数据库: gids={}", gids, e);
+            cached = null;
+        }
+        Map<String, Integer> counts = new HashMap<>(gids.size() * 2);
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < gids.size(); i++) {
+            String value = cached == null ? null : cached.get(i);
+            if (value == null) {
+                missing.add(gids.get(i));
+            } else {
+                counts.put(gids.get(i), Math.max(Integer.parseInt(value), 0));
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, Integer> loaded = load(missing);
+            counts.putAll(loaded);
+            if (cached != null) {
+                cache(loaded);
+            }
+        }
+        List<ZLinkGroupCountQueryRespDTO> result = new ArrayList<>(gids.size());
+        for (String gid : gids) {
+            ZLinkGroupCountQueryRespDTO each = new ZLinkGroupCountQueryRespDTO();
+            each.setGid(gid);
+            each.setShortLinkCount(counts.getOrDefault(gid, 0));
+            result.add(each);
+        }
+        return result;
+    }
+
+    private Map<String, Integer> load(Collection<String> gids) {
+        Map<String, Integer> loaded = new HashMap<>(gids.size() * 2);
+        gids.forEach(gid -> loaded.put(gid, 0));
+        List<ZLinkGroupCountQueryRespDTO> counted = shardingEnabled ? zLinkGidRouteMapper.countByGids(gids) : zLinkMapper.countByGids(gids);
+        counted.forEach(each -> loaded.put(each.getGid(), each.getShortLinkCount()));
+        log.info(">>>统计分组短链接数量: gids={}", gids);
+        return loaded;
+    }
+
+    private void cache(Map<String, Integer> counts) {
+        try {
+            Duration expireTime = Duration.ofMillis(ttl);
+            counts.forEach((gid, count) ->
+                    redisTemplate.opsForValue().setIfAbsent(RedisKeyConstants.COUNT_CACHE_KEY + gid, String.valueOf(count), expireTime));
+        } catch (Exception e) {
+            log.error(">>>写入分组短链接数量缓存失败: gids={}", counts.keySet(), e);
+        }
+    }
+}
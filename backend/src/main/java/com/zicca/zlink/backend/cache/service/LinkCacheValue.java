@@ -0,0 +1,62 @@
+package com.zicca.zlink.backend.cache.service;
+
+/**
+ * 携带过期时刻的短链接缓存值
+ * <p>
+ * Redis 中有有效期的链接编码为 ~{过期时刻毫秒}~{原始链接}；永久有效的链接与空值标识保持原样，与已有缓存兼容。
+ * 原始链接以协议开头，不会以 ~ 开头，解码时无歧义
+ *
+ * @param value    原始链接 / 空值标识
+ * @param expireAt 链接过期时刻（毫秒），永久有效为 {@link #PERMANENT}
+ */
+public record LinkCacheValue(String value, long expireAt) {
+
+    public static final long PERMANENT = Long.MAX_VALUE;
+
+    private static final char MARKER = '~';
+
+    /**
+     * 链接是否已过期
+     */
+    public boolean isExpired(long now) {
+        return expireAt <= now;
+    }
+
+    /**
+     * 编码缓存值
+     *
+     * @param value    原始链接
+     * @param expireAt 链接过期时刻（毫秒）
+     * @return Redis 中存储的值
+     */
+    public static String encode(String value, long expireAt) {
+        if (expireAt == PERMANENT) {
+            return value;
+        }
+        return MARKER + Long.toString(expireAt) + MARKER + value;
+    }
+
+    /**
+     * 解码缓存值，无法识别的前缀按永久有效处理
+     *
+     * @param raw Redis 中存储的值
+     * @return 缓存值，raw 为空时返回 null
+     */
+    public static LinkCacheValue decode(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        if (raw.isEmpty() || raw.charAt(0) != MARKER) {
+            return new LinkCacheValue(raw, PERMANENT);
+        }
+        int end = raw.indexOf(MARKER, 1);
+        if (end < 0) {
+            return new LinkCacheValue(raw, PERMANENT);
+        }
+        try {
+            return new LinkCacheValue(raw.substring(end + 1), Long.parseLong(raw, 1, end, 10));
+        } catch (NumberFormatException e) {
+            return new LinkCacheValue(raw, PERMANENT);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.zicca.zlink.backend.cache.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 过期短链接缓存清理
+ * 1. 本地缓存：扫描全部条目，链接已过期的替换为空值条目（释放原始链接，短时间内仍是负命中），驻留时间已到的删除
+ * 2. Redis 缓存：有有效期的链接写入时登记过期索引（ZSET），按过期时刻分批取出已过期的短链接，
+ *    由脚本把缓存条件替换为空值并移出索引，每轮最多处理 maxBatches 批，剩余留到下一轮
+ * 清理只影响内存占用，不影响正确性：过期条目在被清理前读取时同样返回空值标识
+ */
+@Slf4j(topic = "LinkExpirySweeper")
+@Component
+@RequiredArgsConstructor
+public class LinkExpirySweeper {
+
+    private final LocalCacheService localCacheService;
+    private final RedisCacheService redisCacheService;
+
+    @Value("${zlink.cache.sweeper.enabled:true}")
+    private boolean enabled;
+    @Value("${zlink.cache.sweeper.interval:30000}")
+    private long interval;
+    @Value("${zlink.cache.sweeper.batchSize:500}")
+    private int batchSize;
+    @Value("${zlink.cache.sweeper.maxBatches:20}")
+    private int maxBatches;
+
+    private ScheduledExecutorService sweepExecutor;
+
+    private final AtomicLong localSwept = new AtomicLong(0);
+    private final AtomicLong redisSwept = new AtomicLong(0);
+    private final AtomicLong failedSweeps = new AtomicLong(0);
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info(">>>过期短链接缓存清理未启用");
+            return;
+        }
+        sweepExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "zlink-cache-expiry-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweepExecutor.scheduleWithFixedDelay(this::sweepQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (sweepExecutor != null) {
+            sweepExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 执行一轮清理
+     *
+     * @return 本轮清理的本地与 Redis 缓存条目数
+     */
+    public long sweep() {
+        int local = localCacheService.sweepExpired();
+        localSwept.addAndGet(local);
+        long redis = 0;
+        long now = System.currentTimeMillis();
+        for (int batch = 0; batch < maxBatches; batch++) {
+            RedisCacheService.SweepResult result = redisCacheService.sweepExpired(now, batchSize);
+            redis += result.swept();
+            if (result.scanned() < batchSize) {
+                break;
+            }
+        }
+        redisSwept.addAndGet(redis);
+        if (local > 0 || redis > 0) {
+            log.info(">>>清理过期短链接缓存: local={}, redis={}", local, redis);
+        }
+        return local + redis;
+    }
+
+    public String getStats() {
+        return String.format(">>>过期短链接缓存清理 - 本地: %d, Redis: %d, 失败: %d",
+                localSwept.get(), redisSwept.get(), failedSweeps.get());
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            failedSweeps.incrementAndGet();
+            log.error(">>>清理过期短链接缓存失败", e);
+        }
+    }
+}
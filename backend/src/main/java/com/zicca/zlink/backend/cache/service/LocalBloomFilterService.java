@@ -1,59 +1,124 @@
 package com.zicca.zlink.backend.cache.service;
 
 import cn.hutool.core.collection.CollectionUtil;
-import com.google.common.hash.BloomFilter;
-import com.google.common.hash.Funnels;
-import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import com.zicca.zlink.backend.toolkit.BloomFilterChain;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.Cursor;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 本地布隆过滤器
+ * 启动时分块并行读取 Redis 各代位图快照（GETRANGE）合并到本地位数组，默认异步加载不阻塞启动
+ * 加载完成前查询回退到 Redis 布隆过滤器，加载完成后轮询 Redis 增量流同步其他节点新增的键
+ * Redis 追加新一代时本地同步追加；重建切换纪元或增量流已被裁剪到上次读取位置之后时，加载新快照后整体替换
+ * 重新加载与失败重试在独立线程执行，不占用定时任务线程，加载期间继续使用当前过滤器、暂停增量同步
+ */
 @Slf4j(topic = "LocalBloomFilterService")
 @Service
 @RequiredArgsConstructor
 public class LocalBloomFilterService implements BloomFilterService {
 
-    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisBloomFilterService redisBloomFilterService;
 
-    @Value("${zlink.bloom.expectedInsertions}")
-    private long expectedInsertions;
     @Value("${zlink.bloom.falseProbability}")
     private double falseProbability;
-    @Value("${zlink.redis.fetch-size}")
-    private int fetchSize;
+    @Value("${zlink.bloom.snapshotChunkBytes:1048576}")
+    private int snapshotChunkBytes;
+    @Value("${zlink.bloom.batchSize:1000}")
+    private int batchSize;
+    @Value("${zlink.bloom.asyncLoad:true}")
+    private boolean asyncLoad;
+    @Value("${zlink.bloom.loadTimeout:300}")
+    private long loadTimeout;
+    @Value("${zlink.bloom.loadParallelism:4}")
+    private int loadParallelism;
+    @Value("${zlink.bloom.loadRetryInterval:30000}")
+    private long loadRetryInterval;
 
-    private BloomFilter<String> localBloomFilter;
-    private final ConcurrentLinkedQueue<String> pendingSync = new ConcurrentLinkedQueue<>();
-    private final AtomicLong syncCounter = new AtomicLong(0);
+    private volatile BloomFilterChain localBloomFilter;
+    private ExecutorService loadExecutor;
+    private volatile LoadState loadState = LoadState.WARMING;
+    private volatile long nextLoadRetryTime;
+    private volatile String lastDeltaId = RedisBloomFilterService.INITIAL_DELTA_ID;
+    private final AtomicBoolean reloading = new AtomicBoolean(false);
+    private final AtomicInteger loadedChunks = new AtomicInteger(0);
+    private final AtomicInteger totalChunks = new AtomicInteger(0);
+    private final AtomicLong deltaCounter = new AtomicLong(0);
+    private final AtomicLong resyncCounter = new AtomicLong(0);
+    private final AtomicLong fallbackCounter = new AtomicLong(0);
+
+    /**
+     * 本地布隆过滤器加载状态
+     */
+    public enum LoadState {
+        /**
+         * 加载中，查询回退到 Redis 布隆过滤器
+         */
+        WARMING,
+        /**
+         * 加载完成
+         */
+        READY,
+        /**
+         * 加载失败或超时，查询回退到 Redis 布隆过滤器，定时重试
+         */
+        FAILED
+    }
 
 
     @Override
     @PostConstruct
     public void init() {
-        localBloomFilter = BloomFilter.create(
-                Funnels.stringFunnel(Charset.defaultCharset()),
-                expectedInsertions,
-                falseProbability
-        );
-        loadFromRedis();
+        RedisBloomFilterService.Meta meta = redisBloomFilterService.getMeta();
+        localBloomFilter = new BloomFilterChain(meta.epoch(), meta.capacity(), falseProbability, meta.generations());
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        loadExecutor = Executors.newFixedThreadPool(loadParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "zlink-bloom-loader-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (asyncLoad) {
+            // 独立线程等待加载完成，避免占用分块加载线程
+            Thread warmUpThread = new Thread(this::warmUp, "zlink-bloom-warmup");
+            warmUpThread.setDaemon(true);
+            warmUpThread.start();
+            log.info(">>>本地布隆过滤器异步加载中，加载完成前查询回退到Redis布隆过滤器");
+            return;
+        }
+        warmUp();
         log.info(">>>初始化本地布隆过滤器完成");
     }
 
+    @PreDestroy
+    public void destroy() {
+        loadExecutor.shutdownNow();
+    }
+
     @Override
     public boolean mightContains(String key) {
+        if (loadState != LoadState.READY) {
+            fallbackCounter.incrementAndGet();
+            return redisBloomFilterService.mightContains(key);
+        }
         try {
             return localBloomFilter.mightContain(key);
         } catch (Exception e) {
@@ -65,7 +130,6 @@ public class LocalBloomFilterService implements BloomFilterService {
     public void add(String key) {
         try {
             localBloomFilter.put(key);
-            pendingSync.offer(key);
             log.info(">>>添加数据到本地布隆过滤器: {}", key);
         } catch (Exception e) {
             log.error(">>>添加数据到本地布隆过滤器失败: {}", key, e);
@@ -73,119 +137,181 @@ public class LocalBloomFilterService implements BloomFilterService {
     }
 
     @Override
-    public String getStats() {
-        return String.format(">>>本地布隆过滤器 - 预期容量: %d, 误判率: %.4f, 已同步: %d, 待同步: %d",
-                expectedInsertions, falseProbability, syncCounter.get(), pendingSync.size());
-    }
-
-    @Scheduled(fixedRate = 5000)
-    public void syncToRedis() {
-        if (CollectionUtil.isEmpty(pendingSync)) {
-            return;
+    public Map<String, Boolean> mightContainAll(Collection<String> keys) {
+        if (loadState != LoadState.READY) {
+            fallbackCounter.addAndGet(keys.size());
+            return redisBloomFilterService.mightContainAll(keys);
         }
+        Map<String, Boolean> result = new LinkedHashMap<>(keys.size());
+        keys.forEach(key -> result.put(key, mightContains(key)));
+        return result;
+    }
 
+    @Override
+    public void addAll(Collection<String> keys) {
         try {
-            int batchSize = Math.min(fetchSize, pendingSync.size());
-            String[] batch = new String[batchSize];
-            for (int i = 0; i < batchSize && CollectionUtil.isNotEmpty(pendingSync); i++) {
-                batch[i] = pendingSync.poll();
-            }
-
-            if (batch.length > 0) {
-                redisTemplate.opsForSet().add(RedisKeyConstants.BLOOM_FILTER_KEY, batch);
-                syncCounter.addAndGet(batch.length);
-                log.info(">>>同步数据到Redis完成: count={}", batch.length);
-            }
+            keys.forEach(localBloomFilter::put);
+            log.debug(">>>批量添加数据到本地布隆过滤器: count={}", keys.size());
         } catch (Exception e) {
-            log.error(">>>同步数据到Redis失败", e);
+            log.error(">>>批量添加数据到本地布隆过滤器失败: count={}", keys.size(), e);
         }
+    }
 
+    @Override
+    public String getStats() {
+        BloomFilterChain chain = localBloomFilter;
+        return String.format(">>>本地布隆过滤器 - 基础容量: %d, 误判率: %.4f, 纪元: %d, 代数: %d, 状态: %s, 加载进度: %d/%d, 估算数量: %d, 已同步增量: %d, 快照重载: %d, 回退查询: %d, 增量位置: %s",
+                chain.getBaseCapacity(), falseProbability, chain.getEpoch(), chain.generationCount(), loadState,
+                loadedChunks.get(), totalChunks.get(), chain.approximateElementCount(), deltaCounter.get(),
+                resyncCounter.get(), fallbackCounter.get(), lastDeltaId);
     }
 
-    private void loadFromRedis() {
-        try {
-            long count = loadFromRedisWithScan(RedisKeyConstants.BLOOM_FILTER_KEY);
-            if (count > 0) {
-                log.info(">>>从Redis加载本地布隆过滤器数据完成: count={}", count);
-            } else {
-                log.warn(">>>从Redis加载本地布隆过滤器数据为空");
-            }
-        } catch (Exception e) {
-            log.error(">>>从Redis加载本地布隆过滤器数据失败", e);
-        }
+    public LoadState getLoadState() {
+        return loadState;
+    }
+
+    public int getLoadedChunks() {
+        return loadedChunks.get();
     }
 
+    public int getTotalChunks() {
+        return totalChunks.get();
+    }
+
+    public boolean isReloading() {
+        return reloading.get();
+    }
 
-    private long loadFromRedisWithScan(String key) {
-        long totalCount = 0;
+    /**
+     * 轮询 Redis 增量流，同步其他节点新增的键；加载失败时按间隔重试加载
+     */
+    @Scheduled(fixedDelayString = "${zlink.bloom.delta.pollInterval:1000}")
+    public void syncFromRedis() {
+        if (reloading.get()) {
+            return;
+        }
+        if (loadState == LoadState.FAILED && System.currentTimeMillis() >= nextLoadRetryTime) {
+            log.info(">>>重试加载本地布隆过滤器");
+            reloadAsync(this::warmUp);
+            return;
+        }
+        if (loadState != LoadState.READY) {
+            return;
+        }
         try {
-            ScanOptions scanOptions = ScanOptions.scanOptions().match("*").count(fetchSize).build();
-            Cursor<String> cursor = redisTemplate.opsForSet().scan(key, scanOptions);
-            List<String> batch = new ArrayList<>();
-            while (cursor.hasNext()) {
-                batch.add(cursor.next());
-                totalCount++;
-                if (batch.size() >= fetchSize) {
-                    processBatch(batch);
-                    totalCount += batch.size();
-                    batch.clear();
-                    Thread.yield();
-                }
+            RedisBloomFilterService.Meta meta = redisBloomFilterService.getMeta();
+            if (meta.epoch() != localBloomFilter.getEpoch()) {
+                log.info(">>>布隆过滤器已重建，加载新纪元快照: epoch={} -> {}", localBloomFilter.getEpoch(), meta.epoch());
+                resyncCounter.incrementAndGet();
+                // 新快照加载完成前继续使用当前过滤器
+                reloadAsync(this::loadSnapshot);
+                return;
+            }
+            localBloomFilter.ensureGenerations(meta.generations());
+            List<MapRecord<String, Object, Object>> records = redisBloomFilterService.readDeltas(lastDeltaId, batchSize);
+            if (CollectionUtil.isEmpty(records)) {
+                return;
             }
-            if (CollectionUtil.isNotEmpty(batch)) {
-                processBatch(batch);
+            if (redisBloomFilterService.isDeltaTrimmedAfter(lastDeltaId)) {
+                log.warn(">>>增量流已裁剪到上次同步位置之后，重新加载快照: lastDeltaId={}", lastDeltaId);
+                resyncCounter.incrementAndGet();
+                reloadAsync(this::loadSnapshot);
+                return;
             }
-            cursor.close();
+            BloomFilterChain chain = localBloomFilter;
+            for (MapRecord<String, Object, Object> record : records) {
+                List<String> keys = RedisBloomFilterService.parseDeltaKeys(record);
+                keys.forEach(chain::put);
+                deltaCounter.addAndGet(keys.size());
+                lastDeltaId = record.getId().getValue();
+            }
+            log.debug(">>>同步Redis增量到本地布隆过滤器: records={}, lastDeltaId={}", records.size(), lastDeltaId);
         } catch (Exception e) {
-            log.error(">>>分批加载Redis数据失败: key={}", key, e);
+            log.error(">>>同步Redis增量到本地布隆过滤器失败", e);
         }
-        return totalCount;
     }
 
-
-
     /**
-     * 处理一批数据
-     *
-     * @param batch 一批数据
+     * 在独立线程执行重新加载，同一时刻只有一个加载任务
+     * 加载最长等待 loadTimeout，放在定时任务线程中会阻塞共享该线程池的租约心跳等任务
      */
-    private void processBatch(List<String> batch) {
-        batch.forEach(key -> localBloomFilter.put(key));
-        log.info(">>>处理一批数据：{}条", batch.size());
+    private void reloadAsync(Runnable task) {
+        if (!reloading.compareAndSet(false, true)) {
+            return;
+        }
+        Thread reloadThread = new Thread(() -> {
+            try {
+                task.run();
+            } finally {
+                reloading.set(false);
+            }
+        }, "zlink-bloom-reload");
+        reloadThread.setDaemon(true);
+        reloadThread.start();
+    }
+
+    private void warmUp() {
+        long startTime = System.currentTimeMillis();
+        if (loadSnapshot()) {
+            loadState = LoadState.READY;
+            log.info(">>>本地布隆过滤器加载完成: 耗时={}ms, 估算数量={}",
+                    System.currentTimeMillis() - startTime, localBloomFilter.approximateElementCount());
+        } else {
+            loadState = LoadState.FAILED;
+            nextLoadRetryTime = System.currentTimeMillis() + loadRetryInterval;
+        }
     }
 
     /**
-     * 异步同步数据到本地key
+     * 先记录增量流位置再并行分块读取当前纪元各代快照到新的过滤器，加载完成后整体替换
+     * 快照期间写入的键会在增量中重复应用（幂等）
      *
-     * @param sourceKey 源key
-     * @param targetKey 目标key
+     * @return 是否在超时时间内加载完成
      */
-    private void asyncSyncToLocalKey(String sourceKey, String targetKey) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                ScanOptions scanOptions = ScanOptions.scanOptions().match("*").count(1000).build();
-                Cursor<String> cursor = redisTemplate.opsForSet().scan(sourceKey, scanOptions);
-                ArrayList<String> batch = new ArrayList<>();
-
-                while (cursor.hasNext()) {
-                    batch.add(cursor.next());
-
-                    if (batch.size() >= 1000) {
-                        redisTemplate.opsForSet().add(targetKey, batch.toArray(new String[0]));
-                        batch.clear();
-                    }
-                }
-                if (CollectionUtil.isNotEmpty(batch)) {
-                    redisTemplate.opsForSet().add(targetKey, batch.toArray(new String[0]));
+    private boolean loadSnapshot() {
+        try {
+            String deltaId = redisBloomFilterService.latestDeltaId();
+            RedisBloomFilterService.Meta meta = redisBloomFilterService.refreshMeta();
+            BloomFilterChain chain = new BloomFilterChain(meta.epoch(), meta.capacity(), falseProbability, meta.generations());
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            long totalBytes = 0;
+            loadedChunks.set(0);
+            totalChunks.set(0);
+            for (int generation = 0; generation < meta.generations(); generation++) {
+                int index = generation;
+                long length = redisBloomFilterService.bitmapLength(meta.epoch(), generation);
+                totalBytes += length;
+                totalChunks.addAndGet((int) ((length + snapshotChunkBytes - 1) / snapshotChunkBytes));
+                for (long start = 0; start < length; start += snapshotChunkBytes) {
+                    long chunkStart = start;
+                    long chunkEnd = Math.min(start + snapshotChunkBytes, length) - 1;
+                    futures.add(CompletableFuture.runAsync(() -> {
+                        chain.generation(index).mergeBytes(chunkStart,
+                                redisBloomFilterService.readBitmap(meta.epoch(), index, chunkStart, chunkEnd));
+                        loadedChunks.incrementAndGet();
+                    }, loadExecutor));
                 }
-                cursor.close();
-                log.info(">>>异步同步数据到本地key完成: sourceKey={}, targetKey={}", sourceKey, targetKey);
-            } catch (Exception e) {
-                log.error(">>>异步同步数据到本地key异常", e);
             }
-        });
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(loadTimeout, TimeUnit.SECONDS);
+            localBloomFilter = chain;
+            lastDeltaId = deltaId;
+            if (totalBytes > 0) {
+                log.info(">>>从Redis加载本地布隆过滤器快照完成: epoch={}, generations={}, bytes={}, chunks={}",
+                        meta.epoch(), meta.generations(), totalBytes, totalChunks.get());
+            } else {
+                log.warn(">>>从Redis加载本地布隆过滤器快照为空");
+            }
+            return true;
+        } catch (TimeoutException e) {
+            log.error(">>>从Redis加载本地布隆过滤器快照超时: loadTimeout={}s, 进度={}/{}", loadTimeout, loadedChunks.get(), totalChunks.get());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.error(">>>从Redis加载本地布隆过滤器快照失败", e);
+            return false;
+        }
     }
 
-
-
 }
@@ -1,34 +1,324 @@
 package com.zicca.zlink.backend.cache.service;
 
+import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * 本地短链接缓存【短链：原始链接】
+ * <p>
+ * 基于 ConcurrentHashMap 的进程内缓存，替代 Spring Cache 注解代理：
+ * 1. 命中路径只做一次 map 查找与过期判断，无锁、无对象分配
+ * 2. 每个条目独立过期时间，正常链接受有效期约束，空值（{@link RedisKeyConstants#LINK_NOT_EXIST_VALUE}）使用独立的短过期时间
+ * 3. 超过最大容量时按 CLOCK（二次机会）算法淘汰，淘汰由单个线程 tryLock 执行，其余写线程不等待
+ * 4. 有有效期的链接条目额外携带链接过期时刻，过期后读取直接返回空值标识（并替换为空值条目），不再回源；
+ *    未被读取的过期条目由 {@link LinkExpirySweeper} 定期清理
+ * 5. 失效（修改 / 删除）时写入墓碑条目并递增失效序号；回源前记录序号，
+ *    回填时若墓碑序号更新（回源期间发生过失效）则放弃回填，避免与失效并发的旧值重新写入
+ */
 @Service
 @Slf4j(topic = "LocalCacheService")
-public class LocalCacheService{
+public class LocalCacheService {
 
-    @Cacheable(value = "shortUrls", key = "#key")
+    @Value("${zlink.cache.local.maximumSize:100000}")
+    private int maximumSize;
+    @Value("${zlink.cache.local.defaultTtl:3600000}")
+    private long defaultTtl;
+    @Value("${zlink.cache.local.nullTtl:180000}")
+    private long nullTtl;
+    @Value("${zlink.cache.invalidation.tombstoneTtl:60000}")
+    private long tombstoneTtl;
+
+    private ConcurrentHashMap<String, CacheEntry> cache;
+
+    /**
+     * 淘汰锁，同一时刻只允许一个线程推进时钟指针
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private Iterator<Map.Entry<String, CacheEntry>> clockHand;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 本节点失效序号，每次失效递增
+     */
+    private final AtomicLong invalidationSeq = new AtomicLong(0);
+    private final LongAdder rejectedRefillCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        cache = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+        log.info(">>>初始化本地缓存完成: maximumSize={}, defaultTtl={}ms, nullTtl={}ms", maximumSize, defaultTtl, nullTtl);
+    }
+
+    /**
+     * 获取缓存值
+     *
+     * @param key 短链接
+     * @return 原始链接 / 空值标识，未命中或已过期返回 null
+     */
     public String get(String key) {
-        log.info(">>>从本地缓存获取数据: key={}", key);
-        return null;
+        CacheEntry entry = cache.get(key);
+        if (entry == null || entry.value == null) {
+            // 墓碑条目视为未命中
+            missCount.increment();
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (entry.expireAt - now <= 0) {
+            cache.remove(key, entry);
+            missCount.increment();
+            return null;
+        }
+        if (entry.linkExpireAt <= now) {
+            // 链接已过期：负命中，替换为空值条目释放原始链接
+            cache.replace(key, entry, nullEntry(now));
+            hitCount.increment();
+            return RedisKeyConstants.LINK_NOT_EXIST_VALUE;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        hitCount.increment();
+        return entry.value;
     }
-    @CachePut(value = "shortUrls", key = "#key")
+
+    /**
+     * 添加缓存，使用默认过期时间
+     */
     public void put(String key, String value) {
-        log.info(">>>添加数据到本地缓存: key={}, value={}", key, value);
+        put(key, value, defaultTtl);
+    }
+
+    /**
+     * 添加缓存，过期时间不超过默认过期时间
+     *
+     * @param ttl 过期时间（毫秒），通常由短链接有效期计算得到
+     */
+    public void put(String key, String value, long ttl) {
+        if (RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(value)) {
+            putNull(key, value);
+            return;
+        }
+        long effectiveTtl = Math.min(ttl, defaultTtl);
+        if (effectiveTtl <= 0) {
+            cache.remove(key);
+            return;
+        }
+        doPut(key, value, effectiveTtl);
+        log.debug(">>>添加数据到本地缓存: key={}, value={}", key, value);
+    }
+
+    /**
+     * 添加携带链接过期时刻的缓存，过期前正常命中，过期后读取返回空值标识
+     *
+     * @param expireAt 链接过期时刻（毫秒），永久有效为 {@link LinkCacheValue#PERMANENT}
+     */
+    public void putUntil(String key, String value, long expireAt) {
+        long now = System.currentTimeMillis();
+        if (RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(value) || expireAt <= now) {
+            putNull(key, RedisKeyConstants.LINK_NOT_EXIST_VALUE);
+            return;
+        }
+        doPut(key, new CacheEntry(value, now + defaultTtl, expireAt));
+        log.debug(">>>添加数据到本地缓存: key={}, value={}, expireAt={}", key, value, expireAt);
+    }
+
+    /**
+     * 回填缓存：自 seq 之后该键发生过失效时放弃写入
+     *
+     * @param expireAt 链接过期时刻（毫秒），永久有效为 {@link LinkCacheValue#PERMANENT}
+     * @param seq      回源前的失效序号 {@link #invalidationSeq()}
+     * @return 是否写入
+     */
+    public boolean putIfNotInvalidated(String key, String value, long expireAt, long seq) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(value) || expireAt <= now
+                ? nullEntry(now)
+                : new CacheEntry(value, now + defaultTtl, expireAt);
+        boolean[] written = {true};
+        cache.compute(key, (k, old) -> {
+            if (old instanceof Tombstone tombstone && tombstone.seq > seq && old.expireAt - now > 0) {
+                written[0] = false;
+                return old;
+            }
+            return entry;
+        });
+        if (!written[0]) {
+            rejectedRefillCount.increment();
+            log.debug(">>>回源期间缓存已失效，放弃回填本地缓存: key={}", key);
+            return false;
+        }
+        if (cache.mappingCount() > maximumSize) {
+            evict();
+        }
+        return true;
     }
 
-    @CachePut(value = "shortUrls", key = "#key")
-    public void put(String key, Object value) {
-        log.info(">>>添加数据到本地缓存: key={}, value={}", key, value);
+    /**
+     * 失效缓存：替换为墓碑条目，同一版本或更旧版本的重复消息不再递增序号
+     *
+     * @param version 失效版本号
+     */
+    public void invalidate(String key, long version) {
+        long now = System.currentTimeMillis();
+        cache.compute(key, (k, old) -> {
+            if (old instanceof Tombstone tombstone && tombstone.version >= version && old.expireAt - now > 0) {
+                return old;
+            }
+            return new Tombstone(invalidationSeq.incrementAndGet(), version, now + tombstoneTtl);
+        });
     }
 
-    @Cacheable(value = "shortUrls", key = "#key")
+    /**
+     * 当前失效序号，回源前记录，回填时传入 {@link #putIfNotInvalidated}
+     */
+    public long invalidationSeq() {
+        return invalidationSeq.get();
+    }
+
+    /**
+     * 添加空值缓存，使用空值过期时间
+     */
     public void putNull(String key, String value) {
-        log.info(">>>添加空数据到本地缓存: key={}, value={}", key, value);
+        doPut(key, value, nullTtl);
+        log.debug(">>>添加空数据到本地缓存: key={}, value={}", key, value);
+    }
+
+    /**
+     * 删除缓存
+     */
+    public void remove(String key) {
+        cache.remove(key);
+    }
+
+    public long size() {
+        return cache.mappingCount();
+    }
+
+    /**
+     * 清理过期条目：链接已过期的条目替换为空值条目，驻留时间已到的条目直接删除
+     *
+     * @return 清理的条目数
+     */
+    public int sweepExpired() {
+        long now = System.currentTimeMillis();
+        int swept = 0;
+        for (Map.Entry<String, CacheEntry> each : cache.entrySet()) {
+            CacheEntry entry = each.getValue();
+            if (entry.expireAt - now <= 0) {
+                if (cache.remove(each.getKey(), entry)) {
+                    swept++;
+                }
+            } else if (entry.linkExpireAt <= now && cache.replace(each.getKey(), entry, nullEntry(now))) {
+                swept++;
+            }
+        }
+        return swept;
     }
 
+    public String getStats() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return String.format(">>>本地缓存 - 最大容量: %d, 当前数量: %d, 命中率: %.2f%%, 淘汰数量: %d, 放弃回填: %d",
+                maximumSize, cache.mappingCount(), total > 0 ? hits * 100.0 / total : 0.0, evictionCount.sum(),
+                rejectedRefillCount.sum());
+    }
+
+    private void doPut(String key, String value, long ttl) {
+        doPut(key, new CacheEntry(value, System.currentTimeMillis() + ttl, LinkCacheValue.PERMANENT));
+    }
+
+    private void doPut(String key, CacheEntry entry) {
+        cache.put(key, entry);
+        if (cache.mappingCount() > maximumSize) {
+            evict();
+        }
+    }
+
+    private CacheEntry nullEntry(long now) {
+        return new CacheEntry(RedisKeyConstants.LINK_NOT_EXIST_VALUE, now + nullTtl, LinkCacheValue.PERMANENT);
+    }
+
+    /**
+     * CLOCK 淘汰：已过期或未被访问过的条目直接淘汰，被访问过的条目清除访问标记后给予二次机会
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            // 最多扫描两轮，避免所有条目都被频繁访问时无限循环
+            long maxScan = cache.mappingCount() * 2;
+            for (long scanned = 0; cache.mappingCount() > maximumSize && scanned < maxScan; scanned++) {
+                if (clockHand == null || !clockHand.hasNext()) {
+                    clockHand = cache.entrySet().iterator();
+                    if (!clockHand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, CacheEntry> candidate = clockHand.next();
+                CacheEntry entry = candidate.getValue();
+                if (entry.referenced && entry.expireAt - now > 0) {
+                    entry.referenced = false;
+                    continue;
+                }
+                if (cache.remove(candidate.getKey(), entry)) {
+                    evictionCount.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 缓存条目，value 与过期时间不可变，访问标记允许并发下的良性竞争
+     * expireAt 为条目驻留截止时刻，linkExpireAt 为链接本身的过期时刻
+     */
+    private static class CacheEntry {
+
+        private final String value;
+
+        private final long expireAt;
+
+        private final long linkExpireAt;
+
+        private volatile boolean referenced;
+
+        private CacheEntry(String value, long expireAt, long linkExpireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.linkExpireAt = linkExpireAt;
+        }
+    }
+
+    /**
+     * 墓碑条目，记录失效时的本节点序号与失效版本号，驻留 tombstoneTtl 后删除
+     */
+    private static final class Tombstone extends CacheEntry {
+
+        private final long seq;
+
+        private final long version;
+
+        private Tombstone(long seq, long version, long expireAt) {
+            super(null, expireAt, LinkCacheValue.PERMANENT);
+            this.seq = seq;
+            this.version = version;
+        }
+    }
 
 }
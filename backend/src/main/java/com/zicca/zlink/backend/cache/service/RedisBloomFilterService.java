@@ -2,58 +2,139 @@ package com.zicca.zlink.backend.cache.service;
 
 import cn.hutool.core.collection.CollectionUtil;
 import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
-import com.zicca.zlink.framework.execption.ServiceException;
+import com.zicca.zlink.backend.toolkit.BloomFilterUtil;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RBloomFilter;
-import org.redisson.api.RedissonClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
+/**
+ * Redis 布隆过滤器
+ * 位偏移在客户端计算，单次调用的所有 SETBIT / GETBIT 通过一次 pipeline 提交，批量操作 O(1) 次往返
+ * 位图本身即为本地布隆过滤器的快照（GETRANGE 分块读取），新增的键同时写入有界增量流，供各节点增量同步
+ * 可扩展：元数据记录纪元、代数与基础容量，最新一代写满后追加新一代；重建时写入新纪元并整体切换
+ */
 @Slf4j(topic = "RedisBloomFilterService")
 @Service
 @RequiredArgsConstructor
 public class RedisBloomFilterService implements BloomFilterService {
 
-    private final RedissonClient redissonClient;
+    private static final byte[] DELTA_KEY = RedisKeyConstants.BLOOM_FILTER_DELTA_KEY.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DELTA_FIELD = "keys".getBytes(StandardCharsets.UTF_8);
+    private static final String DELTA_SEPARATOR = ",";
+
+    private static final String META_EPOCH = "epoch";
+    private static final String META_GENERATIONS = "generations";
+    private static final String META_CAPACITY = "capacity";
+
+    /**
+     * 元数据不存在时初始化，并将单代位图（未区分纪元前的键）改名为第 0 纪元第 0 代
+     */
+    private static final RedisScript<Long> INIT_META_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "redis.call('HSET', KEYS[1], 'epoch', 0, 'generations', 1, 'capacity', ARGV[1]) " +
+            "if redis.call('EXISTS', KEYS[2]) == 1 then redis.call('RENAME', KEYS[2], KEYS[3]) end " +
+            "return 1", Long.class);
+
+    /**
+     * 纪元与代数未变化时追加一代
+     */
+    private static final RedisScript<Long> ADD_GENERATION_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'epoch') ~= ARGV[1] or redis.call('HGET', KEYS[1], 'generations') ~= ARGV[2] then return 0 end " +
+            "redis.call('HSET', KEYS[1], 'generations', tonumber(ARGV[2]) + 1) " +
+            "return 1", Long.class);
+
+    /**
+     * 纪元未变化时切换到新纪元
+     */
+    private static final RedisScript<Long> SWITCH_EPOCH_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'epoch') ~= ARGV[1] then return 0 end " +
+            "redis.call('HSET', KEYS[1], 'epoch', ARGV[2], 'generations', ARGV[3], 'capacity', ARGV[4]) " +
+            "return 1", Long.class);
+
+    public static final String INITIAL_DELTA_ID = "0-0";
+
     private final RedisTemplate<String, String> redisTemplate;
 
     @Value("${zlink.bloom.expectedInsertions}")
     private long expectedInsertions;
     @Value("${zlink.bloom.falseProbability}")
     private double falseProbability;
+    @Value("${zlink.bloom.batchSize:1000}")
+    private int batchSize;
+    @Value("${zlink.bloom.delta.maxLen:100000}")
+    private long deltaMaxLen;
 
     private final Executor bloomFilterExecutor;
 
-    private RBloomFilter<String> bloomFilter;
+    private volatile Meta meta;
+    private volatile List<Layout> currentLayouts;
+
+    /**
+     * 布隆过滤器元数据
+     *
+     * @param epoch       纪元，重建后递增
+     * @param generations 代数
+     * @param capacity    第 0 代容量
+     */
+    public record Meta(long epoch, int generations, long capacity) {
+    }
+
+    /**
+     * 单代位图布局
+     */
+    private record Layout(byte[] key, long numBits, int numHashFunctions) {
+    }
 
     @Override
     @PostConstruct
     public void init() {
-        // 使用统一的布隆过滤器名称
-        bloomFilter = redissonClient.getBloomFilter(RedisKeyConstants.BLOOM_FILTER_NAME);
         try {
-            // 如果布隆过滤器不存在，则初始化
-            if (!bloomFilter.isExists()) {
-                bloomFilter.tryInit(expectedInsertions, falseProbability);
-                log.info(">>>Redis布隆过滤器初始化完成: expectedInsertions={}, falseProbability={}", expectedInsertions, falseProbability);
-            }
+            redisTemplate.execute(INIT_META_SCRIPT,
+                    List.of(RedisKeyConstants.BLOOM_FILTER_META_KEY, RedisKeyConstants.BLOOM_FILTER_BITMAP_KEY, bitmapKey(0, 0)),
+                    String.valueOf(expectedInsertions));
+            refreshMeta();
+            migrateFromLegacySet();
         } catch (Exception e) {
-            log.error(">>>Redis布隆过滤器初始化失败: {}", e.getMessage());
-            throw new ServiceException("Redis布隆过滤器初始化失败");
+            log.error(">>>Redis布隆过滤器初始化元数据失败: {}", e.getMessage());
+            updateMeta(new Meta(0, 1, expectedInsertions));
         }
+        log.info(">>>Redis布隆过滤器初始化完成: expectedInsertions={}, falseProbability={}, meta={}",
+                expectedInsertions, falseProbability, meta);
     }
 
     @Override
     public boolean mightContains(String key) {
         try {
-            return bloomFilter.contains(key);
+            return mightContainAll(List.of(key)).get(key);
         } catch (Exception e) {
             log.error(">>>Redis布隆过滤器查询失败: key={}", key, e);
             // 若查询失败，则返回true，交由后续缓存判断是否存在
@@ -61,19 +142,69 @@ public class RedisBloomFilterService implements BloomFilterService {
         }
     }
 
+    @Override
+    public Map<String, Boolean> mightContainAll(Collection<String> keys) {
+        Map<String, Boolean> result = new LinkedHashMap<>(keys.size());
+        if (CollectionUtil.isEmpty(keys)) {
+            return result;
+        }
+        List<String> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<Layout> layouts = currentLayouts;
+        try {
+            List<Object> bits = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : distinctKeys) {
+                    for (Layout layout : layouts) {
+                        for (long offset : BloomFilterUtil.bitOffsets(key, layout.numHashFunctions(), layout.numBits())) {
+                            connection.stringCommands().getBit(layout.key(), offset);
+                        }
+                    }
+                }
+                return null;
+            });
+            int index = 0;
+            for (String key : distinctKeys) {
+                // 任一代全部命中即可能存在
+                boolean contains = false;
+                for (Layout layout : layouts) {
+                    boolean generationContains = true;
+                    for (int i = 0; i < layout.numHashFunctions(); i++) {
+                        generationContains &= Boolean.TRUE.equals(bits.get(index++));
+                    }
+                    contains |= generationContains;
+                }
+                result.put(key, contains);
+            }
+        } catch (Exception e) {
+            log.error(">>>Redis布隆过滤器批量查询失败: count={}, error={}", distinctKeys.size(), e.getMessage());
+            // 若查询失败，则全部返回true，交由后续缓存判断是否存在
+            distinctKeys.forEach(key -> result.put(key, true));
+        }
+        return result;
+    }
+
     @Override
     public void add(String key) {
         try {
-            bloomFilter.add(key);
-            // 同步添加到Redis set中，用于与本地布隆过滤器同步
-            // todo: 大key问题
-            redisTemplate.opsForSet().add(RedisKeyConstants.BLOOM_FILTER_KEY, key);
+            setBits(List.of(key));
             log.info(">>>Redis布隆过滤器添加成功: key={}", key);
         } catch (Exception e) {
             log.error(">>>Redis布隆过滤器添加失败: key={}, error={}", key, e.getMessage());
         }
     }
 
+    @Override
+    public void addAll(Collection<String> keys) {
+        if (CollectionUtil.isEmpty(keys)) {
+            return;
+        }
+        try {
+            setBits(keys);
+            log.info(">>>Redis布隆过滤器批量添加成功: counts={}", keys.size());
+        } catch (Exception e) {
+            log.error(">>>Redis布隆过滤器批量添加失败: counts={}, error={}", keys.size(), e.getMessage());
+        }
+    }
+
     public void addAsync(String key) {
         CompletableFuture.runAsync(() -> add(key), bloomFilterExecutor)
                 .exceptionally(throwable -> {
@@ -83,28 +214,265 @@ public class RedisBloomFilterService implements BloomFilterService {
     }
 
     public void addBatch(Collection<String> keys) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                keys.forEach(key -> bloomFilter.add(key));
-                if (CollectionUtil.isNotEmpty(keys)) {
-                    redisTemplate.opsForSet().add(RedisKeyConstants.BLOOM_FILTER_KEY, keys.toArray(new String[0]));
-                }
-                log.info(">>>Redis布隆过滤器批量添加成功: counts={}", keys.size());
-            } catch (Exception e) {
-                log.error(">>>Redis布隆过滤器批量添加失败: keys={}, error={}", keys, e.getMessage());
-            }
-        }, bloomFilterExecutor);
+        CompletableFuture.runAsync(() -> addAll(keys), bloomFilterExecutor);
     }
 
     @Override
     public String getStats() {
         try {
-            long count = bloomFilter.count();
-            return String.format(">>>Redis布隆过滤器统计信息: count=%d, expectedInsertions=%d, falseProbability=%f",
-                    count, expectedInsertions, falseProbability);
+            Meta current = meta;
+            List<Layout> layouts = layouts(current);
+            long count = 0;
+            for (Layout layout : layouts) {
+                Long bitCount = redisTemplate.execute((RedisCallback<Long>) connection -> connection.stringCommands().bitCount(layout.key()));
+                count += BloomFilterUtil.approximateElementCount(bitCount == null ? 0 : bitCount, layout.numHashFunctions(), layout.numBits());
+            }
+            return String.format(">>>Redis布隆过滤器统计信息: count=%d, expectedInsertions=%d, falseProbability=%f, epoch=%d, generations=%d, capacity=%d",
+                    count, expectedInsertions, falseProbability, current.epoch(), current.generations(), current.capacity());
         } catch (Exception e) {
             log.error(">>>Redis布隆过滤器统计信息获取失败: {}", e.getMessage());
             return String.format(">>>Redis布隆过滤器统计信息获取失败: %s", e.getMessage());
         }
     }
+
+    public Meta getMeta() {
+        return meta;
+    }
+
+    /**
+     * 定时刷新元数据，感知其他节点追加的代与重建后的纪元切换
+     */
+    @Scheduled(fixedDelayString = "${zlink.bloom.delta.pollInterval:1000}")
+    public Meta refreshMeta() {
+        try {
+            Map<Object, Object> values = redisTemplate.opsForHash().entries(RedisKeyConstants.BLOOM_FILTER_META_KEY);
+            if (!values.isEmpty()) {
+                updateMeta(new Meta(Long.parseLong(values.get(META_EPOCH).toString()),
+                        Integer.parseInt(values.get(META_GENERATIONS).toString()),
+                        Long.parseLong(values.get(META_CAPACITY).toString())));
+            }
+        } catch (Exception e) {
+            log.error(">>>Redis布隆过滤器刷新元数据失败: {}", e.getMessage());
+        }
+        return meta;
+    }
+
+    /**
+     * 最新一代估算数量达到容量时追加一代（多节点并发时仅一个节点成功）
+     */
+    @Scheduled(fixedDelayString = "${zlink.bloom.growthCheckInterval:60000}")
+    public void checkGrowth() {
+        try {
+            Meta current = refreshMeta();
+            int generation = current.generations() - 1;
+            Layout layout = layouts(current).get(generation);
+            Long bitCount = redisTemplate.execute((RedisCallback<Long>) connection -> connection.stringCommands().bitCount(layout.key()));
+            long count = BloomFilterUtil.approximateElementCount(bitCount == null ? 0 : bitCount, layout.numHashFunctions(), layout.numBits());
+            if (count < BloomFilterUtil.generationCapacity(current.capacity(), generation)) {
+                return;
+            }
+            Long added = redisTemplate.execute(ADD_GENERATION_SCRIPT, List.of(RedisKeyConstants.BLOOM_FILTER_META_KEY),
+                    String.valueOf(current.epoch()), String.valueOf(current.generations()));
+            if (Long.valueOf(1).equals(added)) {
+                log.info(">>>Redis布隆过滤器第{}代已写满(count={})，追加第{}代", generation, count, generation + 1);
+            }
+            refreshMeta();
+        } catch (Exception e) {
+            log.error(">>>Redis布隆过滤器扩容检查失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取位图字节长度
+     */
+    public long bitmapLength(long epoch, int generation) {
+        byte[] key = bitmapKey(epoch, generation).getBytes(StandardCharsets.UTF_8);
+        Long length = redisTemplate.execute((RedisCallback<Long>) connection -> connection.stringCommands().strLen(key));
+        return length == null ? 0 : length;
+    }
+
+    /**
+     * 读取位图片段
+     *
+     * @param start 起始字节（含）
+     * @param end   结束字节（含）
+     * @return 片段内容
+     */
+    public byte[] readBitmap(long epoch, int generation, long start, long end) {
+        byte[] key = bitmapKey(epoch, generation).getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().getRange(key, start, end));
+        return bytes == null ? new byte[0] : bytes;
+    }
+
+    /**
+     * 写入指定纪元的第 0 代，不记录增量（重建使用）
+     */
+    public void addToEpoch(Meta target, Collection<String> keys) {
+        if (CollectionUtil.isEmpty(keys)) {
+            return;
+        }
+        Layout layout = layouts(target).get(0);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                for (long offset : BloomFilterUtil.bitOffsets(key, layout.numHashFunctions(), layout.numBits())) {
+                    connection.stringCommands().setBit(layout.key(), offset, true);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 切换到新纪元
+     *
+     * @param expected 切换前的元数据，纪元已被其他节点修改时放弃
+     * @param target   新纪元元数据
+     * @return 是否切换成功
+     */
+    public boolean switchEpoch(Meta expected, Meta target) {
+        Long switched = redisTemplate.execute(SWITCH_EPOCH_SCRIPT, List.of(RedisKeyConstants.BLOOM_FILTER_META_KEY),
+                String.valueOf(expected.epoch()), String.valueOf(target.epoch()),
+                String.valueOf(target.generations()), String.valueOf(target.capacity()));
+        refreshMeta();
+        return Long.valueOf(1).equals(switched);
+    }
+
+    /**
+     * 下线指定纪元的位图
+     *
+     * @param retired   下线的纪元
+     * @param retention 备份保留时间，为 null 时直接删除（UNLINK）
+     */
+    public void retireEpoch(Meta retired, Duration retention) {
+        for (int generation = 0; generation < retired.generations(); generation++) {
+            String key = bitmapKey(retired.epoch(), generation);
+            if (retention == null) {
+                redisTemplate.unlink(key);
+            } else {
+                redisTemplate.expire(key, retention);
+            }
+        }
+    }
+
+    /**
+     * 获取增量流最新记录ID，增量流为空时返回 0-0
+     */
+    public String latestDeltaId() {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .reverseRange(RedisKeyConstants.BLOOM_FILTER_DELTA_KEY, Range.unbounded(), Limit.limit().count(1));
+        return CollectionUtil.isEmpty(records) ? INITIAL_DELTA_ID : records.get(0).getId().getValue();
+    }
+
+    /**
+     * 上次读取的记录已被裁剪（最早记录晚于上次读取位置），说明中间可能有增量丢失
+     */
+    public boolean isDeltaTrimmedAfter(String deltaId) {
+        if (INITIAL_DELTA_ID.equals(deltaId)) {
+            return false;
+        }
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .range(RedisKeyConstants.BLOOM_FILTER_DELTA_KEY, Range.unbounded(), Limit.limit().count(1));
+        return CollectionUtil.isNotEmpty(records) && compareDeltaId(records.get(0).getId().getValue(), deltaId) > 0;
+    }
+
+    /**
+     * 读取指定记录之后的增量
+     *
+     * @param afterId 上次读取到的记录ID（不含）
+     * @param count   最大记录数
+     * @return 增量记录
+     */
+    public List<MapRecord<String, Object, Object>> readDeltas(String afterId, int count) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                StreamReadOptions.empty().count(count),
+                StreamOffset.create(RedisKeyConstants.BLOOM_FILTER_DELTA_KEY, ReadOffset.from(afterId)));
+        return records == null ? List.of() : records;
+    }
+
+    /**
+     * 解析增量记录中的键
+     */
+    public static List<String> parseDeltaKeys(MapRecord<String, Object, Object> record) {
+        Object keys = record.getValue().get(new String(DELTA_FIELD, StandardCharsets.UTF_8));
+        return keys == null ? List.of() : Arrays.asList(keys.toString().split(DELTA_SEPARATOR));
+    }
+
+    public static String bitmapKey(long epoch, int generation) {
+        return RedisKeyConstants.BLOOM_FILTER_BITMAP_KEY + ":" + epoch + ":" + generation;
+    }
+
+    private static int compareDeltaId(String left, String right) {
+        String[] leftParts = left.split("-");
+        String[] rightParts = right.split("-");
+        int result = Long.compare(Long.parseLong(leftParts[0]), Long.parseLong(rightParts[0]));
+        return result != 0 ? result : Long.compare(Long.parseLong(leftParts[1]), Long.parseLong(rightParts[1]));
+    }
+
+    private void updateMeta(Meta updated) {
+        if (!updated.equals(meta)) {
+            currentLayouts = layouts(updated);
+            meta = updated;
+        }
+    }
+
+    private List<Layout> layouts(Meta current) {
+        List<Layout> layouts = new ArrayList<>(current.generations());
+        for (int generation = 0; generation < current.generations(); generation++) {
+            long capacity = BloomFilterUtil.generationCapacity(current.capacity(), generation);
+            long numBits = BloomFilterUtil.optimalNumOfBits(capacity,
+                    BloomFilterUtil.generationFalseProbability(falseProbability, generation));
+            layouts.add(new Layout(bitmapKey(current.epoch(), generation).getBytes(StandardCharsets.UTF_8),
+                    numBits, BloomFilterUtil.optimalNumOfHashFunctions(capacity, numBits)));
+        }
+        return layouts;
+    }
+
+    /**
+     * 单次 pipeline 设置一批键在最新一代的所有位，并追加一条增量记录（按长度近似裁剪）
+     */
+    private void setBits(Collection<String> keys) {
+        List<Layout> layouts = currentLayouts;
+        Layout layout = layouts.get(layouts.size() - 1);
+        byte[] delta = String.join(DELTA_SEPARATOR, keys).getBytes(StandardCharsets.UTF_8);
+        RedisStreamCommands.XAddOptions deltaOptions = RedisStreamCommands.XAddOptions.maxlen(deltaMaxLen).approximateTrimming(true);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                for (long offset : BloomFilterUtil.bitOffsets(key, layout.numHashFunctions(), layout.numBits())) {
+                    connection.stringCommands().setBit(layout.key(), offset, true);
+                }
+            }
+            connection.streamCommands().xAdd(StreamRecords.newRecord()
+                    .in(DELTA_KEY)
+                    .ofMap(Map.of(DELTA_FIELD, delta)), deltaOptions);
+            return null;
+        });
+    }
+
+    /**
+     * 从历史短链接集合一次性回填，回填完成后异步删除该集合（UNLINK，不阻塞 Redis）
+     */
+    private void migrateFromLegacySet() {
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(RedisKeyConstants.BLOOM_FILTER_KEY))) {
+            return;
+        }
+        long migrated = 0;
+        ScanOptions scanOptions = ScanOptions.scanOptions().count(batchSize).build();
+        try (Cursor<String> cursor = redisTemplate.opsForSet().scan(RedisKeyConstants.BLOOM_FILTER_KEY, scanOptions)) {
+            List<String> batch = new ArrayList<>(batchSize);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    setBits(batch);
+                    migrated += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                setBits(batch);
+                migrated += batch.size();
+            }
+        }
+        redisTemplate.unlink(RedisKeyConstants.BLOOM_FILTER_KEY);
+        log.info(">>>Redis布隆过滤器迁移历史数据完成并删除历史集合: count={}", migrated);
+    }
 }
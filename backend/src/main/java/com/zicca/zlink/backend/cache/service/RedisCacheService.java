@@ -4,10 +4,21 @@ import cn.hutool.core.util.StrUtil;
 import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
@@ -16,13 +27,55 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class RedisCacheService{
 
+    /**
+     * 把已过期的链接替换为空值并移出过期索引：值仍携带不晚于当前时刻的过期时刻才替换，索引分数未被更新才移除，
+     * 期间被重新写入（延长有效期）的缓存不受影响
+     * KEYS[1] 过期索引，KEYS[2..n] 短链接；ARGV[1] 当前时刻，ARGV[2] 空值标识，ARGV[3] 空值过期时间（毫秒）
+     */
+    private static final RedisScript<Long> SWEEP_SCRIPT = new DefaultRedisScript<>(
+            "local now = tonumber(ARGV[1]) local swept = 0 " +
+            "for i = 2, #KEYS do " +
+            "  local value = redis.call('GET', KEYS[i]) " +
+            "  local expireAt = value and string.match(value, '^~(%d+)~') " +
+            "  if expireAt and tonumber(expireAt) <= now then " +
+            "    redis.call('SET', KEYS[i], ARGV[2], 'PX', ARGV[3]) swept = swept + 1 " +
+            "  end " +
+            "  local score = redis.call('ZSCORE', KEYS[1], KEYS[i]) " +
+            "  if score and tonumber(score) <= now then redis.call('ZREM', KEYS[1], KEYS[i]) end " +
+            "end " +
+            "return swept", Long.class);
+
+    /**
+     * 失效：递增全局版本号，写入墓碑后删除缓存（墓碑先于删除，期间的回填要么被删除覆盖，要么被墓碑拒绝）
+     * KEYS[1] 版本号，KEYS[2i] 墓碑，KEYS[2i+1] 短链接；ARGV[1] 墓碑过期时间（毫秒）
+     */
+    private static final RedisScript<Long> INVALIDATE_SCRIPT = new DefaultRedisScript<>(
+            "local version = redis.call('INCR', KEYS[1]) " +
+            "for i = 2, #KEYS, 2 do " +
+            "  redis.call('SET', KEYS[i], version, 'PX', ARGV[1]) " +
+            "  redis.call('DEL', KEYS[i + 1]) " +
+            "end " +
+            "return version", Long.class);
+
+    /**
+     * 回填：墓碑版本号高于回源前记录的版本号时放弃写入
+     * KEYS[1] 短链接，KEYS[2] 墓碑，KEYS[3] 过期索引；ARGV[1] 回源前版本号，ARGV[2] 缓存值，ARGV[3] 过期时间（毫秒），
+     * ARGV[4] 链接过期时刻，为空串时不登记过期索引
+     */
+    private static final RedisScript<Long> REFILL_SCRIPT = new DefaultRedisScript<>(
+            "local tombstone = redis.call('GET', KEYS[2]) " +
+            "if tombstone and tonumber(tombstone) > tonumber(ARGV[1]) then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+            "if ARGV[4] ~= '' then redis.call('ZADD', KEYS[3], ARGV[4], KEYS[1]) end " +
+            "return 1", Long.class);
+
     private final RedisTemplate<String, String> redisTemplate;
 
     public String get(String key) {
         try {
             String value = redisTemplate.opsForValue().get(key);
             if (StrUtil.isNotBlank(value)) {
-                log.info(">>>从Redis缓存获取数据: key={}, value={}", key, value);
+                log.debug(">>>从Redis缓存获取数据: key={}, value={}", key, value);
                 return value;
             }
         } catch (Exception e) {
@@ -33,7 +86,7 @@ public class RedisCacheService{
 
     public void put(String key, String value) {
         redisTemplate.opsForValue().set(key, value, RedisKeyConstants.NORAML_EXPIRE_TIME);
-        log.info(">>>添加数据到Redis缓存: key={}, value={}", key, value);
+        log.debug(">>>添加数据到Redis缓存: key={}, value={}", key, value);
     }
 
     public void put(String key, String value, boolean isHot) {
@@ -42,7 +95,7 @@ public class RedisCacheService{
             int randomExtraHours = ThreadLocalRandom.current().nextInt(0, 3);
             Duration expireTime = baseDuration.plus(Duration.ofHours(randomExtraHours));
             redisTemplate.opsForValue().set(key, value, expireTime);
-            log.info(">>>添加数据到Redis缓存: key={}, value={}", key, value);
+            log.debug(">>>添加数据到Redis缓存: key={}, value={}", key, value);
         } catch (Exception e) {
             log.error(">>>添加数据到Redis缓存失败: key={}, value={}", key, value, e);
         }
@@ -51,7 +104,7 @@ public class RedisCacheService{
     public void put(String key, String value, Long validDate) {
         try {
             redisTemplate.opsForValue().set(key, value, validDate, TimeUnit.MILLISECONDS);
-            log.info(">>>添加数据到Redis缓存: key={}, value={}", key, value);
+            log.debug(">>>添加数据到Redis缓存: key={}, value={}", key, value);
         } catch (Exception e) {
             log.error(">>>添加数据到Redis缓存失败: key={}, value={}", key, value, e);
         }
@@ -60,13 +113,197 @@ public class RedisCacheService{
     public void put(String key, String value, Long time, TimeUnit unit) {
         try {
             redisTemplate.opsForValue().set(key, value, time, unit);
-            log.info(">>>添加数据到Redis缓存: key={}, value={}", key, value);
+            log.debug(">>>添加数据到Redis缓存: key={}, value={}", key, value);
         } catch (Exception e) {
             log.error(">>>添加数据到Redis缓存失败: key={}, value={}", key, value, e);
         }
     }
 
+    /**
+     * 批量添加缓存，单次 pipeline 写入
+     *
+     * @param values    短链接 -> 原始链接
+     * @param validDate 过期时间（毫秒）
+     */
+    public void putBatch(Map<String, String> values, long validDate) {
+        if (values.isEmpty() || validDate <= 0) {
+            return;
+        }
+        try {
+            Expiration expiration = Expiration.milliseconds(validDate);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                values.forEach((key, value) -> connection.stringCommands().set(
+                        key.getBytes(StandardCharsets.UTF_8),
+                        value.getBytes(StandardCharsets.UTF_8),
+                        expiration,
+                        RedisStringCommands.SetOption.upsert()));
+                return null;
+            });
+            log.info(">>>批量添加数据到Redis缓存: count={}", values.size());
+        } catch (Exception e) {
+            log.error(">>>批量添加数据到Redis缓存失败: count={}", values.size(), e);
+        }
+    }
+
+    /**
+     * 添加携带链接过期时刻的缓存
+     * 过期时刻在默认缓存时长之内时，键额外保留空值过期时间，过期后读取仍命中并解码为负命中，同时登记过期索引；
+     * 更远的过期时刻只缓存默认时长，到期后回源重建
+     *
+     * @param expireAt 链接过期时刻（毫秒），永久有效为 {@link LinkCacheValue#PERMANENT}
+     */
+    public void putUntil(String key, String value, long expireAt) {
+        putBatchUntil(Map.of(key, value), expireAt);
+    }
+
+    /**
+     * 批量添加携带链接过期时刻的缓存，单次 pipeline 写入；已过期的链接不写入
+     *
+     * @param values   短链接 -> 原始链接
+     * @param expireAt 链接过期时刻（毫秒），永久有效为 {@link LinkCacheValue#PERMANENT}
+     */
+    public void putBatchUntil(Map<String, String> values, long expireAt) {
+        if (expireAt == LinkCacheValue.PERMANENT) {
+            putBatch(values, RedisKeyConstants.DEFAULT_CACHE_VALID_TIME);
+            return;
+        }
+        long ttl = expireAt - System.currentTimeMillis();
+        if (values.isEmpty() || ttl <= 0) {
+            return;
+        }
+        boolean indexed = ttl <= RedisKeyConstants.DEFAULT_CACHE_VALID_TIME;
+        Expiration expiration = Expiration.milliseconds(indexed
+                ? ttl + RedisKeyConstants.NULL_EXPIRE_TIME.toMillis()
+                : RedisKeyConstants.DEFAULT_CACHE_VALID_TIME);
+        byte[] indexKey = RedisKeyConstants.LINK_EXPIRE_INDEX_KEY.getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                values.forEach((key, value) -> {
+                    byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                    connection.stringCommands().set(rawKey,
+                            LinkCacheValue.encode(value, expireAt).getBytes(StandardCharsets.UTF_8),
+                            expiration,
+                            RedisStringCommands.SetOption.upsert());
+                    if (indexed) {
+                        connection.zSetCommands().zAdd(indexKey, expireAt, rawKey);
+                    }
+                });
+                return null;
+            });
+            log.info(">>>添加数据到Redis缓存: count={}, expireAt={}", values.size(), expireAt);
+        } catch (Exception e) {
+            log.error(">>>添加数据到Redis缓存失败: count={}, expireAt={}", values.size(), expireAt, e);
+        }
+    }
+
+    /**
+     * 回填缓存：回源期间该键被失效（墓碑版本号更高）时放弃写入
+     * 永久有效的链接按热点过期时间写入，有有效期的链接同 {@link #putUntil}，空值或已过期的链接写入空值
+     *
+     * @param expireAt 链接过期时刻（毫秒），永久有效为 {@link LinkCacheValue#PERMANENT}
+     * @param version  回源前的全局版本号 {@link #currentVersion()}
+     * @return 是否写入
+     */
+    public boolean putIfNotInvalidated(String key, String value, long expireAt, long version) {
+        long ttl = expireAt == LinkCacheValue.PERMANENT ? 0 : expireAt - System.currentTimeMillis();
+        String cacheValue;
+        long expireTime;
+        String indexScore = "";
+        if (RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(value) || (expireAt != LinkCacheValue.PERMANENT && ttl <= 0)) {
+            cacheValue = RedisKeyConstants.LINK_NOT_EXIST_VALUE;
+            expireTime = RedisKeyConstants.NULL_EXPIRE_TIME.toMillis();
+        } else if (expireAt == LinkCacheValue.PERMANENT) {
+            cacheValue = value;
+            expireTime = RedisKeyConstants.NORAML_EXPIRE_TIME
+                    .plus(Duration.ofHours(ThreadLocalRandom.current().nextInt(0, 3))).toMillis();
+        } else {
+            cacheValue = LinkCacheValue.encode(value, expireAt);
+            if (ttl <= RedisKeyConstants.DEFAULT_CACHE_VALID_TIME) {
+                expireTime = ttl + RedisKeyConstants.NULL_EXPIRE_TIME.toMillis();
+                indexScore = String.valueOf(expireAt);
+            } else {
+                expireTime = RedisKeyConstants.DEFAULT_CACHE_VALID_TIME;
+            }
+        }
+        try {
+            Long written = redisTemplate.execute(REFILL_SCRIPT,
+                    List.of(key, RedisKeyConstants.LINK_TOMBSTONE_KEY + key, RedisKeyConstants.LINK_EXPIRE_INDEX_KEY),
+                    String.valueOf(version), cacheValue, String.valueOf(expireTime), indexScore);
+            if (written == null || written == 0) {
+                log.info(">>>回源期间缓存已失效，放弃回填Redis缓存: key={}, version={}", key, version);
+                return false;
+            }
+            log.debug(">>>添加数据到Redis缓存: key={}, value={}", key, cacheValue);
+            return true;
+        } catch (Exception e) {
+            log.error(">>>添加数据到Redis缓存失败: key={}, value={}", key, cacheValue, e);
+            return false;
+        }
+    }
+
+    /**
+     * 当前全局失效版本号，回源前记录，回填时传入 {@link #putIfNotInvalidated}；读取失败时返回 0（存在墓碑即放弃回填）
+     */
+    public long currentVersion() {
+        try {
+            String version = redisTemplate.opsForValue().get(RedisKeyConstants.LINK_VERSION_KEY);
+            return version == null ? 0 : Long.parseLong(version);
+        } catch (Exception e) {
+            log.warn(">>>读取缓存失效版本号失败: error={}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 失效一批短链接的 Redis 缓存
+     *
+     * @param keys         短链接
+     * @param tombstoneTtl 墓碑过期时间（毫秒），需大于回源最大耗时
+     * @return 本次失效的版本号
+     */
+    public long invalidate(Collection<String> keys, long tombstoneTtl) {
+        List<String> scriptKeys = new ArrayList<>(keys.size() * 2 + 1);
+        scriptKeys.add(RedisKeyConstants.LINK_VERSION_KEY);
+        for (String key : keys) {
+            scriptKeys.add(RedisKeyConstants.LINK_TOMBSTONE_KEY + key);
+            scriptKeys.add(key);
+        }
+        Long version = redisTemplate.execute(INVALIDATE_SCRIPT, scriptKeys, String.valueOf(tombstoneTtl));
+        log.info(">>>失效Redis缓存: count={}, version={}", keys.size(), version);
+        return version == null ? 0 : version;
+    }
+
     public void putNull(String key, String value) {
-        redisTemplate.opsForValue().set(key, value, 3, TimeUnit.MINUTES);
+        redisTemplate.opsForValue().set(key, value, RedisKeyConstants.NULL_EXPIRE_TIME);
+    }
+
+    /**
+     * 从过期索引取出一批已过期的短链接，把缓存替换为空值
+     *
+     * @param now       当前时刻（毫秒）
+     * @param batchSize 单批最大数量
+     * @return 本批取出的索引条目数与替换的缓存数
+     */
+    public SweepResult sweepExpired(long now, int batchSize) {
+        Set<String> members = redisTemplate.opsForZSet()
+                .rangeByScore(RedisKeyConstants.LINK_EXPIRE_INDEX_KEY, 0, now, 0, batchSize);
+        if (members == null || members.isEmpty()) {
+            return new SweepResult(0, 0);
+        }
+        List<String> keys = new ArrayList<>(members.size() + 1);
+        keys.add(RedisKeyConstants.LINK_EXPIRE_INDEX_KEY);
+        keys.addAll(members);
+        Long swept = redisTemplate.execute(SWEEP_SCRIPT, keys, String.valueOf(now),
+                RedisKeyConstants.LINK_NOT_EXIST_VALUE, String.valueOf(RedisKeyConstants.NULL_EXPIRE_TIME.toMillis()));
+        return new SweepResult(members.size(), swept == null ? 0 : swept);
+    }
+
+    /**
+     * 过期清理结果
+     *
+     * @param scanned 取出的索引条目数
+     * @param swept   替换为空值的缓存数
+     */
+    public record SweepResult(int scanned, long swept) {
     }
 }
@@ -10,10 +10,44 @@ public class RedisKeyConstants {
 
     public static final String BLOOM_FILTER_NAME = BLOOM_FILTER_PREFIX + "zlink_bloom_filter";
 
+    /**
+     * 布隆过滤器位图前缀，实际键为 {前缀}:{纪元}:{代}
+     */
+    public static final String BLOOM_FILTER_BITMAP_KEY = BLOOM_FILTER_PREFIX + "zlink_bloom_bitmap";
+
+    public static final String BLOOM_FILTER_META_KEY = BLOOM_FILTER_PREFIX + "zlink_bloom_meta";
+
+    public static final String BLOOM_FILTER_REBUILD_LOCK_KEY = BLOOM_FILTER_PREFIX + "rebuild_lock";
+
+    public static final String BLOOM_FILTER_DELTA_KEY = BLOOM_FILTER_PREFIX + "zlink_bloom_delta";
+
+    /**
+     * 历史短链接集合（已废弃，仅用于一次性迁移到位图）
+     */
     public static final String BLOOM_FILTER_KEY = CACHE_PREFIX + "bloom_filter";
 
     public static final String LINK_CACHE_KEY = CACHE_PREFIX + "link_cache:";
 
+    /**
+     * 有有效期的短链接缓存过期索引（ZSET，score 为链接过期时刻毫秒），供过期清理任务按批次取出
+     */
+    public static final String LINK_EXPIRE_INDEX_KEY = CACHE_PREFIX + "link_expire_index";
+
+    /**
+     * 短链接缓存失效版本号（全局递增），每次修改 / 删除短链接时自增
+     */
+    public static final String LINK_VERSION_KEY = CACHE_PREFIX + "link_version";
+
+    /**
+     * 短链接缓存失效墓碑，键为 {前缀}{短链接}，值为失效版本号，版本不高于墓碑的回源结果不写入缓存
+     */
+    public static final String LINK_TOMBSTONE_KEY = CACHE_PREFIX + "link_tombstone:";
+
+    /**
+     * 短链接缓存失效消息频道（pub/sub），各节点订阅后清理本地缓存
+     */
+    public static final String LINK_INVALIDATION_CHANNEL = CACHE_PREFIX + "link_invalidation";
+
     public static final String COUNT_CACHE_KEY = CACHE_PREFIX + "count_cache:";
 
     public static final Duration NORAML_EXPIRE_TIME = Duration.ofHours(1);
@@ -22,8 +56,40 @@ public class RedisKeyConstants {
 
     public static final String LINK_NOT_EXIST_VALUE = "-1";
 
+    /**
+     * 空值缓存过期时间，也是链接过期后 Redis 缓存继续提供负命中的时长
+     */
+    public static final Duration NULL_EXPIRE_TIME = Duration.ofMinutes(3);
+
     public static final long DEFAULT_CACHE_VALID_TIME = 2626560000L;
 
+    /**
+     * 短链接序列号计数器，按号段递增
+     */
+    public static final String SHORT_URL_SEQUENCE_KEY = "zlink:sequence:short_url";
+
     public static final String LINK_LOCK_KEY_PREFIX = "zlink:lock:link_lock:";
 
+    public static final String STATS_PREFIX = "zlink:stats:";
+
+    /**
+     * 短链接 UV HyperLogLog，累计键为 {前缀}{短链接}，按天键为 {前缀}{短链接}:{yyyyMMdd}
+     */
+    public static final String STATS_UV_KEY = STATS_PREFIX + "uv:";
+
+    /**
+     * 短链接 UIP HyperLogLog，键格式同 UV
+     */
+    public static final String STATS_UIP_KEY = STATS_PREFIX + "uip:";
+
+    /**
+     * 分组按天 UV HyperLogLog，键为 {前缀}{gid}:{yyyyMMdd}
+     */
+    public static final String STATS_GROUP_UV_KEY = STATS_PREFIX + "group_uv:";
+
+    /**
+     * 分组按天 UIP HyperLogLog，键格式同分组 UV
+     */
+    public static final String STATS_GROUP_UIP_KEY = STATS_PREFIX + "group_uip:";
+
 }
@@ -0,0 +1,47 @@
+package com.zicca.zlink.backend.common.enums;
+
+import cn.hutool.core.util.StrUtil;
+import com.zicca.zlink.framework.execption.ClientException;
+import lombok.Getter;
+
+/**
+ * 短链接分页排序标识，均按降序排列，相同排序值按主键降序
+ */
+@Getter
+public enum LinkOrderTagEnum {
+
+    CREATE_TIME("创建时间", "create_time"),
+    PV("总访问量", "total_pv"),
+    UV("总独立访客数", "total_uv"),
+    UIP("总独立IP数", "total_uip");
+
+    private final String desc;
+    /**
+     * 排序列，只取自枚举，可安全拼接到 SQL
+     */
+    private final String column;
+
+    LinkOrderTagEnum(String desc, String column) {
+        this.desc = desc;
+        this.column = column;
+    }
+
+    /**
+     * 解析排序标识，兼容 totalPv / totalUv / totalUip 写法
+     *
+     * @param orderTag 排序标识，为空时按创建时间排序
+     * @return 排序标识
+     */
+    public static LinkOrderTagEnum of(String orderTag) {
+        if (StrUtil.isBlank(orderTag)) {
+            return CREATE_TIME;
+        }
+        String tag = StrUtil.removePrefix(orderTag.trim().toUpperCase(), "TOTAL");
+        for (LinkOrderTagEnum each : values()) {
+            if (each.name().equals(tag)) {
+                return each;
+            }
+        }
+        throw new ClientException("无效的【排序标识】：" + orderTag);
+    }
+}
@@ -0,0 +1,23 @@
+package com.zicca.zlink.backend.common.enums;
+
+import lombok.Getter;
+
+/**
+ * 访问统计维度
+ */
+@Getter
+public enum StatsDimensionEnum {
+
+    OS("操作系统", "os"),
+    BROWSER("浏览器", "browser"),
+    DEVICE("访问设备", "device"),
+    NETWORK("访问网络", "network");
+
+    private final String desc;
+    private final String code;
+
+    StatsDimensionEnum(String desc, String code) {
+        this.desc = desc;
+        this.code = code;
+    }
+}
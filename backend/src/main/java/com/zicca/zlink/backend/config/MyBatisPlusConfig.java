@@ -16,6 +16,11 @@ import java.util.Date;
 @Configuration
 public class MyBatisPlusConfig {
 
+    /**
+     * 自动填充的创建人 / 修改人；不经过自动填充的多行插入需手动设置时同样取此值
+     */
+    public static final String DEFAULT_OPERATOR = "admin";
+
     @Bean
     public MybatisPlusInterceptor mybatisPlusInterceptor() {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
@@ -43,15 +48,15 @@ public class MyBatisPlusConfig {
             strictInsertFill(metaObject, "deleteTime", () -> 0L, Long.class);
             strictInsertFill(metaObject, "createTime", Date::new, Date.class);
             strictInsertFill(metaObject, "updateTime", Date::new, Date.class);
-            strictInsertFill(metaObject, "createBy", () -> "admin", String.class);
-            strictInsertFill(metaObject, "updateBy", () -> "admin", String.class);
+            strictInsertFill(metaObject, "createBy", () -> DEFAULT_OPERATOR, String.class);
+            strictInsertFill(metaObject, "updateBy", () -> DEFAULT_OPERATOR, String.class);
             strictInsertFill(metaObject, "deleteFlag", () -> 0, Integer.class);
         }
 
         @Override
         public void updateFill(MetaObject metaObject) {
             strictUpdateFill(metaObject, "updateTime", Date::new, Date.class);
-            strictUpdateFill(metaObject, "updateBy", () -> "admin", String.class);
+            strictUpdateFill(metaObject, "updateBy", () -> DEFAULT_OPERATOR, String.class);
         }
     }
 
@@ -2,8 +2,12 @@ package com.zicca.zlink.backend.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.convert.DurationUnit;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
 /**
  * 短链接生成配置
  */
@@ -13,7 +17,12 @@ import org.springframework.context.annotation.Configuration;
 public class ShortUrlConfig {
 
     /**
-     * 哈希类型 (32/64/128)
+     * 序列置换生成策略对应的哈希类型
+     */
+    public static final int HASH_TYPE_SEQUENCE = 0;
+
+    /**
+     * 哈希类型 (32/64/128)，0 表示序列置换（号段计数器 + Feistel 置换 + 定长 Base62，无需冲突检测）
      */
     private Integer hashType = 32;
 
@@ -52,6 +61,15 @@ public class ShortUrlConfig {
      */
     private PreGenerate preGenerate = new PreGenerate();
 
+    /**
+     * 序列置换配置
+     */
+    private Sequence sequence = new Sequence();
+
+    public boolean isSequenceMode() {
+        return hashType != null && hashType == HASH_TYPE_SEQUENCE;
+    }
+
     @Data
     public static class PreGenerate {
         /**
@@ -75,18 +93,67 @@ public class ShortUrlConfig {
         private Integer minThreshold = 100;
 
         /**
-         * 每次批量生成数量
+         * 每次批量生成数量（自适应补充的最小批量）
          */
         private Integer batchSize = 500;
 
         /**
-         * 生成间隔（秒）
+         * 自适应补充的最大批量
          */
-        private Integer generateInterval = 30;
+        private Integer maxBatchSize = 5000;
+
+        /**
+         * 补充量覆盖的时间范围（秒）：按获取速率预留该时长所需的短链接
+         */
+        private Integer refillHorizon = 60;
+
+        /**
+         * 获取速率指数加权移动平均的时间窗口（秒）
+         */
+        private Integer rateWindow = 60;
+
+        /**
+         * 兜底检查间隔，补充主要由低水位触发；不带单位时按秒解析，也可写作 30s / PT30S
+         */
+        @DurationUnit(ChronoUnit.SECONDS)
+        private Duration generateInterval = Duration.ofSeconds(30);
 
         /**
          * 单次生成最大耗时（毫秒）
          */
         private Integer maxGenerateTime = 5000;
     }
-}
\ No newline at end of file
+
+    @Data
+    public static class Sequence {
+        /**
+         * 短链接长度，可用序列号个数为 62^length
+         */
+        private Integer length = 7;
+
+        /**
+         * 置换密钥，集群内必须一致，上线后不可修改
+         */
+        private Long secret = 0x5A4C696E6BL;
+
+        /**
+         * Feistel 轮数
+         */
+        private Integer rounds = 4;
+
+        /**
+         * 号段存储 (redis/mysql)
+         */
+        private String store = "redis";
+
+        /**
+         * 每次申请的号段大小
+         */
+        private Integer step = 1000;
+
+        /**
+         * 当前号段使用比例达到该值时异步预取下一段
+         */
+        private Double prefetchRatio = 0.8;
+    }
+}
@@ -1,7 +1,15 @@
 package com.zicca.zlink.backend.controller;
 
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.zicca.zlink.backend.dto.req.ZLinkBatchCreateReqDTO;
 import com.zicca.zlink.backend.dto.req.ZLinkCreateReqDTO;
+import com.zicca.zlink.backend.dto.req.ZLinkDeleteReqDTO;
+import com.zicca.zlink.backend.dto.req.ZLinkPageReqDTO;
+import com.zicca.zlink.backend.dto.req.ZLinkUpdateReqDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkBatchCreateRespDTO;
 import com.zicca.zlink.backend.dto.resp.ZLinkCreateRespDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkGroupCountQueryRespDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkPageRespDTO;
 import com.zicca.zlink.backend.service.ZLinkService;
 import com.zicca.zlink.framework.result.Result;
 import com.zicca.zlink.framework.web.Results;
@@ -15,6 +23,8 @@ import jakarta.servlet.ServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @Tag(description = "短链接管理", name = "短链接接口管理")
 @RestController
 @RequestMapping("backend/api/v1/shorturl/")
@@ -39,6 +49,75 @@ public class ZLinkController {
     }
 
 
+    @PostMapping("/batch-create")
+    @Operation(summary = "批量创建短链接", description = "批量创建短链接，按请求顺序返回每条链接的创建结果")
+    @ApiResponse(
+            responseCode = "200",
+            description = "创建成功",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ZLinkBatchCreateRespDTO.class)
+            )
+    )
+    public Result<ZLinkBatchCreateRespDTO> batchCreate(@RequestBody ZLinkBatchCreateReqDTO reqDTO) {
+        return Results.success(zLinkService.batchCreateZLink(reqDTO));
+    }
+
+
+    @PostMapping("/update")
+    @Operation(summary = "修改短链接", description = "修改短链接，提交后各节点缓存失效")
+    @ApiResponse(
+            responseCode = "200",
+            description = "修改成功"
+    )
+    public Result<Void> update(@RequestBody ZLinkUpdateReqDTO reqDTO) {
+        zLinkService.updateZLink(reqDTO);
+        return Results.success();
+    }
+
+
+    @PostMapping("/delete")
+    @Operation(summary = "删除短链接", description = "删除短链接，提交后各节点缓存失效")
+    @ApiResponse(
+            responseCode = "200",
+            description = "删除成功"
+    )
+    public Result<Void> delete(@RequestBody ZLinkDeleteReqDTO reqDTO) {
+        zLinkService.deleteZLink(reqDTO);
+        return Results.success();
+    }
+
+
+    @GetMapping("/page")
+    @Operation(summary = "分页查询短链接", description = "分页查询分组内短链接，翻页时传入上一页最后一条记录作为游标")
+    @ApiResponse(
+            responseCode = "200",
+            description = "查询成功",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ZLinkPageRespDTO.class)
+            )
+    )
+    public Result<IPage<ZLinkPageRespDTO>> page(ZLinkPageReqDTO reqDTO) {
+        return Results.success(zLinkService.pageZLink(reqDTO));
+    }
+
+
+    @GetMapping("/count")
+    @Operation(summary = "查询分组短链接数量", description = "查询分组短链接数量")
+    @ApiResponse(
+            responseCode = "200",
+            description = "查询成功",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ZLinkGroupCountQueryRespDTO.class)
+            )
+    )
+    public Result<List<ZLinkGroupCountQueryRespDTO>> listGroupZLinkCount(@RequestParam("requestParam") List<String> requestParam) {
+        return Results.success(zLinkService.listGroupZLinkCount(requestParam));
+    }
+
+
     @GetMapping("/{short-url}")
     @Operation(summary = "访问短链接", description = "访问短链接")
     @ApiResponse(
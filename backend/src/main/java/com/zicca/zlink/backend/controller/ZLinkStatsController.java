@@ -0,0 +1,42 @@
+package com.zicca.zlink.backend.controller;
+
+import com.zicca.zlink.backend.dto.req.ZLinkStatsReqDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkStatsRespDTO;
+import com.zicca.zlink.backend.service.ZLinkStatsService;
+import com.zicca.zlink.framework.result.Result;
+import com.zicca.zlink.framework.web.Results;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(description = "短链接访问统计", name = "短链接访问统计接口")
+@RestController
+@RequestMapping("backend/api/v1/stats/")
+@RequiredArgsConstructor
+public class ZLinkStatsController {
+
+    private final ZLinkStatsService zLinkStatsService;
+
+
+    @GetMapping("/link")
+    @Operation(summary = "查询短链接访问统计", description = "查询单个短链接在日期区间内的PV/UV/UIP、按天/小时/星期分布及操作系统、浏览器、设备、网络分布")
+    @ApiResponse(
+            responseCode = "200",
+            description = "查询成功",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ZLinkStatsRespDTO.class)
+            )
+    )
+    public Result<ZLinkStatsRespDTO> linkStats(ZLinkStatsReqDTO reqDTO) {
+        return Results.success(zLinkStatsService.getLinkStats(reqDTO));
+    }
+
+
+}
@@ -0,0 +1,50 @@
+package com.zicca.zlink.backend.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 短链接小时访问统计
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("z_link_access_stats")
+public class ZLinkAccessStats {
+
+    /**
+     * 完整短链接
+     */
+    private String shortUrl;
+
+    /**
+     * 日期
+     */
+    private LocalDate date;
+
+    /**
+     * 小时 0-23
+     */
+    private Integer hour;
+
+    /**
+     * 访问次数
+     */
+    private Long pv;
+
+    /**
+     * 新访客数
+     */
+    private Long uv;
+
+    /**
+     * 新IP数
+     */
+    private Long uip;
+}
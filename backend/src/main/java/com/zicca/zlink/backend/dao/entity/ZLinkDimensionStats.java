@@ -0,0 +1,45 @@
+package com.zicca.zlink.backend.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 短链接维度访问统计
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("z_link_dimension_stats")
+public class ZLinkDimensionStats {
+
+    /**
+     * 完整短链接
+     */
+    private String shortUrl;
+
+    /**
+     * 日期
+     */
+    private LocalDate date;
+
+    /**
+     * 维度，见 {@link com.zicca.zlink.backend.common.enums.StatsDimensionEnum}
+     */
+    private String dimension;
+
+    /**
+     * 维度取值
+     */
+    private String dimValue;
+
+    /**
+     * 访问次数
+     */
+    private Long cnt;
+}
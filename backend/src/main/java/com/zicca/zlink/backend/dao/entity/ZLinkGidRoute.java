@@ -0,0 +1,57 @@
+package com.zicca.zlink.backend.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 分组路由（分组标识 -> 短链接）
+ * z_link 按短链接分片后，按分组查询先读本表（按 gid 分片，同一分组落在同一张表），再按短链接定点查询 z_link
+ * 冗余 z_link 的分页排序列，分组分页在本表上按 (排序列, link_id) 游标翻页
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("z_link_gid_route")
+public class ZLinkGidRoute {
+
+    /**
+     * 分组标识
+     */
+    private String gid;
+
+    /**
+     * 短链接 url
+     */
+    private String shortUrl;
+
+    /**
+     * 短链接主键
+     */
+    private Long linkId;
+
+    /**
+     * 短链接创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 历史PV，访问统计写回时同步累加
+     */
+    private Integer totalPv;
+
+    /**
+     * 历史UV
+     */
+    private Integer totalUv;
+
+    /**
+     * 历史UIP
+     */
+    private Integer totalUip;
+}
@@ -0,0 +1,40 @@
+package com.zicca.zlink.backend.dao.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 号段分配表（z_id_segment）
+ */
+public interface IdSegmentMapper {
+
+    /**
+     * 初始化业务号段，已存在时忽略
+     *
+     * @param bizTag 业务标识
+     * @return 插入行数
+     */
+    @Insert("INSERT IGNORE INTO z_id_segment (biz_tag, max_id) VALUES (#{bizTag}, 0)")
+    int insertIgnore(@Param("bizTag") String bizTag);
+
+    /**
+     * 原子推进最大序列号（持有行锁直到事务提交）
+     *
+     * @param bizTag 业务标识
+     * @param step   号段大小
+     * @return 更新行数，业务号段不存在时为 0
+     */
+    @Update("UPDATE z_id_segment SET max_id = max_id + #{step} WHERE biz_tag = #{bizTag}")
+    int incrementMaxId(@Param("bizTag") String bizTag, @Param("step") long step);
+
+    /**
+     * 查询最大序列号
+     *
+     * @param bizTag 业务标识
+     * @return 最大序列号
+     */
+    @Select("SELECT max_id FROM z_id_segment WHERE biz_tag = #{bizTag}")
+    Long selectMaxId(@Param("bizTag") String bizTag);
+}
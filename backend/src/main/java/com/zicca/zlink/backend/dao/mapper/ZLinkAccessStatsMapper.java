@@ -0,0 +1,58 @@
+package com.zicca.zlink.backend.dao.mapper;
+
+import com.zicca.zlink.backend.dao.entity.ZLinkAccessStats;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 短链接小时访问统计表（z_link_access_stats）
+ */
+public interface ZLinkAccessStatsMapper {
+
+    /**
+     * 批量累加小时统计，行不存在时插入
+     *
+     * @param stats 统计增量，调用方需按唯一键排序，避免并发 upsert 互相等待行锁
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO z_link_access_stats (short_url, date, hour, pv, uv, uip) VALUES " +
+            "<foreach collection='stats' item='item' separator=','>" +
+            "(#{item.shortUrl}, #{item.date}, #{item.hour}, #{item.pv}, #{item.uv}, #{item.uip})" +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE pv = pv + VALUES(pv), uv = uv + VALUES(uv), uip = uip + VALUES(uip)" +
+            "</script>")
+    int upsertBatch(@Param("stats") List<ZLinkAccessStats> stats);
+
+    /**
+     * 按天汇总日期区间内的访问统计
+     *
+     * @param shortUrl  完整短链接
+     * @param startDate 开始日期
+     * @param endDate   结束日期（含）
+     * @return 每天一行，hour 为空
+     */
+    @Select("SELECT date, SUM(pv) AS pv, SUM(uv) AS uv, SUM(uip) AS uip FROM z_link_access_stats " +
+            "WHERE short_url = #{shortUrl} AND date BETWEEN #{startDate} AND #{endDate} GROUP BY date ORDER BY date")
+    List<ZLinkAccessStats> selectDailyStats(@Param("shortUrl") String shortUrl,
+                                            @Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate);
+
+    /**
+     * 按小时汇总日期区间内的访问统计
+     *
+     * @param shortUrl  完整短链接
+     * @param startDate 开始日期
+     * @param endDate   结束日期（含）
+     * @return 每小时一行，date 为空
+     */
+    @Select("SELECT hour, SUM(pv) AS pv, SUM(uv) AS uv, SUM(uip) AS uip FROM z_link_access_stats " +
+            "WHERE short_url = #{shortUrl} AND date BETWEEN #{startDate} AND #{endDate} GROUP BY hour ORDER BY hour")
+    List<ZLinkAccessStats> selectHourlyStats(@Param("shortUrl") String shortUrl,
+                                             @Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+}
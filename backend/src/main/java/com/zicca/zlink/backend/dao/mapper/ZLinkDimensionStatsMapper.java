@@ -0,0 +1,45 @@
+package com.zicca.zlink.backend.dao.mapper;
+
+import com.zicca.zlink.backend.dao.entity.ZLinkDimensionStats;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 短链接维度访问统计表（z_link_dimension_stats）
+ */
+public interface ZLinkDimensionStatsMapper {
+
+    /**
+     * 批量累加维度统计，行不存在时插入
+     *
+     * @param stats 统计增量，调用方需按唯一键排序，避免并发 upsert 互相等待行锁
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO z_link_dimension_stats (short_url, date, dimension, dim_value, cnt) VALUES " +
+            "<foreach collection='stats' item='item' separator=','>" +
+            "(#{item.shortUrl}, #{item.date}, #{item.dimension}, #{item.dimValue}, #{item.cnt})" +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE cnt = cnt + VALUES(cnt)" +
+            "</script>")
+    int upsertBatch(@Param("stats") List<ZLinkDimensionStats> stats);
+
+    /**
+     * 按维度取值汇总日期区间内的访问次数
+     *
+     * @param shortUrl  完整短链接
+     * @param startDate 开始日期
+     * @param endDate   结束日期（含）
+     * @return 每个维度取值一行，date 为空
+     */
+    @Select("SELECT dimension, dim_value, SUM(cnt) AS cnt FROM z_link_dimension_stats " +
+            "WHERE short_url = #{shortUrl} AND date BETWEEN #{startDate} AND #{endDate} " +
+            "GROUP BY dimension, dim_value ORDER BY dimension, cnt DESC")
+    List<ZLinkDimensionStats> selectDimensionStats(@Param("shortUrl") String shortUrl,
+                                                   @Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,97 @@
+package com.zicca.zlink.backend.dao.mapper;
+
+import com.zicca.zlink.backend.dao.entity.ZLinkGidRoute;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsDeltaDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkGroupCountQueryRespDTO;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 分组路由表（z_link_gid_route），分片模式下按 gid 分片
+ */
+public interface ZLinkGidRouteMapper {
+
+    /**
+     * 批量写入分组路由，已存在的路由忽略（重试幂等）
+     *
+     * @param routes 分组路由集合
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO z_link_gid_route (gid, short_url, link_id, create_time, total_pv, total_uv, total_uip) VALUES " +
+            "<foreach collection='routes' item='item' separator=','>" +
+            "(#{item.gid}, #{item.shortUrl}, #{item.linkId}, #{item.createTime}, #{item.totalPv}, #{item.totalUv}, #{item.totalUip})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("routes") List<ZLinkGidRoute> routes);
+
+    /**
+     * 按 (排序列, 短链接主键) 游标分页查询分组下的短链接，降序，只访问分组所在的一张路由表
+     * 由索引 (gid, 排序列, link_id) 定位到游标位置后顺序读取 limit 行，游标与 z_link 单表分页一致
+     *
+     * @param gid         分组标识
+     * @param orderColumn 排序列，只能取自 {@link com.zicca.zlink.backend.common.enums.LinkOrderTagEnum}
+     * @param lastValue   上一页最后一条记录的排序值，首页为空
+     * @param lastId      上一页最后一条记录的短链接主键，首页为空
+     * @param limit       每页数量
+     * @return 分组路由（短链接、短链接主键与排序值）
+     */
+    @Select("<script>" +
+            "SELECT short_url, link_id, create_time, total_pv, total_uv, total_uip FROM z_link_gid_route WHERE gid = #{gid} " +
+            "<if test='lastId != null'>" +
+            "AND (${orderColumn} &lt; #{lastValue} OR (${orderColumn} = #{lastValue} AND link_id &lt; #{lastId})) " +
+            "</if>" +
+            "ORDER BY ${orderColumn} DESC, link_id DESC LIMIT #{limit}" +
+            "</script>")
+    List<ZLinkGidRoute> selectPageByGid(@Param("gid") String gid, @Param("orderColumn") String orderColumn,
+                                        @Param("lastValue") Object lastValue, @Param("lastId") Long lastId, @Param("limit") long limit);
+
+    /**
+     * 统计分组下的短链接数量，按 gid 路由到分组所在的路由表，由主键前缀覆盖
+     *
+     * @param gids 分组标识集合
+     * @return 分组数量，没有短链接的分组不返回
+     */
+    @Select("<script>" +
+            "SELECT gid, COUNT(*) AS short_link_count FROM z_link_gid_route WHERE gid IN " +
+            "<foreach collection='gids' item='item' open='(' separator=',' close=')'>#{item}</foreach> " +
+            "GROUP BY gid" +
+            "</script>")
+    List<ZLinkGroupCountQueryRespDTO> countByGids(@Param("gids") Collection<String> gids);
+
+    /**
+     * 批量累加同一分组下短链接的排序统计（单条 UPDATE ... CASE），与 z_link 的访问统计写回保持一致
+     *
+     * @param gid    分组标识
+     * @param deltas 统计增量集合
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE z_link_gid_route SET " +
+            "total_pv = total_pv + CASE short_url " +
+            "<foreach collection='deltas' item='item' separator=' '>WHEN #{item.shortUrl} THEN #{item.pv}</foreach> ELSE 0 END, " +
+            "total_uv = total_uv + CASE short_url " +
+            "<foreach collection='deltas' item='item' separator=' '>WHEN #{item.shortUrl} THEN #{item.uv}</foreach> ELSE 0 END, " +
+            "total_uip = total_uip + CASE short_url " +
+            "<foreach collection='deltas' item='item' separator=' '>WHEN #{item.shortUrl} THEN #{item.uip}</foreach> ELSE 0 END " +
+            "WHERE gid = #{gid} AND short_url IN " +
+            "<foreach collection='deltas' item='item' open='(' separator=',' close=')'>#{item.shortUrl}</foreach>" +
+            "</script>")
+    int incrementStats(@Param("gid") String gid, @Param("deltas") List<ZLinkStatsDeltaDTO> deltas);
+
+    /**
+     * 删除分组路由
+     *
+     * @param gid      分组标识
+     * @param shortUrl 短链接
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM z_link_gid_route WHERE gid = #{gid} AND short_url = #{shortUrl}")
+    int delete(@Param("gid") String gid, @Param("shortUrl") String shortUrl);
+}
@@ -2,6 +2,165 @@ package com.zicca.zlink.backend.dao.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.zicca.zlink.backend.dao.entity.ZLink;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsDeltaDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkGroupCountQueryRespDTO;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ZLinkMapper extends BaseMapper<ZLink> {
+
+    /**
+     * 多行批量插入短链接（单条 INSERT ... VALUES (...), (...)）
+     * 不经过 MyBatis-Plus 自动填充，调用方需设置主键与公共字段
+     *
+     * @param links 短链接集合
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO z_link (id, domain, short_uri, short_url, origin_url, gid, click_num, enable_status, create_type, " +
+            "valid_data_type, valid_date, description, favicon, total_pv, total_uv, total_uip, delete_time, " +
+            "create_time, update_time, create_by, update_by, delete_flag) VALUES " +
+            "<foreach collection='links' item='item' separator=','>" +
+            "(#{item.id}, #{item.domain}, #{item.shortUri}, #{item.shortUrl}, #{item.originUrl}, #{item.gid}, #{item.clickNum}, " +
+            "#{item.enableStatus}, #{item.createType}, #{item.validDateType}, #{item.validDate}, #{item.describe}, #{item.favicon}, " +
+            "#{item.totalPv}, #{item.totalUv}, #{item.totalUip}, #{item.deleteTime}, " +
+            "#{item.createTime}, #{item.updateTime}, #{item.createBy}, #{item.updateBy}, #{item.deleteFlag})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("links") List<ZLink> links);
+
+    /**
+     * 按主键游标分页查询全部短链接（仅主键与短链接），用于重建布隆过滤器
+     * 包括已删除的记录：已删除的短链接不会重新发放（见 {@link #existsShortUrl}），重建后仍需留在布隆过滤器中
+     *
+     * @param lastId 上一页最后一条主键
+     * @param limit  每页数量
+     * @return 短链接集合
+     */
+    @Select("SELECT id, short_url FROM z_link WHERE id > #{lastId} ORDER BY id LIMIT #{limit}")
+    List<ZLink> selectShortUrlPage(@Param("lastId") long lastId, @Param("limit") int limit);
+
+    /**
+     * 查询跳转所需字段（原始链接、启用状态、有效期），不读取描述、图标等大字段
+     * 由覆盖索引 idx_short_url_redirect 直接返回，不回表
+     *
+     * @param shortUrl 短链接
+     * @return 短链接（仅 originUrl / enableStatus / validDateType / validDate），不存在或已删除时为空
+     */
+    @Select("SELECT origin_url, enable_status, valid_data_type AS valid_date_type, valid_date FROM z_link " +
+            "WHERE short_url = #{shortUrl} AND delete_flag = 0 LIMIT 1")
+    ZLink selectRedirectInfo(@Param("shortUrl") String shortUrl);
+
+    /**
+     * 短链接是否已被占用，有意把已删除的记录也算作占用，已删除的短链接不会重新发放
+     * 唯一索引 uk_short_url (short_url, delete_time) 本身允许同一短链接在删除后再次写入，
+     * 但布隆过滤器不支持删除、仍包含已删除的短链接，且旧链接可能仍被外部引用，不复用更安全
+     * 只在唯一索引 uk_short_url 上定位第一条，不计数、不回表
+     *
+     * @param shortUrl 短链接
+     * @return 存在时为 1，否则为空
+     */
+    @Select("SELECT 1 FROM z_link WHERE short_url = #{shortUrl} LIMIT 1")
+    Integer existsShortUrl(@Param("shortUrl") String shortUrl);
+
+    /**
+     * 批量查询已被占用的短链接，与 {@link #existsShortUrl} 相同，已删除的记录也算作占用
+     * 用于回收超时节点的租约时确认短链接未被使用
+     *
+     * @param shortUrls 短链接集合
+     * @return 已存在的短链接
+     */
+    @Select("<script>" +
+            "SELECT short_url FROM z_link WHERE short_url IN " +
+            "<foreach collection='shortUrls' item='item' open='(' separator=',' close=')'>#{item}</foreach>" +
+            "</script>")
+    List<String> selectExistingShortUrls(@Param("shortUrls") Collection<String> shortUrls);
+
+    /**
+     * 按 (排序列, 主键) 游标分页查询分组内未删除的短链接，降序
+     * 由索引 (gid, delete_flag, 排序列, id) 定位到游标位置后顺序读取 limit 行，与页码无关
+     *
+     * @param gid         分组标识
+     * @param orderColumn 排序列，只能取自 {@link com.zicca.zlink.backend.common.enums.LinkOrderTagEnum}
+     * @param lastValue   上一页最后一条记录的排序值，首页为空
+     * @param lastId      上一页最后一条记录的主键，首页为空
+     * @param limit       每页数量
+     * @return 短链接集合
+     */
+    @Select("<script>" +
+            "SELECT id, domain, short_uri, short_url, origin_url, gid, enable_status, valid_data_type AS valid_date_type, " +
+            "valid_date, favicon, total_pv, total_uv, total_uip, create_time FROM z_link " +
+            "WHERE gid = #{gid} AND delete_flag = 0 " +
+            "<if test='lastId != null'>" +
+            "AND (${orderColumn} &lt; #{lastValue} OR (${orderColumn} = #{lastValue} AND id &lt; #{lastId})) " +
+            "</if>" +
+            "ORDER BY ${orderColumn} DESC, id DESC LIMIT #{limit}" +
+            "</script>")
+    List<ZLink> selectPageByGid(@Param("gid") String gid, @Param("orderColumn") String orderColumn,
+                                @Param("lastValue") Object lastValue, @Param("lastId") Long lastId, @Param("limit") long limit);
+
+    /**
+     * 按短链接批量查询未删除的短链接分页字段，分片模式下由分组路由表翻页后调用，只路由到短链接所在的分表
+     *
+     * @param shortUrls 短链接集合
+     * @return 短链接集合，顺序不保证
+     */
+    @Select("<script>" +
+            "SELECT id, domain, short_uri, short_url, origin_url, gid, enable_status, valid_data_type AS valid_date_type, " +
+            "valid_date, favicon, total_pv, total_uv, total_uip, create_time FROM z_link " +
+            "WHERE delete_flag = 0 AND short_url IN " +
+            "<foreach collection='shortUrls' item='item' open='(' separator=',' close=')'>#{item}</foreach>" +
+            "</script>")
+    List<ZLink> selectPageItemsByShortUrls(@Param("shortUrls") Collection<String> shortUrls);
+
+    /**
+     * 统计分组内未删除的短链接数量，只在分组计数缓存未命中时调用，由索引 (gid, delete_flag, ...) 覆盖
+     *
+     * @param gids 分组标识集合
+     * @return 分组数量，没有短链接的分组不返回
+     */
+    @Select("<script>" +
+            "SELECT gid, COUNT(*) AS short_link_count FROM z_link WHERE delete_flag = 0 AND gid IN " +
+            "<foreach collection='gids' item='item' open='(' separator=',' close=')'>#{item}</foreach> " +
+            "GROUP BY gid" +
+            "</script>")
+    List<ZLinkGroupCountQueryRespDTO> countByGids(@Param("gids") Collection<String> gids);
+
+    /**
+     * 批量查询短链接所属分组（仅短链接与分组标识）
+     *
+     * @param shortUrls 短链接集合
+     * @return 短链接集合
+     */
+    @Select("<script>" +
+            "SELECT short_url, gid FROM z_link WHERE short_url IN " +
+            "<foreach collection='shortUrls' item='item' open='(' separator=',' close=')'>#{item}</foreach>" +
+            "</script>")
+    List<ZLink> selectGidByShortUrls(@Param("shortUrls") Collection<String> shortUrls);
+
+    /**
+     * 批量累加短链接点击数与访问统计（单条 UPDATE ... CASE），每个短链接在一批中只出现一次
+     *
+     * @param deltas 统计增量集合
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE z_link SET " +
+            "click_num = click_num + CASE short_url " +
+            "<foreach collection='deltas' item='item' separator=' '>WHEN #{item.shortUrl} THEN #{item.pv}</foreach> ELSE 0 END, " +
+            "total_pv = total_pv + CASE short_url " +
+            "<foreach collection='deltas' item='item' separator=' '>WHEN #{item.shortUrl} THEN #{item.pv}</foreach> ELSE 0 END, " +
+            "total_uv = total_uv + CASE short_url " +
+            "<foreach collection='deltas' item='item' separator=' '>WHEN #{item.shortUrl} THEN #{item.uv}</foreach> ELSE 0 END, " +
+            "total_uip = total_uip + CASE short_url " +
+            "<foreach collection='deltas' item='item' separator=' '>WHEN #{item.shortUrl} THEN #{item.uip}</foreach> ELSE 0 END " +
+            "WHERE short_url IN " +
+            "<foreach collection='deltas' item='item' open='(' separator=',' close=')'>#{item.shortUrl}</foreach>" +
+            "</script>")
+    int incrementStats(@Param("deltas") List<ZLinkStatsDeltaDTO> deltas);
 }
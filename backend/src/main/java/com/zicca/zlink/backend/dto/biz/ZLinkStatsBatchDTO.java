@@ -0,0 +1,27 @@
+package com.zicca.zlink.backend.dto.biz;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 短链接统计批量消息
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ZLinkStatsBatchDTO {
+    /**
+     * 消息队列唯一标识
+     */
+    private String keys;
+
+    /**
+     * 访问记录
+     */
+    private List<ZLinkStatsRecordDTO> records;
+}
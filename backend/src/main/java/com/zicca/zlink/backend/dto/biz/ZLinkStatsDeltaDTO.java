@@ -0,0 +1,35 @@
+package com.zicca.zlink.backend.dto.biz;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 短链接统计增量
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ZLinkStatsDeltaDTO {
+    /**
+     * 完整短链接
+     */
+    private String shortUrl;
+
+    /**
+     * PV增量
+     */
+    private long pv;
+
+    /**
+     * UV增量
+     */
+    private long uv;
+
+    /**
+     * UIP增量
+     */
+    private long uip;
+}
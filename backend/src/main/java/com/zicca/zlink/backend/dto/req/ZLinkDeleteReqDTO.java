@@ -0,0 +1,25 @@
+package com.zicca.zlink.backend.dto.req;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 短链接删除请求参数
+ */
+@Data
+@Schema(description = "短链接删除请求对象")
+public class ZLinkDeleteReqDTO {
+
+    /**
+     * 完整短链接
+     */
+    @Schema(description = "完整短链接", example = "https://articles.zsxq.com/exbrfh")
+    private String shortUrl;
+
+    /**
+     * 分组标识
+     */
+    @Schema(description = "分组标识", example = "1")
+    private String gid;
+
+}
@@ -1,9 +1,13 @@
 package com.zicca.zlink.backend.dto.req;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.zicca.zlink.backend.dao.entity.ZLink;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.util.Date;
 
 @Data
 @Schema(description = "短链接分页查询参数")
@@ -16,9 +20,29 @@ public class ZLinkPageReqDTO extends Page<ZLink> {
     private String gid;
 
     /**
-     * 排序标识
+     * 排序标识：PV / UV / UIP，为空时按创建时间排序，均为降序
      */
-    @Schema(description = "排序标识", example = "ASC")
+    @Schema(description = "排序标识：PV / UV / UIP，为空时按创建时间排序", example = "PV")
     private String orderTag;
 
+    /**
+     * 上一页最后一条记录的主键，首页为空
+     */
+    @Schema(description = "上一页最后一条记录的主键，首页为空", example = "1")
+    private Long lastId;
+
+    /**
+     * 上一页最后一条记录的创建时间，按创建时间排序时与 lastId 一起作为游标
+     */
+    @Schema(description = "上一页最后一条记录的创建时间", example = "2024-03-01 10:00:00")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date lastCreateTime;
+
+    /**
+     * 上一页最后一条记录的排序值，取自返回参数 orderValue，按访问量排序时与 lastId 一起作为游标
+     */
+    @Schema(description = "上一页最后一条记录的排序值（总PV / UV / UIP）", example = "1024")
+    private Integer lastOrderValue;
+
 }
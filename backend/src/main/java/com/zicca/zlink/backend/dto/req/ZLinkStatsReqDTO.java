@@ -0,0 +1,33 @@
+package com.zicca.zlink.backend.dto.req;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+@Schema(description = "短链接访问统计查询参数")
+public class ZLinkStatsReqDTO {
+
+    /**
+     * 完整短链接
+     */
+    @Schema(description = "完整短链接", example = "zlink.ink:9010/abc123")
+    private String shortUrl;
+
+    /**
+     * 开始日期
+     */
+    @Schema(description = "开始日期", example = "2024-01-01")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+
+    /**
+     * 结束日期（含）
+     */
+    @Schema(description = "结束日期（含）", example = "2024-01-31")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+
+}
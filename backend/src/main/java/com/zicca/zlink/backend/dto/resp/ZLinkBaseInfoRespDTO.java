@@ -22,5 +22,9 @@ public class ZLinkBaseInfoRespDTO {
     private String originUrl;
     @Schema(description = "短链接", example = "https://articles.zsxq.com/iozww")
     private String shortUrl;
+    @Schema(description = "是否创建成功", example = "true")
+    private Boolean success;
+    @Schema(description = "创建失败原因", example = "短链接生成失败")
+    private String failReason;
 
 }
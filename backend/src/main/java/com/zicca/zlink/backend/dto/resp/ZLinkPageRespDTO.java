@@ -64,4 +64,11 @@ public class ZLinkPageRespDTO {
     @Schema(description = "今日独立ip数", example = "1024")
     private Integer todayUip;
 
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    @Schema(description = "创建时间，作为下一页游标", example = "2023-08-08 00:00:00")
+    private Date createTime;
+
+    @Schema(description = "排序值（总PV / UV / UIP），按访问量排序时作为下一页游标 lastOrderValue，按创建时间排序时为空", example = "1024")
+    private Integer orderValue;
+
 }
@@ -0,0 +1,30 @@
+package com.zicca.zlink.backend.dto.resp;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "短链接按天访问统计")
+public class ZLinkStatsAccessDailyRespDTO {
+
+    @Schema(description = "日期", example = "2024-01-01")
+    private LocalDate date;
+
+    @Schema(description = "访问次数", example = "100")
+    private Long pv;
+
+    @Schema(description = "新访客数", example = "30")
+    private Long uv;
+
+    @Schema(description = "新IP数", example = "20")
+    private Long uip;
+
+}
@@ -0,0 +1,25 @@
+package com.zicca.zlink.backend.dto.resp;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "短链接维度访问统计")
+public class ZLinkStatsDimensionRespDTO {
+
+    @Schema(description = "维度取值", example = "Windows")
+    private String value;
+
+    @Schema(description = "访问次数", example = "100")
+    private Long cnt;
+
+    @Schema(description = "占比", example = "0.25")
+    private Double ratio;
+
+}
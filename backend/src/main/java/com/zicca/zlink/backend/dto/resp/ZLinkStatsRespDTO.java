@@ -0,0 +1,53 @@
+package com.zicca.zlink.backend.dto.resp;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "短链接访问统计返回参数")
+public class ZLinkStatsRespDTO {
+
+    @Schema(description = "访问次数", example = "1000")
+    private Long pv;
+
+    @Schema(description = "区间内去重访客数（HyperLogLog 估算）", example = "300")
+    private Long uv;
+
+    @Schema(description = "区间内去重IP数（HyperLogLog 估算）", example = "200")
+    private Long uip;
+
+    @Schema(description = "UV/UIP 实际统计起始日期，早于按天 HyperLogLog 保留期的日期不计入；区间全部超出保留期时 UV/UIP 为空",
+            example = "2024-03-01")
+    private LocalDate uvStartDate;
+
+    @Schema(description = "按天访问统计")
+    private List<ZLinkStatsAccessDailyRespDTO> daily;
+
+    @Schema(description = "按小时访问次数，下标为小时 0-23")
+    private List<Long> hourStats;
+
+    @Schema(description = "按星期访问次数，下标 0-6 对应周一到周日")
+    private List<Long> weekdayStats;
+
+    @Schema(description = "操作系统分布")
+    private List<ZLinkStatsDimensionRespDTO> osStats;
+
+    @Schema(description = "浏览器分布")
+    private List<ZLinkStatsDimensionRespDTO> browserStats;
+
+    @Schema(description = "访问设备分布")
+    private List<ZLinkStatsDimensionRespDTO> deviceStats;
+
+    @Schema(description = "访问网络分布")
+    private List<ZLinkStatsDimensionRespDTO> networkStats;
+
+}
@@ -0,0 +1,35 @@
+package com.zicca.zlink.backend.monitor;
+
+import com.zicca.zlink.backend.cache.service.LocalBloomFilterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * 本地布隆过滤器加载状态健康检查
+ * 加载中上报 WARMING（查询回退到 Redis 布隆过滤器，仍可对外服务），加载失败上报 DEGRADED
+ */
+@Component("localBloomFilter")
+@RequiredArgsConstructor
+public class LocalBloomFilterHealthIndicator implements HealthIndicator {
+
+    public static final Status WARMING = new Status("WARMING", "本地布隆过滤器加载中，查询回退到Redis布隆过滤器");
+    public static final Status DEGRADED = new Status("DEGRADED", "本地布隆过滤器加载失败，查询回退到Redis布隆过滤器");
+
+    private final LocalBloomFilterService localBloomFilterService;
+
+    @Override
+    public Health health() {
+        Status status = switch (localBloomFilterService.getLoadState()) {
+            case READY -> Status.UP;
+            case WARMING -> WARMING;
+            case FAILED -> DEGRADED;
+        };
+        return Health.status(status)
+                .withDetail("loadedChunks", localBloomFilterService.getLoadedChunks())
+                .withDetail("totalChunks", localBloomFilterService.getTotalChunks())
+                .build();
+    }
+}
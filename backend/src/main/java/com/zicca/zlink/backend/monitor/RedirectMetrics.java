@@ -0,0 +1,165 @@
+package com.zicca.zlink.backend.monitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 短链接跳转链路指标
+ * <p>
+ * 按层级（本地缓存 → 本地布隆过滤器 → Redis缓存 → Redis布隆过滤器 → 回源数据库）统计命中/未命中/空值次数与耗时分布，通过 Micrometer 暴露：
+ * <ul>
+ *     <li>zlink.redirect.tier：各层级结果计数，tag tier / result</li>
+ *     <li>zlink.redirect.tier.latency：各层级耗时直方图（p50 / p99 / p999），tag tier</li>
+ *     <li>zlink.redirect.tier.hit.ratio：各层级命中率，拉取时计算</li>
+ *     <li>zlink.redirect.latency：整体跳转耗时，tag result</li>
+ * </ul>
+ * 所有 Meter 在启动时预先注册并按下标缓存，热路径只做数组访问与 {@link System#nanoTime()}，不创建 Tag 等临时对象
+ */
+@Component
+@RequiredArgsConstructor
+public class RedirectMetrics {
+
+    /**
+     * 跳转链路层级
+     */
+    public enum Tier {
+        LOCAL_CACHE("local_cache"),
+        LOCAL_BLOOM("local_bloom"),
+        REDIS_CACHE("redis_cache"),
+        REDIS_BLOOM("redis_bloom"),
+        /**
+         * 回源：请求合并、重建租约与数据库查询
+         */
+        DB("db");
+
+        private final String tag;
+
+        Tier(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * 层级查询结果
+     * 缓存：HIT 命中原始链接，NEGATIVE 命中空值，MISS 未命中
+     * 布隆过滤器：HIT 可能存在（放行），NEGATIVE 确定不存在（拦截）
+     * 回源：HIT 数据库存在，NEGATIVE 数据库不存在
+     */
+    public enum Result {
+        HIT("hit"),
+        MISS("miss"),
+        NEGATIVE("negative");
+
+        private final String tag;
+
+        Result(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${zlink.metrics.redirect.percentileHistogram:true}")
+    private boolean percentileHistogram;
+
+    private final Counter[][] tierCounters = new Counter[Tier.values().length][Result.values().length];
+    private final Timer[] tierTimers = new Timer[Tier.values().length];
+    private Timer foundTimer;
+    private Timer notFoundTimer;
+
+    @PostConstruct
+    public void init() {
+        for (Tier tier : Tier.values()) {
+            for (Result result : Result.values()) {
+                tierCounters[tier.ordinal()][result.ordinal()] = Counter.builder("zlink.redirect.tier")
+                        .description("短链接跳转各层级查询结果次数")
+                        .tag("tier", tier.tag)
+                        .tag("result", result.tag)
+                        .register(meterRegistry);
+            }
+            tierTimers[tier.ordinal()] = latencyTimer("zlink.redirect.tier.latency", "短链接跳转各层级耗时")
+                    .tag("tier", tier.tag)
+                    .register(meterRegistry);
+            Gauge.builder("zlink.redirect.tier.hit.ratio", this, metrics -> metrics.hitRatio(tier))
+                    .description("短链接跳转各层级命中率")
+                    .tag("tier", tier.tag)
+                    .register(meterRegistry);
+        }
+        foundTimer = latencyTimer("zlink.redirect.latency", "短链接跳转整体耗时")
+                .tag("result", "found")
+                .register(meterRegistry);
+        notFoundTimer = latencyTimer("zlink.redirect.latency", "短链接跳转整体耗时")
+                .tag("result", "not_found")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录一次层级查询
+     *
+     * @param tier       层级
+     * @param result     查询结果
+     * @param startNanos 查询开始时间 {@link System#nanoTime()}
+     */
+    public void record(Tier tier, Result result, long startNanos) {
+        tierCounters[tier.ordinal()][result.ordinal()].increment();
+        tierTimers[tier.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次完整跳转
+     *
+     * @param found      短链接是否存在
+     * @param startNanos 跳转开始时间 {@link System#nanoTime()}
+     */
+    public void recordRedirect(boolean found, long startNanos) {
+        (found ? foundTimer : notFoundTimer).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 层级命中率：HIT / 全部查询，尚无查询时为 0
+     */
+    public double hitRatio(Tier tier) {
+        Counter[] counters = tierCounters[tier.ordinal()];
+        double total = 0;
+        for (Counter counter : counters) {
+            total += counter.count();
+        }
+        return total == 0 ? 0 : counters[Result.HIT.ordinal()].count() / total;
+    }
+
+    public long count(Tier tier, Result result) {
+        return (long) tierCounters[tier.ordinal()][result.ordinal()].count();
+    }
+
+    public String getStats() {
+        StringBuilder stats = new StringBuilder(">>>短链接跳转统计");
+        for (Tier tier : Tier.values()) {
+            Timer timer = tierTimers[tier.ordinal()];
+            stats.append(String.format(" - %s: 命中 %d, 未命中 %d, 空值 %d, 命中率 %.2f%%, 平均耗时 %.3fms",
+                    tier.tag, count(tier, Result.HIT), count(tier, Result.MISS), count(tier, Result.NEGATIVE),
+                    hitRatio(tier) * 100, timer.mean(TimeUnit.MILLISECONDS)));
+        }
+        return stats.toString();
+    }
+
+    private Timer.Builder latencyTimer(String name, String description) {
+        // 直方图范围限定在 10μs ~ 10s，控制桶数量
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram(percentileHistogram)
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(10));
+    }
+}
@@ -1,24 +1,64 @@
 package com.zicca.zlink.backend.pool;
 
+import com.zicca.zlink.backend.config.ShortUrlConfig;
+import com.zicca.zlink.backend.toolkit.MpmcRingBuffer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 本地短链接池实现
- * 使用内存队列存储预生成的短链接
+ * 使用有界无锁环形队列存储预生成的短链接，容量由池自身保证，数量查询 O(1)
+ * 获取后数量低于低水位时回调监听器，立即触发补充而不必等待定时检查
  */
 @Slf4j
 @Component
 public class LocalShortUrlPool implements ShortUrlPool {
 
-    private final ConcurrentLinkedQueue<String> pool = new ConcurrentLinkedQueue<>();
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final MpmcRingBuffer<String> pool;
     private final AtomicLong totalAcquired = new AtomicLong(0);
     private final AtomicLong totalOffered = new AtomicLong(0);
+    private final AtomicLong totalRejected = new AtomicLong(0);
+
+    private volatile int lowWatermark = -1;
+    private volatile Runnable lowWatermarkListener;
+    /**
+     * 低水位回调已触发，有新的短链接写入后重新布防，避免补充完成前每次获取都回调
+     */
+    private final AtomicBoolean lowWatermarkFired = new AtomicBoolean(false);
+
+    public LocalShortUrlPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LocalShortUrlPool(int capacity) {
+        this.pool = new MpmcRingBuffer<>(capacity);
+    }
+
+    @Autowired
+    public LocalShortUrlPool(ShortUrlConfig shortUrlConfig) {
+        this(shortUrlConfig.getPreGenerate().getLocalPoolSize());
+    }
+
+    /**
+     * 注册低水位监听器，在获取线程上同步回调，监听器应只做异步触发
+     *
+     * @param lowWatermark 低水位
+     * @param listener     监听器
+     */
+    public void setLowWatermarkListener(int lowWatermark, Runnable listener) {
+        this.lowWatermark = lowWatermark;
+        this.lowWatermarkListener = listener;
+        lowWatermarkFired.set(false);
+    }
 
     @Override
     public String acquire() {
@@ -27,38 +67,50 @@ public class LocalShortUrlPool implements ShortUrlPool {
             totalAcquired.incrementAndGet();
             log.debug("从本地池获取短链接: {}, 剩余: {}", shortUrl, pool.size());
         }
+        checkLowWatermark();
         return shortUrl;
     }
 
     @Override
     public List<String> acquireBatch(int count) {
-        List<String> result = new ArrayList<>();
-        for (int i = 0; i < count; i++) {
-            String shortUrl = pool.poll();
-            if (shortUrl == null) {
-                break;
-            }
-            result.add(shortUrl);
-        }
-        
-        if (!result.isEmpty()) {
-            totalAcquired.addAndGet(result.size());
-            log.debug("从本地池批量获取短链接: {} 个, 剩余: {}", result.size(), pool.size());
+        String[] buffer = new String[Math.min(count, pool.capacity())];
+        int drained = drainTo(buffer, 0, buffer.length);
+        List<String> result = new ArrayList<>(drained);
+        result.addAll(Arrays.asList(buffer).subList(0, drained));
+        if (drained > 0) {
+            log.debug("从本地池批量获取短链接: {} 个, 剩余: {}", drained, pool.size());
         }
-        
         return result;
     }
 
+    /**
+     * 批量取出到调用方数组，不创建中间集合
+     *
+     * @param target   目标数组
+     * @param offset   起始下标
+     * @param maxCount 最多取出数量
+     * @return 实际取出数量
+     */
+    public int drainTo(String[] target, int offset, int maxCount) {
+        int drained = pool.drain(target, offset, maxCount);
+        totalAcquired.addAndGet(drained);
+        checkLowWatermark();
+        return drained;
+    }
+
     @Override
     public boolean offer(String shortUrl) {
         if (shortUrl == null || shortUrl.trim().isEmpty()) {
             return false;
         }
-        
+
         boolean success = pool.offer(shortUrl);
         if (success) {
             totalOffered.incrementAndGet();
+            rearmLowWatermark();
             log.debug("向本地池添加短链接: {}, 总数: {}", shortUrl, pool.size());
+        } else {
+            totalRejected.incrementAndGet();
         }
         return success;
     }
@@ -68,23 +120,53 @@ public class LocalShortUrlPool implements ShortUrlPool {
         if (shortUrls == null || shortUrls.isEmpty()) {
             return 0;
         }
-        
-        int successCount = 0;
-        for (String shortUrl : shortUrls) {
-            if (offer(shortUrl)) {
-                successCount++;
-            }
-        }
-        
+        String[] source = shortUrls.stream()
+                .filter(shortUrl -> shortUrl != null && !shortUrl.trim().isEmpty())
+                .toArray(String[]::new);
+        int successCount = fillFrom(source, 0, source.length);
         log.debug("向本地池批量添加短链接: {} 个, 总数: {}", successCount, pool.size());
         return successCount;
     }
 
+    /**
+     * 从调用方数组批量写入，超出容量的部分不写入
+     *
+     * @param source 元素数组
+     * @param offset 起始下标
+     * @param count  数量
+     * @return 实际写入数量
+     */
+    public int fillFrom(String[] source, int offset, int count) {
+        int filled = 0;
+        // 并发消费时一次认领的连续槽位可能不足，继续写入直到写满或池满
+        while (filled < count) {
+            int written = pool.fill(source, offset + filled, count - filled);
+            if (written == 0) {
+                break;
+            }
+            filled += written;
+        }
+        totalOffered.addAndGet(filled);
+        totalRejected.addAndGet(count - filled);
+        if (filled > 0) {
+            rearmLowWatermark();
+        }
+        return filled;
+    }
+
     @Override
     public int size() {
         return pool.size();
     }
 
+    public int capacity() {
+        return pool.capacity();
+    }
+
+    public int remainingCapacity() {
+        return pool.remainingCapacity();
+    }
+
     @Override
     public boolean isEmpty() {
         return pool.isEmpty();
@@ -92,15 +174,19 @@ public class LocalShortUrlPool implements ShortUrlPool {
 
     @Override
     public void clear() {
-        int oldSize = pool.size();
-        pool.clear();
-        log.info("清空本地短链接池, 清除数量: {}", oldSize);
+        String[] buffer = new String[pool.capacity()];
+        int cleared = 0;
+        int drained;
+        while ((drained = pool.drain(buffer, 0, buffer.length)) > 0) {
+            cleared += drained;
+        }
+        log.info("清空本地短链接池, 清除数量: {}", cleared);
     }
 
     @Override
     public String getStats() {
-        return String.format("本地短链接池统计 - 当前数量: %d, 总获取: %d, 总添加: %d", 
-                pool.size(), totalAcquired.get(), totalOffered.get());
+        return String.format("本地短链接池统计 - 当前数量: %d, 容量: %d, 总获取: %d, 总添加: %d, 池满拒绝: %d",
+                pool.size(), pool.capacity(), totalAcquired.get(), totalOffered.get(), totalRejected.get());
     }
 
     /**
@@ -109,6 +195,24 @@ public class LocalShortUrlPool implements ShortUrlPool {
     public void resetStats() {
         totalAcquired.set(0);
         totalOffered.set(0);
+        totalRejected.set(0);
         log.info("重置本地池统计信息");
     }
-}
\ No newline at end of file
+
+    private void checkLowWatermark() {
+        Runnable listener = lowWatermarkListener;
+        if (listener != null && pool.size() < lowWatermark && lowWatermarkFired.compareAndSet(false, true)) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                log.warn("本地池低水位回调失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void rearmLowWatermark() {
+        if (lowWatermarkFired.get()) {
+            lowWatermarkFired.set(false);
+        }
+    }
+}
@@ -1,18 +1,40 @@
 package com.zicca.zlink.backend.pool;
 
+import cn.hutool.core.net.NetUtil;
+import cn.hutool.core.util.IdUtil;
+import com.zicca.zlink.backend.cache.holder.BloomFilterHolder;
+import com.zicca.zlink.backend.config.ShortUrlConfig;
+import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Redis短链接池实现
  * 使用Redis List存储预生成的短链接，支持分布式环境
+ * <p>
+ * 租约机制：节点批量取出的短链接记录在本节点租约集合中
+ * 1. 取出、计数、记录租约在一个 Lua 脚本中完成，一次往返
+ * 2. 已使用的短链接先在本地累积，心跳时批量从租约中移除并续期
+ * 3. 回收任务把心跳超时节点的租约中未使用的短链接放回池中，避免节点宕机丢失；
+ *    布隆过滤器的批量写入是异步的，布隆过滤器不存在的短链接还需数据库确认未被占用才放回
+ * 补充权：集群内只有持有补充权的节点向池中生成补充，写入时在脚本中原子校验容量上限
+ * <p>
+ * 批量取出使用 RPOP key count，要求 Redis 6.2 及以上版本
  */
 @Slf4j
 @Component
@@ -20,88 +42,372 @@ import java.util.concurrent.atomic.AtomicLong;
 public class RedisShortUrlPool implements ShortUrlPool {
 
     private final RedisTemplate<String, String> redisTemplate;
+    private final BloomFilterHolder bloomFilterHolder;
+    private final ShortUrlConfig shortUrlConfig;
+    private final ZLinkMapper zLinkMapper;
     
     private static final String POOL_KEY = "zlink:shorturl:pool";
     private static final String STATS_KEY = "zlink:shorturl:pool:stats";
-    
+    /**
+     * 节点租约截止时间 ZSET：member 为节点标识，score 为截止时间戳（毫秒）
+     */
+    private static final String LEASES_KEY = "zlink:shorturl:pool:leases";
+    /**
+     * 节点租约集合前缀，实际键为 {前缀}{节点标识}
+     */
+    private static final String LEASE_KEY_PREFIX = "zlink:shorturl:pool:lease:";
+    /**
+     * Redis池补充权持有者（节点标识）
+     */
+    private static final String REFILL_OWNER_KEY = "zlink:shorturl:pool:refill_owner";
+
+    /**
+     * 单次脚本参数上限，避免 unpack 超出 Lua 栈
+     */
+    private static final int SCRIPT_BATCH_SIZE = 1000;
+
+    /**
+     * 批量取出并记录租约（RPOP 带数量参数，Redis 6.2+）
+     * KEYS: 池, 统计, 本节点租约集合, 租约截止时间 ; ARGV: 数量, 节点标识, 截止时间戳, 租约集合过期秒数
+     */
+    private static final RedisScript<List<String>> LEASE_SCRIPT = listScript(
+            "local codes = redis.call('RPOP', KEYS[1], ARGV[1]) " +
+            "if not codes then return {} end " +
+            "redis.call('HINCRBY', KEYS[2], 'acquired', #codes) " +
+            "redis.call('SADD', KEYS[3], unpack(codes)) " +
+            "redis.call('EXPIRE', KEYS[3], ARGV[4]) " +
+            "redis.call('ZADD', KEYS[4], ARGV[3], ARGV[2]) " +
+            "return codes");
+
+    /**
+     * 心跳：移除已使用的短链接并续期，租约已被回收时返回 0
+     * KEYS: 租约截止时间, 本节点租约集合 ; ARGV: 节点标识, 截止时间戳, 租约集合过期秒数, 已使用的短链接...
+     */
+    private static final RedisScript<Long> HEARTBEAT_SCRIPT = new DefaultRedisScript<>(
+            "if not redis.call('ZSCORE', KEYS[1], ARGV[1]) then return 0 end " +
+            "if #ARGV > 3 then redis.call('SREM', KEYS[2], unpack(ARGV, 4)) end " +
+            "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[3]) " +
+            "return 1", Long.class);
+
+    /**
+     * 容量内批量写入
+     * KEYS: 池, 统计 ; ARGV: 容量, 短链接...
+     */
+    private static final RedisScript<Long> OFFER_SCRIPT = new DefaultRedisScript<>(
+            "local free = tonumber(ARGV[1]) - redis.call('LLEN', KEYS[1]) " +
+            "if free <= 0 then return 0 end " +
+            "local count = math.min(free, #ARGV - 1) " +
+            "redis.call('LPUSH', KEYS[1], unpack(ARGV, 2, count + 1)) " +
+            "redis.call('HINCRBY', KEYS[2], 'offered', count) " +
+            "return count", Long.class);
+
+    /**
+     * 获取或续期补充权
+     * KEYS: 补充权 ; ARGV: 节点标识, 租期毫秒
+     */
+    private static final RedisScript<Long> ACQUIRE_OWNER_SCRIPT = new DefaultRedisScript<>(
+            "local owner = redis.call('GET', KEYS[1]) " +
+            "if not owner then redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1 end " +
+            "if owner == ARGV[1] then redis.call('PEXPIRE', KEYS[1], ARGV[2]) return 1 end " +
+            "return 0", Long.class);
+
+    private static final RedisScript<Long> RELEASE_OWNER_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0", Long.class);
+
+    /**
+     * 归还租用的短链接：逐个从租约中移除，只把确实移除的放回池头部，返回放回数量
+     * 与回收在同一脚本内互斥，已被回收的短链接不会重复入池
+     * KEYS: 池, 本节点租约集合 ; ARGV: 短链接...
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local released = 0 " +
+            "for i = 1, #ARGV do " +
+            "if redis.call('SREM', KEYS[2], ARGV[i]) == 1 then " +
+            "redis.call('RPUSH', KEYS[1], ARGV[i]) released = released + 1 end " +
+            "end " +
+            "return released", Long.class);
+
+    /**
+     * 回收超时节点的租约，返回其中的短链接
+     * KEYS: 租约截止时间, 该节点租约集合 ; ARGV: 节点标识, 当前时间戳
+     */
+    private static final RedisScript<List<String>> RECLAIM_SCRIPT = listScript(
+            "local deadline = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+            "if deadline and tonumber(deadline) > tonumber(ARGV[2]) then return {} end " +
+            "local codes = redis.call('SMEMBERS', KEYS[2]) " +
+            "redis.call('DEL', KEYS[2]) " +
+            "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "return codes");
+
+    /**
+     * 节点标识：主机 + 进程号 + 随机后缀，重启后视为新节点
+     */
+    private final String nodeId = NetUtil.getLocalhostStr() + ":" + ProcessHandle.current().pid() + ":" + IdUtil.fastSimpleUUID().substring(0, 8);
+
+    @Value("${zlink.link.preGenerate.leaseTtl:60}")
+    private long leaseTtl;
+    @Value("${zlink.link.preGenerate.refillOwnerTtl:90}")
+    private long refillOwnerTtl;
+
     private final AtomicLong localAcquired = new AtomicLong(0);
     private final AtomicLong localOffered = new AtomicLong(0);
+    private final AtomicLong totalReclaimed = new AtomicLong(0);
+
+    /**
+     * 已使用、待心跳时从租约中移除的短链接
+     */
+    private final ConcurrentLinkedQueue<String> consumed = new ConcurrentLinkedQueue<>();
+    private volatile boolean leaseHeld;
+    private volatile Runnable leaseLostListener;
 
     @Override
     public String acquire() {
-        try {
-            String shortUrl = redisTemplate.opsForList().rightPop(POOL_KEY);
-            if (shortUrl != null) {
-                localAcquired.incrementAndGet();
-                redisTemplate.opsForHash().increment(STATS_KEY, "acquired", 1);
-                log.debug("从Redis池获取短链接: {}, 剩余: {}", shortUrl, size());
-            }
-            return shortUrl;
-        } catch (Exception e) {
-            log.error("从Redis池获取短链接失败", e);
-            return null;
-        }
+        List<String> shortUrls = acquireBatch(1);
+        return shortUrls.isEmpty() ? null : shortUrls.get(0);
     }
 
+    /**
+     * 批量租用短链接：每轮脚本取出、计数、记录租约一次往返完成，按 SCRIPT_BATCH_SIZE 分轮直到取满或池中不足，
+     * 池为空时返回空集合
+     */
     @Override
     public List<String> acquireBatch(int count) {
-        List<String> result = new ArrayList<>();
+        List<String> result = new ArrayList<>(Math.max(count, 0));
         try {
-            // 使用pipeline批量获取，提高性能
-            List<String> shortUrls = redisTemplate.opsForList().rightPop(POOL_KEY, count);
-            if (shortUrls != null && !shortUrls.isEmpty()) {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(leaseTtl);
+            while (result.size() < count) {
+                int batch = Math.min(count - result.size(), SCRIPT_BATCH_SIZE);
+                List<String> shortUrls = redisTemplate.execute(LEASE_SCRIPT,
+                        List.of(POOL_KEY, STATS_KEY, leaseKey(nodeId), LEASES_KEY),
+                        String.valueOf(batch), nodeId, String.valueOf(deadline), String.valueOf(leaseKeyTtl()));
+                if (shortUrls == null || shortUrls.isEmpty()) {
+                    break;
+                }
                 result.addAll(shortUrls);
-                localAcquired.addAndGet(result.size());
-                redisTemplate.opsForHash().increment(STATS_KEY, "acquired", result.size());
-                log.debug("从Redis池批量获取短链接: {} 个, 剩余: {}", result.size(), size());
+                leaseHeld = true;
+                localAcquired.addAndGet(shortUrls.size());
+                if (shortUrls.size() < batch) {
+                    // 池中已不足
+                    break;
+                }
             }
+            log.debug("从Redis池批量租用短链接: {} 个", result.size());
         } catch (Exception e) {
-            log.error("从Redis池批量获取短链接失败", e);
+            // 已取出的短链接已记录租约，照常返回
+            log.error("从Redis池批量获取短链接失败: acquired={}", result.size(), e);
         }
         return result;
     }
 
-    @Override
-    public boolean offer(String shortUrl) {
-        if (shortUrl == null || shortUrl.trim().isEmpty()) {
-            return false;
+    /**
+     * 标记租用的短链接已使用，下次心跳时从租约中移除
+     */
+    public void markConsumed(String shortUrl) {
+        if (leaseHeld) {
+            consumed.offer(shortUrl);
+        }
+    }
+
+    /**
+     * 注册租约丢失监听器：本节点心跳超时、租约被其他节点回收后回调，持有的短链接需丢弃以免重复发放
+     */
+    public void setLeaseLostListener(Runnable listener) {
+        this.leaseLostListener = listener;
+    }
+
+    /**
+     * 归还未使用的短链接（节点下线时），从租约中移除并放回池头部优先发放
+     * 移除与入池在一个脚本中完成，中途失败不会出现同时在池中与租约中、被回收任务再次入池的短链接
+     */
+    public void release(List<String> shortUrls) {
+        if (shortUrls.isEmpty()) {
+            return;
         }
-        
         try {
-            Long result = redisTemplate.opsForList().leftPush(POOL_KEY, shortUrl);
-            if (result != null && result > 0) {
-                localOffered.incrementAndGet();
-                redisTemplate.opsForHash().increment(STATS_KEY, "offered", 1);
-                log.debug("向Redis池添加短链接: {}, 总数: {}", shortUrl, result);
-                return true;
+            long released = 0;
+            for (int from = 0; from < shortUrls.size(); from += SCRIPT_BATCH_SIZE) {
+                List<String> chunk = shortUrls.subList(from, Math.min(from + SCRIPT_BATCH_SIZE, shortUrls.size()));
+                Long count = redisTemplate.execute(RELEASE_SCRIPT, List.of(POOL_KEY, leaseKey(nodeId)), chunk.toArray());
+                released += count == null ? 0 : count;
             }
+            log.info("向Redis池归还未使用的短链接: 归还={}, 放回={}", shortUrls.size(), released);
         } catch (Exception e) {
-            log.error("向Redis池添加短链接失败: {}", shortUrl, e);
+            log.error("向Redis池归还短链接失败", e);
         }
-        return false;
     }
 
+    /**
+     * 心跳：批量提交已使用的短链接并续期租约
+     */
+    @Scheduled(fixedDelayString = "${zlink.link.preGenerate.leaseHeartbeatInterval:20}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        if (!leaseHeld) {
+            return;
+        }
+        try {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(leaseTtl);
+            boolean alive = true;
+            do {
+                List<String> args = new ArrayList<>();
+                args.add(nodeId);
+                args.add(String.valueOf(deadline));
+                args.add(String.valueOf(leaseKeyTtl()));
+                String shortUrl;
+                while (args.size() < SCRIPT_BATCH_SIZE + 3 && (shortUrl = consumed.poll()) != null) {
+                    args.add(shortUrl);
+                }
+                Long result = redisTemplate.execute(HEARTBEAT_SCRIPT, List.of(LEASES_KEY, leaseKey(nodeId)), args.toArray());
+                alive = Long.valueOf(1).equals(result);
+            } while (alive && !consumed.isEmpty());
+            if (!alive) {
+                // 租约已被回收，其中未使用的短链接可能已重新入池
+                log.warn("本节点短链接租约已被回收，丢弃本地持有的短链接: nodeId={}", nodeId);
+                leaseHeld = false;
+                consumed.clear();
+                Runnable listener = leaseLostListener;
+                if (listener != null) {
+                    listener.run();
+                }
+            }
+        } catch (Exception e) {
+            log.error("短链接租约心跳失败", e);
+        }
+    }
+
+    /**
+     * 回收心跳超时节点的租约：布隆过滤器与数据库均确认未使用的短链接放回池头部
+     */
+    @Scheduled(fixedDelayString = "${zlink.link.preGenerate.leaseReapInterval:60}", timeUnit = TimeUnit.SECONDS)
+    public void reapExpiredLeases() {
+        try {
+            long now = System.currentTimeMillis();
+            Set<String> expiredNodes = redisTemplate.opsForZSet().rangeByScore(LEASES_KEY, 0, now);
+            if (expiredNodes == null) {
+                return;
+            }
+            for (String expiredNode : expiredNodes) {
+                List<String> leased = redisTemplate.execute(RECLAIM_SCRIPT, List.of(LEASES_KEY, leaseKey(expiredNode)),
+                        expiredNode, String.valueOf(now));
+                if (leased == null || leased.isEmpty()) {
+                    continue;
+                }
+                // 节点宕机前已使用但未提交的短链接：已写入布隆过滤器的直接排除，
+                // 批量创建异步写入布隆过滤器，可能尚未到达，其余再由数据库确认
+                Map<String, Boolean> exists = bloomFilterHolder.mightContainAll(leased);
+                List<String> unused = filterUnused(leased.stream().filter(shortUrl -> !exists.get(shortUrl)).toList());
+                if (!unused.isEmpty()) {
+                    redisTemplate.opsForList().rightPushAll(POOL_KEY, unused);
+                }
+                totalReclaimed.addAndGet(unused.size());
+                log.info("回收超时节点短链接租约: nodeId={}, 租用={}, 放回={}", expiredNode, leased.size(), unused.size());
+            }
+        } catch (Exception e) {
+            log.error("回收短链接租约失败", e);
+        }
+    }
+
+    /**
+     * 排除数据库中已存在（包括已删除）的短链接
+     */
+    private List<String> filterUnused(List<String> shortUrls) {
+        List<String> unused = new ArrayList<>(shortUrls.size());
+        for (int from = 0; from < shortUrls.size(); from += SCRIPT_BATCH_SIZE) {
+            List<String> chunk = shortUrls.subList(from, Math.min(from + SCRIPT_BATCH_SIZE, shortUrls.size()));
+            Set<String> used = new HashSet<>(zLinkMapper.selectExistingShortUrls(chunk));
+            chunk.stream().filter(shortUrl -> !used.contains(shortUrl)).forEach(unused::add);
+        }
+        return unused;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public boolean offer(String shortUrl) {
+        if (shortUrl == null || shortUrl.trim().isEmpty()) {
+            return false;
+        }
+        return offerBatch(List.of(shortUrl)) == 1;
+    }
+
+    /**
+     * 批量添加短链接，池容量（redisPoolSize）在脚本中原子校验，超出部分丢弃
+     */
     @Override
     public int offerBatch(List<String> shortUrls) {
         if (shortUrls == null || shortUrls.isEmpty()) {
             return 0;
         }
         
+        int addedCount = 0;
         try {
-            String[] urlArray = shortUrls.toArray(new String[0]);
-            Long result = redisTemplate.opsForList().leftPushAll(POOL_KEY, urlArray);
-            
-            if (result != null && result > 0) {
-                int addedCount = shortUrls.size();
-                localOffered.addAndGet(addedCount);
-                redisTemplate.opsForHash().increment(STATS_KEY, "offered", addedCount);
-                log.debug("向Redis池批量添加短链接: {} 个, 总数: {}", addedCount, result);
-                return addedCount;
+            String capacity = String.valueOf(shortUrlConfig.getPreGenerate().getRedisPoolSize());
+            for (int from = 0; from < shortUrls.size(); from += SCRIPT_BATCH_SIZE) {
+                List<String> chunk = shortUrls.subList(from, Math.min(from + SCRIPT_BATCH_SIZE, shortUrls.size()));
+                Object[] args = new Object[chunk.size() + 1];
+                args[0] = capacity;
+                for (int i = 0; i < chunk.size(); i++) {
+                    args[i + 1] = chunk.get(i);
+                }
+                Long added = redisTemplate.execute(OFFER_SCRIPT, List.of(POOL_KEY, STATS_KEY), args);
+                addedCount += added == null ? 0 : added.intValue();
+                if (added == null || added < chunk.size()) {
+                    // 池已满
+                    break;
+                }
             }
+            localOffered.addAndGet(addedCount);
+            if (addedCount < shortUrls.size()) {
+                log.info("Redis池已达容量上限，丢弃短链接: {} 个", shortUrls.size() - addedCount);
+            }
+            log.debug("向Redis池批量添加短链接: {} 个", addedCount);
         } catch (Exception e) {
             log.error("向Redis池批量添加短链接失败", e);
         }
-        return 0;
+        return addedCount;
+    }
+
+    /**
+     * 获取或续期补充权：同一时间只有持有者向Redis池生成补充，租期内未续期自动转移
+     *
+     * @return 本节点是否持有补充权
+     */
+    public boolean tryAcquireRefillOwnership() {
+        try {
+            Long owned = redisTemplate.execute(ACQUIRE_OWNER_SCRIPT, List.of(REFILL_OWNER_KEY),
+                    nodeId, String.valueOf(TimeUnit.SECONDS.toMillis(refillOwnerTtl)));
+            return Long.valueOf(1).equals(owned);
+        } catch (Exception e) {
+            log.error("获取Redis池补充权失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 释放补充权（仅持有者可释放）
+     */
+    public void releaseRefillOwnership() {
+        try {
+            redisTemplate.execute(RELEASE_OWNER_SCRIPT, List.of(REFILL_OWNER_KEY), nodeId);
+        } catch (Exception e) {
+            log.error("释放Redis池补充权失败", e);
+        }
+    }
+
+    /**
+     * 集群累计从Redis池租用的短链接数量
+     */
+    public long getTotalAcquired() {
+        try {
+            Object acquired = redisTemplate.opsForHash().get(STATS_KEY, "acquired");
+            return acquired != null ? Long.parseLong(acquired.toString()) : 0;
+        } catch (Exception e) {
+            log.error("获取Redis池累计租用数量失败", e);
+            return 0;
+        }
     }
 
     @Override
@@ -140,8 +446,8 @@ public class RedisShortUrlPool implements ShortUrlPool {
             long totalAcquired = acquired != null ? Long.parseLong(acquired.toString()) : 0;
             long totalOffered = offered != null ? Long.parseLong(offered.toString()) : 0;
             
-            return String.format("Redis短链接池统计 - 当前数量: %d, 总获取: %d, 总添加: %d, 本地获取: %d, 本地添加: %d", 
-                    size(), totalAcquired, totalOffered, localAcquired.get(), localOffered.get());
+            return String.format("Redis短链接池统计 - 当前数量: %d, 总获取: %d, 总添加: %d, 本地获取: %d, 本地添加: %d, 回收: %d, 待提交: %d", 
+                    size(), totalAcquired, totalOffered, localAcquired.get(), localOffered.get(), totalReclaimed.get(), consumed.size());
         } catch (Exception e) {
             log.error("获取Redis池统计信息失败", e);
             return "Redis短链接池统计信息获取失败";
@@ -173,4 +479,20 @@ public class RedisShortUrlPool implements ShortUrlPool {
             log.error("重置Redis池统计信息失败", e);
         }
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<String>> listScript(String script) {
+        return new DefaultRedisScript<>(script, (Class<List<String>>) (Class<?>) List.class);
+    }
+
+    private static String leaseKey(String nodeId) {
+        return LEASE_KEY_PREFIX + nodeId;
+    }
+
+    /**
+     * 租约集合过期时间：远大于回收间隔，仅作为回收任务失效时的兜底，避免遗留键
+     */
+    private long leaseKeyTtl() {
+        return leaseTtl * 10;
+    }
+}
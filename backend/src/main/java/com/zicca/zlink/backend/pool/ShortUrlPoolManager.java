@@ -1,10 +1,14 @@
 package com.zicca.zlink.backend.pool;
 
 import com.zicca.zlink.backend.config.ShortUrlConfig;
+import com.zicca.zlink.backend.toolkit.EwmaRate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -20,31 +24,60 @@ public class ShortUrlPoolManager {
     private final RedisShortUrlPool redisPool;
     private final ShortUrlConfig shortUrlConfig;
 
+    /**
+     * 短链接获取速率（含池为空未获取到的请求），用于自适应补充
+     */
+    private EwmaRate acquisitionRate;
+    /**
+     * 集群从Redis池租用短链接的速率，由补充权持有者根据累计租用数量的增量计算
+     */
+    private EwmaRate clusterAcquisitionRate;
+    private long lastClusterAcquired = -1;
+
+    @PostConstruct
+    public void init() {
+        acquisitionRate = new EwmaRate(Duration.ofSeconds(shortUrlConfig.getPreGenerate().getRateWindow()));
+        clusterAcquisitionRate = new EwmaRate(Duration.ofSeconds(shortUrlConfig.getPreGenerate().getRateWindow()));
+        // 租约被回收后本地持有的短链接可能已重新入池，丢弃以免重复发放
+        redisPool.setLeaseLostListener(localPool::clear);
+    }
+
+    /**
+     * 节点下线时归还本地池中未使用的短链接
+     */
+    @PreDestroy
+    public void destroy() {
+        redisPool.releaseRefillOwnership();
+        redisPool.release(localPool.acquireBatch(localPool.capacity()));
+    }
+
     /**
      * 获取短链接（分层策略）
      * 1. 优先从本地池获取
-     * 2. 本地池为空时从Redis池获取并补充本地池
+     * 2. 本地池为空时从Redis池批量租用并补充本地池
      * 3. 都为空时返回null
      */
     public String acquireShortUrl() {
+        acquisitionRate.mark(1);
         // 1. 优先从本地池获取
         String shortUrl = localPool.acquire();
         if (shortUrl != null) {
+            redisPool.markConsumed(shortUrl);
             return shortUrl;
         }
 
-        // 2. 本地池为空，从Redis池批量获取并补充本地池
-        if (!redisPool.isEmpty()) {
-            int batchSize = Math.min(shortUrlConfig.getPreGenerate().getBatchSize() / 2, 100);
-            List<String> batchUrls = redisPool.acquireBatch(batchSize);
-            
-            if (!batchUrls.isEmpty()) {
-                // 补充本地池
-                localPool.offerBatch(batchUrls);
-                log.info("从Redis池补充本地池: {} 个短链接", batchUrls.size());
-                
-                // 返回第一个
-                return localPool.acquire();
+        // 2. 本地池为空，从Redis池批量租用并补充本地池（池为空时脚本直接返回，无需先查询长度）
+        int batchSize = Math.min(shortUrlConfig.getPreGenerate().getBatchSize() / 2, 100);
+        List<String> batchUrls = redisPool.acquireBatch(batchSize);
+        if (!batchUrls.isEmpty()) {
+            offerLeasedToLocal(batchUrls);
+            log.info("从Redis池补充本地池: {} 个短链接", batchUrls.size());
+
+            // 返回第一个
+            shortUrl = localPool.acquire();
+            if (shortUrl != null) {
+                redisPool.markConsumed(shortUrl);
+                return shortUrl;
             }
         }
 
@@ -56,32 +89,26 @@ public class ShortUrlPoolManager {
      * 批量获取短链接
      */
     public List<String> acquireShortUrls(int count) {
+        acquisitionRate.mark(count);
         // 先从本地池获取
         List<String> result = localPool.acquireBatch(count);
         
         // 如果本地池不够，从Redis池补充
         int remaining = count - result.size();
-        if (remaining > 0 && !redisPool.isEmpty()) {
+        if (remaining > 0) {
             List<String> fromRedis = redisPool.acquireBatch(remaining);
             result.addAll(fromRedis);
         }
+        result.forEach(redisPool::markConsumed);
         
         return result;
     }
 
     /**
-     * 向池中添加短链接（优先添加到Redis池）
+     * 向池中添加短链接（添加到Redis池，本地池通过租约从Redis池补充，避免同一短链接同时存在于两个池）
      */
     public boolean offerShortUrl(String shortUrl) {
-        // 优先添加到Redis池（分布式共享）
-        boolean redisSuccess = redisPool.offer(shortUrl);
-        
-        // 如果本地池未满，也添加到本地池
-        if (localPool.size() < shortUrlConfig.getPreGenerate().getLocalPoolSize()) {
-            localPool.offer(shortUrl);
-        }
-        
-        return redisSuccess;
+        return redisPool.offer(shortUrl);
     }
 
     /**
@@ -91,18 +118,63 @@ public class ShortUrlPoolManager {
         if (shortUrls == null || shortUrls.isEmpty()) {
             return 0;
         }
+        return redisPool.offerBatch(shortUrls);
+    }
 
-        // 添加到Redis池
-        int redisCount = redisPool.offerBatch(shortUrls);
-        
-        // 部分添加到本地池（避免本地池过大）
-        int localCapacity = shortUrlConfig.getPreGenerate().getLocalPoolSize() - localPool.size();
-        if (localCapacity > 0) {
-            List<String> forLocal = shortUrls.subList(0, Math.min(localCapacity, shortUrls.size()));
-            localPool.offerBatch(forLocal);
+    /**
+     * 从Redis池租用短链接补充本地池至容量上限
+     *
+     * @return 补充数量
+     */
+    public int refillLocalFromRedis() {
+        int count = Math.min(localPool.remainingCapacity(), shortUrlConfig.getPreGenerate().getBatchSize());
+        if (count <= 0) {
+            return 0;
         }
-        
-        return redisCount;
+        List<String> fromRedis = redisPool.acquireBatch(count);
+        int added = offerLeasedToLocal(fromRedis);
+        if (added > 0) {
+            log.info("从Redis池补充本地池: {} 个短链接", added);
+        }
+        return added;
+    }
+
+    /**
+     * 本节点短链接获取速率（个/秒）
+     */
+    public double getAcquisitionRate() {
+        return acquisitionRate.rate();
+    }
+
+    /**
+     * 集群短链接租用速率（个/秒），只在补充权持有者上按需计算
+     */
+    public synchronized double getClusterAcquisitionRate() {
+        long totalAcquired = redisPool.getTotalAcquired();
+        if (lastClusterAcquired >= 0) {
+            // 统计被重置时增量为负，按0处理
+            clusterAcquisitionRate.mark(Math.max(0, totalAcquired - lastClusterAcquired));
+        }
+        lastClusterAcquired = totalAcquired;
+        return clusterAcquisitionRate.rate();
+    }
+
+    public int getRedisPoolSize() {
+        return redisPool.size();
+    }
+
+    /**
+     * 获取或续期Redis池补充权
+     */
+    public boolean tryAcquireRefillOwnership() {
+        return redisPool.tryAcquireRefillOwnership();
+    }
+
+    /**
+     * 注册本地池低水位（minThreshold）监听器
+     */
+    public void setLocalLowWatermarkListener(Runnable listener) {
+        localPool.setLowWatermarkListener(shortUrlConfig.getPreGenerate().getMinThreshold(), listener);
     }
 
     /**
@@ -138,6 +210,17 @@ public class ShortUrlPoolManager {
         log.info("已清空所有短链接池");
     }
 
+    /**
+     * 租用的短链接写入本地池，本地池已满的部分归还Redis池
+     */
+    private int offerLeasedToLocal(List<String> leased) {
+        int added = localPool.offerBatch(leased);
+        if (added < leased.size()) {
+            redisPool.release(leased.subList(added, leased.size()));
+        }
+        return added;
+    }
+
     /**
      * 池状态信息
      */
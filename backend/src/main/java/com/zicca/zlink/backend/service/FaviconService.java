@@ -0,0 +1,41 @@
+package com.zicca.zlink.backend.service;
+
+import java.util.Map;
+
+/**
+ * 网站图标解析服务接口
+ */
+public interface FaviconService {
+
+    /**
+     * 异步解析网站图标并回写短链接记录
+     * 存在事务时在事务提交后执行，不占用创建短链接的数据库连接
+     *
+     * @param shortUrl  短链接
+     * @param originUrl 原始链接
+     */
+    void enrichAfterCommit(String shortUrl, String originUrl);
+
+    /**
+     * 批量异步解析网站图标并回写短链接记录
+     * 按域名分组，每个域名只解析一次并按短链接集合批量回写
+     *
+     * @param originUrls 短链接 -> 原始链接
+     */
+    void enrichBatchAfterCommit(Map<String, String> originUrls);
+
+    /**
+     * 解析网站图标（按域名缓存，同一域名并发解析只请求一次）
+     *
+     * @param originUrl 原始链接
+     * @return 图标地址，解析失败返回null
+     */
+    String resolveFavicon(String originUrl);
+
+    /**
+     * 获取图标解析统计信息
+     *
+     * @return 统计信息
+     */
+    String getStats();
+}
@@ -0,0 +1,14 @@
+package com.zicca.zlink.backend.service;
+
+/**
+ * 号段序列号服务接口
+ */
+public interface SegmentIdService {
+
+    /**
+     * 获取下一个序列号，集群内全局唯一
+     *
+     * @return 序列号
+     */
+    long nextId();
+}
@@ -1,5 +1,7 @@
 package com.zicca.zlink.backend.service;
 
+import java.util.List;
+
 /**
  * 短链接生成服务接口
  */
@@ -14,6 +16,23 @@ public interface ShortUrlGeneratorService {
      */
     String generateUniqueShortUrl(String originalUrl, String gid);
 
+    /**
+     * 按序列置换策略批量生成短链接后缀，结果天然唯一，无需冲突检测
+     *
+     * @param count 数量
+     * @return 短链接后缀
+     */
+    List<String> generateSequenceShortUrls(int count);
+
+    /**
+     * 批量生成唯一的短链接后缀：序列置换模式直接取号；哈希模式按轮生成候选，每轮一次批量布隆过滤器检查，
+     * 重试轮数用尽仍不足时返回已生成的部分
+     *
+     * @param count 数量
+     * @return 短链接后缀，批内不重复
+     */
+    List<String> generateUniqueShortUrls(int count);
+
     /**
      * 检查短链接是否已存在
      *
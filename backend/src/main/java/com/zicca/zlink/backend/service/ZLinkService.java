@@ -6,10 +6,13 @@ import com.zicca.zlink.backend.dao.entity.ZLink;
 import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
 import com.zicca.zlink.backend.dto.req.ZLinkBatchCreateReqDTO;
 import com.zicca.zlink.backend.dto.req.ZLinkCreateReqDTO;
+import com.zicca.zlink.backend.dto.req.ZLinkDeleteReqDTO;
 import com.zicca.zlink.backend.dto.req.ZLinkPageReqDTO;
 import com.zicca.zlink.backend.dto.req.ZLinkUpdateReqDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkBatchCreateRespDTO;
 import com.zicca.zlink.backend.dto.resp.ZLinkCreateRespDTO;
 import com.zicca.zlink.backend.dto.resp.ZLinkGroupCountQueryRespDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkPageRespDTO;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 
@@ -37,9 +40,9 @@ public interface ZLinkService extends IService<ZLink> {
      * 批量创建短链接
      *
      * @param requestParam 批量创建短链接请求参数
-     * @return 短链接创建信息
+     * @return 批量创建结果（按请求顺序返回每条链接的创建结果）
      */
-    ZLinkBatchCreateReqDTO batchCreateZLink(ZLinkBatchCreateReqDTO requestParam);
+    ZLinkBatchCreateRespDTO batchCreateZLink(ZLinkBatchCreateReqDTO requestParam);
 
 
     /**
@@ -50,12 +53,19 @@ public interface ZLinkService extends IService<ZLink> {
     void updateZLink(ZLinkUpdateReqDTO requestParam);
 
     /**
-     * 分页查询短链接
+     * 删除短链接
+     *
+     * @param requestParam 删除短链接请求参数
+     */
+    void deleteZLink(ZLinkDeleteReqDTO requestParam);
+
+    /**
+     * 分页查询短链接，按上一页最后一条记录作为游标翻页
      *
      * @param requestParam 分页查询短链接请求参数
      * @return 分页结果
      */
-    IPage<ZLinkPageReqDTO> pageZLink(ZLinkPageReqDTO requestParam);
+    IPage<ZLinkPageRespDTO> pageZLink(ZLinkPageReqDTO requestParam);
 
     /**
      * 查询短链接分组内数量
@@ -74,7 +84,11 @@ public interface ZLinkService extends IService<ZLink> {
      */
     void restoreUrl(String shortUrl, ServletRequest request, ServletResponse response);
 
-
+    /**
+     * 短链接访问统计，写入统计队列后立即返回
+     *
+     * @param requestParam 访问记录
+     */
     void zLinkStats(ZLinkStatsRecordDTO requestParam);
 
 }
@@ -0,0 +1,19 @@
+package com.zicca.zlink.backend.service;
+
+import com.zicca.zlink.backend.dto.req.ZLinkStatsReqDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkStatsRespDTO;
+
+/**
+ * 短链接访问统计查询服务接口
+ */
+public interface ZLinkStatsService {
+
+    /**
+     * 查询单个短链接在日期区间内的访问统计
+     * 只读取预聚合表与 HyperLogLog，耗时与区间天数相关，与访问总量无关
+     *
+     * @param requestParam 查询参数
+     * @return 访问统计
+     */
+    ZLinkStatsRespDTO getLinkStats(ZLinkStatsReqDTO requestParam);
+}
@@ -0,0 +1,352 @@
+package com.zicca.zlink.backend.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.zicca.zlink.backend.dao.entity.ZLink;
+import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
+import com.zicca.zlink.backend.service.FaviconService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 网站图标解析服务实现
+ * 1. 创建短链接事务提交后，投递到有界线程池异步解析，队列满时丢弃（图标非核心数据）
+ * 2. 按域名缓存解析结果（含解析失败），缓存有容量上限并按写入时间过期，同一域名并发解析共享一次请求
+ * 3. 单次 GET 请求 + 连接/读取超时 + 响应体大小限制，解析完成后回写 z_link.favicon
+ */
+@Slf4j(topic = "FaviconServiceImpl")
+@Service
+@RequiredArgsConstructor
+public class FaviconServiceImpl implements FaviconService {
+
+    private static final int UPDATE_BATCH_SIZE = 1000;
+
+    private final ZLinkMapper zLinkMapper;
+
+    @Value("${zlink.favicon.enabled:true}")
+    private boolean enabled;
+    @Value("${zlink.favicon.connectTimeout:1000}")
+    private long connectTimeout;
+    @Value("${zlink.favicon.readTimeout:2000}")
+    private long readTimeout;
+    @Value("${zlink.favicon.maxBodySize:524288}")
+    private int maxBodySize;
+    @Value("${zlink.favicon.cacheTtl:21600000}")
+    private long cacheTtl;
+    @Value("${zlink.favicon.failureCacheTtl:600000}")
+    private long failureCacheTtl;
+    @Value("${zlink.favicon.cacheSize:10000}")
+    private long cacheSize;
+    @Value("${zlink.favicon.corePoolSize:2}")
+    private int corePoolSize;
+    @Value("${zlink.favicon.maxPoolSize:4}")
+    private int maxPoolSize;
+    @Value("${zlink.favicon.queueCapacity:1000}")
+    private int queueCapacity;
+
+    private HttpClient httpClient;
+    private ThreadPoolExecutor executor;
+
+    /**
+     * 域名 -> 解析结果，按成功结果的缓存时间过期；解析失败的条目过期更早，读取时按条目自身的过期时刻判断
+     */
+    private Cache<String, CachedFavicon> hostCache;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder fetchCount = new LongAdder();
+    private final LongAdder cacheHitCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        hostCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Math.max(cacheTtl, failureCacheTtl), TimeUnit.MILLISECONDS)
+                .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                .build();
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        executor = new ThreadPoolExecutor(corePoolSize, maxPoolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "zlink-favicon-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    rejectedCount.increment();
+                    log.warn("网站图标解析队列已满，丢弃任务");
+                });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void enrichAfterCommit(String shortUrl, String originUrl) {
+        if (!enabled || StrUtil.isBlank(originUrl)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submitEnrich(shortUrl, originUrl);
+                }
+            });
+            return;
+        }
+        submitEnrich(shortUrl, originUrl);
+    }
+
+    @Override
+    public void enrichBatchAfterCommit(Map<String, String> originUrls) {
+        if (!enabled || originUrls.isEmpty()) {
+            return;
+        }
+        // 按域名分组，同一域名的短链接共享一次解析与一次批量回写
+        Map<String, HostBatch> hostBatches = new HashMap<>();
+        originUrls.forEach((shortUrl, originUrl) -> {
+            URI uri = parseUri(originUrl);
+            if (uri == null) {
+                return;
+            }
+            hostBatches.computeIfAbsent(hostKey(uri), key -> new HostBatch(originUrl, new ArrayList<>()))
+                    .shortUrls().add(shortUrl);
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    hostBatches.values().forEach(FaviconServiceImpl.this::submitBatchEnrich);
+                }
+            });
+            return;
+        }
+        hostBatches.values().forEach(this::submitBatchEnrich);
+    }
+
+    @Override
+    public String resolveFavicon(String originUrl) {
+        URI uri = parseUri(originUrl);
+        if (uri == null) {
+            return null;
+        }
+        String hostKey = hostKey(uri);
+        CachedFavicon cached = hostCache.getIfPresent(hostKey);
+        if (cached != null && cached.expireAt > System.currentTimeMillis()) {
+            cacheHitCount.increment();
+            return cached.favicon;
+        }
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(hostKey, future);
+        if (existing != null) {
+            return existing.join();
+        }
+        try {
+            String favicon = fetchFavicon(uri);
+            long ttl = favicon != null ? cacheTtl : failureCacheTtl;
+            hostCache.put(hostKey, new CachedFavicon(favicon, System.currentTimeMillis() + ttl));
+            future.complete(favicon);
+            return favicon;
+        } catch (RuntimeException e) {
+            future.complete(null);
+            return null;
+        } finally {
+            inFlight.remove(hostKey, future);
+        }
+    }
+
+    @Override
+    public String getStats() {
+        return String.format("网站图标解析统计 - 请求次数: %d, 缓存命中: %d, 失败次数: %d, 丢弃任务: %d, 排队任务: %d, 缓存域名数: %d",
+                fetchCount.sum(), cacheHitCount.sum(), failureCount.sum(), rejectedCount.sum(),
+                executor.getQueue().size(), hostCache.size());
+    }
+
+    private void submitEnrich(String shortUrl, String originUrl) {
+        executor.execute(() -> {
+            String favicon = resolveFavicon(originUrl);
+            if (favicon == null) {
+                return;
+            }
+            try {
+                zLinkMapper.update(null, Wrappers.lambdaUpdate(ZLink.class)
+                        .set(ZLink::getFavicon, favicon)
+                        .eq(ZLink::getShortUrl, shortUrl));
+                log.debug("回写网站图标: shortUrl={}, favicon={}", shortUrl, favicon);
+            } catch (Exception e) {
+                log.error("回写网站图标失败: shortUrl={}", shortUrl, e);
+            }
+        });
+    }
+
+    private void submitBatchEnrich(HostBatch hostBatch) {
+        executor.execute(() -> {
+            String favicon = resolveFavicon(hostBatch.sampleOriginUrl());
+            if (favicon == null) {
+                return;
+            }
+            try {
+                for (List<String> shortUrls : ListUtil.partition(hostBatch.shortUrls(), UPDATE_BATCH_SIZE)) {
+                    zLinkMapper.update(null, Wrappers.lambdaUpdate(ZLink.class)
+                            .set(ZLink::getFavicon, favicon)
+                            .in(ZLink::getShortUrl, shortUrls));
+                }
+                log.debug("批量回写网站图标: count={}, favicon={}", hostBatch.shortUrls().size(), favicon);
+            } catch (Exception e) {
+                log.error("批量回写网站图标失败: count={}", hostBatch.shortUrls().size(), e);
+            }
+        });
+    }
+
+    private URI parseUri(String originUrl) {
+        if (StrUtil.isBlank(originUrl)) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(originUrl);
+            return uri.getScheme() == null || uri.getHost() == null ? null : uri;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String hostKey(URI uri) {
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    /**
+     * 单次 GET 原始链接页面，解析 link[rel=icon]
+     * 连接超时由 HttpClient 控制，整个请求（含连接与响应体读取）不超过连接超时 + 读取超时，响应体超过上限时截断
+     */
+    private String fetchFavicon(URI uri) {
+        fetchCount.increment();
+        CompletableFuture<HttpResponse<byte[]>> responseFuture = null;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMillis(readTimeout))
+                    .header("Accept", "text/html")
+                    .GET()
+                    .build();
+            responseFuture = httpClient.sendAsync(request, responseInfo -> new LimitedBodySubscriber(maxBodySize));
+            HttpResponse<byte[]> response = responseFuture.get(connectTimeout + readTimeout, TimeUnit.MILLISECONDS);
+            if (response.statusCode() != 200) {
+                failureCount.increment();
+                return null;
+            }
+            Document document = Jsoup.parse(new String(response.body(), StandardCharsets.UTF_8), response.uri().toString());
+            Element faviconLink = document.select("link[rel~=(?i)^(shortcut )?icon]").first();
+            return faviconLink != null ? faviconLink.attr("abs:href") : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failureCount.increment();
+            return null;
+        } catch (Exception e) {
+            if (responseFuture != null) {
+                responseFuture.cancel(true);
+            }
+            failureCount.increment();
+            log.debug("解析网站图标失败: url={}, error={}", uri, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 限制大小的响应体订阅者，读满上限后取消订阅并以已读取内容完成
+     */
+    private static final class LimitedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+        private final int limit;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        private LimitedBodySubscriber(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            for (ByteBuffer item : items) {
+                int length = Math.min(item.remaining(), limit - buffer.size());
+                byte[] bytes = new byte[length];
+                item.get(bytes);
+                buffer.write(bytes, 0, length);
+                if (buffer.size() >= limit) {
+                    subscription.cancel();
+                    result.complete(buffer.toByteArray());
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(buffer.toByteArray());
+        }
+    }
+
+    private record HostBatch(String sampleOriginUrl, List<String> shortUrls) {
+    }
+
+    private record CachedFavicon(String favicon, long expireAt) {
+    }
+}
@@ -0,0 +1,191 @@
+package com.zicca.zlink.backend.service.impl;
+
+import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import com.zicca.zlink.backend.config.ShortUrlConfig;
+import com.zicca.zlink.backend.dao.mapper.IdSegmentMapper;
+import com.zicca.zlink.backend.service.SegmentIdService;
+import com.zicca.zlink.framework.execption.ServiceException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 号段序列号服务实现（双缓冲号段）
+ * 1. 每个节点通过一次原子递增（Redis INCRBY 或 MySQL 行锁 UPDATE）租用一段序列号，段内在内存中分配，无网络调用
+ * 2. 当前号段使用到 prefetchRatio 时异步预取下一段，当前段用完直接切换，申请号段的延迟不落在请求线程上
+ * 3. 预取失败或未完成时由切换线程同步申请，节点重启未用完的号段直接丢弃，序列号不连续但不重复
+ */
+@Slf4j(topic = "SegmentIdService")
+@Service
+@RequiredArgsConstructor
+public class SegmentIdServiceImpl implements SegmentIdService {
+
+    public static final String STORE_MYSQL = "mysql";
+    public static final String STORE_REDIS = "redis";
+
+    private static final String BIZ_TAG = "short_url";
+
+    /**
+     * 切换号段时等待预取结果的最长时间，超时后同步申请
+     */
+    private static final long PREFETCH_WAIT_MILLIS = 3000;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final IdSegmentMapper idSegmentMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ShortUrlConfig shortUrlConfig;
+
+    private volatile Segment current = Segment.EMPTY;
+    private final AtomicReference<CompletableFuture<Segment>> next = new AtomicReference<>();
+    private ExecutorService prefetchExecutor;
+
+    private final AtomicLong segmentCount = new AtomicLong(0);
+    private final AtomicLong prefetchHits = new AtomicLong(0);
+    private final AtomicLong syncLoads = new AtomicLong(0);
+
+    @PostConstruct
+    public void init() {
+        prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "zlink-segment-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            Segment segment = current;
+            long id = segment.cursor.getAndIncrement();
+            if (id < segment.max) {
+                // 每个号段只有一个线程恰好取到预取点
+                if (id == segment.prefetchAt) {
+                    prefetch();
+                }
+                return id;
+            }
+            switchSegment(segment);
+        }
+    }
+
+    public String getStats() {
+        Segment segment = current;
+        return String.format(">>>号段统计 - 存储: %s, 当前号段: [%d, %d), 已申请号段: %d, 预取命中: %d, 同步申请: %d",
+                shortUrlConfig.getSequence().getStore(), segment.max - segment.step, segment.max,
+                segmentCount.get(), prefetchHits.get(), syncLoads.get());
+    }
+
+    private void prefetch() {
+        if (next.get() != null) {
+            return;
+        }
+        CompletableFuture<Segment> future = new CompletableFuture<>();
+        if (next.compareAndSet(null, future)) {
+            prefetchExecutor.execute(() -> {
+                try {
+                    future.complete(allocate());
+                } catch (Throwable e) {
+                    log.warn(">>>预取号段失败，切换时同步申请: error={}", e.getMessage());
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * 当前号段用完：优先切换到预取号段，否则同步申请
+     */
+    private synchronized void switchSegment(Segment exhausted) {
+        if (current != exhausted) {
+            // 其他线程已完成切换
+            return;
+        }
+        Segment segment = null;
+        CompletableFuture<Segment> future = next.getAndSet(null);
+        if (future != null) {
+            try {
+                segment = future.get(PREFETCH_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                prefetchHits.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceException("等待预取号段被中断");
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn(">>>预取号段不可用，同步申请: error={}", e.getMessage());
+            }
+        }
+        if (segment == null) {
+            syncLoads.incrementAndGet();
+            segment = allocate();
+        }
+        current = segment;
+    }
+
+    private Segment allocate() {
+        ShortUrlConfig.Sequence sequence = shortUrlConfig.getSequence();
+        int step = sequence.getStep();
+        long max = STORE_MYSQL.equals(sequence.getStore()) ? allocateFromMysql(step) : allocateFromRedis(step);
+        segmentCount.incrementAndGet();
+        log.info(">>>申请短链接号段: [{}, {})", max - step, max);
+        return new Segment(max, step, sequence.getPrefetchRatio());
+    }
+
+    private long allocateFromRedis(int step) {
+        Long max = redisTemplate.opsForValue().increment(RedisKeyConstants.SHORT_URL_SEQUENCE_KEY, step);
+        if (max == null) {
+            throw new ServiceException("申请短链接号段失败");
+        }
+        return max;
+    }
+
+    private long allocateFromMysql(int step) {
+        Long max = transactionTemplate.execute(status -> {
+            if (idSegmentMapper.incrementMaxId(BIZ_TAG, step) == 0) {
+                idSegmentMapper.insertIgnore(BIZ_TAG);
+                idSegmentMapper.incrementMaxId(BIZ_TAG, step);
+            }
+            return idSegmentMapper.selectMaxId(BIZ_TAG);
+        });
+        if (max == null) {
+            throw new ServiceException("申请短链接号段失败");
+        }
+        return max;
+    }
+
+    /**
+     * 号段 [max - step, max)
+     */
+    private static final class Segment {
+
+        static final Segment EMPTY = new Segment(0, 0, 1);
+
+        final long max;
+        final long step;
+        final long prefetchAt;
+        final AtomicLong cursor;
+
+        Segment(long max, long step, double prefetchRatio) {
+            this.max = max;
+            this.step = step;
+            this.prefetchAt = max - step + (long) (step * prefetchRatio);
+            this.cursor = new AtomicLong(max - step);
+        }
+    }
+}
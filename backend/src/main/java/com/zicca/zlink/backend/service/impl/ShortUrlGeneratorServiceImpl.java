@@ -4,21 +4,28 @@ import cn.hutool.core.lang.Snowflake;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.zicca.zlink.backend.cache.holder.BloomFilterHolder;
 import com.zicca.zlink.backend.cache.holder.CacheHolder;
 import com.zicca.zlink.backend.config.ShortUrlConfig;
-import com.zicca.zlink.backend.dao.entity.ZLink;
 import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
 import com.zicca.zlink.backend.monitor.ShortUrlGenerationMetrics;
+import com.zicca.zlink.backend.service.SegmentIdService;
 import com.zicca.zlink.backend.service.ShortUrlGeneratorService;
+import com.zicca.zlink.backend.toolkit.FeistelPermutation;
 import com.zicca.zlink.backend.toolkit.HashUtil;
+import com.zicca.zlink.framework.execption.ServiceException;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -28,6 +35,7 @@ import java.util.concurrent.ThreadLocalRandom;
  * 1. 基础策略：UUID/雪花ID + MurmurHash + Base62
  * 2. 冲突检测：布隆过滤器 + 数据库查询
  * 3. 冲突解决：盐值重试 -> 时间戳后缀 -> 随机后缀 -> 长度递增
+ * 序列置换策略（hashType = 0）：号段序列号经 Feistel 置换后定长 Base62 编码，一一映射保证唯一，不做冲突检测
  */
 @Slf4j
 @Service
@@ -39,15 +47,39 @@ public class ShortUrlGeneratorServiceImpl implements ShortUrlGeneratorService {
     private final BloomFilterHolder bloomFilterHolder;
     private final ShortUrlConfig shortUrlConfig;
     private final ShortUrlGenerationMetrics metrics;
+    private final SegmentIdService segmentIdService;
+
+    /**
+     * 62^10 < 2^62，再长的编码超出置换区间上限
+     */
+    private static final int MAX_SEQUENCE_LENGTH = 10;
 
     // 雪花算法实例
     private final Snowflake snowflake = IdUtil.getSnowflake();
 
+    private FeistelPermutation sequencePermutation;
+
+    @PostConstruct
+    public void init() {
+        ShortUrlConfig.Sequence sequence = shortUrlConfig.getSequence();
+        if (sequence.getLength() < 1 || sequence.getLength() > MAX_SEQUENCE_LENGTH) {
+            throw new IllegalArgumentException("序列置换短链接长度需在1~" + MAX_SEQUENCE_LENGTH + "之间: " + sequence.getLength());
+        }
+        sequencePermutation = new FeistelPermutation(HashUtil.base62Capacity(sequence.getLength()),
+                sequence.getSecret(), sequence.getRounds());
+    }
+
     @Override
     public String generateUniqueShortUrl(String originalUrl, String gid) {
         long startTime = System.currentTimeMillis();
         metrics.recordGenerationStart();
 
+        if (shortUrlConfig.isSequenceMode()) {
+            String shortUrl = nextSequenceShortUrl();
+            metrics.recordGenerationSuccess(System.currentTimeMillis() - startTime, 0);
+            return shortUrl;
+        }
+
         String shortUrl = null;
         int retryCount = 0;
         int currentLength = shortUrlConfig.getBaseLength();
@@ -98,6 +130,52 @@ public class ShortUrlGeneratorServiceImpl implements ShortUrlGeneratorService {
         return shortUrl;
     }
 
+    @Override
+    public List<String> generateSequenceShortUrls(int count) {
+        List<String> shortUrls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shortUrls.add(nextSequenceShortUrl());
+        }
+        return shortUrls;
+    }
+
+    @Override
+    public List<String> generateUniqueShortUrls(int count) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        if (shortUrlConfig.isSequenceMode()) {
+            return generateSequenceShortUrls(count);
+        }
+        long startTime = System.currentTimeMillis();
+        Set<String> result = new LinkedHashSet<>(count * 2);
+        int currentLength = shortUrlConfig.getBaseLength();
+        int round = 0;
+        while (result.size() < count && round < shortUrlConfig.getMaxRetryTimes()) {
+            int roundSize = count - result.size();
+            Set<String> candidates = new LinkedHashSet<>(roundSize * 2);
+            for (int i = 0; i < roundSize; i++) {
+                String shortUrl = generateBaseShortUrl(round);
+                candidates.add(shortUrl.length() > currentLength ? shortUrl.substring(0, currentLength) : shortUrl);
+            }
+            // 布隆过滤器未命中即确定不存在；命中的候选可能是误判，直接丢弃，不逐条查库
+            Map<String, Boolean> exists = bloomFilterHolder.mightContainAll(candidates);
+            for (String shortUrl : candidates) {
+                if (exists.get(shortUrl) || !result.add(shortUrl)) {
+                    metrics.recordCollision();
+                }
+            }
+            round++;
+            // 与单条生成一致：每3轮增加一位长度
+            if (round % 3 == 0 && currentLength < shortUrlConfig.getMaxLength()) {
+                currentLength++;
+            }
+        }
+        log.info("批量生成短链接完成: 目标={}, 实际={}, 轮数={}, 耗时={}ms",
+                count, result.size(), round, System.currentTimeMillis() - startTime);
+        return new ArrayList<>(result);
+    }
+
     @Override
     public boolean isShortUrlExists(String shortUrl) {
         // 1. 先检查布隆过滤器（快速排除不存在的情况）
@@ -110,13 +188,19 @@ public class ShortUrlGeneratorServiceImpl implements ShortUrlGeneratorService {
         if (StrUtil.isNotBlank(cache)) {
             return true;
         }
-        // 3. 数据库精确查询
-        LambdaQueryWrapper<ZLink> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(ZLink::getShortUrl, shortUrl)
-                .or()
-                .eq(ZLink::getShortUri, shortUrl);
+        // 3. 数据库精确查询：short_uri 与 short_url 写入时取值相同，只在唯一索引上探测 short_url
+        return zLinkMapper.existsShortUrl(shortUrl) != null;
+    }
 
-        return zLinkMapper.selectCount(queryWrapper) > 0;
+    /**
+     * 序列置换：号段序列号 -> Feistel 置换 -> 定长 Base62
+     */
+    private String nextSequenceShortUrl() {
+        long id = segmentIdService.nextId();
+        if (id >= sequencePermutation.getDomainSize()) {
+            throw new ServiceException("短链接序列号已耗尽，请增大 zlink.link.sequence.length");
+        }
+        return HashUtil.toBase62(sequencePermutation.permute(id), shortUrlConfig.getSequence().getLength());
     }
 
     /**
@@ -6,8 +6,13 @@ import com.zicca.zlink.backend.cache.holder.BloomFilterHolder;
 import com.zicca.zlink.backend.config.ShortUrlConfig;
 import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
 import com.zicca.zlink.backend.pool.ShortUrlPoolManager;
+import com.zicca.zlink.backend.service.ShortUrlGeneratorService;
 import com.zicca.zlink.backend.service.ShortUrlPreGenerateService;
 import com.zicca.zlink.backend.toolkit.HashUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
@@ -17,16 +22,24 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 短链接预生成服务实现
  * 负责后台批量生成短链接并维护池的容量
+ * 补充由本地池低水位触发，批量按获取速率（EWMA）自适应，在专用单线程中执行
+ * 本地池由各节点各自补充，共享的Redis池只由持有补充权的节点生成补充
  */
 @Slf4j
 @Service
@@ -37,6 +50,10 @@ public class ShortUrlPreGenerateServiceImpl implements ShortUrlPreGenerateServic
     private final ShortUrlConfig shortUrlConfig;
     private final BloomFilterHolder bloomFilterHolder;
     private final ZLinkMapper zLinkMapper;
+    private final ShortUrlGeneratorService shortUrlGeneratorService;
+    private final MeterRegistry meterRegistry;
+
+    private static final long REFILL_SHUTDOWN_TIMEOUT_SECONDS = 5;
 
     private final Snowflake snowflake = IdUtil.getSnowflake();
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
@@ -44,37 +61,102 @@ public class ShortUrlPreGenerateServiceImpl implements ShortUrlPreGenerateServic
     private final AtomicLong totalDuplicates = new AtomicLong(0);
     private final AtomicLong totalGenerationTime = new AtomicLong(0);
 
+    private ThreadPoolExecutor refillExecutor;
+    private final AtomicInteger lastTarget = new AtomicInteger(0);
+    private final AtomicInteger lastBatchSize = new AtomicInteger(0);
+    private Counter coalescedTriggers;
+    private Counter lowWatermarkTriggers;
+    private Counter scheduledTriggers;
+    private Counter startupTriggers;
+    private Counter notOwnerSkips;
+    private Counter refillGenerated;
+    private Timer refillTimer;
+
     @PostConstruct
     public void init() {
+        // 单线程、队列长度1：执行中的补充任务之外最多排队一个，其余触发合并丢弃
+        refillExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "zlink-pool-refill");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> coalescedTriggers.increment());
+        coalescedTriggers = refillTriggerCounter("coalesced");
+        lowWatermarkTriggers = refillTriggerCounter("low_watermark");
+        scheduledTriggers = refillTriggerCounter("scheduled");
+        startupTriggers = refillTriggerCounter("startup");
+        notOwnerSkips = Counter.builder("zlink.pool.refill.skipped")
+                .description("未持有补充权、跳过生成的补充次数")
+                .tag("reason", "not_owner")
+                .register(meterRegistry);
+        refillGenerated = Counter.builder("zlink.pool.refill.generated")
+                .description("自适应补充生成的短链接数量")
+                .register(meterRegistry);
+        refillTimer = Timer.builder("zlink.pool.refill.duration")
+                .description("单次补充耗时")
+                .register(meterRegistry);
+        Gauge.builder("zlink.pool.acquire.rate", poolManager, ShortUrlPoolManager::getAcquisitionRate)
+                .description("本节点短链接获取速率（EWMA，个/秒）")
+                .register(meterRegistry);
+        Gauge.builder("zlink.pool.refill.target", lastTarget, AtomicInteger::get)
+                .description("最近一次补充决策的Redis池目标数量")
+                .register(meterRegistry);
+        Gauge.builder("zlink.pool.refill.batch", lastBatchSize, AtomicInteger::get)
+                .description("最近一次补充决策的生成批量")
+                .register(meterRegistry);
+
         if (shortUrlConfig.getPreGenerate().getEnabled()) {
+            // 本地池低于低水位时立即补充，不等待定时检查
+            poolManager.setLocalLowWatermarkListener(() -> triggerRefill(lowWatermarkTriggers));
             startPreGeneration();
         }
     }
 
     @PreDestroy
-    public void destroy() {
+    public void destroy() throws InterruptedException {
         stopPreGeneration();
+        // 等待进行中的补充完成，避免已生成的短链接丢失
+        refillExecutor.shutdown();
+        if (!refillExecutor.awaitTermination(REFILL_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            refillExecutor.shutdownNow();
+        }
     }
 
     @Override
     public List<String> generateShortUrls(int count) {
         long startTime = System.currentTimeMillis();
+        if (shortUrlConfig.isSequenceMode()) {
+            // 序列置换生成的短链接天然唯一，跳过布隆过滤器检查
+            List<String> shortUrls = shortUrlGeneratorService.generateSequenceShortUrls(count);
+            totalGenerated.addAndGet(shortUrls.size());
+            totalGenerationTime.addAndGet(System.currentTimeMillis() - startTime);
+            return shortUrls;
+        }
         List<String> result = new ArrayList<>();
         int attempts = 0;
         int maxAttempts = count * 3; // 最多尝试3倍数量，避免无限循环
 
+        // 按轮生成候选短链接，每轮一次批量布隆过滤器检查
         while (result.size() < count && attempts < maxAttempts) {
-            String shortUrl = generateSingleShortUrl();
-            attempts++;
-
-            // 检查是否已存在（布隆过滤器快速检查）
-            if (!isShortUrlExists(shortUrl)) {
-                result.add(shortUrl);
-                totalGenerated.incrementAndGet();
-            } else {
-                totalDuplicates.incrementAndGet();
-                log.info("生成的短链接已存在，跳过: {}", shortUrl);
+            int roundSize = Math.min(count - result.size(), maxAttempts - attempts);
+            Set<String> candidates = new LinkedHashSet<>(roundSize);
+            for (int i = 0; i < roundSize; i++) {
+                candidates.add(generateSingleShortUrl());
+            }
+            attempts += roundSize;
+
+            Map<String, Boolean> exists = bloomFilterHolder.mightContainAll(candidates);
+            for (String shortUrl : candidates) {
+                if (!exists.get(shortUrl)) {
+                    result.add(shortUrl);
+                    totalGenerated.incrementAndGet();
+                } else {
+                    totalDuplicates.incrementAndGet();
+                    log.debug("生成的短链接已存在，跳过: {}", shortUrl);
+                }
             }
+            totalDuplicates.addAndGet(roundSize - candidates.size());
         }
 
         long duration = System.currentTimeMillis() - startTime;
@@ -92,38 +174,81 @@ public class ShortUrlPreGenerateServiceImpl implements ShortUrlPreGenerateServic
         if (!shortUrlConfig.getPreGenerate().getEnabled()) {
             return;
         }
+        generateAndFill(count);
+    }
 
+    private int generateAndFill(int count) {
         try {
             List<String> shortUrls = generateShortUrls(count);
             if (!shortUrls.isEmpty()) {
                 int addedCount = poolManager.offerShortUrls(shortUrls);
                 log.info("向池中添加预生成短链接: {} 个", addedCount);
+                return addedCount;
             }
         } catch (Exception e) {
             log.error("预生成短链接并填充池失败", e);
         }
+        return 0;
     }
 
+    /**
+     * 兜底检查：补充主要由本地池低水位触发，定时检查覆盖本节点空闲但其他节点耗尽Redis池的情况
+     */
     @Override
-    @Scheduled(fixedDelayString = "${zlink.link.preGenerate.generateInterval:30}000")
+    @Scheduled(fixedDelayString = "#{@shortUrlConfig.preGenerate.generateInterval.toMillis()}")
     public void checkAndRefillPool() {
         if (!shortUrlConfig.getPreGenerate().getEnabled() || !isRunning.get()) {
             return;
         }
+        triggerRefill(scheduledTriggers);
+    }
 
+    /**
+     * 提交补充任务到专用线程，已有任务排队时合并
+     */
+    private void triggerRefill(Counter trigger) {
+        if (!isRunning.get()) {
+            return;
+        }
+        trigger.increment();
+        refillExecutor.execute(() -> refillTimer.record(this::refill));
+    }
+
+    /**
+     * 自适应补充：
+     * 1. 先从Redis池租用短链接补满本地池（每个节点各自执行）
+     * 2. 只有持有补充权的节点继续生成：按集群租用速率与本节点获取速率中较大者的 EWMA，计算覆盖 refillHorizon 所需的Redis池目标数量，
+     * 不足时按差额生成（限定在 [batchSize, maxBatchSize] 且不超过剩余容量）
+     */
+    private void refill() {
         try {
-            if (poolManager.needsRefill()) {
-                int batchSize = shortUrlConfig.getPreGenerate().getBatchSize();
-                log.info("检测到池容量不足，开始补充: {} 个", batchSize);
-                
-                CompletableFuture.runAsync(() -> generateAndFillPool(batchSize))
-                    .exceptionally(throwable -> {
-                        log.error("异步补充池失败", throwable);
-                        return null;
-                    });
+            poolManager.refillLocalFromRedis();
+            if (!poolManager.tryAcquireRefillOwnership()) {
+                notOwnerSkips.increment();
+                return;
             }
+            ShortUrlConfig.PreGenerate preGenerate = shortUrlConfig.getPreGenerate();
+            double rate = Math.max(poolManager.getAcquisitionRate(), poolManager.getClusterAcquisitionRate());
+            int capacity = preGenerate.getRedisPoolSize();
+            int target = (int) Math.min(Math.max(Math.ceil(rate * preGenerate.getRefillHorizon()),
+                    preGenerate.getMinThreshold() * 2L), capacity);
+            int redisSize = poolManager.getRedisPoolSize();
+            lastTarget.set(target);
+            if (redisSize >= target) {
+                lastBatchSize.set(0);
+                return;
+            }
+            int batchSize = Math.min(Math.min(Math.max(target - redisSize, preGenerate.getBatchSize()), preGenerate.getMaxBatchSize()),
+                    capacity - redisSize);
+            lastBatchSize.set(batchSize);
+            log.info("自适应补充短链接池: 获取速率={}/s, Redis池={}, 目标={}, 生成={}",
+                    String.format("%.2f", rate), redisSize, target, batchSize);
+            // 新生成的短链接写入Redis池，再租用到本地池
+            int generated = generateAndFill(batchSize);
+            refillGenerated.increment(generated);
+            poolManager.refillLocalFromRedis();
         } catch (Exception e) {
-            log.error("检查并补充池失败", e);
+            log.error("补充短链接池失败", e);
         }
     }
 
@@ -134,12 +259,7 @@ public class ShortUrlPreGenerateServiceImpl implements ShortUrlPreGenerateServic
             
             // 初始填充池
             if (shortUrlConfig.getPreGenerate().getEnabled()) {
-                int initialSize = shortUrlConfig.getPreGenerate().getBatchSize();
-                CompletableFuture.runAsync(() -> generateAndFillPool(initialSize))
-                    .exceptionally(throwable -> {
-                        log.error("初始填充池失败", throwable);
-                        return null;
-                    });
+                triggerRefill(startupTriggers);
             }
         }
     }
@@ -176,6 +296,13 @@ public class ShortUrlPreGenerateServiceImpl implements ShortUrlPreGenerateServic
         );
     }
 
+    private Counter refillTriggerCounter(String trigger) {
+        return Counter.builder("zlink.pool.refill.trigger")
+                .description("短链接池补充触发次数")
+                .tag("trigger", trigger)
+                .register(meterRegistry);
+    }
+
     /**
      * 生成单个短链接
      */
@@ -215,23 +342,6 @@ public class ShortUrlPreGenerateServiceImpl implements ShortUrlPreGenerateServic
         return shortUrl;
     }
 
-    /**
-     * 检查短链接是否已存在
-     */
-    private boolean isShortUrlExists(String shortUrl) {
-        // 1. 布隆过滤器快速检查
-        if (!bloomFilterHolder.mightContainsInLocal(shortUrl) && 
-            !bloomFilterHolder.mightContainsInRedis(shortUrl)) {
-            return false;
-        }
-
-        // 2. 对于预生成的短链接，我们可以选择更宽松的检查策略
-        // 因为即使有极少量重复，在实际使用时还会再次检查
-        // 这里可以根据业务需求调整检查严格程度
-        
-        return false; // 预生成时采用宽松策略，提高生成效率
-    }
-
     /**
      * 重置统计信息
      */
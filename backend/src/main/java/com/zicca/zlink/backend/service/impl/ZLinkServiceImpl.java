@@ -1,49 +1,81 @@
 package com.zicca.zlink.backend.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.zicca.zlink.backend.cache.holder.BloomFilterHolder;
 import com.zicca.zlink.backend.cache.holder.CacheHolder;
+import com.zicca.zlink.backend.cache.service.CacheInvalidationService;
+import com.zicca.zlink.backend.cache.service.CacheRebuildService;
+import com.zicca.zlink.backend.cache.service.GroupCountCacheService;
+import com.zicca.zlink.backend.cache.service.LinkCacheValue;
 import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
 import com.zicca.zlink.backend.common.enums.CreateTypeEnum;
+import com.zicca.zlink.backend.common.enums.EnableStatusEnum;
+import com.zicca.zlink.backend.common.enums.LinkOrderTagEnum;
 import com.zicca.zlink.backend.common.enums.ValidDateTypeEnum;
+import com.zicca.zlink.backend.config.MyBatisPlusConfig;
 import com.zicca.zlink.backend.config.ShortUrlConfig;
 import com.zicca.zlink.backend.dao.entity.ZLink;
+import com.zicca.zlink.backend.dao.entity.ZLinkGidRoute;
+import com.zicca.zlink.backend.dao.mapper.ZLinkGidRouteMapper;
 import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
 import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
 import com.zicca.zlink.backend.dto.req.ZLinkBatchCreateReqDTO;
 import com.zicca.zlink.backend.dto.req.ZLinkCreateReqDTO;
+import com.zicca.zlink.backend.dto.req.ZLinkDeleteReqDTO;
 import com.zicca.zlink.backend.dto.req.ZLinkPageReqDTO;
 import com.zicca.zlink.backend.dto.req.ZLinkUpdateReqDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkBaseInfoRespDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkBatchCreateRespDTO;
 import com.zicca.zlink.backend.dto.resp.ZLinkCreateRespDTO;
 import com.zicca.zlink.backend.dto.resp.ZLinkGroupCountQueryRespDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkPageRespDTO;
+import com.zicca.zlink.backend.monitor.RedirectMetrics;
 import com.zicca.zlink.backend.pool.ShortUrlPoolManager;
+import com.zicca.zlink.backend.service.FaviconService;
 import com.zicca.zlink.backend.service.ShortUrlGeneratorService;
 import com.zicca.zlink.backend.service.ZLinkService;
+import com.zicca.zlink.backend.stats.UserAgentClassifier;
+import com.zicca.zlink.backend.stats.ZLinkStatsRecorder;
 import com.zicca.zlink.backend.toolkit.LinkUtil;
 import com.zicca.zlink.framework.aop.TimeCost;
+import com.zicca.zlink.framework.execption.ClientException;
 import com.zicca.zlink.framework.execption.ServiceException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j(topic = "ZLinkServiceImpl")
 @Service
@@ -51,14 +83,42 @@ import java.util.List;
 public class ZLinkServiceImpl extends ServiceImpl<ZLinkMapper, ZLink> implements ZLinkService {
 
     private final CacheHolder cacheHolder;
+    private final CacheRebuildService cacheRebuildService;
     private final BloomFilterHolder bloomFilterHolder;
-    private final RedissonClient redissonClient;
     private final ShortUrlGeneratorService shortUrlGeneratorService;
     private final ShortUrlPoolManager poolManager;
     private final ShortUrlConfig shortUrlConfig;
+    private final FaviconService faviconService;
+    private final RedirectMetrics redirectMetrics;
+    private final ZLinkStatsRecorder zLinkStatsRecorder;
+    private final UserAgentClassifier userAgentClassifier;
+    private final ZLinkGidRouteMapper zLinkGidRouteMapper;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final GroupCountCacheService groupCountCacheService;
+
+    /**
+     * 单次批量创建上限
+     */
+    private static final int BATCH_CREATE_MAX_SIZE = 10000;
+    /**
+     * 单条多行 INSERT 的行数
+     */
+    private static final int BATCH_INSERT_SIZE = 1000;
+    /**
+     * 分页查询每页最大数量
+     */
+    private static final long PAGE_MAX_SIZE = 100;
+    /**
+     * 访客标识 Cookie
+     */
+    private static final String UV_COOKIE_NAME = "uv";
 
     @Value("${zlink.domain.default}")
     private String defaultDomain;
+    @Value("${zlink.stats.uv.cookieMaxAge:2592000}")
+    private int uvCookieMaxAge;
+    @Value("${zlink.sharding.enabled:false}")
+    private boolean shardingEnabled;
 
     @TimeCost
     @Transactional(rollbackFor = Exception.class)
@@ -96,20 +156,27 @@ public class ZLinkServiceImpl extends ServiceImpl<ZLinkMapper, ZLink> implements
                 .validDateType(ValidDateTypeEnum.formCode(requestParam.getValidDateType()))
                 .validDate(requestParam.getValidDate())
                 .describe(requestParam.getDescribe())
-                .favicon(getFavicon(requestParam.getOriginUrl()))
                 .build();
                 
         boolean saved = save(zLink);
         if (!saved) {
             throw new ServiceException("新增短链接失败");
         }
+        // 分片模式下写入分组路由，与短链接在同一事务内
+        if (shardingEnabled && zLink.getGid() != null) {
+            zLinkGidRouteMapper.insertBatch(List.of(toGidRoute(zLink)));
+        }
+        groupCountCacheService.incrementAfterCommit(zLink.getGid(), 1);
         
-        // 加入缓存 默认刚创建的短链接是即将被访问的
-        cacheHolder.putToCache(shortUrl, zLink.getOriginUrl(), 
-            LinkUtil.getLinkCacheValidTime(requestParam.getValidDate()));
+        // 加入缓存 默认刚创建的短链接是即将被访问的，缓存条目携带链接过期时刻
+        cacheHolder.putToCacheUntil(shortUrl, zLink.getOriginUrl(),
+            LinkUtil.getLinkExpireAt(zLink.getValidDateType(), zLink.getValidDate()));
         
         // 加入布隆过滤器
         bloomFilterHolder.add(shortUrl);
+
+        // 事务提交后异步解析网站图标，不占用数据库连接等待远程站点
+        faviconService.enrichAfterCommit(shortUrl, requestParam.getOriginUrl());
         
         log.info("创建短链接成功: {} -> {}", shortUrl, requestParam.getOriginUrl());
         return BeanUtil.copyProperties(zLink, ZLinkCreateRespDTO.class);
@@ -120,137 +187,521 @@ public class ZLinkServiceImpl extends ServiceImpl<ZLinkMapper, ZLink> implements
         return null;
     }
 
+    /**
+     * 批量创建短链接
+     * 1. 只为非空的原始链接获取短链接，优先批量从预生成池获取，不足部分一次批量生成
+     * 2. 按批次多行插入，每批独立提交，批次失败时逐条插入定位失败记录
+     * 3. 每批成功后单次 pipeline 写 Redis 缓存、批量写布隆过滤器，不预热本地缓存
+     * 4. 网站图标按域名分组异步解析
+     */
+    @TimeCost
     @Override
-    public ZLinkBatchCreateReqDTO batchCreateZLink(ZLinkBatchCreateReqDTO requestParam) {
-        return null;
+    public ZLinkBatchCreateRespDTO batchCreateZLink(ZLinkBatchCreateReqDTO requestParam) {
+        List<String> originUrls = requestParam.getOriginUrls();
+        if (CollUtil.isEmpty(originUrls)) {
+            throw new ClientException("原始链接集合不能为空");
+        }
+        if (originUrls.size() > BATCH_CREATE_MAX_SIZE) {
+            throw new ClientException("单次批量创建短链接数量不能超过" + BATCH_CREATE_MAX_SIZE);
+        }
+        List<String> describes = requestParam.getDescribes();
+        CreateTypeEnum createType = CreateTypeEnum.formCode(requestParam.getCreateType());
+        ValidDateTypeEnum validDateType = ValidDateTypeEnum.formCode(requestParam.getValidDateType());
+        long expireAt = LinkUtil.getLinkExpireAt(validDateType, requestParam.getValidDate());
+
+        // 只为非空的原始链接获取短链接，避免取出的短链接被标记已使用后丢弃
+        int required = (int) originUrls.stream().filter(StrUtil::isNotBlank).count();
+        List<String> shortUrls = shortUrlConfig.getPreGenerate().getEnabled()
+                ? poolManager.acquireShortUrls(required)
+                : new ArrayList<>(required);
+        int pooled = shortUrls.size();
+        if (pooled < required) {
+            // 不足部分一次批量生成，每轮一次批量布隆过滤器检查，不逐条往返
+            try {
+                shortUrls.addAll(shortUrlGeneratorService.generateUniqueShortUrls(required - pooled));
+            } catch (Exception e) {
+                log.error("批量创建短链接生成失败: count={}", required - pooled, e);
+            }
+            if (shortUrlConfig.getPreGenerate().getEnabled()) {
+                log.warn("预生成池短链接不足，批量生成剩余短链接: required={}, pooled={}, generated={}",
+                        required, pooled, shortUrls.size() - pooled);
+            }
+        }
+        Iterator<String> shortUrlIterator = shortUrls.iterator();
+
+        List<ZLinkBaseInfoRespDTO> results = new ArrayList<>(originUrls.size());
+        List<ZLink> links = new ArrayList<>(originUrls.size());
+        Set<String> assigned = new HashSet<>(originUrls.size());
+        Date now = new Date();
+        for (int i = 0; i < originUrls.size(); i++) {
+            String originUrl = originUrls.get(i);
+            String describe = describes != null && i < describes.size() ? describes.get(i) : null;
+            ZLinkBaseInfoRespDTO result = ZLinkBaseInfoRespDTO.builder()
+                    .originUrl(originUrl)
+                    .describe(describe)
+                    .success(false)
+                    .build();
+            results.add(result);
+            if (StrUtil.isBlank(originUrl)) {
+                result.setFailReason("原始链接不能为空");
+                continue;
+            }
+            // 池中与批量生成的短链接尚未写入布隆过滤器，跳过批内重复
+            String shortUrl = null;
+            while (shortUrl == null && shortUrlIterator.hasNext()) {
+                String candidate = shortUrlIterator.next();
+                if (assigned.add(candidate)) {
+                    shortUrl = candidate;
+                }
+            }
+            if (shortUrl == null) {
+                result.setFailReason("短链接生成失败");
+                continue;
+            }
+            ZLink zLink = ZLink.builder()
+                    .id(IdWorker.getId())
+                    .domain(defaultDomain)
+                    .originUrl(originUrl)
+                    .shortUri(shortUrl)
+                    .shortUrl(shortUrl)
+                    .gid(requestParam.getGid())
+                    .clickNum(0L)
+                    .enableStatus(EnableStatusEnum.ENABLE)
+                    .createType(createType)
+                    .validDateType(validDateType)
+                    .validDate(requestParam.getValidDate())
+                    .describe(describe)
+                    .totalPv(0)
+                    .totalUv(0)
+                    .totalUip(0)
+                    .deleteTime(0L)
+                    .build();
+            // 多行插入不经过自动填充，手动设置公共字段
+            zLink.setCreateTime(now);
+            zLink.setUpdateTime(now);
+            zLink.setCreateBy(MyBatisPlusConfig.DEFAULT_OPERATOR);
+            zLink.setUpdateBy(MyBatisPlusConfig.DEFAULT_OPERATOR);
+            zLink.setDeleteFlag(0);
+            links.add(zLink);
+            result.setShortUrl(shortUrl);
+        }
+
+        Map<String, ZLinkBaseInfoRespDTO> resultMap = results.stream()
+                .filter(each -> each.getShortUrl() != null)
+                .collect(Collectors.toMap(ZLinkBaseInfoRespDTO::getShortUrl, Function.identity()));
+        Map<String, String> created = new LinkedHashMap<>();
+        for (List<ZLink> chunk : ListUtil.partition(links, BATCH_INSERT_SIZE)) {
+            List<ZLink> saved = insertChunk(chunk, resultMap);
+            if (saved.isEmpty()) {
+                continue;
+            }
+            saveGidRoutes(saved);
+            // 每批独立提交，无事务时立即累加分组数量
+            groupCountCacheService.incrementAfterCommit(requestParam.getGid(), saved.size());
+            Map<String, String> chunkCache = new LinkedHashMap<>(saved.size());
+            saved.forEach(each -> chunkCache.put(each.getShortUrl(), each.getOriginUrl()));
+            cacheHolder.putBatchToRedisUntil(chunkCache, expireAt);
+            bloomFilterHolder.addBatch(chunkCache.keySet());
+            created.putAll(chunkCache);
+        }
+        faviconService.enrichBatchAfterCommit(created);
+
+        log.info("批量创建短链接完成: total={}, success={}", originUrls.size(), created.size());
+        return ZLinkBatchCreateRespDTO.builder()
+                .total(created.size())
+                .baseLinkInfos(results)
+                .build();
     }
 
+    /**
+     * 分片模式下批量写入分组路由；短链接已提交，路由写入失败只记录日志，可按 z_link 重建
+     */
+    private void saveGidRoutes(List<ZLink> links) {
+        if (!shardingEnabled || links.get(0).getGid() == null) {
+            return;
+        }
+        try {
+            zLinkGidRouteMapper.insertBatch(links.stream().map(this::toGidRoute).toList());
+        } catch (Exception e) {
+            log.error("批量写入分组路由失败: size={}, gid={}", links.size(), links.get(0).getGid(), e);
+        }
+    }
+
+    private ZLinkGidRoute toGidRoute(ZLink zLink) {
+        return ZLinkGidRoute.builder()
+                .gid(zLink.getGid())
+                .shortUrl(zLink.getShortUrl())
+                .linkId(zLink.getId())
+                .createTime(zLink.getCreateTime())
+                .totalPv(ObjectUtil.defaultIfNull(zLink.getTotalPv(), 0))
+                .totalUv(ObjectUtil.defaultIfNull(zLink.getTotalUv(), 0))
+                .totalUip(ObjectUtil.defaultIfNull(zLink.getTotalUip(), 0))
+                .build();
+    }
+
+    /**
+     * 多行插入一批短链接，失败时逐条插入并记录失败原因
+     *
+     * @return 插入成功的短链接
+     */
+    private List<ZLink> insertChunk(List<ZLink> chunk, Map<String, ZLinkBaseInfoRespDTO> resultMap) {
+        try {
+            baseMapper.insertBatch(chunk);
+            chunk.forEach(each -> resultMap.get(each.getShortUrl()).setSuccess(true));
+            return chunk;
+        } catch (Exception e) {
+            log.warn("批量插入短链接失败，降级为逐条插入: size={}, error={}", chunk.size(), e.getMessage());
+        }
+        List<ZLink> saved = new ArrayList<>(chunk.size());
+        for (ZLink each : chunk) {
+            ZLinkBaseInfoRespDTO result = resultMap.get(each.getShortUrl());
+            try {
+                baseMapper.insertBatch(List.of(each));
+                result.setSuccess(true);
+                saved.add(each);
+            } catch (DuplicateKeyException e) {
+                result.setFailReason("短链接已存在");
+            } catch (Exception e) {
+                log.error("插入短链接失败: shortUrl={}", each.getShortUrl(), e);
+                result.setFailReason("新增短链接失败");
+            }
+        }
+        return saved;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
     @Override
     public void updateZLink(ZLinkUpdateReqDTO requestParam) {
+        String shortUrl = toShortCode(requestParam.getShortUrl());
+        ZLink link = getActiveZLink(shortUrl, requestParam.getOriginGid());
+        String gid = StrUtil.isNotBlank(requestParam.getGid()) ? requestParam.getGid() : link.getGid();
+        String originUrl = StrUtil.isNotBlank(requestParam.getOriginUrl()) ? requestParam.getOriginUrl() : link.getOriginUrl();
+        // 未传有效期类型时保持原有效期
+        ValidDateTypeEnum validDateType = link.getValidDateType();
+        Date validDate = link.getValidDate();
+        if (requestParam.getValidDateType() != null) {
+            validDateType = ValidDateTypeEnum.formCode(requestParam.getValidDateType());
+            validDate = validDateType == ValidDateTypeEnum.CUSTOM ? requestParam.getValidDate() : null;
+            if (validDateType == ValidDateTypeEnum.CUSTOM && validDate == null) {
+                throw new ClientException("自定义有效期必须指定有效时间");
+            }
+        }
+        int updated = baseMapper.update(null, Wrappers.lambdaUpdate(ZLink.class)
+                .set(ZLink::getOriginUrl, originUrl)
+                .set(ZLink::getGid, gid)
+                .set(ZLink::getValidDateType, validDateType)
+                .set(ZLink::getValidDate, validDate)
+                .set(requestParam.getDescribe() != null, ZLink::getDescribe, requestParam.getDescribe())
+                .eq(ZLink::getShortUrl, shortUrl)
+                .eq(ZLink::getGid, link.getGid())
+                .eq(ZLink::getDeleteFlag, 0));
+        if (updated == 0) {
+            throw new ServiceException("修改短链接失败");
+        }
+        if (!gid.equals(link.getGid())) {
+            Map<String, Long> groupDeltas = new HashMap<>(4);
+            groupDeltas.put(link.getGid(), -1L);
+            groupDeltas.put(gid, 1L);
+            groupCountCacheService.incrementAfterCommit(groupDeltas);
+            // 分片模式下分组变更需迁移分组路由
+            if (shardingEnabled) {
+                zLinkGidRouteMapper.delete(link.getGid(), shortUrl);
+                link.setGid(gid);
+                zLinkGidRouteMapper.insertBatch(List.of(toGidRoute(link)));
+            }
+        }
+        if (!originUrl.equals(link.getOriginUrl())) {
+            faviconService.enrichAfterCommit(shortUrl, originUrl);
+        }
+        // 提交后失效两级缓存并广播到其他节点
+        cacheInvalidationService.invalidateAfterCommit(List.of(shortUrl));
+    }
 
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void deleteZLink(ZLinkDeleteReqDTO requestParam) {
+        String shortUrl = toShortCode(requestParam.getShortUrl());
+        ZLink link = getActiveZLink(shortUrl, requestParam.getGid());
+        // delete_time 参与唯一索引 (short_url, delete_time)，已删除的记录不占用短链接
+        int deleted = baseMapper.update(null, Wrappers.lambdaUpdate(ZLink.class)
+                .set(ZLink::getDeleteFlag, 1)
+                .set(ZLink::getDeleteTime, System.currentTimeMillis())
+                .eq(ZLink::getShortUrl, shortUrl)
+                .eq(ZLink::getGid, link.getGid())
+                .eq(ZLink::getDeleteFlag, 0));
+        if (deleted == 0) {
+            throw new ServiceException("删除短链接失败");
+        }
+        if (shardingEnabled) {
+            zLinkGidRouteMapper.delete(link.getGid(), shortUrl);
+        }
+        groupCountCacheService.incrementAfterCommit(link.getGid(), -1);
+        cacheInvalidationService.invalidateAfterCommit(List.of(shortUrl));
     }
 
+    /**
+     * 查询分组内未删除的短链接
+     */
+    private ZLink getActiveZLink(String shortUrl, String gid) {
+        if (StrUtil.isBlank(gid)) {
+            throw new ClientException("分组标识不能为空");
+        }
+        ZLink link = baseMapper.selectOne(Wrappers.lambdaQuery(ZLink.class)
+                .eq(ZLink::getShortUrl, shortUrl)
+                .eq(ZLink::getGid, gid)
+                .eq(ZLink::getDeleteFlag, 0));
+        if (link == null) {
+            throw new ClientException("短链接不存在");
+        }
+        return link;
+    }
+
+    /**
+     * 完整短链接取最后一段路径作为短链接码
+     */
+    private static String toShortCode(String shortUrl) {
+        if (StrUtil.isBlank(shortUrl)) {
+            throw new ClientException("短链接不能为空");
+        }
+        String code = StrUtil.removeSuffix(shortUrl.trim(), "/");
+        return code.substring(code.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * 分页查询短链接
+     * 1. 按 (排序列, 主键) 游标翻页：下一页以上一页最后一条记录的排序值与主键为起点，
+     *    由索引 (gid, delete_flag, 排序列, id) 直接定位，不随页码增大扫描并丢弃前面的行
+     * 2. 总数取自分组数量缓存，不对每次请求执行 COUNT
+     * 3. 分片模式下 z_link 按短链接分片，先在分组路由表（按 gid 分片，冗余排序列）上按同样的游标翻页，
+     *    再按短链接定点查询 z_link，不向全部分表广播 ORDER BY / LIMIT
+     * 按访问量排序时排序值随访问变化，翻页期间访问量变化的记录可能重复或遗漏，与按创建时间排序不同
+     */
     @Override
-    public IPage<ZLinkPageReqDTO> pageZLink(ZLinkPageReqDTO requestParam) {
-        return null;
+    public IPage<ZLinkPageRespDTO> pageZLink(ZLinkPageReqDTO requestParam) {
+        if (StrUtil.isBlank(requestParam.getGid())) {
+            throw new ClientException("分组标识不能为空");
+        }
+        LinkOrderTagEnum orderTag = LinkOrderTagEnum.of(requestParam.getOrderTag());
+        Object lastValue = orderTag == LinkOrderTagEnum.CREATE_TIME ? requestParam.getLastCreateTime() : requestParam.getLastOrderValue();
+        if (requestParam.getLastId() != null && lastValue == null) {
+            throw new ClientException("翻页游标不完整");
+        }
+        long size = requestParam.getSize() <= 0 ? 10 : Math.min(requestParam.getSize(), PAGE_MAX_SIZE);
+        List<ZLinkPageRespDTO> records;
+        if (shardingEnabled) {
+            records = selectPageByRoute(requestParam.getGid(), orderTag, lastValue, requestParam.getLastId(), size);
+        } else {
+            records = baseMapper.selectPageByGid(requestParam.getGid(), orderTag.getColumn(), lastValue, requestParam.getLastId(), size)
+                    .stream()
+                    .map(link -> toPageResp(link, orderValue(orderTag, link.getTotalPv(), link.getTotalUv(), link.getTotalUip())))
+                    .toList();
+        }
+        long total = groupCountCacheService.get(List.of(requestParam.getGid())).get(0).getShortLinkCount();
+        Page<ZLinkPageRespDTO> page = new Page<>(requestParam.getCurrent(), size, total, false);
+        page.setRecords(records);
+        return page;
+    }
+
+    /**
+     * 分片模式分页：路由表游标翻页，再按短链接批量查询 z_link 并按路由顺序排列
+     * 路由表的访问统计与 z_link 异步累加，可能存在偏差，游标排序值取自路由表，保证翻页不跳过、不重复
+     */
+    private List<ZLinkPageRespDTO> selectPageByRoute(String gid, LinkOrderTagEnum orderTag, Object lastValue, Long lastId, long size) {
+        List<ZLinkGidRoute> routes = zLinkGidRouteMapper.selectPageByGid(gid, orderTag.getColumn(), lastValue, lastId, size);
+        if (routes.isEmpty()) {
+            return List.of();
+        }
+        Map<String, ZLink> linkMap = baseMapper.selectPageItemsByShortUrls(routes.stream().map(ZLinkGidRoute::getShortUrl).toList())
+                .stream()
+                .collect(Collectors.toMap(ZLink::getShortUrl, Function.identity(), (first, second) -> first));
+        List<ZLinkPageRespDTO> records = new ArrayList<>(routes.size());
+        for (ZLinkGidRoute route : routes) {
+            ZLink link = linkMap.get(route.getShortUrl());
+            if (link != null) {
+                records.add(toPageResp(link, orderValue(orderTag, route.getTotalPv(), route.getTotalUv(), route.getTotalUip())));
+            }
+        }
+        return records;
+    }
+
+    private static ZLinkPageRespDTO toPageResp(ZLink link, Integer orderValue) {
+        ZLinkPageRespDTO record = BeanUtil.toBean(link, ZLinkPageRespDTO.class);
+        record.setOrderValue(orderValue);
+        return record;
+    }
+
+    /**
+     * 下一页游标的排序值，按创建时间排序时为空（游标为 createTime）
+     */
+    private static Integer orderValue(LinkOrderTagEnum orderTag, Integer totalPv, Integer totalUv, Integer totalUip) {
+        return switch (orderTag) {
+            case PV -> totalPv;
+            case UV -> totalUv;
+            case UIP -> totalUip;
+            case CREATE_TIME -> null;
+        };
     }
 
     @Override
     public List<ZLinkGroupCountQueryRespDTO> listGroupZLinkCount(List<String> requestParam) {
-        return List.of();
+        if (CollUtil.isEmpty(requestParam)) {
+            return List.of();
+        }
+        return groupCountCacheService.get(requestParam);
     }
 
     @SneakyThrows
     @Override
     public void restoreUrl(String shortUrl, ServletRequest request, ServletResponse response) {
+        long startNanos = System.nanoTime();
+        String originUrl = resolveOriginUrl(shortUrl);
+        boolean found = !RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(originUrl);
+        redirectMetrics.recordRedirect(found, startNanos);
+        if (found) {
+            // 访问统计写入内存队列后异步批量处理，不阻塞跳转
+            zLinkStats(buildStatsRecord(shortUrl, (HttpServletRequest) request, (HttpServletResponse) response));
+        }
+        ((HttpServletResponse) response).sendRedirect(found ? originUrl : "/page/notfound");
+    }
+
+    private ZLinkStatsRecordDTO buildStatsRecord(String shortUrl, HttpServletRequest request, HttpServletResponse response) {
+        // 访客标识取自 Cookie，没有时发放新标识，新标识必然是首次访问
+        String uv = Optional.ofNullable(request.getCookies()).stream()
+                .flatMap(Arrays::stream)
+                .filter(cookie -> UV_COOKIE_NAME.equals(cookie.getName()))
+                .map(Cookie::getValue)
+                .filter(StrUtil::isNotBlank)
+                .findFirst()
+                .orElse(null);
+        boolean uvFirstFlag = uv == null;
+        if (uvFirstFlag) {
+            uv = IdUtil.fastSimpleUUID();
+            Cookie cookie = new Cookie(UV_COOKIE_NAME, uv);
+            cookie.setPath("/");
+            cookie.setMaxAge(uvCookieMaxAge);
+            response.addCookie(cookie);
+        }
+        // UA 高度重复，分类结果命中缓存时不执行正则匹配
+        UserAgentClassifier.UserAgentInfo userAgent = userAgentClassifier.classify(request.getHeader("User-Agent"));
+        return ZLinkStatsRecordDTO.builder()
+                .shortUrl(shortUrl)
+                .remoteAddr(LinkUtil.getActualIp(request))
+                .os(userAgent.os())
+                .browser(userAgent.browser())
+                .device(userAgent.device())
+                .network(userAgent.network())
+                .uv(uv)
+                .uvFirstFlag(uvFirstFlag ? Boolean.TRUE : null)
+                .currentDate(new Date())
+                .build();
+    }
+
+    /**
+     * 逐级查询原始链接：本地缓存 → 本地布隆过滤器 → Redis缓存 → Redis布隆过滤器 → 回源数据库，并记录各层级指标
+     *
+     * @param shortUrl 短链接
+     * @return 原始链接，不存在时返回空值标识
+     */
+    private String resolveOriginUrl(String shortUrl) {
         // 查询本地是否缓存空值（避免缓存击穿） 【短链：原始链接】
-        String originUrl = null;
+        long tierStart = System.nanoTime();
+        String originUrl;
         // 如果本地缓存空值命中，直接返回404 \ 如果本地缓存命中非空，直接跳转
-        if (StrUtil.isNotBlank(originUrl = cacheHolder.getFromCache(shortUrl))) {
+        if (StrUtil.isNotBlank(originUrl = cacheHolder.getFromLocal(shortUrl))) {
             if (RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(originUrl)) {
-                log.info(">>>本地缓存：短链不存在: shortUrl={}", shortUrl);
-                ((HttpServletResponse) response).sendRedirect("/page/notfound");
-                return;
+                log.debug(">>>本地缓存：短链不存在: shortUrl={}", shortUrl);
+                redirectMetrics.record(RedirectMetrics.Tier.LOCAL_CACHE, RedirectMetrics.Result.NEGATIVE, tierStart);
+                return originUrl;
             }
-            // 消息队列异步统计短链访问信息
-            log.info(">>>本地缓存命中短链接：shortUrl={}", shortUrl);
-            ((HttpServletResponse) response).sendRedirect(originUrl);
-            return;
+            log.debug(">>>本地缓存命中短链接：shortUrl={}", shortUrl);
+            redirectMetrics.record(RedirectMetrics.Tier.LOCAL_CACHE, RedirectMetrics.Result.HIT, tierStart);
+            return originUrl;
         }
+        redirectMetrics.record(RedirectMetrics.Tier.LOCAL_CACHE, RedirectMetrics.Result.MISS, tierStart);
         // 如果本地缓存未命中，查询本地布隆过滤器是否存在
         // 如果不存在，直接返回404
+        tierStart = System.nanoTime();
         if (!bloomFilterHolder.mightContainsInLocal(shortUrl)) {
             // 如果不存在，直接返回404
-            log.info(">>>本地布隆过滤器不存在: shortUrl={}", shortUrl);
-            ((HttpServletResponse) response).sendRedirect("/page/notfound");
-            return;
+            log.debug(">>>本地布隆过滤器不存在: shortUrl={}", shortUrl);
+            redirectMetrics.record(RedirectMetrics.Tier.LOCAL_BLOOM, RedirectMetrics.Result.NEGATIVE, tierStart);
+            bloomFilterHolder.recordRejected();
+            return RedisKeyConstants.LINK_NOT_EXIST_VALUE;
         }
+        redirectMetrics.record(RedirectMetrics.Tier.LOCAL_BLOOM, RedirectMetrics.Result.HIT, tierStart);
         // 如果布隆过滤器存在，查询Redis缓存
         // 查询Redis缓存是否命中 命中空值返回404 \ 命中非空值跳转
+        tierStart = System.nanoTime();
         if (StrUtil.isNotBlank(originUrl = cacheHolder.getFromRedis(shortUrl))) {
             if (RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(originUrl)) {
-                log.info(">>>Redis缓存：短链不存在: shortUrl={}", shortUrl);
-                ((HttpServletResponse) response).sendRedirect("/page/notfound");
-                return;
+                log.debug(">>>Redis缓存：短链不存在: shortUrl={}", shortUrl);
+                redirectMetrics.record(RedirectMetrics.Tier.REDIS_CACHE, RedirectMetrics.Result.NEGATIVE, tierStart);
+                return originUrl;
             }
             // 如果缓存命中非空值，跳转
-            log.info(">>>Redis缓存命中短链接：shortUrl={}", shortUrl);
-            ((HttpServletResponse) response).sendRedirect(originUrl);
-            return;
+            log.debug(">>>Redis缓存命中短链接：shortUrl={}", shortUrl);
+            redirectMetrics.record(RedirectMetrics.Tier.REDIS_CACHE, RedirectMetrics.Result.HIT, tierStart);
+            return originUrl;
         }
+        redirectMetrics.record(RedirectMetrics.Tier.REDIS_CACHE, RedirectMetrics.Result.MISS, tierStart);
         // 如果缓存未命中，查询Redis布隆过滤器是否存在
         // 如果不存在，直接返回404
         // 如果布隆过滤器存在，则查询数据库
+        tierStart = System.nanoTime();
         if (!bloomFilterHolder.mightContainsInRedis(shortUrl)) {
             // 如果不存在，直接返回404
-            log.info(">>>Redis布隆过滤器不存在: shortUrl={}", shortUrl);
-            ((HttpServletResponse) response).sendRedirect("/page/notfound");
-            return;
+            log.debug(">>>Redis布隆过滤器不存在: shortUrl={}", shortUrl);
+            redirectMetrics.record(RedirectMetrics.Tier.REDIS_BLOOM, RedirectMetrics.Result.NEGATIVE, tierStart);
+            bloomFilterHolder.recordRejected();
+            return RedisKeyConstants.LINK_NOT_EXIST_VALUE;
         }
+        redirectMetrics.record(RedirectMetrics.Tier.REDIS_BLOOM, RedirectMetrics.Result.HIT, tierStart);
         // 如果数据库命中，则加入缓存，跳转
         // 如果数据库未命中，则返回404，本地缓存空值，Redis缓存空值，缓存时间设置3-5分钟
-        RLock lock = redissonClient.getLock(shortUrl);
-        lock.lock();
-        try {
-            // 双重判断是否有其他线程已经重建缓存
-            // 如果本地缓存空值命中，直接返回404 \ 如果本地缓存命中非空，直接跳转
-            if (StrUtil.isNotBlank(originUrl = cacheHolder.getFromLocal(shortUrl))) {
-                if (RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(originUrl)) {
-                    ((HttpServletResponse) response).sendRedirect("/page/notfound");
-                    return;
-                }
-                ((HttpServletResponse) response).sendRedirect(originUrl);
-                return;
-            }
-            // 查询Redis缓存是否命中 命中空值返回404 \ 命中非空值跳转
-            if (StrUtil.isNotBlank(originUrl = cacheHolder.getFromRedis(shortUrl))) {
-                if (RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(originUrl)) {
-                    ((HttpServletResponse) response).sendRedirect("/page/notfound");
-                    return;
-                }
-                // 如果缓存命中非空值，跳转
-                ((HttpServletResponse) response).sendRedirect(originUrl);
-                return;
-            }
+        // 同一短链接在本节点只有一个线程回源，跨节点通过有限等待的租约合并，超时直接回源数据库
+        tierStart = System.nanoTime();
+        originUrl = cacheRebuildService.load(shortUrl,
+                () -> cacheHolder.getFromCache(shortUrl),
+                () -> loadOriginUrlFromDB(shortUrl));
+        redirectMetrics.record(RedirectMetrics.Tier.DB,
+                RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(originUrl) ? RedirectMetrics.Result.NEGATIVE : RedirectMetrics.Result.HIT,
+                tierStart);
+        return originUrl;
+    }
 
-            // 查询数据库
-            ZLink link = lambdaQuery().eq(ZLink::getShortUrl, shortUrl).one();
-            if (ObjectUtil.isNull(link)) {
-                cacheHolder.putNullToCache(shortUrl); // 空值过期时间 3分钟
-                ((HttpServletResponse) response).sendRedirect("/page/notfound");
-                return;
+    /**
+     * 查询数据库并重建缓存
+     *
+     * @param shortUrl 短链接
+     * @return 原始链接，不存在时返回空值标识
+     */
+    private String loadOriginUrlFromDB(String shortUrl) {
+        // 查询前记录缓存版本，查询期间短链接被修改 / 删除时不回填旧值
+        CacheHolder.CacheVersion version = cacheHolder.currentVersion();
+        ZLink link = baseMapper.selectRedirectInfo(shortUrl);
+        if (ObjectUtil.isNull(link)) {
+            // 布隆过滤器放行但数据库不存在，计入误判；已删除的短链接有意保留在布隆过滤器中，不算误判
+            if (ObjectUtil.isNull(baseMapper.existsShortUrl(shortUrl))) {
+                bloomFilterHolder.recordFalsePositive();
             }
-            // 重建缓存
-            cacheHolder.putToCache(shortUrl, link.getOriginUrl(), true);
-            ((HttpServletResponse) response).sendRedirect(originUrl);
-        } finally {
-            lock.unlock();
+            // 空值过期时间 3分钟
+            cacheHolder.refill(shortUrl, RedisKeyConstants.LINK_NOT_EXIST_VALUE, LinkCacheValue.PERMANENT, version);
+            return RedisKeyConstants.LINK_NOT_EXIST_VALUE;
+        }
+        long expireAt = LinkUtil.getLinkExpireAt(link.getValidDateType(), link.getValidDate());
+        if (link.getEnableStatus() == EnableStatusEnum.DISABLE || expireAt <= System.currentTimeMillis()) {
+            // 已停用或已过期，与不存在同样缓存空值
+            cacheHolder.refill(shortUrl, RedisKeyConstants.LINK_NOT_EXIST_VALUE, LinkCacheValue.PERMANENT, version);
+            return RedisKeyConstants.LINK_NOT_EXIST_VALUE;
         }
+        // 重建缓存，有有效期的链接缓存条目携带过期时刻
+        cacheHolder.refill(shortUrl, link.getOriginUrl(), expireAt, version);
+        return link.getOriginUrl();
     }
 
 
     @Override
     public void zLinkStats(ZLinkStatsRecordDTO requestParam) {
-
-    }
-
-
-
-
-    @SneakyThrows
-    private String getFavicon(String url) {
-        URL targetUrl = new URL(url);
-        HttpURLConnection connection = (HttpURLConnection) targetUrl.openConnection();
-        connection.setRequestMethod("GET");
-        connection.connect();
-        int responseCode = connection.getResponseCode();
-        if (HttpURLConnection.HTTP_OK == responseCode) {
-            Document document = Jsoup.connect(url).get();
-            Element faviconLink = document.select("link[rel~=(?i)^(shortcut )?icon]").first();
-            if (faviconLink != null) {
-                return faviconLink.attr("abs:href");
-            }
-        }
-        return null;
+        zLinkStatsRecorder.record(requestParam);
     }
 }
@@ -0,0 +1,125 @@
+package com.zicca.zlink.backend.service.impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.zicca.zlink.backend.common.enums.StatsDimensionEnum;
+import com.zicca.zlink.backend.dao.entity.ZLinkAccessStats;
+import com.zicca.zlink.backend.dao.entity.ZLinkDimensionStats;
+import com.zicca.zlink.backend.dao.mapper.ZLinkAccessStatsMapper;
+import com.zicca.zlink.backend.dao.mapper.ZLinkDimensionStatsMapper;
+import com.zicca.zlink.backend.dto.req.ZLinkStatsReqDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkStatsAccessDailyRespDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkStatsDimensionRespDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkStatsRespDTO;
+import com.zicca.zlink.backend.service.ZLinkStatsService;
+import com.zicca.zlink.backend.stats.ZLinkUniqueVisitorCounter;
+import com.zicca.zlink.framework.execption.ClientException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 短链接访问统计查询服务实现
+ * PV 与分布来自小时/维度预聚合表（区间内 GROUP BY），UV/UIP 取区间内按天 HyperLogLog 的并集基数
+ * 按天 HyperLogLog 只保留 zlink.stats.uv.dailyRetentionDays 天，区间 UV/UIP 截取到保留期内，并返回实际统计起始日期
+ */
+@Slf4j(topic = "ZLinkStatsServiceImpl")
+@Service
+@RequiredArgsConstructor
+public class ZLinkStatsServiceImpl implements ZLinkStatsService {
+
+    /**
+     * 单次查询最大天数
+     */
+    private static final int MAX_QUERY_DAYS = 366;
+
+    private final ZLinkAccessStatsMapper accessStatsMapper;
+    private final ZLinkDimensionStatsMapper dimensionStatsMapper;
+    private final ZLinkUniqueVisitorCounter uniqueVisitorCounter;
+
+    @Override
+    public ZLinkStatsRespDTO getLinkStats(ZLinkStatsReqDTO requestParam) {
+        String shortUrl = requestParam.getShortUrl();
+        LocalDate startDate = requestParam.getStartDate();
+        LocalDate endDate = requestParam.getEndDate();
+        if (StrUtil.isBlank(shortUrl)) {
+            throw new ClientException("短链接不能为空");
+        }
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new ClientException("统计日期区间不合法");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_QUERY_DAYS) {
+            throw new ClientException("单次查询统计天数不能超过" + MAX_QUERY_DAYS);
+        }
+
+        List<ZLinkAccessStats> dailyStats = accessStatsMapper.selectDailyStats(shortUrl, startDate, endDate);
+        List<ZLinkAccessStats> hourlyStats = accessStatsMapper.selectHourlyStats(shortUrl, startDate, endDate);
+        Map<String, List<ZLinkDimensionStats>> dimensionStats = dimensionStatsMapper
+                .selectDimensionStats(shortUrl, startDate, endDate).stream()
+                .collect(Collectors.groupingBy(ZLinkDimensionStats::getDimension));
+
+        // 过期的按天键按空集合参与并集，直接统计会少算，截取到保留期内
+        LocalDate earliestRetainedDate = uniqueVisitorCounter.earliestRetainedDate();
+        LocalDate uvStartDate = startDate.isBefore(earliestRetainedDate) ? earliestRetainedDate : startDate;
+        boolean uvRetained = !uvStartDate.isAfter(endDate);
+
+        long pv = 0;
+        Long[] weekdayStats = zeros(7);
+        List<ZLinkStatsAccessDailyRespDTO> daily = new ArrayList<>(dailyStats.size());
+        for (ZLinkAccessStats stats : dailyStats) {
+            pv += stats.getPv();
+            weekdayStats[stats.getDate().getDayOfWeek().getValue() - 1] += stats.getPv();
+            daily.add(ZLinkStatsAccessDailyRespDTO.builder()
+                    .date(stats.getDate())
+                    .pv(stats.getPv())
+                    .uv(stats.getUv())
+                    .uip(stats.getUip())
+                    .build());
+        }
+        Long[] hourStats = zeros(24);
+        for (ZLinkAccessStats stats : hourlyStats) {
+            hourStats[stats.getHour()] = stats.getPv();
+        }
+
+        return ZLinkStatsRespDTO.builder()
+                .pv(pv)
+                .uv(uvRetained ? uniqueVisitorCounter.countLinkUv(shortUrl, uvStartDate, endDate) : null)
+                .uip(uvRetained ? uniqueVisitorCounter.countLinkUip(shortUrl, uvStartDate, endDate) : null)
+                .uvStartDate(uvRetained ? uvStartDate : null)
+                .daily(daily)
+                .hourStats(Arrays.asList(hourStats))
+                .weekdayStats(Arrays.asList(weekdayStats))
+                .osStats(toDimensionResp(dimensionStats.get(StatsDimensionEnum.OS.getCode())))
+                .browserStats(toDimensionResp(dimensionStats.get(StatsDimensionEnum.BROWSER.getCode())))
+                .deviceStats(toDimensionResp(dimensionStats.get(StatsDimensionEnum.DEVICE.getCode())))
+                .networkStats(toDimensionResp(dimensionStats.get(StatsDimensionEnum.NETWORK.getCode())))
+                .build();
+    }
+
+    private List<ZLinkStatsDimensionRespDTO> toDimensionResp(List<ZLinkDimensionStats> stats) {
+        if (stats == null || stats.isEmpty()) {
+            return List.of();
+        }
+        long total = stats.stream().mapToLong(ZLinkDimensionStats::getCnt).sum();
+        return stats.stream()
+                .map(each -> ZLinkStatsDimensionRespDTO.builder()
+                        .value(each.getDimValue())
+                        .cnt(each.getCnt())
+                        .ratio(Math.round(each.getCnt() * 10000.0 / total) / 10000.0)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static Long[] zeros(int length) {
+        Long[] values = new Long[length];
+        Arrays.fill(values, 0L);
+        return values;
+    }
+}
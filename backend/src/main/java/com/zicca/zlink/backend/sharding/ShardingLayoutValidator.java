@@ -0,0 +1,203 @@
+package com.zicca.zlink.backend.sharding;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.shardingsphere.infra.util.expr.InlineExpressionParser;
+import org.apache.shardingsphere.infra.util.yaml.YamlEngine;
+import org.apache.shardingsphere.infra.yaml.config.pojo.YamlRootConfiguration;
+import org.apache.shardingsphere.infra.yaml.config.pojo.algorithm.YamlAlgorithmConfiguration;
+import org.apache.shardingsphere.sharding.yaml.config.YamlShardingRuleConfiguration;
+import org.apache.shardingsphere.sharding.yaml.config.rule.YamlTableRuleConfiguration;
+import org.apache.shardingsphere.sharding.yaml.config.strategy.sharding.YamlShardingStrategyConfiguration;
+import org.apache.shardingsphere.sharding.yaml.config.strategy.sharding.YamlStandardShardingStrategyConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 分片布局启动校验（zlink.sharding.enabled=true 时生效），任一检查失败即抛出异常终止启动
+ * 1. 静态校验：读取 ShardingSphere 配置，要求每张分片逻辑表使用 ZLINK_HASH 分表算法，
+ *    物理表后缀恰好为 0 ~ sharding-count-1 且不重复；配置了分库算法时，两者分片数一致，且每张物理表所在库与 槽 / shard-group-size 对应
+ * 2. 路由探测：对每个分片槽构造一个落在该槽的分片键，经逻辑数据源执行一次点查，确认每张物理表存在且可路由
+ */
+@Slf4j(topic = "ShardingLayoutValidator")
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "zlink.sharding.enabled", havingValue = "true")
+public class ShardingLayoutValidator {
+
+    private final DataSource dataSource;
+
+    @Value("${zlink.sharding.config:shardingsphere-config.yaml}")
+    private String config;
+    @Value("${zlink.sharding.tables:z_link,z_link_gid_route}")
+    private List<String> tables;
+
+    @PostConstruct
+    public void validate() throws IOException, SQLException {
+        YamlRootConfiguration rootConfig;
+        try (InputStream input = new ClassPathResource(config).getInputStream()) {
+            rootConfig = YamlEngine.unmarshal(input.readAllBytes(), YamlRootConfiguration.class);
+        }
+        YamlShardingRuleConfiguration shardingRule = rootConfig.getRules().stream()
+                .filter(YamlShardingRuleConfiguration.class::isInstance)
+                .map(YamlShardingRuleConfiguration.class::cast)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("分片配置缺少 !SHARDING 规则: " + config));
+        for (String logicTable : tables) {
+            Layout layout = checkLayout(shardingRule, rootConfig.getDataSources().keySet(), logicTable);
+            probe(logicTable, layout);
+            log.info(">>>分片布局校验通过: logicTable={}, shardingColumn={}, shardingCount={}, dataSources={}",
+                    logicTable, layout.shardingColumn(), layout.shardingCount(), layout.dataSourceCount());
+        }
+    }
+
+    /**
+     * 静态校验一张逻辑表的分片布局
+     *
+     * @param shardingRule    分片规则
+     * @param dataSourceNames 已声明的数据源
+     * @param logicTable      逻辑表
+     * @return 分片布局
+     */
+    public static Layout checkLayout(YamlShardingRuleConfiguration shardingRule, Set<String> dataSourceNames, String logicTable) {
+        YamlTableRuleConfiguration tableRule = shardingRule.getTables().get(logicTable);
+        if (tableRule == null || tableRule.getActualDataNodes() == null) {
+            throw new IllegalStateException("分片配置缺少逻辑表: " + logicTable);
+        }
+        YamlStandardShardingStrategyConfiguration tableStrategy = standard(tableRule.getTableStrategy(), shardingRule.getDefaultTableStrategy());
+        if (tableStrategy == null) {
+            throw new IllegalStateException("逻辑表未配置标准分表策略: " + logicTable);
+        }
+        ZLinkHashShardingAlgorithm tableAlgorithm = algorithm(shardingRule, tableStrategy, logicTable);
+        if (tableAlgorithm.getShardGroupSize() != 1) {
+            throw new IllegalStateException("分表算法的 shard-group-size 必须为1: " + logicTable);
+        }
+        int shardingCount = tableAlgorithm.getShardingCount();
+        YamlStandardShardingStrategyConfiguration databaseStrategy = standard(tableRule.getDatabaseStrategy(), shardingRule.getDefaultDatabaseStrategy());
+        ZLinkHashShardingAlgorithm databaseAlgorithm = null;
+        if (databaseStrategy != null) {
+            databaseAlgorithm = algorithm(shardingRule, databaseStrategy, logicTable);
+            if (!databaseStrategy.getShardingColumn().equals(tableStrategy.getShardingColumn())
+                    || databaseAlgorithm.getShardingCount() != shardingCount) {
+                throw new IllegalStateException("分库与分表的分片键、分片数必须一致: " + logicTable);
+            }
+        }
+
+        List<String> nodes = new InlineExpressionParser(tableRule.getActualDataNodes()).splitAndEvaluate();
+        Set<Integer> slots = new HashSet<>();
+        Set<String> usedDataSources = new HashSet<>();
+        for (String node : nodes) {
+            int dot = node.indexOf('.');
+            if (dot < 0) {
+                throw new IllegalStateException("物理节点缺少数据源: " + node);
+            }
+            String dataSourceName = node.substring(0, dot);
+            String tableName = node.substring(dot + 1);
+            if (!dataSourceNames.contains(dataSourceName)) {
+                throw new IllegalStateException("物理节点引用了未声明的数据源: " + node);
+            }
+            int slot = suffix(tableName, logicTable + "_");
+            if (slot < 0 || slot >= shardingCount || !slots.add(slot)) {
+                throw new IllegalStateException(String.format("物理表后缀越界或重复: node=%s, shardingCount=%d", node, shardingCount));
+            }
+            if (databaseAlgorithm != null && suffix(dataSourceName, "") != slot / databaseAlgorithm.getShardGroupSize()) {
+                throw new IllegalStateException(String.format("物理表所在库与分库算法不一致: node=%s, 期望库后缀=%d",
+                        node, slot / databaseAlgorithm.getShardGroupSize()));
+            }
+            usedDataSources.add(dataSourceName);
+        }
+        if (slots.size() != shardingCount) {
+            throw new IllegalStateException(String.format("物理表数量与分片数不一致: logicTable=%s, 物理表=%d, shardingCount=%d",
+                    logicTable, slots.size(), shardingCount));
+        }
+        if (databaseAlgorithm == null && usedDataSources.size() > 1) {
+            throw new IllegalStateException("物理表分布在多个库但未配置分库策略: " + logicTable);
+        }
+        return new Layout(tableStrategy.getShardingColumn(), shardingCount, usedDataSources.size());
+    }
+
+    private void probe(String logicTable, Layout layout) throws SQLException {
+        String sql = "SELECT 1 FROM " + logicTable + " WHERE " + layout.shardingColumn() + " = ? LIMIT 1";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int slot = 0; slot < layout.shardingCount(); slot++) {
+                statement.setString(1, probeValue(slot, layout.shardingCount()));
+                statement.executeQuery().close();
+            }
+        }
+    }
+
+    /**
+     * 构造一个落在指定分片槽的分片键
+     */
+    static String probeValue(int slot, int shardingCount) {
+        for (int i = 0; ; i++) {
+            String value = "zlink-probe-" + i;
+            if (ZLinkHashShardingAlgorithm.slot(value, shardingCount) == slot) {
+                return value;
+            }
+        }
+    }
+
+    private static YamlStandardShardingStrategyConfiguration standard(YamlShardingStrategyConfiguration strategy,
+                                                                      YamlShardingStrategyConfiguration defaultStrategy) {
+        YamlShardingStrategyConfiguration actual = strategy != null ? strategy : defaultStrategy;
+        if (actual == null || actual.getNone() != null) {
+            return null;
+        }
+        if (actual.getStandard() == null) {
+            throw new IllegalStateException("分片策略必须为 standard");
+        }
+        return actual.getStandard();
+    }
+
+    private static ZLinkHashShardingAlgorithm algorithm(YamlShardingRuleConfiguration shardingRule,
+                                                        YamlStandardShardingStrategyConfiguration strategy, String logicTable) {
+        Map<String, YamlAlgorithmConfiguration> algorithms = shardingRule.getShardingAlgorithms();
+        YamlAlgorithmConfiguration algorithmConfig = algorithms.get(strategy.getShardingAlgorithmName());
+        if (algorithmConfig == null || !ZLinkHashShardingAlgorithm.TYPE.equals(algorithmConfig.getType())) {
+            throw new IllegalStateException(String.format("逻辑表 %s 的分片算法 %s 必须为 %s",
+                    logicTable, strategy.getShardingAlgorithmName(), ZLinkHashShardingAlgorithm.TYPE));
+        }
+        ZLinkHashShardingAlgorithm algorithm = new ZLinkHashShardingAlgorithm();
+        algorithm.init(algorithmConfig.getProps() == null ? new Properties() : algorithmConfig.getProps());
+        return algorithm;
+    }
+
+    private static int suffix(String name, String prefix) {
+        int index = name.lastIndexOf('_');
+        if (index < 0 || !name.startsWith(prefix) || (!prefix.isEmpty() && index != prefix.length() - 1)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(index + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 逻辑表分片布局
+     *
+     * @param shardingColumn  分片键
+     * @param shardingCount   分片数（物理表数）
+     * @param dataSourceCount 物理表分布的库数
+     */
+    public record Layout(String shardingColumn, int shardingCount, int dataSourceCount) {
+    }
+}
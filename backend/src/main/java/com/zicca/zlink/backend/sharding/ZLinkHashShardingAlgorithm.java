@@ -0,0 +1,106 @@
+package com.zicca.zlink.backend.sharding;
+
+import org.apache.shardingsphere.sharding.api.sharding.standard.PreciseShardingValue;
+import org.apache.shardingsphere.sharding.api.sharding.standard.RangeShardingValue;
+import org.apache.shardingsphere.sharding.api.sharding.standard.StandardShardingAlgorithm;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * 短链接分片算法（ShardingSphere SPI，类型 ZLINK_HASH）
+ * 1. 分片槽 slot = CRC32(分片键) % sharding-count，与 MySQL CRC32() 结果一致，存量数据可直接用 SQL 按槽迁移
+ * 2. 连续 shard-group-size 个槽映射到同一个目标：分表算法取 1（槽即表后缀），
+ *    分库算法取每库表数（表 z_link_0~7 在 ds_0、z_link_8~15 在 ds_1），同一算法同时用于分库与分表且不会错位
+ * 3. 算法属性非法时在数据源初始化阶段抛出异常；分片布局（表后缀、库与表的对应关系）由 {@link ShardingLayoutValidator} 启动时校验
+ * <p>
+ * 分片键只支持精确匹配；范围条件无法按哈希裁剪，路由到全部目标
+ */
+public class ZLinkHashShardingAlgorithm implements StandardShardingAlgorithm<String> {
+
+    public static final String TYPE = "ZLINK_HASH";
+
+    public static final String SHARDING_COUNT_KEY = "sharding-count";
+
+    public static final String SHARD_GROUP_SIZE_KEY = "shard-group-size";
+
+    private int shardingCount;
+
+    private int shardGroupSize;
+
+    @Override
+    public void init(Properties props) {
+        shardingCount = parsePositive(props, SHARDING_COUNT_KEY, null);
+        shardGroupSize = parsePositive(props, SHARD_GROUP_SIZE_KEY, 1);
+        if (shardingCount % shardGroupSize != 0) {
+            throw new IllegalArgumentException(String.format("分片数 %d 不能被 %s=%d 整除",
+                    shardingCount, SHARD_GROUP_SIZE_KEY, shardGroupSize));
+        }
+    }
+
+    @Override
+    public String doSharding(Collection<String> availableTargetNames, PreciseShardingValue<String> shardingValue) {
+        String suffix = "_" + slot(shardingValue.getValue(), shardingCount) / shardGroupSize;
+        for (String each : availableTargetNames) {
+            if (each.endsWith(suffix)) {
+                return each;
+            }
+        }
+        throw new IllegalStateException(String.format("未找到分片目标: logicTable=%s, suffix=%s, targets=%s",
+                shardingValue.getLogicTableName(), suffix, availableTargetNames));
+    }
+
+    @Override
+    public Collection<String> doSharding(Collection<String> availableTargetNames, RangeShardingValue<String> shardingValue) {
+        return availableTargetNames;
+    }
+
+    public int getShardingCount() {
+        return shardingCount;
+    }
+
+    public int getShardGroupSize() {
+        return shardGroupSize;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    /**
+     * 计算分片槽
+     *
+     * @param value         分片键
+     * @param shardingCount 分片数
+     * @return 分片槽 [0, shardingCount)
+     */
+    public static int slot(String value, int shardingCount) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(value.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc32.getValue() % shardingCount);
+    }
+
+    private static int parsePositive(Properties props, String key, Integer defaultValue) {
+        // YAML 中的数字属性为 Integer，不能用 getProperty 读取
+        Object value = props.get(key);
+        if (value == null) {
+            if (defaultValue == null) {
+                throw new IllegalArgumentException("缺少分片算法属性: " + key);
+            }
+            return defaultValue;
+        }
+        int result;
+        try {
+            result = Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("分片算法属性不是整数: " + key + "=" + value);
+        }
+        if (result <= 0) {
+            throw new IllegalArgumentException("分片算法属性必须大于0: " + key + "=" + value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,174 @@
+package com.zicca.zlink.backend.stats;
+
+import cn.hutool.core.util.StrUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * User-Agent 分类（操作系统 / 浏览器 / 设备 / 网络）
+ * 1. 规则在类加载时构建：能用固定片段判断的用 String.contains，只有需要结构匹配的才用预编译正则；
+ *    按顺序匹配，先命中者生效（如 Edge、微信的 UA 同时包含 Chrome，需排在 Chrome 之前）
+ * 2. 真实流量中 UA 高度重复，按原始 UA 做有界并发缓存，命中时跳过规则匹配；超长 UA 截断后作为缓存键
+ */
+@Slf4j(topic = "UserAgentClassifier")
+@Component
+public class UserAgentClassifier {
+
+    public static final String UNKNOWN = "Unknown";
+
+    /**
+     * 参与分类与缓存的 UA 最大长度，超出部分忽略，避免超长 UA 占用缓存
+     */
+    private static final int MAX_USER_AGENT_LENGTH = 512;
+
+    private static final UserAgentInfo UNKNOWN_INFO = new UserAgentInfo(UNKNOWN, UNKNOWN, UNKNOWN, null);
+
+    /**
+     * 爬虫标识，匹配前 UA 统一转为小写
+     */
+    private static final Rule BOT = new Rule("Bot", anyOf("bot", "spider", "crawler", "curl", "wget", "python-requests", "okhttp"));
+
+    private static final List<Rule> OS_RULES = List.of(
+            new Rule("HarmonyOS", anyOf("HarmonyOS", "OpenHarmony")),
+            new Rule("Windows Phone", anyOf("Windows Phone")),
+            new Rule("Windows", anyOf("Windows")),
+            new Rule("iOS", anyOf("iPhone", "iPad", "iPod")),
+            new Rule("Chrome OS", anyOf("CrOS")),
+            new Rule("Android", anyOf("Android")),
+            new Rule("macOS", anyOf("Mac OS X", "Macintosh")),
+            new Rule("Linux", anyOf("Linux"))
+    );
+
+    private static final List<Rule> BROWSER_RULES = List.of(
+            new Rule("WeChat", anyOf("MicroMessenger")),
+            new Rule("DingTalk", anyOf("DingTalk")),
+            new Rule("QQ", anyOf("MQQBrowser", "QQBrowser", " QQ/")),
+            new Rule("UC", anyOf("UCBrowser", "UCWEB")),
+            new Rule("Edge", anyOf("Edg/", "Edge/", "EdgA/", "EdgiOS/")),
+            new Rule("Opera", anyOf("OPR/", "Opera")),
+            new Rule("Samsung", anyOf("SamsungBrowser")),
+            new Rule("Firefox", anyOf("Firefox/", "FxiOS/")),
+            new Rule("Chrome", anyOf("Chrome/", "CriOS/")),
+            new Rule("Safari", regex("Version/\\S+ (Mobile/\\S+ )?Safari/")),
+            new Rule("IE", anyOf("MSIE ", "Trident/"))
+    );
+
+    private static final List<Rule> DEVICE_RULES = List.of(
+            new Rule("Tablet", anyOf("iPad", "Tablet", "PlayBook")
+                    .or(userAgent -> userAgent.contains("Android") && !userAgent.contains("Mobile"))),
+            new Rule("Mobile", anyOf("Mobile", "iPhone", "iPod", "Android", "Windows Phone"))
+    );
+
+    /**
+     * 微信等内置浏览器在 UA 中携带网络类型，如 NetType/WIFI
+     */
+    private static final Pattern NETWORK = Pattern.compile("NetType/(\\w+)");
+
+    private final Cache<String, UserAgentInfo> cache;
+
+    public UserAgentClassifier(@Value("${zlink.stats.userAgent.cacheSize:10000}") long cacheSize) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                .build();
+    }
+
+    /**
+     * 分类 User-Agent，优先读取缓存
+     *
+     * @param userAgent 原始 UA
+     * @return 分类结果，UA 为空时各项为 Unknown
+     */
+    public UserAgentInfo classify(String userAgent) {
+        if (StrUtil.isBlank(userAgent)) {
+            return UNKNOWN_INFO;
+        }
+        String key = userAgent.length() > MAX_USER_AGENT_LENGTH ? userAgent.substring(0, MAX_USER_AGENT_LENGTH) : userAgent;
+        try {
+            return cache.get(key, () -> parse(key));
+        } catch (ExecutionException e) {
+            log.warn(">>>解析User-Agent失败: userAgent={}, error={}", key, e.getMessage());
+            return UNKNOWN_INFO;
+        }
+    }
+
+    /**
+     * 不经缓存直接解析 User-Agent
+     *
+     * @param userAgent 原始 UA
+     * @return 分类结果
+     */
+    public static UserAgentInfo parse(String userAgent) {
+        if (StrUtil.isBlank(userAgent)) {
+            return UNKNOWN_INFO;
+        }
+        String network = null;
+        if (userAgent.contains("NetType/")) {
+            Matcher networkMatcher = NETWORK.matcher(userAgent);
+            if (networkMatcher.find()) {
+                network = networkMatcher.group(1).toUpperCase();
+            }
+        }
+        if (BOT.matcher().test(userAgent.toLowerCase())) {
+            return new UserAgentInfo(match(OS_RULES, userAgent), BOT.name(), BOT.name(), network);
+        }
+        return new UserAgentInfo(match(OS_RULES, userAgent), match(BROWSER_RULES, userAgent),
+                match(DEVICE_RULES, userAgent, "PC"), network);
+    }
+
+    public long cacheSize() {
+        return cache.size();
+    }
+
+    private static String match(List<Rule> rules, String userAgent) {
+        return match(rules, userAgent, UNKNOWN);
+    }
+
+    private static String match(List<Rule> rules, String userAgent, String defaultValue) {
+        for (Rule rule : rules) {
+            if (rule.matcher().test(userAgent)) {
+                return rule.name();
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * User-Agent 分类结果
+     *
+     * @param os      操作系统
+     * @param browser 浏览器
+     * @param device  设备 PC/Mobile/Tablet/Bot
+     * @param network 网络类型，UA 未携带时为空
+     */
+    public record UserAgentInfo(String os, String browser, String device, String network) {
+    }
+
+    private static Predicate<String> anyOf(String... tokens) {
+        return userAgent -> {
+            for (String token : tokens) {
+                if (userAgent.contains(token)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static Predicate<String> regex(String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        return userAgent -> pattern.matcher(userAgent).find();
+    }
+
+    private record Rule(String name, Predicate<String> matcher) {
+    }
+}
@@ -0,0 +1,222 @@
+package com.zicca.zlink.backend.stats;
+
+import cn.hutool.core.collection.ListUtil;
+import com.zicca.zlink.backend.dao.entity.ZLink;
+import com.zicca.zlink.backend.dao.mapper.ZLinkGidRouteMapper;
+import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsDeltaDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 短链接点击计数写回聚合器（write-behind）
+ * 1. 访问增量按短链接累加到内存中的 LongAdder，不直接更新 z_link，热点短链接的多次点击合并为一次 UPDATE；
+ *    累加与移除空闲计数器都在 ConcurrentHashMap 的桶锁内完成，刷写用 sumThenReset 逐槽取出，与并发累加互不丢失
+ * 2. 每隔 flushInterval 或累计 flushThreshold 次访问时取出增量，按 UPDATE ... CASE 批量累加
+ *    click_num / total_pv / total_uv / total_uip；入库失败的增量加回内存，下次重试
+ * 3. 停机时先停止定时刷写，再把剩余增量写入数据库
+ * 4. 分片模式下同步累加分组路由表冗余的排序统计，供分组分页按访问量排序
+ */
+@Slf4j(topic = "ZLinkClickAggregator")
+@Component
+@RequiredArgsConstructor
+public class ZLinkClickAggregator {
+
+    private final ZLinkMapper zLinkMapper;
+    private final ZLinkGidRouteMapper zLinkGidRouteMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${zlink.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    @Value("${zlink.stats.click.flushInterval:1000}")
+    private long flushInterval;
+    @Value("${zlink.stats.click.flushThreshold:10000}")
+    private long flushThreshold;
+    @Value("${zlink.stats.click.updateBatchSize:500}")
+    private int updateBatchSize;
+
+    private final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
+    /**
+     * 上次刷写后累计的访问次数
+     */
+    private final AtomicLong pendingEvents = new AtomicLong(0);
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private ScheduledExecutorService flushExecutor;
+    private Timer flushTimer;
+
+    private final AtomicLong flushedRows = new AtomicLong(0);
+    private final AtomicLong flushedEvents = new AtomicLong(0);
+    private final AtomicLong failedFlushes = new AtomicLong(0);
+    private final AtomicLong failedRouteSyncs = new AtomicLong(0);
+
+    @PostConstruct
+    public void init() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "zlink-stats-click-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        flushTimer = Timer.builder("zlink.stats.click.flush")
+                .description("短链接点击计数批量写回耗时")
+                .register(meterRegistry);
+        Gauge.builder("zlink.stats.click.pending", counters, ConcurrentHashMap::size)
+                .description("待写回点击计数的短链接数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(flushInterval + 5000, TimeUnit.MILLISECONDS);
+        flush();
+        log.info(">>>点击计数写回聚合器停止: {}", getStats());
+    }
+
+    /**
+     * 累加一批访问增量
+     *
+     * @param deltas 统计增量
+     */
+    public void add(List<ZLinkStatsDeltaDTO> deltas) {
+        long events = 0;
+        for (ZLinkStatsDeltaDTO delta : deltas) {
+            add(delta.getShortUrl(), delta.getPv(), delta.getUv(), delta.getUip());
+            events += delta.getPv();
+        }
+        // 达到阈值时提前刷写，同一时刻只投递一次
+        if (pendingEvents.addAndGet(events) >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * 把当前累计的增量写入数据库
+     *
+     * @return 写入的短链接数
+     */
+    public synchronized int flush() {
+        flushScheduled.set(false);
+        pendingEvents.set(0);
+        List<ZLinkStatsDeltaDTO> deltas = new ArrayList<>();
+        long events = 0;
+        for (String shortUrl : counters.keySet()) {
+            Counters counter = counters.get(shortUrl);
+            if (counter == null) {
+                continue;
+            }
+            long pv = counter.pv.sumThenReset();
+            long uv = counter.uv.sumThenReset();
+            long uip = counter.uip.sumThenReset();
+            if (pv == 0 && uv == 0 && uip == 0) {
+                // 一个周期无访问的短链接移出，累加在同一桶锁内完成，不会写入已移出的计数器
+                counters.computeIfPresent(shortUrl, (key, current) -> current.isZero() ? null : current);
+                continue;
+            }
+            deltas.add(ZLinkStatsDeltaDTO.builder().shortUrl(shortUrl).pv(pv).uv(uv).uip(uip).build());
+            events += pv;
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        long startNanos = System.nanoTime();
+        int written = 0;
+        try {
+            for (List<ZLinkStatsDeltaDTO> part : ListUtil.partition(deltas, updateBatchSize)) {
+                zLinkMapper.incrementStats(part);
+                written += part.size();
+                syncRouteStats(part);
+            }
+            flushedEvents.addAndGet(events);
+            log.debug(">>>写回点击计数: links={}, events={}", deltas.size(), events);
+        } catch (Exception e) {
+            // 未写入的增量加回内存，不计入提前刷写阈值，由下次定时刷写重试
+            failedFlushes.incrementAndGet();
+            for (ZLinkStatsDeltaDTO delta : deltas.subList(written, deltas.size())) {
+                add(delta.getShortUrl(), delta.getPv(), delta.getUv(), delta.getUip());
+            }
+            log.warn(">>>写回点击计数失败，下次重试: links={}, error={}", deltas.size() - written, e.getMessage());
+        } finally {
+            flushedRows.addAndGet(written);
+            flushTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        return written;
+    }
+
+    public String getStats() {
+        return String.format(">>>点击计数写回统计 - 待写回短链接: %d, 已写回行: %d, 已写回访问: %d, 写回失败: %d, 路由同步失败: %d",
+                counters.size(), flushedRows.get(), flushedEvents.get(), failedFlushes.get(), failedRouteSyncs.get());
+    }
+
+    /**
+     * 分片模式下按分组累加路由表的排序统计；z_link 已写入，失败只记录日志，不加回内存以免重复累加，
+     * 偏差只影响分组内按访问量排序的先后
+     */
+    private void syncRouteStats(List<ZLinkStatsDeltaDTO> deltas) {
+        if (!shardingEnabled) {
+            return;
+        }
+        try {
+            Map<String, String> gids = zLinkMapper.selectGidByShortUrls(deltas.stream().map(ZLinkStatsDeltaDTO::getShortUrl).toList())
+                    .stream()
+                    .filter(link -> link.getGid() != null)
+                    .collect(Collectors.toMap(ZLink::getShortUrl, ZLink::getGid, (first, second) -> first));
+            deltas.stream()
+                    .filter(delta -> gids.containsKey(delta.getShortUrl()))
+                    .collect(Collectors.groupingBy(delta -> gids.get(delta.getShortUrl())))
+                    .forEach(zLinkGidRouteMapper::incrementStats);
+        } catch (Exception e) {
+            failedRouteSyncs.incrementAndGet();
+            log.warn(">>>同步分组路由访问统计失败: links={}, error={}", deltas.size(), e.getMessage());
+        }
+    }
+
+    private void add(String shortUrl, long pv, long uv, long uip) {
+        counters.compute(shortUrl, (key, counter) -> {
+            Counters current = counter == null ? new Counters() : counter;
+            current.pv.add(pv);
+            current.uv.add(uv);
+            current.uip.add(uip);
+            return current;
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn(">>>点击计数定时写回异常: {}", e.getMessage());
+        }
+    }
+
+    private static final class Counters {
+
+        final LongAdder pv = new LongAdder();
+        final LongAdder uv = new LongAdder();
+        final LongAdder uip = new LongAdder();
+
+        boolean isZero() {
+            return pv.sum() == 0 && uv.sum() == 0 && uip.sum() == 0;
+        }
+    }
+}
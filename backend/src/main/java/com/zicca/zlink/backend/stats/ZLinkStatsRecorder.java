@@ -0,0 +1,204 @@
+package com.zicca.zlink.backend.stats;
+
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
+import com.zicca.zlink.backend.stats.sink.ZLinkStatsSink;
+import com.zicca.zlink.backend.toolkit.MpmcRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 短链接访问统计采集器
+ * 1. 跳转线程只把访问记录写入有界无锁环形队列，不做任何 IO，队列满时按溢出策略处理
+ * 2. 单个刷写线程按 batchSize 或 flushInterval 批量取出，交给输出端（进程内消费者或 RocketMQ）
+ * 3. 停机时先停止刷写线程，再把队列中剩余记录写出
+ */
+@Slf4j(topic = "ZLinkStatsRecorder")
+@Component
+@RequiredArgsConstructor
+public class ZLinkStatsRecorder {
+
+    /**
+     * 队列满时的溢出策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 丢弃新记录
+         */
+        DISCARD,
+        /**
+         * 丢弃队列中最早的记录，保留新记录
+         */
+        DISCARD_OLDEST,
+        /**
+         * 由跳转线程直接写出该条记录（阻塞跳转，仅用于不允许丢失统计的场景）
+         */
+        CALLER_RUNS
+    }
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private final ZLinkStatsSink zLinkStatsSink;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${zlink.stats.enabled:true}")
+    private boolean enabled;
+    @Value("${zlink.stats.bufferSize:65536}")
+    private int bufferSize;
+    @Value("${zlink.stats.batchSize:500}")
+    private int batchSize;
+    @Value("${zlink.stats.flushInterval:200}")
+    private long flushInterval;
+    @Value("${zlink.stats.overflowPolicy:discard}")
+    private String overflowPolicy;
+
+    private MpmcRingBuffer<ZLinkStatsRecordDTO> buffer;
+    private OverflowPolicy policy;
+    private Thread flushThread;
+    private volatile boolean running;
+
+    private Counter acceptedCounter;
+    private Counter droppedCounter;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Timer writeTimer;
+
+    @PostConstruct
+    public void init() {
+        buffer = new MpmcRingBuffer<>(bufferSize);
+        policy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase());
+        acceptedCounter = recordCounter("accepted");
+        droppedCounter = recordCounter("dropped");
+        writtenCounter = recordCounter("written");
+        failedCounter = recordCounter("failed");
+        writeTimer = Timer.builder("zlink.stats.sink.write")
+                .description("短链接访问统计批量写出耗时")
+                .register(meterRegistry);
+        Gauge.builder("zlink.stats.buffer.size", buffer, MpmcRingBuffer::size)
+                .description("短链接访问统计队列中待写出的记录数")
+                .register(meterRegistry);
+        if (!enabled) {
+            log.info(">>>短链接访问统计未启用");
+            return;
+        }
+        running = true;
+        flushThread = new Thread(this::flushLoop, "zlink-stats-flush");
+        flushThread.setDaemon(true);
+        flushThread.start();
+        log.info(">>>短链接访问统计采集启动: bufferSize={}, batchSize={}, flushInterval={}ms, overflowPolicy={}",
+                bufferSize, batchSize, flushInterval, policy);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flushThread);
+        flushThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        // 刷写线程退出后由停机线程写出剩余记录
+        ZLinkStatsRecordDTO[] batch = new ZLinkStatsRecordDTO[batchSize];
+        int drained;
+        while ((drained = buffer.drain(batch, 0, batchSize)) > 0) {
+            writeBatch(batch, drained);
+        }
+        log.info(">>>短链接访问统计采集停止: {}", getStats());
+    }
+
+    /**
+     * 采集一条访问记录，不阻塞调用线程（CALLER_RUNS 策略且队列已满时除外）
+     *
+     * @param record 访问记录
+     */
+    public void record(ZLinkStatsRecordDTO record) {
+        if (!running || record == null) {
+            return;
+        }
+        if (offer(record)) {
+            return;
+        }
+        switch (policy) {
+            case DISCARD_OLDEST -> {
+                if (buffer.poll() != null) {
+                    droppedCounter.increment();
+                }
+                if (!offer(record)) {
+                    droppedCounter.increment();
+                }
+            }
+            case CALLER_RUNS -> {
+                acceptedCounter.increment();
+                writeBatch(new ZLinkStatsRecordDTO[]{record}, 1);
+            }
+            default -> droppedCounter.increment();
+        }
+    }
+
+    public String getStats() {
+        return String.format(">>>访问统计采集 - 队列: %d/%d, 接收: %.0f, 丢弃: %.0f, 写出: %.0f, 写出失败: %.0f",
+                buffer.size(), buffer.capacity(), acceptedCounter.count(), droppedCounter.count(),
+                writtenCounter.count(), failedCounter.count());
+    }
+
+    private boolean offer(ZLinkStatsRecordDTO record) {
+        if (!buffer.offer(record)) {
+            return false;
+        }
+        acceptedCounter.increment();
+        // 积压达到一批时唤醒刷写线程，不等待刷写间隔
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(flushThread);
+        }
+        return true;
+    }
+
+    private void flushLoop() {
+        ZLinkStatsRecordDTO[] batch = new ZLinkStatsRecordDTO[batchSize];
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+        while (running) {
+            int drained = buffer.drain(batch, 0, batchSize);
+            if (drained > 0) {
+                writeBatch(batch, drained);
+            }
+            if (drained < batchSize) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    private void writeBatch(ZLinkStatsRecordDTO[] batch, int count) {
+        List<ZLinkStatsRecordDTO> records = new ArrayList<>(Arrays.asList(batch).subList(0, count));
+        Arrays.fill(batch, 0, count, null);
+        long startNanos = System.nanoTime();
+        try {
+            zLinkStatsSink.write(records);
+            writtenCounter.increment(count);
+        } catch (Exception e) {
+            failedCounter.increment(count);
+            log.warn(">>>短链接访问统计写出失败: records={}, error={}", count, e.getMessage());
+        } finally {
+            writeTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Counter recordCounter(String outcome) {
+        return Counter.builder("zlink.stats.records")
+                .description("短链接访问统计记录数")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,122 @@
+package com.zicca.zlink.backend.stats;
+
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.util.StrUtil;
+import com.zicca.zlink.backend.common.enums.StatsDimensionEnum;
+import com.zicca.zlink.backend.dao.entity.ZLinkAccessStats;
+import com.zicca.zlink.backend.dao.entity.ZLinkDimensionStats;
+import com.zicca.zlink.backend.dao.mapper.ZLinkAccessStatsMapper;
+import com.zicca.zlink.backend.dao.mapper.ZLinkDimensionStatsMapper;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 短链接访问统计预聚合写入
+ * 一批访问记录在内存中按 (短链接, 日期, 小时) 与 (短链接, 日期, 维度, 取值) 聚合后，各用一条多行 upsert 累加，
+ * 查询只读取日期区间内的聚合行，与总访问量无关
+ */
+@Slf4j(topic = "ZLinkStatsRollup")
+@Component
+@RequiredArgsConstructor
+public class ZLinkStatsRollup {
+
+    /**
+     * 单条 upsert 的行数
+     */
+    private static final int UPSERT_BATCH_SIZE = 500;
+
+    /**
+     * 维度取值最大长度，与表字段一致
+     */
+    private static final int MAX_DIM_VALUE_LENGTH = 64;
+
+    private static final Comparator<AccessKey> ACCESS_KEY_ORDER = Comparator.comparing(AccessKey::shortUrl)
+            .thenComparing(AccessKey::date)
+            .thenComparingInt(AccessKey::hour);
+
+    private static final Comparator<DimensionKey> DIMENSION_KEY_ORDER = Comparator.comparing(DimensionKey::shortUrl)
+            .thenComparing(DimensionKey::date)
+            .thenComparing(DimensionKey::dimension)
+            .thenComparing(DimensionKey::value);
+
+    private final ZLinkAccessStatsMapper accessStatsMapper;
+    private final ZLinkDimensionStatsMapper dimensionStatsMapper;
+
+    /**
+     * 聚合并写入一批访问记录，需在填充首次访问标识之后调用
+     *
+     * @param records 访问记录
+     */
+    public void append(List<ZLinkStatsRecordDTO> records) {
+        // 按唯一键排序后写入，并发 upsert 按相同顺序加锁，避免死锁
+        Map<AccessKey, ZLinkAccessStats> accessStats = new TreeMap<>(ACCESS_KEY_ORDER);
+        Map<DimensionKey, ZLinkDimensionStats> dimensionStats = new TreeMap<>(DIMENSION_KEY_ORDER);
+        for (ZLinkStatsRecordDTO record : records) {
+            if (record == null || record.getShortUrl() == null) {
+                continue;
+            }
+            LocalDateTime time = toLocalDateTime(record.getCurrentDate());
+            LocalDate date = time.toLocalDate();
+            ZLinkAccessStats access = accessStats.computeIfAbsent(new AccessKey(record.getShortUrl(), date, time.getHour()),
+                    key -> ZLinkAccessStats.builder().shortUrl(key.shortUrl()).date(key.date()).hour(key.hour())
+                            .pv(0L).uv(0L).uip(0L).build());
+            access.setPv(access.getPv() + 1);
+            if (Boolean.TRUE.equals(record.getUvFirstFlag())) {
+                access.setUv(access.getUv() + 1);
+            }
+            if (Boolean.TRUE.equals(record.getUipFirstFlag())) {
+                access.setUip(access.getUip() + 1);
+            }
+            addDimension(dimensionStats, record, date, StatsDimensionEnum.OS, ZLinkStatsRecordDTO::getOs);
+            addDimension(dimensionStats, record, date, StatsDimensionEnum.BROWSER, ZLinkStatsRecordDTO::getBrowser);
+            addDimension(dimensionStats, record, date, StatsDimensionEnum.DEVICE, ZLinkStatsRecordDTO::getDevice);
+            addDimension(dimensionStats, record, date, StatsDimensionEnum.NETWORK, ZLinkStatsRecordDTO::getNetwork);
+        }
+        for (List<ZLinkAccessStats> part : ListUtil.partition(new ArrayList<>(accessStats.values()), UPSERT_BATCH_SIZE)) {
+            accessStatsMapper.upsertBatch(part);
+        }
+        for (List<ZLinkDimensionStats> part : ListUtil.partition(new ArrayList<>(dimensionStats.values()), UPSERT_BATCH_SIZE)) {
+            dimensionStatsMapper.upsertBatch(part);
+        }
+        log.debug(">>>写入访问统计预聚合: records={}, accessRows={}, dimensionRows={}",
+                records.size(), accessStats.size(), dimensionStats.size());
+    }
+
+    private static void addDimension(Map<DimensionKey, ZLinkDimensionStats> dimensionStats, ZLinkStatsRecordDTO record,
+                                     LocalDate date, StatsDimensionEnum dimension,
+                                     Function<ZLinkStatsRecordDTO, String> getter) {
+        String value = getter.apply(record);
+        if (StrUtil.isBlank(value)) {
+            return;
+        }
+        value = StrUtil.maxLength(value, MAX_DIM_VALUE_LENGTH - 3);
+        ZLinkDimensionStats stats = dimensionStats.computeIfAbsent(
+                new DimensionKey(record.getShortUrl(), date, dimension.getCode(), value),
+                key -> ZLinkDimensionStats.builder().shortUrl(key.shortUrl()).date(key.date())
+                        .dimension(key.dimension()).dimValue(key.value()).cnt(0L).build());
+        stats.setCnt(stats.getCnt() + 1);
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date == null ? LocalDateTime.now() : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    private record AccessKey(String shortUrl, LocalDate date, int hour) {
+    }
+
+    private record DimensionKey(String shortUrl, LocalDate date, String dimension, String value) {
+    }
+}
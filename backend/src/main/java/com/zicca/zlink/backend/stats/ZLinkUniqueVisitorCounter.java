@@ -0,0 +1,192 @@
+package com.zicca.zlink.backend.stats;
+
+import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import com.zicca.zlink.backend.dao.entity.ZLink;
+import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 短链接 UV/UIP 基数统计（Redis HyperLogLog）
+ * 1. 每个短链接一个累计 HyperLogLog 与按天 HyperLogLog，每个分组一个按天 HyperLogLog，单键最多约 12KB，与访客数无关
+ * 2. 首次访问标识取累计 HyperLogLog 的 PFADD 返回值：寄存器被更新说明基数估计发生变化，视为新访客
+ * 3. 一批访问记录的 PFADD/EXPIRE 通过一次管道提交，多天/多键查询用 PFCOUNT 求并集基数
+ * <p>
+ * Redis HyperLogLog 标准误差固定约 0.81%；首次访问标识只会漏报（新访客恰好未改变寄存器），不会把老访客计为新访客
+ */
+@Slf4j(topic = "ZLinkUniqueVisitorCounter")
+@Component
+@RequiredArgsConstructor
+public class ZLinkUniqueVisitorCounter {
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ZLinkMapper zLinkMapper;
+
+    @Value("${zlink.stats.uv.enabled:true}")
+    private boolean enabled;
+    @Value("${zlink.stats.uv.dailyRetentionDays:31}")
+    private int dailyRetentionDays;
+    @Value("${zlink.stats.uv.totalIdleDays:90}")
+    private int totalIdleDays;
+
+    /**
+     * 写入一批访问记录的 HyperLogLog，并填充 uvFirstFlag / uipFirstFlag
+     * 已携带 uvFirstFlag=true 的记录（新发放的访客标识）保持为新访客
+     *
+     * @param records 访问记录
+     */
+    public void markFirstVisits(List<ZLinkStatsRecordDTO> records) {
+        if (!enabled || records == null || records.isEmpty()) {
+            return;
+        }
+        Map<String, String> gids = loadGids(records);
+        List<Consumer<Boolean>> flagSetters = new ArrayList<>();
+        Map<String, Set<String>> dailyElements = new HashMap<>();
+        Set<String> totalKeys = new LinkedHashSet<>();
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (ZLinkStatsRecordDTO record : records) {
+                String shortUrl = record.getShortUrl();
+                if (shortUrl == null) {
+                    continue;
+                }
+                String day = formatDay(record.getCurrentDate());
+                String gid = gids.get(shortUrl);
+                if (record.getUv() != null) {
+                    String uvKey = RedisKeyConstants.STATS_UV_KEY + shortUrl;
+                    pfAdd(connection, uvKey, record.getUv());
+                    boolean fresh = Boolean.TRUE.equals(record.getUvFirstFlag());
+                    flagSetters.add(changed -> record.setUvFirstFlag(fresh || changed));
+                    totalKeys.add(uvKey);
+                    addDaily(dailyElements, uvKey + ":" + day, record.getUv());
+                    if (gid != null) {
+                        addDaily(dailyElements, RedisKeyConstants.STATS_GROUP_UV_KEY + gid + ":" + day, record.getUv());
+                    }
+                }
+                if (record.getRemoteAddr() != null) {
+                    String uipKey = RedisKeyConstants.STATS_UIP_KEY + shortUrl;
+                    pfAdd(connection, uipKey, record.getRemoteAddr());
+                    flagSetters.add(record::setUipFirstFlag);
+                    totalKeys.add(uipKey);
+                    addDaily(dailyElements, uipKey + ":" + day, record.getRemoteAddr());
+                    if (gid != null) {
+                        addDaily(dailyElements, RedisKeyConstants.STATS_GROUP_UIP_KEY + gid + ":" + day, record.getRemoteAddr());
+                    }
+                }
+            }
+            // 按天键每批每键只写一次
+            dailyElements.forEach((key, elements) -> pfAdd(connection, key, elements.toArray(new String[0])));
+            long totalIdleSeconds = totalIdleDays * 86400L;
+            long dailyRetentionSeconds = dailyRetentionDays * 86400L;
+            totalKeys.forEach(key -> connection.keyCommands().expire(bytes(key), totalIdleSeconds));
+            dailyElements.keySet().forEach(key -> connection.keyCommands().expire(bytes(key), dailyRetentionSeconds));
+            return null;
+        });
+        for (int i = 0; i < flagSetters.size(); i++) {
+            flagSetters.get(i).accept(Long.valueOf(1L).equals(results.get(i)));
+        }
+        log.debug(">>>写入UV/UIP HyperLogLog: records={}, dailyKeys={}", records.size(), dailyElements.size());
+    }
+
+    /**
+     * 按天 HyperLogLog 保留的最早日期，更早日期的按天键已过期，按空集合计入区间基数
+     */
+    public LocalDate earliestRetainedDate() {
+        return LocalDate.now().minusDays(dailyRetentionDays - 1L);
+    }
+
+    /**
+     * 短链接在日期区间内的 UV（区间内去重）
+     */
+    public long countLinkUv(String shortUrl, LocalDate startDate, LocalDate endDate) {
+        return count(RedisKeyConstants.STATS_UV_KEY + shortUrl, startDate, endDate);
+    }
+
+    /**
+     * 短链接在日期区间内的 UIP（区间内去重）
+     */
+    public long countLinkUip(String shortUrl, LocalDate startDate, LocalDate endDate) {
+        return count(RedisKeyConstants.STATS_UIP_KEY + shortUrl, startDate, endDate);
+    }
+
+    /**
+     * 分组在日期区间内的 UV（分组内所有短链接、区间内去重）
+     */
+    public long countGroupUv(String gid, LocalDate startDate, LocalDate endDate) {
+        return count(RedisKeyConstants.STATS_GROUP_UV_KEY + gid, startDate, endDate);
+    }
+
+    /**
+     * 分组在日期区间内的 UIP（分组内所有短链接、区间内去重）
+     */
+    public long countGroupUip(String gid, LocalDate startDate, LocalDate endDate) {
+        return count(RedisKeyConstants.STATS_GROUP_UIP_KEY + gid, startDate, endDate);
+    }
+
+    private long count(String keyPrefix, LocalDate startDate, LocalDate endDate) {
+        List<String> keys = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            keys.add(keyPrefix + ":" + day.format(DAY_FORMATTER));
+        }
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long size = redisTemplate.opsForHyperLogLog().size(keys.toArray(new String[0]));
+        return size == null ? 0 : size;
+    }
+
+    private Map<String, String> loadGids(List<ZLinkStatsRecordDTO> records) {
+        Set<String> shortUrls = records.stream()
+                .map(ZLinkStatsRecordDTO::getShortUrl)
+                .filter(shortUrl -> shortUrl != null)
+                .collect(Collectors.toSet());
+        if (shortUrls.isEmpty()) {
+            return Map.of();
+        }
+        return zLinkMapper.selectGidByShortUrls(shortUrls).stream()
+                .filter(link -> link.getGid() != null)
+                .collect(Collectors.toMap(ZLink::getShortUrl, ZLink::getGid, (first, second) -> first));
+    }
+
+    private static void addDaily(Map<String, Set<String>> dailyElements, String key, String element) {
+        dailyElements.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(element);
+    }
+
+    private static void pfAdd(RedisConnection connection, String key, String... elements) {
+        byte[][] values = new byte[elements.length][];
+        for (int i = 0; i < elements.length; i++) {
+            values[i] = bytes(elements[i]);
+        }
+        connection.hyperLogLogCommands().pfAdd(bytes(key), values);
+    }
+
+    private static String formatDay(Date date) {
+        LocalDate day = date == null ? LocalDate.now() : date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return day.format(DAY_FORMATTER);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
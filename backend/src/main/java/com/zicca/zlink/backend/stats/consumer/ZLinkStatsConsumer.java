@@ -0,0 +1,98 @@
+package com.zicca.zlink.backend.stats.consumer;
+
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsDeltaDTO;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
+import com.zicca.zlink.backend.stats.ZLinkClickAggregator;
+import com.zicca.zlink.backend.stats.ZLinkStatsRollup;
+import com.zicca.zlink.backend.stats.ZLinkUniqueVisitorCounter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 短链接访问统计消费者
+ * 一批访问记录先写入 UV/UIP HyperLogLog 得到首次访问标识，按小时/维度 upsert 到预聚合统计表，
+ * 再在内存中按短链接聚合 PV/UV/UIP，交给点击计数写回聚合器按时间或数量批量累加到 z_link
+ * 本地输出端容忍 UV/UIP 与预聚合写入失败；消息队列消费端要求失败时抛出异常以便重投，
+ * 预聚合先于内存累加执行，抛出时本批 PV 尚未进入聚合器，重投不会重复累加
+ */
+@Slf4j(topic = "ZLinkStatsConsumer")
+@Component
+@RequiredArgsConstructor
+public class ZLinkStatsConsumer {
+
+    private final ZLinkUniqueVisitorCounter uniqueVisitorCounter;
+    private final ZLinkClickAggregator clickAggregator;
+    private final ZLinkStatsRollup statsRollup;
+
+    /**
+     * 聚合并累加一批访问记录，UV/UIP 与预聚合写入失败时记录日志后继续
+     *
+     * @param records 访问记录
+     */
+    public void consume(List<ZLinkStatsRecordDTO> records) {
+        consume(records, false);
+    }
+
+    /**
+     * 聚合并累加一批访问记录
+     *
+     * @param records  访问记录
+     * @param failFast 为 true 时 UV/UIP 与预聚合写入失败直接抛出，不累加本批 PV
+     */
+    public void consume(List<ZLinkStatsRecordDTO> records, boolean failFast) {
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+        try {
+            uniqueVisitorCounter.markFirstVisits(records);
+        } catch (RuntimeException e) {
+            if (failFast) {
+                throw e;
+            }
+            // UV/UIP 统计失败不影响 PV 入库
+            log.warn(">>>写入UV/UIP HyperLogLog失败，本批仅累加PV: records={}, error={}", records.size(), e.getMessage());
+        }
+        try {
+            statsRollup.append(records);
+        } catch (RuntimeException e) {
+            if (failFast) {
+                throw e;
+            }
+            log.warn(">>>写入访问统计预聚合失败: records={}, error={}", records.size(), e.getMessage());
+        }
+        List<ZLinkStatsDeltaDTO> deltas = aggregate(records);
+        clickAggregator.add(deltas);
+        log.debug(">>>聚合短链接访问统计: records={}, links={}", records.size(), deltas.size());
+    }
+
+    /**
+     * 按短链接聚合访问记录
+     *
+     * @param records 访问记录
+     * @return 统计增量
+     */
+    public static List<ZLinkStatsDeltaDTO> aggregate(List<ZLinkStatsRecordDTO> records) {
+        Map<String, ZLinkStatsDeltaDTO> deltas = new LinkedHashMap<>();
+        for (ZLinkStatsRecordDTO record : records) {
+            if (record == null || record.getShortUrl() == null) {
+                continue;
+            }
+            ZLinkStatsDeltaDTO delta = deltas.computeIfAbsent(record.getShortUrl(),
+                    shortUrl -> ZLinkStatsDeltaDTO.builder().shortUrl(shortUrl).build());
+            delta.setPv(delta.getPv() + 1);
+            if (Boolean.TRUE.equals(record.getUvFirstFlag())) {
+                delta.setUv(delta.getUv() + 1);
+            }
+            if (Boolean.TRUE.equals(record.getUipFirstFlag())) {
+                delta.setUip(delta.getUip() + 1);
+            }
+        }
+        return new ArrayList<>(deltas.values());
+    }
+}
@@ -0,0 +1,50 @@
+package com.zicca.zlink.backend.stats.consumer;
+
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsBatchDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
+import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 短链接访问统计 RocketMQ 消费端
+ * 按消息 keys 去重后交给 {@link ZLinkStatsConsumer} 聚合入库，UV/UIP 或预聚合写入失败时清除去重标记并抛出异常等待重投
+ * 投递语义为至多一次：去重标记在消费前写入，z_link 的 PV/UV/UIP 只累加到内存中的写回聚合器，
+ * 写入标记后、聚合器刷写前节点宕机时本批累加丢失，且标记有效期内的重投会被当作已消费跳过
+ */
+@Slf4j(topic = "ZLinkStatsRocketMQConsumer")
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "zlink.stats.sink", havingValue = "rocketmq")
+@RocketMQMessageListener(
+        topic = "${zlink.stats.rocketmq.topic:zlink_stats_topic}",
+        consumerGroup = "${zlink.stats.rocketmq.consumerGroup:zlink_stats_consumer_group}")
+public class ZLinkStatsRocketMQConsumer implements RocketMQListener<ZLinkStatsBatchDTO> {
+
+    private static final String CONSUMED_KEY_PREFIX = "zlink:stats:consumed:";
+    private static final long CONSUMED_KEY_TTL_HOURS = 2;
+
+    private final ZLinkStatsConsumer zLinkStatsConsumer;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Override
+    public void onMessage(ZLinkStatsBatchDTO message) {
+        String consumedKey = CONSUMED_KEY_PREFIX + message.getKeys();
+        Boolean first = redisTemplate.opsForValue().setIfAbsent(consumedKey, "1", CONSUMED_KEY_TTL_HOURS, TimeUnit.HOURS);
+        if (Boolean.FALSE.equals(first)) {
+            log.info(">>>短链接统计消息已消费: keys={}", message.getKeys());
+            return;
+        }
+        try {
+            zLinkStatsConsumer.consume(message.getRecords(), true);
+        } catch (RuntimeException e) {
+            redisTemplate.delete(consumedKey);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.zicca.zlink.backend.stats.sink;
+
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
+import com.zicca.zlink.backend.stats.consumer.ZLinkStatsConsumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 进程内输出端：直接交给本节点消费者聚合入库，用于单机部署与测试
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "zlink.stats.sink", havingValue = "local", matchIfMissing = true)
+public class LocalZLinkStatsSink implements ZLinkStatsSink {
+
+    private final ZLinkStatsConsumer zLinkStatsConsumer;
+
+    @Override
+    public void write(List<ZLinkStatsRecordDTO> records) {
+        zLinkStatsConsumer.consume(records);
+    }
+}
@@ -0,0 +1,51 @@
+package com.zicca.zlink.backend.stats.sink;
+
+import cn.hutool.core.util.IdUtil;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsBatchDTO;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
+import com.zicca.zlink.framework.execption.ServiceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.apache.rocketmq.spring.support.RocketMQHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * RocketMQ 输出端：一批记录作为一条消息发送，消费端按批聚合入库
+ * 需配置 rocketmq.name-server 与 rocketmq.producer.group
+ */
+@Slf4j(topic = "RocketMQZLinkStatsSink")
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "zlink.stats.sink", havingValue = "rocketmq")
+public class RocketMQZLinkStatsSink implements ZLinkStatsSink {
+
+    private final RocketMQTemplate rocketMQTemplate;
+
+    @Value("${zlink.stats.rocketmq.topic:zlink_stats_topic}")
+    private String topic;
+    @Value("${zlink.stats.rocketmq.sendTimeout:3000}")
+    private long sendTimeout;
+
+    @Override
+    public void write(List<ZLinkStatsRecordDTO> records) {
+        String keys = IdUtil.fastSimpleUUID();
+        ZLinkStatsBatchDTO batch = ZLinkStatsBatchDTO.builder()
+                .keys(keys)
+                .records(records)
+                .build();
+        SendResult sendResult = rocketMQTemplate.syncSend(topic,
+                MessageBuilder.withPayload(batch).setHeader(RocketMQHeaders.KEYS, keys).build(), sendTimeout);
+        if (sendResult.getSendStatus() != SendStatus.SEND_OK) {
+            throw new ServiceException("发送短链接统计消息失败: " + sendResult.getSendStatus());
+        }
+        log.debug(">>>发送短链接统计消息: keys={}, records={}, msgId={}", keys, records.size(), sendResult.getMsgId());
+    }
+}
@@ -0,0 +1,19 @@
+package com.zicca.zlink.backend.stats.sink;
+
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
+
+import java.util.List;
+
+/**
+ * 短链接访问统计输出端
+ * 由统计刷写线程按批调用，实现方抛出异常时本批记录计为写出失败
+ */
+public interface ZLinkStatsSink {
+
+    /**
+     * 批量写出访问记录
+     *
+     * @param records 访问记录
+     */
+    void write(List<ZLinkStatsRecordDTO> records);
+}
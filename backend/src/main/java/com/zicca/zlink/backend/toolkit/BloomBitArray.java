@@ -0,0 +1,113 @@
+package com.zicca.zlink.backend.toolkit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器位数组
+ * 位序与 Redis 位图一致（每字节高位在前），可直接按字节合并 Redis GETRANGE 读取的快照
+ */
+public class BloomBitArray {
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashFunctions;
+
+    public BloomBitArray(long numBits, int numHashFunctions) {
+        this.words = new AtomicLongArray((int) ((numBits + 63) >>> 6));
+        this.numBits = numBits;
+        this.numHashFunctions = numHashFunctions;
+    }
+
+    /**
+     * 添加键
+     *
+     * @param key 键
+     * @return 是否有位发生变化
+     */
+    public boolean put(String key) {
+        boolean changed = false;
+        for (long offset : BloomFilterUtil.bitOffsets(key, numHashFunctions, numBits)) {
+            changed |= set(offset);
+        }
+        return changed;
+    }
+
+    /**
+     * 判断键是否可能存在
+     *
+     * @param key 键
+     * @return 是否可能存在
+     */
+    public boolean mightContain(String key) {
+        for (long offset : BloomFilterUtil.bitOffsets(key, numHashFunctions, numBits)) {
+            if (!get(offset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean set(long offset) {
+        int index = (int) (offset >>> 6);
+        long mask = 1L << (63 - (offset & 63));
+        long current;
+        do {
+            current = words.get(index);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(index, current, current | mask));
+        return true;
+    }
+
+    public boolean get(long offset) {
+        return (words.get((int) (offset >>> 6)) & (1L << (63 - (offset & 63)))) != 0;
+    }
+
+    /**
+     * 按字节合并位图片段（按位或），超出位数组长度的部分忽略
+     *
+     * @param byteOffset 片段起始字节偏移
+     * @param bytes      片段内容
+     */
+    public void mergeBytes(long byteOffset, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == 0) {
+                continue;
+            }
+            long position = byteOffset + i;
+            int index = (int) (position >>> 3);
+            if (index >= words.length()) {
+                return;
+            }
+            long value = (bytes[i] & 0xFFL) << ((7 - (position & 7)) << 3);
+            long current;
+            do {
+                current = words.get(index);
+                if ((current | value) == current) {
+                    break;
+                }
+            } while (!words.compareAndSet(index, current, current | value));
+        }
+    }
+
+    public long bitCount() {
+        long count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+
+    public long approximateElementCount() {
+        return BloomFilterUtil.approximateElementCount(bitCount(), numHashFunctions, numBits);
+    }
+}
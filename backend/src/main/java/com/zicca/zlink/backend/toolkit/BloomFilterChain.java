@@ -0,0 +1,74 @@
+package com.zicca.zlink.backend.toolkit;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 可扩展布隆过滤器（按代串联的位数组）
+ * 新键写入最新一代，查询任一代命中即视为可能存在；每一代容量按 GROWTH_FACTOR 增长、误判率按 TIGHTENING_RATIO 收紧
+ * 各代的位数与哈希函数个数由 (baseCapacity, falseProbability, 代号) 唯一确定，与 Redis 中同一纪元的位图布局一致
+ */
+public class BloomFilterChain {
+
+    private final long epoch;
+    private final long baseCapacity;
+    private final double falseProbability;
+    private final List<BloomBitArray> generations = new CopyOnWriteArrayList<>();
+
+    public BloomFilterChain(long epoch, long baseCapacity, double falseProbability, int generationCount) {
+        this.epoch = epoch;
+        this.baseCapacity = baseCapacity;
+        this.falseProbability = falseProbability;
+        ensureGenerations(generationCount);
+    }
+
+    /**
+     * 补齐到指定代数（只增不减）
+     */
+    public synchronized void ensureGenerations(int generationCount) {
+        while (generations.size() < generationCount) {
+            int generation = generations.size();
+            long capacity = BloomFilterUtil.generationCapacity(baseCapacity, generation);
+            long numBits = BloomFilterUtil.optimalNumOfBits(capacity,
+                    BloomFilterUtil.generationFalseProbability(falseProbability, generation));
+            generations.add(new BloomBitArray(numBits, BloomFilterUtil.optimalNumOfHashFunctions(capacity, numBits)));
+        }
+    }
+
+    public boolean put(String key) {
+        return generations.get(generations.size() - 1).put(key);
+    }
+
+    public boolean mightContain(String key) {
+        for (BloomBitArray generation : generations) {
+            if (generation.mightContain(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public BloomBitArray generation(int index) {
+        return generations.get(index);
+    }
+
+    public int generationCount() {
+        return generations.size();
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getBaseCapacity() {
+        return baseCapacity;
+    }
+
+    public long approximateElementCount() {
+        long count = 0;
+        for (BloomBitArray generation : generations) {
+            count += generation.approximateElementCount();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,103 @@
+package com.zicca.zlink.backend.toolkit;
+
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 布隆过滤器工具类
+ * 客户端计算位偏移（murmur3_128 双哈希，与 Guava MURMUR128_MITZ_64 一致），本地与 Redis 位图共用同一套偏移
+ */
+public class BloomFilterUtil {
+
+    /**
+     * Redis 位图最大位数（字符串上限 512MB）
+     */
+    public static final long MAX_BIT_SIZE = 1L << 32;
+
+    /**
+     * 可扩展布隆过滤器每一代容量的增长倍数
+     */
+    public static final int GROWTH_FACTOR = 2;
+
+    /**
+     * 可扩展布隆过滤器每一代误判率的收紧比例，保证整条链路的误判率收敛于 falseProbability / (1 - ratio)
+     */
+    public static final double TIGHTENING_RATIO = 0.5;
+
+    /**
+     * 第 generation 代的容量
+     */
+    public static long generationCapacity(long baseCapacity, int generation) {
+        return baseCapacity * (long) Math.pow(GROWTH_FACTOR, generation);
+    }
+
+    /**
+     * 第 generation 代的误判率
+     */
+    public static double generationFalseProbability(double falseProbability, int generation) {
+        return falseProbability * Math.pow(TIGHTENING_RATIO, generation);
+    }
+
+    /**
+     * 根据预期容量和误判率计算位数组大小
+     *
+     * @param expectedInsertions 预期容量
+     * @param falseProbability   误判率
+     * @return 位数（按 64 位对齐）
+     */
+    public static long optimalNumOfBits(long expectedInsertions, double falseProbability) {
+        double p = falseProbability == 0 ? Double.MIN_VALUE : falseProbability;
+        long bits = (long) (-expectedInsertions * Math.log(p) / (Math.log(2) * Math.log(2)));
+        bits = Math.max(64, (bits + 63) / 64 * 64);
+        return Math.min(bits, MAX_BIT_SIZE);
+    }
+
+    /**
+     * 根据预期容量和位数计算哈希函数个数
+     *
+     * @param expectedInsertions 预期容量
+     * @param numBits            位数
+     * @return 哈希函数个数
+     */
+    public static int optimalNumOfHashFunctions(long expectedInsertions, long numBits) {
+        return Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 计算键对应的位偏移
+     *
+     * @param key              键
+     * @param numHashFunctions 哈希函数个数
+     * @param numBits          位数
+     * @return 位偏移
+     */
+    public static long[] bitOffsets(String key, int numHashFunctions, long numBits) {
+        byte[] bytes = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asBytes();
+        long hash1 = Longs.fromBytes(bytes[7], bytes[6], bytes[5], bytes[4], bytes[3], bytes[2], bytes[1], bytes[0]);
+        long hash2 = Longs.fromBytes(bytes[15], bytes[14], bytes[13], bytes[12], bytes[11], bytes[10], bytes[9], bytes[8]);
+        long[] offsets = new long[numHashFunctions];
+        long combinedHash = hash1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            offsets[i] = (combinedHash & Long.MAX_VALUE) % numBits;
+            combinedHash += hash2;
+        }
+        return offsets;
+    }
+
+    /**
+     * 根据置位数估算已插入元素数量
+     *
+     * @param bitCount         置位数
+     * @param numHashFunctions 哈希函数个数
+     * @param numBits          位数
+     * @return 估算的元素数量
+     */
+    public static long approximateElementCount(long bitCount, int numHashFunctions, long numBits) {
+        if (bitCount >= numBits) {
+            return Long.MAX_VALUE;
+        }
+        return Math.round(-Math.log1p(-(double) bitCount / numBits) * numBits / numHashFunctions);
+    }
+}
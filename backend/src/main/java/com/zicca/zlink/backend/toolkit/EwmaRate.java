@@ -0,0 +1,51 @@
+package com.zicca.zlink.backend.toolkit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 指数加权移动平均速率（事件/秒）
+ * 记录只累加计数，读取时按距上次读取的时间间隔折算：alpha = 1 - e^(-Δt / window)，无需定时器驱动
+ */
+public class EwmaRate {
+
+    private final double windowNanos;
+    private final LongAdder uncounted = new LongAdder();
+    private long lastUpdateNanos;
+    private double rate;
+
+    public EwmaRate(Duration window) {
+        this(window, System.nanoTime());
+    }
+
+    public EwmaRate(Duration window, long startNanos) {
+        this.windowNanos = window.toNanos();
+        this.lastUpdateNanos = startNanos;
+    }
+
+    /**
+     * 记录事件
+     */
+    public void mark(long count) {
+        uncounted.add(count);
+    }
+
+    /**
+     * 当前速率（事件/秒）
+     */
+    public double rate() {
+        return rate(System.nanoTime());
+    }
+
+    public synchronized double rate(long nowNanos) {
+        long elapsed = nowNanos - lastUpdateNanos;
+        if (elapsed <= 0) {
+            return rate;
+        }
+        double instantRate = uncounted.sumThenReset() * 1e9 / elapsed;
+        double alpha = 1 - Math.exp(-elapsed / windowNanos);
+        rate += alpha * (instantRate - rate);
+        lastUpdateNanos = nowNanos;
+        return rate;
+    }
+}
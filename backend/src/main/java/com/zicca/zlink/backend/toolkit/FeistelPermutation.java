@@ -0,0 +1,115 @@
+package com.zicca.zlink.backend.toolkit;
+
+/**
+ * 基于 Feistel 网络的整数置换（双射）
+ * 将 [0, domainSize) 内的序列号一一映射为同一区间内看似随机的值，配合定长 Base62 编码即可得到互不重复、不可顺序猜测的短链接
+ * <p>
+ * 1. 把值拆成等宽的左右两半，经过若干轮 (L, R) -> (R, L ^ F(R)) 变换，轮函数 F 为带轮密钥的 64 位混淆函数
+ * 2. Feistel 网络作用于 2 的整数次幂区间，结果超出 domainSize 时继续加密（cycle-walking），直到落回区间内，仍保持双射
+ * 3. 密钥与轮数决定整个映射，集群内所有节点必须一致，且上线后不可修改，否则新旧短链接会互相冲突
+ */
+public class FeistelPermutation {
+
+    /**
+     * 值需放入 long 且不触及符号位
+     */
+    public static final long MAX_DOMAIN_SIZE = 1L << 62;
+
+    private final long domainSize;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys;
+
+    /**
+     * @param domainSize 置换区间大小
+     * @param secret     密钥
+     * @param rounds     轮数，至少 3 轮
+     */
+    public FeistelPermutation(long domainSize, long secret, int rounds) {
+        if (domainSize < 2 || domainSize > MAX_DOMAIN_SIZE) {
+            throw new IllegalArgumentException("置换区间大小超出范围: " + domainSize);
+        }
+        if (rounds < 3) {
+            throw new IllegalArgumentException("Feistel 轮数至少为3: " + rounds);
+        }
+        this.domainSize = domainSize;
+        int bits = 64 - Long.numberOfLeadingZeros(domainSize - 1);
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        this.roundKeys = new long[rounds];
+        long seed = secret;
+        for (int i = 0; i < rounds; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            roundKeys[i] = mix64(seed);
+        }
+    }
+
+    /**
+     * 正向置换
+     */
+    public long permute(long value) {
+        checkRange(value);
+        long result = value;
+        do {
+            result = encrypt(result);
+        } while (result >= domainSize);
+        return result;
+    }
+
+    /**
+     * 逆置换
+     */
+    public long inverse(long value) {
+        checkRange(value);
+        long result = value;
+        do {
+            result = decrypt(result);
+        } while (result >= domainSize);
+        return result;
+    }
+
+    public long getDomainSize() {
+        return domainSize;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (long roundKey : roundKeys) {
+            long next = left ^ round(right, roundKey);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long decrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int i = roundKeys.length - 1; i >= 0; i--) {
+            long previous = right ^ round(left, roundKeys[i]);
+            right = left;
+            left = previous;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long round(long half, long roundKey) {
+        return mix64(half ^ roundKey) & halfMask;
+    }
+
+    private void checkRange(long value) {
+        if (value < 0 || value >= domainSize) {
+            throw new IllegalArgumentException("值超出置换区间: " + value);
+        }
+    }
+
+    /**
+     * MurmurHash3 64 位终结混淆函数
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -51,4 +51,55 @@ public class HashUtil {
         return convertDecToBase62(hash[0]) + convertDecToBase62(hash[1]);
     }
 
+    /**
+     * 定长 Base62 编码，高位补 0
+     *
+     * @param num    非负整数
+     * @param length 编码长度
+     * @return Base62 编码的字符串
+     */
+    public static String toBase62(long num, int length) {
+        if (num < 0) {
+            throw new IllegalArgumentException("不支持负数: " + num);
+        }
+        char[] chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            chars[i] = CHARS.charAt((int) (num % SIZE));
+            num /= SIZE;
+        }
+        if (num > 0) {
+            throw new IllegalArgumentException("数值超出" + length + "位Base62编码范围");
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Base62 解码
+     *
+     * @param str Base62 编码的字符串
+     * @return 整数值
+     */
+    public static long fromBase62(String str) {
+        long num = 0;
+        for (int i = 0; i < str.length(); i++) {
+            int index = CHARS.indexOf(str.charAt(i));
+            if (index < 0) {
+                throw new IllegalArgumentException("非法的Base62字符: " + str.charAt(i));
+            }
+            num = Math.multiplyExact(num, SIZE) + index;
+        }
+        return num;
+    }
+
+    /**
+     * 指定长度的 Base62 编码可表示的数值个数：62^length
+     */
+    public static long base62Capacity(int length) {
+        long capacity = 1;
+        for (int i = 0; i < length; i++) {
+            capacity = Math.multiplyExact(capacity, SIZE);
+        }
+        return capacity;
+    }
+
 }
@@ -1,8 +1,10 @@
 package com.zicca.zlink.backend.toolkit;
 
-import cn.hutool.core.date.DateUnit;
-import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.StrUtil;
+import com.zicca.zlink.backend.cache.service.LinkCacheValue;
 import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import com.zicca.zlink.backend.common.enums.ValidDateTypeEnum;
+import jakarta.servlet.http.HttpServletRequest;
 
 import javax.swing.text.html.Option;
 import java.util.Date;
@@ -17,13 +19,43 @@ public class LinkUtil {
      * 获取短链接缓存有效时间
      *
      * @param validDate 有效时间
-     * @return 缓存有效时间
+     * @return 缓存有效时间，已过有效期时为 0
      */
     public static long getLinkCacheValidTime(Date validDate) {
         return Optional.ofNullable(validDate)
-                .map(date -> DateUtil.between(new Date(), date, DateUnit.MS))
+                .map(date -> Math.max(date.getTime() - System.currentTimeMillis(), 0L))
                 .orElse(RedisKeyConstants.DEFAULT_CACHE_VALID_TIME);
     }
 
+    /**
+     * 获取短链接过期时刻
+     *
+     * @param validDateType 有效期类型
+     * @param validDate     有效时间
+     * @return 过期时刻（毫秒），永久有效返回 {@link LinkCacheValue#PERMANENT}
+     */
+    public static long getLinkExpireAt(ValidDateTypeEnum validDateType, Date validDate) {
+        return validDateType == ValidDateTypeEnum.CUSTOM && validDate != null
+                ? validDate.getTime()
+                : LinkCacheValue.PERMANENT;
+    }
 
+    /**
+     * 获取用户真实IP，经过代理时取 X-Forwarded-For 中的第一个地址
+     *
+     * @param request 请求
+     * @return 用户IP
+     */
+    public static String getActualIp(HttpServletRequest request) {
+        String ip = request.getHeader("X-Forwarded-For");
+        if (StrUtil.isNotBlank(ip) && !"unknown".equalsIgnoreCase(ip)) {
+            int index = ip.indexOf(',');
+            return index > 0 ? ip.substring(0, index).trim() : ip.trim();
+        }
+        ip = request.getHeader("X-Real-IP");
+        if (StrUtil.isNotBlank(ip) && !"unknown".equalsIgnoreCase(ip)) {
+            return ip;
+        }
+        return request.getRemoteAddr();
+    }
 }
@@ -0,0 +1,170 @@
+package com.zicca.zlink.backend.toolkit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界无锁多生产者多消费者环形队列（Vyukov 算法）
+ * <p>
+ * 1. 每个槽位带一个序号：序号 == 位置表示可写入，序号 == 位置 + 1 表示可读取，消费后置为位置 + 容量供下一轮写入
+ * 2. 生产者、消费者各自 CAS 推进 tail / head 认领槽位，元素直接存放在预分配数组中，不创建链表节点
+ * 3. 批量读写一次 CAS 认领连续多个槽位，数量 O(1) 取 tail - head（并发下为近似值）
+ *
+ * @param <E> 元素类型
+ */
+public class MpmcRingBuffer<E> {
+
+    private final int capacity;
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong(0);
+    private final AtomicLong tail = new AtomicLong(0);
+
+    public MpmcRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("容量必须大于0: " + capacity);
+        }
+        this.capacity = capacity;
+        this.buffer = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入一个元素
+     *
+     * @return 队列已满时返回 false
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position % capacity);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = element;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // 槽位尚未被上一轮消费
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 取出一个元素
+     *
+     * @return 队列为空时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position % capacity);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = (E) buffer[index];
+                    buffer[index] = null;
+                    sequences.set(index, position + capacity);
+                    return element;
+                }
+            } else if (diff < 0) {
+                // 槽位尚未写入
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 批量写入，一次认领连续的空闲槽位
+     *
+     * @param source 元素数组
+     * @param offset 起始下标
+     * @param count  最多写入数量
+     * @return 实际写入数量
+     */
+    public int fill(E[] source, int offset, int count) {
+        while (true) {
+            long position = tail.get();
+            int available = 0;
+            while (available < count && sequences.get((int) ((position + available) % capacity)) == position + available) {
+                available++;
+            }
+            if (available == 0) {
+                if (tail.get() == position) {
+                    return 0;
+                }
+                continue;
+            }
+            if (tail.compareAndSet(position, position + available)) {
+                for (int i = 0; i < available; i++) {
+                    int index = (int) ((position + i) % capacity);
+                    buffer[index] = source[offset + i];
+                    sequences.set(index, position + i + 1);
+                }
+                return available;
+            }
+        }
+    }
+
+    /**
+     * 批量取出到调用方数组，一次认领连续的已写入槽位
+     *
+     * @param target   目标数组
+     * @param offset   起始下标
+     * @param maxCount 最多取出数量
+     * @return 实际取出数量
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(E[] target, int offset, int maxCount) {
+        while (true) {
+            long position = head.get();
+            int available = 0;
+            while (available < maxCount && sequences.get((int) ((position + available) % capacity)) == position + available + 1) {
+                available++;
+            }
+            if (available == 0) {
+                if (head.get() == position) {
+                    return 0;
+                }
+                continue;
+            }
+            if (head.compareAndSet(position, position + available)) {
+                for (int i = 0; i < available; i++) {
+                    int index = (int) ((position + i) % capacity);
+                    target[offset + i] = (E) buffer[index];
+                    buffer[index] = null;
+                    sequences.set(index, position + i + capacity);
+                }
+                return available;
+            }
+        }
+    }
+
+    /**
+     * 当前元素数量，O(1)
+     */
+    public int size() {
+        // 先读 head 再读 tail，保证结果不为负
+        long currentHead = head.get();
+        long size = tail.get() - currentHead;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+}
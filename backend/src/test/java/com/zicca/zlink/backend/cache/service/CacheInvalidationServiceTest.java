@@ -0,0 +1,123 @@
+package com.zicca.zlink.backend.cache.service;
+
+import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 短链接缓存跨节点失效测试
+ */
+@SuppressWarnings("unchecked")
+public class CacheInvalidationServiceTest {
+
+    /**
+     * 测试失效：本节点缓存写入墓碑，失效条目批量广播，消息携带版本号
+     */
+    @Test
+    public void testInvalidateAndBatchPublish() throws Exception {
+        LocalCacheService localCacheService = localCache();
+        RedisCacheService redisCacheService = mock(RedisCacheService.class);
+        when(redisCacheService.invalidate(anyCollection(), anyLong())).thenReturn(7L);
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        List<String> messages = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            // 模拟网络往返，发送期间新的失效条目在队列中积压
+            Thread.sleep(1);
+            messages.add(invocation.getArgument(1));
+            return 1L;
+        }).when(redisTemplate).convertAndSend(eq(RedisKeyConstants.LINK_INVALIDATION_CHANNEL), anyString());
+        CacheInvalidationService invalidationService = invalidationService(redisTemplate, redisCacheService, localCacheService);
+
+        localCacheService.put("abc123", "https://old.example.com");
+        long seq = localCacheService.invalidationSeq();
+        assert invalidationService.invalidate(List.of("abc123")) == 7L;
+        assert localCacheService.get("abc123") == null;
+        assert !localCacheService.putIfNotInvalidated("abc123", "https://old.example.com", LinkCacheValue.PERMANENT, seq);
+
+        int count = 2000;
+        IntStream.range(0, count).forEach(i -> invalidationService.invalidate(List.of("k" + i)));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (entries(messages) < count + 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assert entries(messages) == count + 1;
+        // 变更频繁时合并发送，每条消息不超过 batchSize 个条目
+        assert messages.size() < count;
+        for (String message : messages) {
+            assert message.substring(message.indexOf('|') + 1).split(",").length <= 100;
+            assert message.contains("7:");
+        }
+        invalidationService.destroy();
+    }
+
+    /**
+     * 测试接收其他节点的失效消息：逐条写入墓碑，忽略本节点发出的消息与无法解析的条目
+     */
+    @Test
+    public void testOnMessage() throws Exception {
+        LocalCacheService localCacheService = localCache();
+        CacheInvalidationService invalidationService = invalidationService(mock(RedisTemplate.class),
+                mock(RedisCacheService.class), localCacheService);
+        localCacheService.put("a1", "https://a.example.com");
+        localCacheService.put("b2", "https://b.example.com");
+        localCacheService.put("c3", "https://c.example.com");
+
+        invalidationService.onMessage(message("otherNode|8:a1,bad,x:c3,9:b2"), null);
+        assert localCacheService.get("a1") == null;
+        assert localCacheService.get("b2") == null;
+        assert "https://c.example.com".equals(localCacheService.get("c3"));
+
+        String nodeId = (String) ReflectionTestUtils.getField(invalidationService, "nodeId");
+        invalidationService.onMessage(message(nodeId + "|10:c3"), null);
+        assert "https://c.example.com".equals(localCacheService.get("c3"));
+        invalidationService.destroy();
+    }
+
+    private static int entries(List<String> messages) {
+        return messages.stream().mapToInt(message -> message.substring(message.indexOf('|') + 1).split(",").length).sum();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(RedisKeyConstants.LINK_INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static LocalCacheService localCache() {
+        LocalCacheService localCacheService = new LocalCacheService();
+        ReflectionTestUtils.setField(localCacheService, "maximumSize", 10_000);
+        ReflectionTestUtils.setField(localCacheService, "defaultTtl", 60_000L);
+        ReflectionTestUtils.setField(localCacheService, "nullTtl", 60_000L);
+        ReflectionTestUtils.setField(localCacheService, "tombstoneTtl", 60_000L);
+        localCacheService.init();
+        return localCacheService;
+    }
+
+    private static CacheInvalidationService invalidationService(RedisTemplate<String, String> redisTemplate,
+                                                                RedisCacheService redisCacheService,
+                                                                LocalCacheService localCacheService) {
+        CacheInvalidationService invalidationService = new CacheInvalidationService(redisTemplate,
+                mock(RedisConnectionFactory.class), redisCacheService, localCacheService);
+        ReflectionTestUtils.setField(invalidationService, "subscribe", false);
+        ReflectionTestUtils.setField(invalidationService, "tombstoneTtl", 60_000L);
+        ReflectionTestUtils.setField(invalidationService, "batchSize", 100);
+        ReflectionTestUtils.setField(invalidationService, "queueCapacity", 10_000);
+        invalidationService.init();
+        return invalidationService;
+    }
+}
@@ -0,0 +1,68 @@
+package com.zicca.zlink.backend.cache.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存重建请求合并测试
+ */
+@Slf4j
+public class CacheRebuildServiceTest {
+
+    /**
+     * 测试同一短链接并发回源时只有一个线程加载数据库
+     */
+    @Test
+    public void testSingleFlight() throws InterruptedException {
+        CacheRebuildService rebuildService = new CacheRebuildService(null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(rebuildService, "leaseEnabled", false);
+        ReflectionTestUtils.setField(rebuildService, "waitTimeoutMillis", 5000L);
+        rebuildService.init();
+
+        int threadCount = 50;
+        AtomicInteger loadCount = new AtomicInteger(0);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        ConcurrentLinkedQueue<String> results = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                try {
+                    startLatch.await();
+                    results.add(rebuildService.load("hotKey", () -> null, () -> {
+                        loadCount.incrementAndGet();
+                        try {
+                            // 模拟数据库查询耗时
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "https://www.example.com";
+                    }));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    doneLatch.countDown();
+                }
+            });
+        }
+        startLatch.countDown();
+        doneLatch.await();
+        executor.shutdown();
+
+        log.info("请求合并测试完成: 回源次数={}, {}", loadCount.get(), rebuildService.getStats());
+        assert loadCount.get() == 1;
+        assert results.size() == threadCount;
+        assert results.stream().allMatch("https://www.example.com"::equals);
+        assert rebuildService.inFlightSize() == 0;
+    }
+}
@@ -0,0 +1,148 @@
+package com.zicca.zlink.backend.cache.service;
+
+import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import com.zicca.zlink.backend.common.enums.LinkOrderTagEnum;
+import com.zicca.zlink.backend.dao.mapper.ZLinkGidRouteMapper;
+import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
+import com.zicca.zlink.backend.dto.resp.ZLinkGroupCountQueryRespDTO;
+import com.zicca.zlink.framework.execption.ClientException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 分组短链接数量缓存测试
+ */
+@SuppressWarnings("unchecked")
+public class GroupCountCacheServiceTest {
+
+    /**
+     * 测试查询：缓存命中的分组不查数据库，未命中的分组统计一次数据库并 SET NX 写入，结果与入参顺序一致
+     */
+    @Test
+    public void testGet() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList("5", null, null));
+        ZLinkMapper zLinkMapper = mock(ZLinkMapper.class);
+        when(zLinkMapper.countByGids(List.of("g2", "g3"))).thenReturn(List.of(count("g2", 3)));
+        GroupCountCacheService service = groupCountCache(redisTemplate, zLinkMapper);
+
+        List<ZLinkGroupCountQueryRespDTO> result = service.get(List.of("g1", "g2", "g3"));
+        assert result.size() == 3;
+        assert result.get(0).getGid().equals("g1") && result.get(0).getShortLinkCount() == 5;
+        assert result.get(1).getGid().equals("g2") && result.get(1).getShortLinkCount() == 3;
+        // 没有短链接的分组返回 0，同样写入缓存，下次不再统计
+        assert result.get(2).getGid().equals("g3") && result.get(2).getShortLinkCount() == 0;
+        verify(zLinkMapper, times(1)).countByGids(any());
+        verify(valueOperations).setIfAbsent(eq(RedisKeyConstants.COUNT_CACHE_KEY + "g2"), eq("3"), any(Duration.class));
+        verify(valueOperations).setIfAbsent(eq(RedisKeyConstants.COUNT_CACHE_KEY + "g3"), eq("0"), any(Duration.class));
+        verify(valueOperations, never()).setIfAbsent(eq(RedisKeyConstants.COUNT_CACHE_KEY + "g1"), any(), any(Duration.class));
+    }
+
+    /**
+     * 测试 Redis 不可用：统计数据库返回，不写缓存
+     */
+    @Test
+    public void testGetWhenRedisUnavailable() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenThrow(new IllegalStateException("redis down"));
+        ZLinkMapper zLinkMapper = mock(ZLinkMapper.class);
+        when(zLinkMapper.countByGids(List.of("g1"))).thenReturn(List.of(count("g1", 2)));
+        GroupCountCacheService service = groupCountCache(redisTemplate, zLinkMapper);
+
+        assert service.get(List.of("g1")).get(0).getShortLinkCount() == 2;
+        verify(valueOperations, never()).setIfAbsent(any(), any(), any(Duration.class));
+    }
+
+    /**
+     * 测试分片模式：缺失分组在分组路由表上统计，不查询按短链接分片的 z_link
+     */
+    @Test
+    public void testGetWhenSharded() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList((String) null));
+        ZLinkMapper zLinkMapper = mock(ZLinkMapper.class);
+        ZLinkGidRouteMapper zLinkGidRouteMapper = mock(ZLinkGidRouteMapper.class);
+        when(zLinkGidRouteMapper.countByGids(List.of("g1"))).thenReturn(List.of(count("g1", 4)));
+        GroupCountCacheService service = new GroupCountCacheService(redisTemplate, zLinkMapper, zLinkGidRouteMapper);
+        ReflectionTestUtils.setField(service, "ttl", 60000L);
+        ReflectionTestUtils.setField(service, "shardingEnabled", true);
+
+        assert service.get(List.of("g1")).get(0).getShortLinkCount() == 4;
+        verify(zLinkMapper, never()).countByGids(any());
+    }
+
+    /**
+     * 测试累加：同一分组的增量合并，空分组与 0 增量忽略，无事务时立即执行
+     */
+    @Test
+    public void testIncrement() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        GroupCountCacheService service = groupCountCache(redisTemplate, mock(ZLinkMapper.class));
+
+        service.incrementAfterCommit(null, 1);
+        service.incrementAfterCommit("g1", 0);
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), (Object[]) any());
+
+        Map<String, Long> deltas = new HashMap<>();
+        deltas.put("g1", -1L);
+        deltas.put("g2", 1L);
+        service.incrementAfterCommit(deltas);
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of(RedisKeyConstants.COUNT_CACHE_KEY + "g1", RedisKeyConstants.COUNT_CACHE_KEY + "g2")),
+                eq("-1"), eq("1"));
+    }
+
+    /**
+     * 测试排序标识解析
+     */
+    @Test
+    public void testOrderTag() {
+        assert LinkOrderTagEnum.of(null) == LinkOrderTagEnum.CREATE_TIME;
+        assert LinkOrderTagEnum.of("pv") == LinkOrderTagEnum.PV;
+        assert LinkOrderTagEnum.of("totalUv") == LinkOrderTagEnum.UV;
+        assert LinkOrderTagEnum.of("UIP").getColumn().equals("total_uip");
+        try {
+            LinkOrderTagEnum.of("id; DROP TABLE z_link");
+            assert false;
+        } catch (ClientException e) {
+            // 非法排序标识不会拼接到 SQL
+        }
+    }
+
+    private static GroupCountCacheService groupCountCache(RedisTemplate<String, String> redisTemplate, ZLinkMapper zLinkMapper) {
+        GroupCountCacheService service = new GroupCountCacheService(redisTemplate, zLinkMapper, null);
+        ReflectionTestUtils.setField(service, "ttl", 60000L);
+        return service;
+    }
+
+    private static ZLinkGroupCountQueryRespDTO count(String gid, int count) {
+        ZLinkGroupCountQueryRespDTO each = new ZLinkGroupCountQueryRespDTO();
+        each.setGid(gid);
+        each.setShortLinkCount(count);
+        return each;
+    }
+}
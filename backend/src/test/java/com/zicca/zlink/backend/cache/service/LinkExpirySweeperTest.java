@@ -0,0 +1,62 @@
+package com.zicca.zlink.backend.cache.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 过期短链接缓存清理测试
+ */
+public class LinkExpirySweeperTest {
+
+    /**
+     * 测试 Redis 过期索引分批清理：取满一批继续，不足一批或达到每轮上限时停止
+     */
+    @Test
+    public void testSweepBatches() {
+        LocalCacheService localCacheService = new LocalCacheService();
+        ReflectionTestUtils.setField(localCacheService, "maximumSize", 100);
+        ReflectionTestUtils.setField(localCacheService, "defaultTtl", 60_000L);
+        ReflectionTestUtils.setField(localCacheService, "nullTtl", 60_000L);
+        localCacheService.init();
+        localCacheService.putUntil("local", "https://local.example.com", System.currentTimeMillis() - 1);
+        localCacheService.putUntil("localExpiring", "https://local.example.com", System.currentTimeMillis() + 1);
+
+        RedisCacheService redisCacheService = mock(RedisCacheService.class);
+        when(redisCacheService.sweepExpired(anyLong(), anyInt())).thenReturn(
+                new RedisCacheService.SweepResult(2, 2),
+                new RedisCacheService.SweepResult(2, 1),
+                new RedisCacheService.SweepResult(1, 1));
+        LinkExpirySweeper sweeper = sweeper(localCacheService, redisCacheService, 10);
+        sleep(5);
+        // 写入时已过期的链接直接缓存为空值，不计入；本地 1 条过期链接 + Redis 4 条
+        assert sweeper.sweep() == 5;
+        verify(redisCacheService, times(3)).sweepExpired(anyLong(), anyInt());
+
+        RedisCacheService fullRedis = mock(RedisCacheService.class);
+        when(fullRedis.sweepExpired(anyLong(), anyInt())).thenReturn(new RedisCacheService.SweepResult(2, 2));
+        assert sweeper(localCacheService, fullRedis, 3).sweep() == 6;
+        verify(fullRedis, times(3)).sweepExpired(anyLong(), anyInt());
+    }
+
+    private static LinkExpirySweeper sweeper(LocalCacheService localCacheService, RedisCacheService redisCacheService, int maxBatches) {
+        LinkExpirySweeper sweeper = new LinkExpirySweeper(localCacheService, redisCacheService);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(sweeper, "maxBatches", maxBatches);
+        return sweeper;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
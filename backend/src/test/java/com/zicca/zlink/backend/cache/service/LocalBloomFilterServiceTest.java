@@ -0,0 +1,149 @@
+package com.zicca.zlink.backend.cache.service;
+
+import com.zicca.zlink.backend.toolkit.BloomFilterUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 本地布隆过滤器异步并行加载测试
+ */
+@Slf4j
+public class LocalBloomFilterServiceTest {
+
+    private static final long EXPECTED_INSERTIONS = 10_000;
+    private static final double FALSE_PROBABILITY = 0.01;
+
+    /**
+     * 测试加载中查询回退到Redis布隆过滤器，加载完成后使用本地快照
+     */
+    @Test
+    public void testAsyncWarmUp() throws InterruptedException {
+        long numBits = BloomFilterUtil.optimalNumOfBits(EXPECTED_INSERTIONS, FALSE_PROBABILITY);
+        int numHashFunctions = BloomFilterUtil.optimalNumOfHashFunctions(EXPECTED_INSERTIONS, numBits);
+        byte[] bitmap = new byte[(int) (numBits / 8)];
+        for (int i = 0; i < 1000; i++) {
+            for (long offset : BloomFilterUtil.bitOffsets("link-" + i, numHashFunctions, numBits)) {
+                bitmap[(int) (offset >>> 3)] |= (byte) (1 << (7 - (offset & 7)));
+            }
+        }
+
+        CountDownLatch release = new CountDownLatch(1);
+        RedisBloomFilterService.Meta meta = new RedisBloomFilterService.Meta(0, 1, EXPECTED_INSERTIONS);
+        RedisBloomFilterService redisBloomFilterService = mock(RedisBloomFilterService.class);
+        when(redisBloomFilterService.getMeta()).thenReturn(meta);
+        when(redisBloomFilterService.refreshMeta()).thenReturn(meta);
+        when(redisBloomFilterService.latestDeltaId()).thenReturn(RedisBloomFilterService.INITIAL_DELTA_ID);
+        when(redisBloomFilterService.bitmapLength(0, 0)).thenReturn((long) bitmap.length);
+        when(redisBloomFilterService.mightContains(anyString())).thenReturn(true);
+        when(redisBloomFilterService.readBitmap(anyLong(), anyInt(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            // 模拟快照读取耗时，直到测试放行
+            release.await(5, TimeUnit.SECONDS);
+            long start = invocation.getArgument(2);
+            long end = invocation.getArgument(3);
+            return Arrays.copyOfRange(bitmap, (int) start, (int) end + 1);
+        });
+
+        LocalBloomFilterService localBloomFilterService = new LocalBloomFilterService(redisBloomFilterService);
+        ReflectionTestUtils.setField(localBloomFilterService, "falseProbability", FALSE_PROBABILITY);
+        ReflectionTestUtils.setField(localBloomFilterService, "snapshotChunkBytes", 1024);
+        ReflectionTestUtils.setField(localBloomFilterService, "batchSize", 100);
+        ReflectionTestUtils.setField(localBloomFilterService, "asyncLoad", true);
+        ReflectionTestUtils.setField(localBloomFilterService, "loadTimeout", 10L);
+        ReflectionTestUtils.setField(localBloomFilterService, "loadParallelism", 4);
+        ReflectionTestUtils.setField(localBloomFilterService, "loadRetryInterval", 30000L);
+        localBloomFilterService.init();
+
+        // 加载中：回退到Redis布隆过滤器
+        assert localBloomFilterService.getLoadState() == LocalBloomFilterService.LoadState.WARMING;
+        assert localBloomFilterService.mightContains("absent-key");
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (localBloomFilterService.getLoadState() != LocalBloomFilterService.LoadState.READY
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assert localBloomFilterService.getLoadState() == LocalBloomFilterService.LoadState.READY;
+        assert localBloomFilterService.getLoadedChunks() == localBloomFilterService.getTotalChunks();
+        for (int i = 0; i < 1000; i++) {
+            assert localBloomFilterService.mightContains("link-" + i);
+        }
+        assert !localBloomFilterService.mightContains("absent-key");
+        log.info("异步加载测试通过: {}", localBloomFilterService.getStats());
+        localBloomFilterService.destroy();
+    }
+
+    /**
+     * 测试纪元切换：定时同步不等待新快照加载，加载期间继续使用旧过滤器，加载完成后整体替换
+     */
+    @Test
+    public void testEpochReloadDoesNotBlockSync() throws InterruptedException {
+        long numBits = BloomFilterUtil.optimalNumOfBits(EXPECTED_INSERTIONS, FALSE_PROBABILITY);
+        int numHashFunctions = BloomFilterUtil.optimalNumOfHashFunctions(EXPECTED_INSERTIONS, numBits);
+        byte[] bitmap = new byte[(int) (numBits / 8)];
+        for (long offset : BloomFilterUtil.bitOffsets("new-link", numHashFunctions, numBits)) {
+            bitmap[(int) (offset >>> 3)] |= (byte) (1 << (7 - (offset & 7)));
+        }
+
+        CountDownLatch release = new CountDownLatch(1);
+        RedisBloomFilterService.Meta oldMeta = new RedisBloomFilterService.Meta(0, 1, EXPECTED_INSERTIONS);
+        RedisBloomFilterService.Meta newMeta = new RedisBloomFilterService.Meta(1, 1, EXPECTED_INSERTIONS);
+        RedisBloomFilterService redisBloomFilterService = mock(RedisBloomFilterService.class);
+        when(redisBloomFilterService.getMeta()).thenReturn(oldMeta);
+        when(redisBloomFilterService.refreshMeta()).thenReturn(oldMeta);
+        when(redisBloomFilterService.latestDeltaId()).thenReturn(RedisBloomFilterService.INITIAL_DELTA_ID);
+        when(redisBloomFilterService.bitmapLength(0, 0)).thenReturn(0L);
+        when(redisBloomFilterService.bitmapLength(1, 0)).thenReturn((long) bitmap.length);
+        when(redisBloomFilterService.readBitmap(anyLong(), anyInt(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            long start = invocation.getArgument(2);
+            long end = invocation.getArgument(3);
+            return Arrays.copyOfRange(bitmap, (int) start, (int) end + 1);
+        });
+
+        LocalBloomFilterService localBloomFilterService = new LocalBloomFilterService(redisBloomFilterService);
+        ReflectionTestUtils.setField(localBloomFilterService, "falseProbability", FALSE_PROBABILITY);
+        ReflectionTestUtils.setField(localBloomFilterService, "snapshotChunkBytes", 1024);
+        ReflectionTestUtils.setField(localBloomFilterService, "batchSize", 100);
+        ReflectionTestUtils.setField(localBloomFilterService, "asyncLoad", false);
+        ReflectionTestUtils.setField(localBloomFilterService, "loadTimeout", 10L);
+        ReflectionTestUtils.setField(localBloomFilterService, "loadParallelism", 4);
+        ReflectionTestUtils.setField(localBloomFilterService, "loadRetryInterval", 30000L);
+        localBloomFilterService.init();
+        localBloomFilterService.add("old-link");
+        assert localBloomFilterService.getLoadState() == LocalBloomFilterService.LoadState.READY;
+
+        // 其他节点重建后切换纪元
+        when(redisBloomFilterService.getMeta()).thenReturn(newMeta);
+        when(redisBloomFilterService.refreshMeta()).thenReturn(newMeta);
+        long startTime = System.currentTimeMillis();
+        localBloomFilterService.syncFromRedis();
+        assert System.currentTimeMillis() - startTime < 1000;
+        assert localBloomFilterService.isReloading();
+        // 加载期间再次同步直接返回，旧过滤器继续服务
+        localBloomFilterService.syncFromRedis();
+        assert localBloomFilterService.mightContains("old-link");
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (localBloomFilterService.isReloading() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assert !localBloomFilterService.isReloading();
+        assert localBloomFilterService.mightContains("new-link");
+        log.info("纪元切换测试通过: {}", localBloomFilterService.getStats());
+        localBloomFilterService.destroy();
+    }
+}
@@ -0,0 +1,156 @@
+package com.zicca.zlink.backend.cache.service;
+
+import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 本地短链接缓存测试
+ */
+@Slf4j
+public class LocalCacheServiceTest {
+
+    private LocalCacheService newCache(int maximumSize, long defaultTtl, long nullTtl) {
+        LocalCacheService cacheService = new LocalCacheService();
+        ReflectionTestUtils.setField(cacheService, "maximumSize", maximumSize);
+        ReflectionTestUtils.setField(cacheService, "defaultTtl", defaultTtl);
+        ReflectionTestUtils.setField(cacheService, "nullTtl", nullTtl);
+        ReflectionTestUtils.setField(cacheService, "tombstoneTtl", 60_000L);
+        cacheService.init();
+        return cacheService;
+    }
+
+    /**
+     * 测试基本读写与空值
+     */
+    @Test
+    public void testBasicOperations() {
+        LocalCacheService cacheService = newCache(100, 60_000, 60_000);
+
+        cacheService.put("abc123", "https://www.example.com");
+        cacheService.putNull("notExist", RedisKeyConstants.LINK_NOT_EXIST_VALUE);
+
+        assert "https://www.example.com".equals(cacheService.get("abc123"));
+        assert RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(cacheService.get("notExist"));
+        assert cacheService.get("missing") == null;
+
+        cacheService.remove("abc123");
+        assert cacheService.get("abc123") == null;
+        log.info("本地缓存基本操作测试通过: {}", cacheService.getStats());
+    }
+
+    /**
+     * 测试条目级过期时间：有效期短于默认过期时间时以有效期为准，空值使用独立过期时间
+     */
+    @Test
+    public void testPerEntryTtl() throws InterruptedException {
+        LocalCacheService cacheService = newCache(100, 60_000, 50);
+
+        cacheService.put("shortTtl", "https://short.example.com", 50L);
+        cacheService.put("longTtl", "https://long.example.com", Long.MAX_VALUE);
+        cacheService.putNull("nullValue", RedisKeyConstants.LINK_NOT_EXIST_VALUE);
+        // 已过有效期的链接不进入缓存
+        cacheService.put("expired", "https://expired.example.com", -1L);
+
+        assert cacheService.get("expired") == null;
+        Thread.sleep(100);
+
+        assert cacheService.get("shortTtl") == null;
+        assert cacheService.get("nullValue") == null;
+        assert "https://long.example.com".equals(cacheService.get("longTtl"));
+    }
+
+    /**
+     * 测试携带链接过期时刻的条目：过期前正常命中，过期后读取为负命中，清理后释放原始链接
+     */
+    @Test
+    public void testLinkExpiry() throws InterruptedException {
+        LocalCacheService cacheService = newCache(100, 60_000, 60_000);
+        long now = System.currentTimeMillis();
+
+        cacheService.putUntil("expiring", "https://expiring.example.com", now + 50);
+        cacheService.putUntil("swept", "https://swept.example.com", now + 50);
+        cacheService.putUntil("permanent", "https://permanent.example.com", LinkCacheValue.PERMANENT);
+        // 写入时已过期的链接直接缓存空值
+        cacheService.putUntil("expired", "https://expired.example.com", now - 1);
+
+        assert "https://expiring.example.com".equals(cacheService.get("expiring"));
+        assert RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(cacheService.get("expired"));
+        Thread.sleep(100);
+
+        assert RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(cacheService.get("expiring"));
+        // 未被读取的过期条目由清理任务替换为空值，已替换的条目不重复计数
+        assert cacheService.sweepExpired() == 1;
+        assert cacheService.sweepExpired() == 0;
+        assert RedisKeyConstants.LINK_NOT_EXIST_VALUE.equals(cacheService.get("swept"));
+        assert "https://permanent.example.com".equals(cacheService.get("permanent"));
+    }
+
+    /**
+     * 测试失效墓碑：回源期间发生失效时放弃回填旧值，失效之后开始的回源正常回填，重复的失效消息不推进序号
+     */
+    @Test
+    public void testInvalidationRejectsStaleRefill() {
+        LocalCacheService cacheService = newCache(100, 60_000, 60_000);
+        cacheService.put("abc123", "https://old.example.com");
+
+        // 回源开始前记录序号，回源期间短链接被修改
+        long staleSeq = cacheService.invalidationSeq();
+        cacheService.invalidate("abc123", 5);
+        assert cacheService.get("abc123") == null;
+        assert !cacheService.putIfNotInvalidated("abc123", "https://old.example.com", LinkCacheValue.PERMANENT, staleSeq);
+        assert cacheService.get("abc123") == null;
+
+        // 同一版本或更旧版本的重复消息不推进序号
+        long seq = cacheService.invalidationSeq();
+        cacheService.invalidate("abc123", 5);
+        cacheService.invalidate("abc123", 4);
+        assert cacheService.invalidationSeq() == seq;
+
+        assert cacheService.putIfNotInvalidated("abc123", "https://new.example.com", LinkCacheValue.PERMANENT, seq);
+        assert "https://new.example.com".equals(cacheService.get("abc123"));
+        // 其他短链接的失效不影响回填
+        long otherSeq = cacheService.invalidationSeq();
+        cacheService.invalidate("other", 6);
+        assert cacheService.putIfNotInvalidated("abc123", "https://new.example.com", LinkCacheValue.PERMANENT, otherSeq);
+        log.info("本地缓存失效测试通过: {}", cacheService.getStats());
+    }
+
+    /**
+     * 测试缓存值编解码：有效期链接携带过期时刻，永久链接与空值保持原样
+     */
+    @Test
+    public void testLinkCacheValue() {
+        String encoded = LinkCacheValue.encode("https://www.example.com/a~b", 1_700_000_000_000L);
+        assert encoded.equals("~1700000000000~https://www.example.com/a~b");
+        LinkCacheValue decoded = LinkCacheValue.decode(encoded);
+        assert "https://www.example.com/a~b".equals(decoded.value()) && decoded.expireAt() == 1_700_000_000_000L;
+        assert decoded.isExpired(1_700_000_000_000L) && !decoded.isExpired(1_699_999_999_999L);
+
+        assert "https://www.example.com".equals(LinkCacheValue.encode("https://www.example.com", LinkCacheValue.PERMANENT));
+        assert LinkCacheValue.decode("https://www.example.com").expireAt() == LinkCacheValue.PERMANENT;
+        assert LinkCacheValue.decode(RedisKeyConstants.LINK_NOT_EXIST_VALUE).expireAt() == LinkCacheValue.PERMANENT;
+        assert LinkCacheValue.decode(null) == null;
+    }
+
+    /**
+     * 测试容量限制：超出最大容量后淘汰，被访问过的条目获得二次机会
+     */
+    @Test
+    public void testSizeBoundEviction() {
+        int maximumSize = 1000;
+        LocalCacheService cacheService = newCache(maximumSize, 60_000, 60_000);
+
+        cacheService.put("hot", "https://hot.example.com");
+        for (int i = 0; i < maximumSize * 5; i++) {
+            cacheService.put("key" + i, "https://www.example.com/" + i);
+            // 持续访问热点数据
+            assert cacheService.get("hot") != null;
+        }
+
+        assert cacheService.size() <= maximumSize;
+        assert "https://hot.example.com".equals(cacheService.get("hot"));
+        log.info("本地缓存淘汰测试通过: {}", cacheService.getStats());
+    }
+}
@@ -0,0 +1,56 @@
+package com.zicca.zlink.backend.monitor;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 短链接跳转链路指标测试
+ */
+@Slf4j
+public class RedirectMetricsTest {
+
+    /**
+     * 测试各层级计数、命中率与分位数发布
+     */
+    @Test
+    public void testTierMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RedirectMetrics metrics = new RedirectMetrics(registry);
+        ReflectionTestUtils.setField(metrics, "percentileHistogram", true);
+        metrics.init();
+
+        for (int i = 0; i < 90; i++) {
+            metrics.record(RedirectMetrics.Tier.LOCAL_CACHE, RedirectMetrics.Result.HIT, System.nanoTime());
+        }
+        for (int i = 0; i < 8; i++) {
+            metrics.record(RedirectMetrics.Tier.LOCAL_CACHE, RedirectMetrics.Result.MISS, System.nanoTime());
+        }
+        for (int i = 0; i < 2; i++) {
+            metrics.record(RedirectMetrics.Tier.LOCAL_CACHE, RedirectMetrics.Result.NEGATIVE, System.nanoTime());
+        }
+        metrics.record(RedirectMetrics.Tier.REDIS_BLOOM, RedirectMetrics.Result.NEGATIVE,
+                System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.recordRedirect(true, System.nanoTime());
+
+        assert metrics.count(RedirectMetrics.Tier.LOCAL_CACHE, RedirectMetrics.Result.HIT) == 90;
+        assert metrics.count(RedirectMetrics.Tier.LOCAL_CACHE, RedirectMetrics.Result.NEGATIVE) == 2;
+        assert Math.abs(metrics.hitRatio(RedirectMetrics.Tier.LOCAL_CACHE) - 0.9) < 1e-9;
+        assert metrics.hitRatio(RedirectMetrics.Tier.DB) == 0;
+        assert registry.get("zlink.redirect.tier.hit.ratio").tag("tier", "local_cache").gauge().value() == 0.9;
+
+        Timer timer = registry.get("zlink.redirect.tier.latency").tag("tier", "redis_bloom").timer();
+        assert timer.count() == 1;
+        assert timer.totalTime(TimeUnit.MILLISECONDS) >= 5;
+        ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
+        assert percentiles.length == 3;
+        assert percentiles[2].percentile() == 0.999;
+        assert registry.get("zlink.redirect.latency").tag("result", "found").timer().count() == 1;
+        log.info(metrics.getStats());
+    }
+}
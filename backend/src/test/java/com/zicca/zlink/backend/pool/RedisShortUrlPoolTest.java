@@ -0,0 +1,126 @@
+package com.zicca.zlink.backend.pool;
+
+import com.zicca.zlink.backend.cache.holder.BloomFilterHolder;
+import com.zicca.zlink.backend.config.ShortUrlConfig;
+import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis短链接池批量租用测试
+ */
+@SuppressWarnings("unchecked")
+public class RedisShortUrlPoolTest {
+
+    /**
+     * 测试批量租用超过单次脚本上限时分轮取出，直到取满
+     */
+    @Test
+    public void testAcquireBatchInRounds() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        AtomicInteger remaining = poolOf(redisTemplate, 5000);
+        RedisShortUrlPool redisPool = redisPool(redisTemplate);
+
+        assert redisPool.acquireBatch(2400).size() == 2400;
+        assert remaining.get() == 2600;
+        verify(redisTemplate, times(3)).execute(any(RedisScript.class), anyList(), (Object[]) any());
+    }
+
+    /**
+     * 测试池中不足时某一轮取出不满即停止，返回已取出的部分
+     */
+    @Test
+    public void testAcquireBatchStopsWhenPoolDrained() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        AtomicInteger remaining = poolOf(redisTemplate, 1500);
+        RedisShortUrlPool redisPool = redisPool(redisTemplate);
+
+        assert redisPool.acquireBatch(3000).size() == 1500;
+        assert remaining.get() == 0;
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), (Object[]) any());
+    }
+
+    /**
+     * 测试归还：移除租约与入池在同一脚本中按批执行，不再分两次调用
+     */
+    @Test
+    public void testReleaseInScript() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        RedisShortUrlPool redisPool = redisPool(redisTemplate);
+        List<String> shortUrls = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            shortUrls.add("c" + i);
+        }
+
+        redisPool.release(shortUrls);
+        verify(redisTemplate, times(3)).execute(any(RedisScript.class), anyList(), (Object[]) any());
+        verify(redisTemplate, never()).opsForList();
+        verify(redisTemplate, never()).opsForSet();
+    }
+
+    /**
+     * 测试回收：布隆过滤器中已存在的不放回，布隆过滤器未到达但数据库已存在的同样不放回
+     */
+    @Test
+    public void testReapSkipsUsedCodes() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ZSetOperations<String, String> zSetOperations = mock(ZSetOperations.class);
+        ListOperations<String, String> listOperations = mock(ListOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForList()).thenReturn(listOperations);
+        when(zSetOperations.rangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(Set.of("dead-node"));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), (Object[]) any())).thenReturn(List.of("a", "b", "c", "d"));
+        BloomFilterHolder bloomFilterHolder = mock(BloomFilterHolder.class);
+        when(bloomFilterHolder.mightContainAll(anyList())).thenReturn(Map.of("a", true, "b", false, "c", false, "d", false));
+        ZLinkMapper zLinkMapper = mock(ZLinkMapper.class);
+        when(zLinkMapper.selectExistingShortUrls(List.of("b", "c", "d"))).thenReturn(List.of("b"));
+        RedisShortUrlPool redisPool = new RedisShortUrlPool(redisTemplate, bloomFilterHolder, new ShortUrlConfig(), zLinkMapper);
+
+        redisPool.reapExpiredLeases();
+        verify(listOperations).rightPushAll(anyString(), eq(List.of("c", "d")));
+    }
+
+    /**
+     * 模拟 LEASE 脚本：按第一个参数取出短链接，池中不足时取出剩余全部
+     */
+    private static AtomicInteger poolOf(RedisTemplate<String, String> redisTemplate, int size) {
+        AtomicInteger remaining = new AtomicInteger(size);
+        doAnswer(invocation -> {
+            int count = Math.min(Integer.parseInt(invocation.getArgument(2)), remaining.get());
+            List<String> codes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                codes.add("c" + remaining.decrementAndGet());
+            }
+            return codes;
+        }).when(redisTemplate).execute(any(RedisScript.class), anyList(), (Object[]) any());
+        return remaining;
+    }
+
+    private static RedisShortUrlPool redisPool(RedisTemplate<String, String> redisTemplate) {
+        RedisShortUrlPool redisPool = new RedisShortUrlPool(redisTemplate, null, new ShortUrlConfig(), null);
+        ReflectionTestUtils.setField(redisPool, "leaseTtl", 60L);
+        return redisPool;
+    }
+}
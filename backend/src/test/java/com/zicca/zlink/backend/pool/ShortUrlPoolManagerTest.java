@@ -0,0 +1,50 @@
+package com.zicca.zlink.backend.pool;
+
+import com.zicca.zlink.backend.config.ShortUrlConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 短链接池管理器租约测试
+ */
+public class ShortUrlPoolManagerTest {
+
+    /**
+     * 测试从Redis池租用的短链接使用后标记已使用，本地池放不下的部分归还
+     */
+    @Test
+    public void testLeasedShortUrls() {
+        List<String> leased = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            leased.add("leased" + i);
+        }
+        RedisShortUrlPool redisPool = mock(RedisShortUrlPool.class);
+        when(redisPool.acquireBatch(anyInt())).thenReturn(leased);
+        LocalShortUrlPool localPool = new LocalShortUrlPool(5);
+        ShortUrlPoolManager poolManager = new ShortUrlPoolManager(localPool, redisPool, new ShortUrlConfig());
+        poolManager.init();
+
+        String shortUrl = poolManager.acquireShortUrl();
+        assert "leased0".equals(shortUrl);
+        verify(redisPool).markConsumed("leased0");
+        // 本地池容量为5，其余3个归还Redis池
+        verify(redisPool).release(leased.subList(5, 8));
+        assert localPool.size() == 4;
+
+        assert "leased1".equals(poolManager.acquireShortUrl());
+        verify(redisPool, times(1)).acquireBatch(anyInt());
+
+        poolManager.destroy();
+        verify(redisPool).release(List.of("leased2", "leased3", "leased4"));
+        verify(redisPool, never()).offerBatch(leased);
+    }
+}
@@ -101,6 +101,38 @@ public class ShortUrlPoolTest {
         assert successCount.get() + localPool.size() == 500;
     }
 
+    /**
+     * 测试本地池容量限制与低水位回调
+     */
+    @Test
+    public void testCapacityAndLowWatermark() {
+        LocalShortUrlPool localPool = new LocalShortUrlPool(10);
+        AtomicInteger lowWatermarkCount = new AtomicInteger(0);
+        localPool.setLowWatermarkListener(3, lowWatermarkCount::incrementAndGet);
+
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            urls.add("url" + i);
+        }
+        // 超出容量部分不写入
+        assert localPool.offerBatch(urls) == 10;
+        assert !localPool.offer("overflow");
+        assert localPool.size() == 10 && localPool.remainingCapacity() == 0;
+
+        String[] target = new String[8];
+        assert localPool.drainTo(target, 0, 8) == 8;
+        assert "url0".equals(target[0]) && "url7".equals(target[7]);
+        // 低于低水位只回调一次，直到有新的短链接写入
+        assert lowWatermarkCount.get() == 1;
+        localPool.acquire();
+        assert lowWatermarkCount.get() == 1;
+        localPool.offer("refill");
+        localPool.acquire();
+        assert lowWatermarkCount.get() == 2;
+
+        log.info("本地池容量测试通过: {}", localPool.getStats());
+    }
+
     /**
      * 测试池管理器的分层获取策略
      */
@@ -0,0 +1,148 @@
+package com.zicca.zlink.backend.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zicca.zlink.backend.service.impl.FaviconServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 网站图标解析服务测试（本地 HTTP 桩服务）
+ */
+@Slf4j
+public class FaviconServiceTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger pageRequests = new AtomicInteger(0);
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/page", exchange -> {
+            pageRequests.incrementAndGet();
+            try {
+                // 模拟远程站点耗时
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "<html><head><link rel=\"shortcut icon\" href=\"/static/favicon.png\"></head><body>ok</body></html>"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private FaviconServiceImpl newFaviconService(long readTimeout) {
+        FaviconServiceImpl faviconService = new FaviconServiceImpl(null);
+        ReflectionTestUtils.setField(faviconService, "enabled", true);
+        ReflectionTestUtils.setField(faviconService, "connectTimeout", 500L);
+        ReflectionTestUtils.setField(faviconService, "readTimeout", readTimeout);
+        ReflectionTestUtils.setField(faviconService, "maxBodySize", 65536);
+        ReflectionTestUtils.setField(faviconService, "cacheTtl", 60_000L);
+        ReflectionTestUtils.setField(faviconService, "failureCacheTtl", 60_000L);
+        ReflectionTestUtils.setField(faviconService, "cacheSize", 100L);
+        ReflectionTestUtils.setField(faviconService, "corePoolSize", 1);
+        ReflectionTestUtils.setField(faviconService, "maxPoolSize", 1);
+        ReflectionTestUtils.setField(faviconService, "queueCapacity", 10);
+        faviconService.init();
+        return faviconService;
+    }
+
+    /**
+     * 测试解析图标以及按域名缓存
+     */
+    @Test
+    public void testResolveAndCache() {
+        FaviconServiceImpl faviconService = newFaviconService(2000);
+
+        String favicon = faviconService.resolveFavicon(baseUrl + "/page");
+        assert (baseUrl + "/static/favicon.png").equals(favicon);
+
+        // 同一域名命中缓存，不再请求远程站点
+        String cached = faviconService.resolveFavicon(baseUrl + "/page?from=another");
+        assert favicon.equals(cached);
+        assert pageRequests.get() == 1;
+        log.info("图标解析测试通过: {}", faviconService.getStats());
+        faviconService.destroy();
+    }
+
+    /**
+     * 测试同一域名并发解析只请求一次
+     */
+    @Test
+    public void testSingleFetchPerHost() throws InterruptedException {
+        FaviconServiceImpl faviconService = newFaviconService(2000);
+        int threadCount = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger resolved = new AtomicInteger(0);
+
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                try {
+                    if (faviconService.resolveFavicon(baseUrl + "/page") != null) {
+                        resolved.incrementAndGet();
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+
+        assert resolved.get() == threadCount;
+        assert pageRequests.get() == 1;
+        faviconService.destroy();
+    }
+
+    /**
+     * 测试远程站点响应过慢时在超时时间内返回
+     */
+    @Test
+    public void testTimeout() {
+        FaviconServiceImpl faviconService = newFaviconService(300);
+
+        long start = System.currentTimeMillis();
+        String favicon = faviconService.resolveFavicon(baseUrl + "/slow");
+        long duration = System.currentTimeMillis() - start;
+
+        log.info("超时测试耗时: {}ms", duration);
+        assert favicon == null;
+        assert duration < 2000;
+        faviconService.destroy();
+    }
+}
@@ -0,0 +1,88 @@
+package com.zicca.zlink.backend.service;
+
+import com.zicca.zlink.backend.config.ShortUrlConfig;
+import com.zicca.zlink.backend.service.impl.SegmentIdServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 双缓冲号段分配测试
+ */
+@Slf4j
+public class SegmentIdServiceTest {
+
+    /**
+     * 测试多线程并发获取序列号不重复，且号段切换主要命中预取结果
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConcurrentAllocation() throws InterruptedException {
+        AtomicLong counter = new AtomicLong(0);
+        AtomicInteger incrementCalls = new AtomicInteger(0);
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment(anyString(), anyLong())).thenAnswer(invocation -> {
+            incrementCalls.incrementAndGet();
+            // 模拟一次网络往返
+            Thread.sleep(1);
+            return counter.addAndGet(invocation.getArgument(1));
+        });
+
+        ShortUrlConfig shortUrlConfig = new ShortUrlConfig();
+        shortUrlConfig.getSequence().setStore(SegmentIdServiceImpl.STORE_REDIS);
+        shortUrlConfig.getSequence().setStep(1000);
+        shortUrlConfig.getSequence().setPrefetchRatio(0.8);
+        SegmentIdServiceImpl segmentIdService = new SegmentIdServiceImpl(redisTemplate, null, null, shortUrlConfig);
+        segmentIdService.init();
+
+        int threadCount = 8;
+        int idsPerThread = 20_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < idsPerThread; j++) {
+                        ids.add(segmentIdService.nextId());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    doneLatch.countDown();
+                }
+            });
+        }
+        startLatch.countDown();
+        doneLatch.await();
+        executor.shutdown();
+
+        int total = threadCount * idsPerThread;
+        log.info("并发获取序列号: {}个, 号段申请次数: {}, {}", ids.size(), incrementCalls.get(), segmentIdService.getStats());
+        assert ids.size() == total;
+        // 160个号段 + 末尾最多一个预取号段
+        assert incrementCalls.get() <= total / 1000 + 1;
+        for (long id : ids) {
+            assert id >= 0 && id < counter.get();
+        }
+        segmentIdService.destroy();
+    }
+}
@@ -0,0 +1,154 @@
+package com.zicca.zlink.backend.service;
+
+import com.zicca.zlink.backend.config.ShortUrlConfig;
+import com.zicca.zlink.backend.pool.ShortUrlPoolManager;
+import com.zicca.zlink.backend.service.impl.ShortUrlPreGenerateServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 短链接池自适应补充测试
+ */
+@Slf4j
+public class ShortUrlPreGenerateServiceTest {
+
+    /**
+     * 测试按获取速率与覆盖时长计算补充批量，并限定在最大批量与Redis池容量内
+     */
+    @Test
+    public void testAdaptiveBatchSize() throws InterruptedException {
+        ShortUrlConfig shortUrlConfig = sequenceConfig();
+        ShortUrlPoolManager poolManager = mock(ShortUrlPoolManager.class);
+        // 50个/秒 * 60秒 = 3000，Redis池剩余1000，补充2000
+        when(poolManager.tryAcquireRefillOwnership()).thenReturn(true);
+        when(poolManager.getAcquisitionRate()).thenReturn(50.0);
+        when(poolManager.getRedisPoolSize()).thenReturn(1000);
+        when(poolManager.offerShortUrls(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        ShortUrlGeneratorService generatorService = sequenceGenerator();
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ShortUrlPreGenerateServiceImpl preGenerateService = new ShortUrlPreGenerateServiceImpl(
+                poolManager, shortUrlConfig, null, null, generatorService, registry);
+        preGenerateService.init();
+        shortUrlConfig.getPreGenerate().setEnabled(true);
+        preGenerateService.startPreGeneration();
+        verify(generatorService, timeout(2000)).generateSequenceShortUrls(2000);
+
+        // 突发流量：需求超过最大批量时限定为 maxBatchSize，目标不超过Redis池容量
+        when(poolManager.getClusterAcquisitionRate()).thenReturn(1000.0);
+        when(poolManager.getRedisPoolSize()).thenReturn(0);
+        preGenerateService.checkAndRefillPool();
+        verify(generatorService, timeout(2000)).generateSequenceShortUrls(5000);
+        verify(poolManager, timeout(2000).atLeast(4)).refillLocalFromRedis();
+
+        assert registry.get("zlink.pool.refill.trigger").tag("trigger", "startup").counter().count() == 1;
+        assert registry.get("zlink.pool.refill.trigger").tag("trigger", "scheduled").counter().count() == 1;
+        assert registry.get("zlink.pool.refill.target").gauge().value() == 10_000;
+        preGenerateService.destroy();
+    }
+
+    /**
+     * 基准测试：多节点同时发现Redis池不足时的写入量
+     * 不协调时每个节点各自按差额生成并写入，写入次数与节点数成正比且超出容量；
+     * 按补充权协调后每轮只有一个节点写入，且不超过容量
+     */
+    @Test
+    public void benchmarkRedisWritesByNodeCount() throws Exception {
+        int rounds = 5;
+        int capacity = 10_000;
+        log.info("节点数 | 协调 | 写入次数 | 写入短链接数 | Redis池峰值");
+        for (int nodeCount : new int[]{1, 2, 4, 8}) {
+            for (boolean coordinated : new boolean[]{false, true}) {
+                AtomicInteger redisSize = new AtomicInteger(0);
+                AtomicInteger peakSize = new AtomicInteger(0);
+                AtomicInteger writes = new AtomicInteger(0);
+                AtomicInteger written = new AtomicInteger(0);
+                AtomicReference<String> owner = new AtomicReference<>();
+                AtomicReference<CyclicBarrier> barrier = new AtomicReference<>();
+                for (int round = 0; round < rounds; round++) {
+                    barrier.set(new CyclicBarrier(nodeCount));
+                    List<ShortUrlPreGenerateServiceImpl> nodes = new ArrayList<>();
+                    for (int node = 0; node < nodeCount; node++) {
+                        String nodeId = "node-" + node;
+                        ShortUrlPoolManager poolManager = mock(ShortUrlPoolManager.class);
+                        when(poolManager.tryAcquireRefillOwnership()).thenAnswer(invocation -> {
+                            // 所有节点同时发现池不足
+                            barrier.get().await(2, TimeUnit.SECONDS);
+                            return !coordinated || owner.compareAndSet(null, nodeId) || nodeId.equals(owner.get());
+                        });
+                        when(poolManager.getAcquisitionRate()).thenReturn(50.0);
+                        when(poolManager.getClusterAcquisitionRate()).thenReturn(50.0 * nodeCount);
+                        when(poolManager.getRedisPoolSize()).thenAnswer(invocation -> redisSize.get());
+                        when(poolManager.offerShortUrls(anyList())).thenAnswer(invocation -> {
+                            int size = ((List<?>) invocation.getArgument(0)).size();
+                            // 协调后写入在脚本中校验容量，不协调时沿用原有无上限写入
+                            int added = coordinated ? Math.min(size, Math.max(0, capacity - redisSize.get())) : size;
+                            peakSize.accumulateAndGet(redisSize.addAndGet(added), Math::max);
+                            writes.incrementAndGet();
+                            written.addAndGet(added);
+                            return added;
+                        });
+                        ShortUrlConfig shortUrlConfig = sequenceConfig();
+                        ShortUrlPreGenerateServiceImpl preGenerateService = new ShortUrlPreGenerateServiceImpl(
+                                poolManager, shortUrlConfig, null, null, sequenceGenerator(), new SimpleMeterRegistry());
+                        preGenerateService.init();
+                        shortUrlConfig.getPreGenerate().setEnabled(true);
+                        nodes.add(preGenerateService);
+                    }
+                    nodes.forEach(ShortUrlPreGenerateServiceImpl::startPreGeneration);
+                    for (ShortUrlPreGenerateServiceImpl node : nodes) {
+                        node.destroy();
+                    }
+                    // 两轮之间集群消耗30秒的需求
+                    redisSize.updateAndGet(size -> Math.max(0, size - nodeCount * 50 * 30));
+                }
+                log.info("{} | {} | {} | {} | {}", nodeCount, coordinated, writes.get(), written.get(), peakSize.get());
+                if (coordinated) {
+                    assert writes.get() <= rounds;
+                    assert peakSize.get() <= capacity;
+                } else {
+                    assert writes.get() >= nodeCount;
+                }
+            }
+        }
+    }
+
+    private ShortUrlConfig sequenceConfig() {
+        ShortUrlConfig shortUrlConfig = new ShortUrlConfig();
+        shortUrlConfig.setHashType(ShortUrlConfig.HASH_TYPE_SEQUENCE);
+        shortUrlConfig.getPreGenerate().setEnabled(false);
+        shortUrlConfig.getPreGenerate().setRefillHorizon(60);
+        shortUrlConfig.getPreGenerate().setBatchSize(500);
+        shortUrlConfig.getPreGenerate().setMaxBatchSize(5000);
+        shortUrlConfig.getPreGenerate().setRedisPoolSize(10_000);
+        return shortUrlConfig;
+    }
+
+    private ShortUrlGeneratorService sequenceGenerator() {
+        ShortUrlGeneratorService generatorService = mock(ShortUrlGeneratorService.class);
+        when(generatorService.generateSequenceShortUrls(anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(0);
+            List<String> shortUrls = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                shortUrls.add("seq" + i);
+            }
+            return shortUrls;
+        });
+        return generatorService;
+    }
+}
@@ -0,0 +1,110 @@
+package com.zicca.zlink.backend.service;
+
+import com.zicca.zlink.backend.dao.entity.ZLinkAccessStats;
+import com.zicca.zlink.backend.dao.entity.ZLinkDimensionStats;
+import com.zicca.zlink.backend.dao.mapper.ZLinkAccessStatsMapper;
+import com.zicca.zlink.backend.dao.mapper.ZLinkDimensionStatsMapper;
+import com.zicca.zlink.backend.dto.req.ZLinkStatsReqDTO;
+import com.zicca.zlink.backend.dto.resp.ZLinkStatsRespDTO;
+import com.zicca.zlink.backend.service.impl.ZLinkStatsServiceImpl;
+import com.zicca.zlink.backend.stats.ZLinkUniqueVisitorCounter;
+import com.zicca.zlink.framework.execption.ClientException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 短链接访问统计查询测试
+ */
+public class ZLinkStatsServiceTest {
+
+    /**
+     * 测试由预聚合行组装按天/小时/星期与维度分布，UV/UIP 取区间并集
+     */
+    @Test
+    public void testGetLinkStats() {
+        LocalDate monday = LocalDate.of(2024, 3, 4);
+        LocalDate tuesday = monday.plusDays(1);
+        ZLinkAccessStatsMapper accessStatsMapper = mock(ZLinkAccessStatsMapper.class);
+        when(accessStatsMapper.selectDailyStats("abc", monday, tuesday)).thenReturn(List.of(
+                ZLinkAccessStats.builder().date(monday).pv(30L).uv(10L).uip(5L).build(),
+                ZLinkAccessStats.builder().date(tuesday).pv(10L).uv(2L).uip(1L).build()));
+        when(accessStatsMapper.selectHourlyStats("abc", monday, tuesday)).thenReturn(List.of(
+                ZLinkAccessStats.builder().hour(9).pv(25L).build(),
+                ZLinkAccessStats.builder().hour(21).pv(15L).build()));
+        ZLinkDimensionStatsMapper dimensionStatsMapper = mock(ZLinkDimensionStatsMapper.class);
+        when(dimensionStatsMapper.selectDimensionStats("abc", monday, tuesday)).thenReturn(List.of(
+                ZLinkDimensionStats.builder().dimension("os").dimValue("Windows").cnt(30L).build(),
+                ZLinkDimensionStats.builder().dimension("os").dimValue("iOS").cnt(10L).build(),
+                ZLinkDimensionStats.builder().dimension("browser").dimValue("Chrome").cnt(40L).build()));
+        ZLinkUniqueVisitorCounter uniqueVisitorCounter = mock(ZLinkUniqueVisitorCounter.class);
+        when(uniqueVisitorCounter.earliestRetainedDate()).thenReturn(monday.minusDays(30));
+        when(uniqueVisitorCounter.countLinkUv("abc", monday, tuesday)).thenReturn(11L);
+        when(uniqueVisitorCounter.countLinkUip("abc", monday, tuesday)).thenReturn(6L);
+        ZLinkStatsService statsService = new ZLinkStatsServiceImpl(accessStatsMapper, dimensionStatsMapper, uniqueVisitorCounter);
+
+        ZLinkStatsRespDTO stats = statsService.getLinkStats(request("abc", monday, tuesday));
+
+        assert stats.getPv() == 40 && stats.getUv() == 11 && stats.getUip() == 6;
+        assert stats.getUvStartDate().equals(monday);
+        assert stats.getDaily().size() == 2 && stats.getDaily().get(0).getUv() == 10;
+        assert stats.getHourStats().size() == 24 && stats.getHourStats().get(9) == 25 && stats.getHourStats().get(0) == 0;
+        assert stats.getWeekdayStats().get(0) == 30 && stats.getWeekdayStats().get(1) == 10;
+        assert stats.getOsStats().size() == 2 && stats.getOsStats().get(0).getRatio() == 0.75;
+        assert stats.getBrowserStats().get(0).getRatio() == 1.0;
+        assert stats.getDeviceStats().isEmpty();
+    }
+
+    /**
+     * 测试区间超出按天 HyperLogLog 保留期：UV/UIP 截取到保留期内并返回起始日期，全部超出时为空
+     */
+    @Test
+    public void testUvClippedToRetention() {
+        LocalDate today = LocalDate.of(2024, 3, 4);
+        LocalDate earliest = today.minusDays(30);
+        ZLinkAccessStatsMapper accessStatsMapper = mock(ZLinkAccessStatsMapper.class);
+        ZLinkDimensionStatsMapper dimensionStatsMapper = mock(ZLinkDimensionStatsMapper.class);
+        ZLinkUniqueVisitorCounter uniqueVisitorCounter = mock(ZLinkUniqueVisitorCounter.class);
+        when(uniqueVisitorCounter.earliestRetainedDate()).thenReturn(earliest);
+        when(uniqueVisitorCounter.countLinkUv("abc", earliest, today)).thenReturn(7L);
+        when(uniqueVisitorCounter.countLinkUip("abc", earliest, today)).thenReturn(3L);
+        ZLinkStatsService statsService = new ZLinkStatsServiceImpl(accessStatsMapper, dimensionStatsMapper, uniqueVisitorCounter);
+
+        ZLinkStatsRespDTO clipped = statsService.getLinkStats(request("abc", today.minusDays(90), today));
+        assert clipped.getUv() == 7 && clipped.getUip() == 3;
+        assert clipped.getUvStartDate().equals(earliest);
+        verify(uniqueVisitorCounter, never()).countLinkUv("abc", today.minusDays(90), today);
+
+        ZLinkStatsRespDTO expired = statsService.getLinkStats(request("abc", today.minusDays(90), today.minusDays(60)));
+        assert expired.getPv() == 0;
+        assert expired.getUv() == null && expired.getUip() == null && expired.getUvStartDate() == null;
+    }
+
+    /**
+     * 测试日期区间校验
+     */
+    @Test
+    public void testInvalidRange() {
+        ZLinkStatsService statsService = new ZLinkStatsServiceImpl(mock(ZLinkAccessStatsMapper.class),
+                mock(ZLinkDimensionStatsMapper.class), mock(ZLinkUniqueVisitorCounter.class));
+        LocalDate today = LocalDate.of(2024, 3, 4);
+        Assertions.assertThrows(ClientException.class, () -> statsService.getLinkStats(request("abc", today, today.minusDays(1))));
+        Assertions.assertThrows(ClientException.class, () -> statsService.getLinkStats(request("abc", today.minusDays(400), today)));
+        Assertions.assertThrows(ClientException.class, () -> statsService.getLinkStats(request(" ", today, today)));
+    }
+
+    private ZLinkStatsReqDTO request(String shortUrl, LocalDate startDate, LocalDate endDate) {
+        ZLinkStatsReqDTO request = new ZLinkStatsReqDTO();
+        request.setShortUrl(shortUrl);
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+        return request;
+    }
+}
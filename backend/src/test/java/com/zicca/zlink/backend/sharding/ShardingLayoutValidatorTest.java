@@ -0,0 +1,134 @@
+package com.zicca.zlink.backend.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.shardingsphere.driver.api.yaml.YamlShardingSphereDataSourceFactory;
+import org.apache.shardingsphere.infra.util.yaml.YamlEngine;
+import org.apache.shardingsphere.infra.yaml.config.pojo.YamlRootConfiguration;
+import org.apache.shardingsphere.sharding.yaml.config.YamlShardingRuleConfiguration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 分片布局启动校验测试
+ */
+public class ShardingLayoutValidatorTest {
+
+    private static final String RULE = """
+            rules:
+              - !SHARDING
+                tables:
+                  z_link:
+                    actualDataNodes: %s
+                    databaseStrategy: %s
+                    tableStrategy:
+                      standard:
+                        shardingColumn: short_url
+                        shardingAlgorithmName: z_link_table_hash
+                shardingAlgorithms:
+                  z_link_table_hash:
+                    type: ZLINK_HASH
+                    props:
+                      sharding-count: 16
+                  z_link_database_hash:
+                    type: ZLINK_HASH
+                    props:
+                      sharding-count: 16
+                      shard-group-size: 8
+            """;
+
+    private static final String DATABASE_STRATEGY = "{ standard: { shardingColumn: short_url, shardingAlgorithmName: z_link_database_hash } }";
+
+    private static final String NO_DATABASE_STRATEGY = "{ none: {} }";
+
+    /**
+     * 测试单库与多库的合法布局
+     */
+    @Test
+    public void testValidLayout() {
+        ShardingLayoutValidator.Layout single = check("ds_0.z_link_${0..15}", NO_DATABASE_STRATEGY);
+        assert "short_url".equals(single.shardingColumn());
+        assert single.shardingCount() == 16 && single.dataSourceCount() == 1;
+        ShardingLayoutValidator.Layout multiple = check("ds_0.z_link_${0..7},ds_1.z_link_${8..15}", DATABASE_STRATEGY);
+        assert multiple.shardingCount() == 16 && multiple.dataSourceCount() == 2;
+    }
+
+    /**
+     * 测试物理表数量、后缀、所在库与算法不一致时校验失败
+     */
+    @Test
+    public void testInvalidLayout() {
+        // 物理表少于分片数
+        Assertions.assertThrows(IllegalStateException.class, () -> check("ds_0.z_link_${0..7}", NO_DATABASE_STRATEGY));
+        // 后缀越界
+        Assertions.assertThrows(IllegalStateException.class, () -> check("ds_0.z_link_${1..16}", NO_DATABASE_STRATEGY));
+        // 后缀重复
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> check("ds_0.z_link_${0..15},ds_0.z_link_0", NO_DATABASE_STRATEGY));
+        // 交错分布与分库算法（连续 8 个槽一个库）不一致
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> check("ds_0.z_link_${[0,2,4,6,8,10,12,14]},ds_1.z_link_${[1,3,5,7,9,11,13,15]}", DATABASE_STRATEGY));
+        // 多库但未配置分库策略
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> check("ds_0.z_link_${0..7},ds_1.z_link_${8..15}", NO_DATABASE_STRATEGY));
+        // 未声明的数据源
+        Assertions.assertThrows(IllegalStateException.class, () -> check("ds_2.z_link_${0..15}", NO_DATABASE_STRATEGY));
+    }
+
+    /**
+     * 测试按发布的分片配置启动校验：物理表齐全时通过，缺少一张物理表时启动失败
+     */
+    @Test
+    public void testValidate() throws Exception {
+        try (HikariDataSource physical = new HikariDataSource()) {
+            physical.setJdbcUrl("jdbc:h2:mem:zlink_validate" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+            physical.setUsername("sa");
+            try (Connection connection = physical.getConnection(); Statement statement = connection.createStatement()) {
+                for (int i = 0; i < 16; i++) {
+                    statement.execute("CREATE TABLE z_link_" + i + " (short_url VARCHAR(64) PRIMARY KEY)");
+                    statement.execute("CREATE TABLE z_link_gid_route_" + i + " (gid VARCHAR(32), short_url VARCHAR(64), PRIMARY KEY (gid, short_url))");
+                }
+            }
+            // 数据源替换为 H2，分片规则取发布的配置
+            String config = new String(getClass().getClassLoader().getResourceAsStream("shardingsphere-config.yaml").readAllBytes(),
+                    StandardCharsets.UTF_8);
+            String rules = config.substring(config.indexOf("rules:"));
+            DataSource sharded = YamlShardingSphereDataSourceFactory.createDataSource(Map.of("ds_0", physical),
+                    ("databaseName: zlink_validate" + UUID.randomUUID().toString().replace("-", "") + "\n" + rules)
+                            .getBytes(StandardCharsets.UTF_8));
+
+            ShardingLayoutValidator validator = validator(sharded);
+            validator.validate();
+
+            try (Connection connection = physical.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE z_link_gid_route_7");
+            }
+            Assertions.assertThrows(SQLException.class, validator::validate);
+            ((AutoCloseable) sharded).close();
+        }
+    }
+
+    private static ShardingLayoutValidator validator(DataSource dataSource) {
+        ShardingLayoutValidator validator = new ShardingLayoutValidator(dataSource);
+        ReflectionTestUtils.setField(validator, "config", "shardingsphere-config.yaml");
+        ReflectionTestUtils.setField(validator, "tables", List.of("z_link", "z_link_gid_route"));
+        return validator;
+    }
+
+    private static ShardingLayoutValidator.Layout check(String actualDataNodes, String databaseStrategy) {
+        YamlRootConfiguration rootConfig = YamlEngine.unmarshal(String.format(RULE, actualDataNodes, databaseStrategy),
+                YamlRootConfiguration.class);
+        YamlShardingRuleConfiguration shardingRule = (YamlShardingRuleConfiguration) rootConfig.getRules().iterator().next();
+        return ShardingLayoutValidator.checkLayout(shardingRule, Set.of("ds_0", "ds_1"), "z_link");
+    }
+}
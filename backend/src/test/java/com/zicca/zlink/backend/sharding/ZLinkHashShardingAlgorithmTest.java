@@ -0,0 +1,252 @@
+package com.zicca.zlink.backend.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.shardingsphere.driver.api.yaml.YamlShardingSphereDataSourceFactory;
+import org.apache.shardingsphere.infra.datanode.DataNodeInfo;
+import org.apache.shardingsphere.sharding.api.sharding.standard.PreciseShardingValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * 短链接分片算法测试
+ */
+@Slf4j
+public class ZLinkHashShardingAlgorithmTest {
+
+    private static final int SHARDING_COUNT = 16;
+
+    private static final String SHARDING_CONFIG = """
+            databaseName: %s
+            rules:
+              - !SHARDING
+                tables:
+                  z_link:
+                    actualDataNodes: ds_0.z_link_${0..15}
+                    tableStrategy:
+                      standard:
+                        shardingColumn: short_url
+                        shardingAlgorithmName: z_link_table_hash
+                shardingAlgorithms:
+                  z_link_table_hash:
+                    type: ZLINK_HASH
+                    props:
+                      sharding-count: 16
+            """;
+
+    private static final String CREATE_TABLE = "CREATE TABLE %s (id BIGINT PRIMARY KEY, short_url VARCHAR(64) NOT NULL, " +
+            "gid VARCHAR(32), origin_url VARCHAR(255), delete_flag TINYINT DEFAULT 0, UNIQUE KEY uk_%s (short_url))";
+
+    /**
+     * 测试分片槽与 MySQL CRC32() 一致，且分布均匀
+     */
+    @Test
+    public void testSlot() {
+        // MySQL: SELECT CRC32('abc') = 891568578
+        assert ZLinkHashShardingAlgorithm.slot("abc", SHARDING_COUNT) == 891568578L % SHARDING_COUNT;
+        int[] counts = new int[SHARDING_COUNT];
+        int total = 160_000;
+        for (int i = 0; i < total; i++) {
+            counts[ZLinkHashShardingAlgorithm.slot(Long.toString(i * 7919L, 36), SHARDING_COUNT)]++;
+        }
+        for (int count : counts) {
+            // 每个槽偏离均值不超过 5%
+            assert Math.abs(count - total / SHARDING_COUNT) < total / SHARDING_COUNT * 0.05 : count;
+        }
+    }
+
+    /**
+     * 测试分库算法：连续 shard-group-size 个槽落在同一个库，与分表后缀对应
+     */
+    @Test
+    public void testDoSharding() {
+        ZLinkHashShardingAlgorithm tableAlgorithm = algorithm(16, null);
+        ZLinkHashShardingAlgorithm databaseAlgorithm = algorithm(16, 8);
+        List<String> tables = IntStream.range(0, 16).mapToObj(i -> "z_link_" + i).toList();
+        List<String> databases = List.of("ds_0", "ds_1");
+        for (int i = 0; i < 1000; i++) {
+            String shortUrl = "k" + i;
+            int slot = ZLinkHashShardingAlgorithm.slot(shortUrl, 16);
+            assert ("z_link_" + slot).equals(tableAlgorithm.doSharding(tables, value(shortUrl)));
+            assert ("ds_" + slot / 8).equals(databaseAlgorithm.doSharding(databases, value(shortUrl)));
+        }
+        // 目标缺失时抛出异常，不静默路由到其他分片
+        String shortUrl = ZLinkHashShardingAlgorithmTest.class.getSimpleName();
+        List<String> missing = tables.stream()
+                .filter(table -> !table.equals("z_link_" + ZLinkHashShardingAlgorithm.slot(shortUrl, 16)))
+                .toList();
+        Assertions.assertThrows(IllegalStateException.class, () -> tableAlgorithm.doSharding(missing, value(shortUrl)));
+        // 非法属性在初始化时失败
+        Assertions.assertThrows(IllegalArgumentException.class, () -> algorithm(0, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> algorithm(16, 5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ZLinkHashShardingAlgorithm().init(new Properties()));
+    }
+
+    /**
+     * 测试经 ShardingSphere 写入后，每行落在 CRC32 对应的物理表，且按短链接点查只访问一张表
+     */
+    @Test
+    public void testRouting() throws Exception {
+        try (HikariDataSource physical = h2("zlink_routing")) {
+            createShardTables(physical);
+            DataSource sharded = sharded(physical, "zlink_routing");
+            int rows = 2000;
+            insert(sharded, 0, rows, 500);
+            int[] expected = new int[SHARDING_COUNT];
+            for (int i = 0; i < rows; i++) {
+                expected[ZLinkHashShardingAlgorithm.slot(shortUrl(i), SHARDING_COUNT)]++;
+            }
+            try (Connection connection = physical.getConnection(); Statement statement = connection.createStatement()) {
+                for (int i = 0; i < SHARDING_COUNT; i++) {
+                    try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM z_link_" + i)) {
+                        resultSet.next();
+                        assert resultSet.getInt(1) == expected[i] : "z_link_" + i;
+                    }
+                }
+            }
+            for (int i = 0; i < rows; i += 97) {
+                assert ("https://example.com/" + i).equals(lookup(sharded, shortUrl(i)));
+            }
+            assert lookup(sharded, "missing") == null;
+            ((AutoCloseable) sharded).close();
+        }
+    }
+
+    /**
+     * 基准测试：单表 vs 16 张分表（H2 内存库）的批量写入与按短链接点查吞吐
+     * 内存库不反映 MySQL 大表的 B+树层数与缓冲池命中率变化，结果主要体现分片路由开销
+     */
+    @Test
+    public void benchmarkSingleVsSharded() throws Exception {
+        int rows = 200_000;
+        int lookups = 20_000;
+        try (HikariDataSource single = h2("zlink_single"); HikariDataSource physical = h2("zlink_sharded")) {
+            try (Connection connection = single.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute(String.format(CREATE_TABLE, "z_link", "z_link"));
+            }
+            createShardTables(physical);
+            DataSource sharded = sharded(physical, "zlink_sharded");
+
+            long singleInsertNanos = insert(single, 0, rows, 500);
+            long shardedInsertNanos = insert(sharded, 0, rows, 500);
+            // 预热
+            runLookups(single, rows, lookups);
+            runLookups(sharded, rows, lookups);
+            long singleLookupNanos = runLookups(single, rows, lookups);
+            long shardedLookupNanos = runLookups(sharded, rows, lookups);
+
+            log.info("单表 vs 分表({}) - 写入 {} 行: {} 行/秒 vs {} 行/秒; 点查 {} 次: {} 次/秒 vs {} 次/秒",
+                    SHARDING_COUNT, rows,
+                    rate(rows, singleInsertNanos), rate(rows, shardedInsertNanos),
+                    lookups, rate(lookups, singleLookupNanos), rate(lookups, shardedLookupNanos));
+            ((AutoCloseable) sharded).close();
+        }
+    }
+
+    private static long insert(DataSource dataSource, int from, int to, int batchSize) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int offset = from; offset < to; offset += batchSize) {
+                int size = Math.min(batchSize, to - offset);
+                StringBuilder sql = new StringBuilder("INSERT INTO z_link (id, short_url, gid, origin_url) VALUES ");
+                for (int i = 0; i < size; i++) {
+                    sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+                }
+                try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < size; i++) {
+                        int row = offset + i;
+                        statement.setLong(i * 4 + 1, row);
+                        statement.setString(i * 4 + 2, shortUrl(row));
+                        statement.setString(i * 4 + 3, "g" + row % 100);
+                        statement.setString(i * 4 + 4, "https://example.com/" + row);
+                    }
+                    statement.executeUpdate();
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runLookups(DataSource dataSource, int rows, int lookups) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT origin_url FROM z_link WHERE short_url = ? AND delete_flag = 0")) {
+            for (int i = 0; i < lookups; i++) {
+                statement.setString(1, shortUrl((int) ((i * 2654435761L) % rows)));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    assert resultSet.next();
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static String lookup(DataSource dataSource, String shortUrl) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT origin_url FROM z_link WHERE short_url = ?")) {
+            statement.setString(1, shortUrl);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private static String shortUrl(int row) {
+        return Long.toString(row * 2654435761L % 56_800_235_584L, 36);
+    }
+
+    private static String rate(int count, long nanos) {
+        return String.format("%.0f", count * 1_000_000_000.0 / nanos);
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(4);
+        return dataSource;
+    }
+
+    private static void createShardTables(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (int i = 0; i < SHARDING_COUNT; i++) {
+                statement.execute(String.format(CREATE_TABLE, "z_link_" + i, "z_link_" + i));
+            }
+        }
+    }
+
+    private static DataSource sharded(DataSource physical, String databaseName) throws Exception {
+        byte[] config = String.format(SHARDING_CONFIG, databaseName + UUID.randomUUID().toString().replace("-", ""))
+                .getBytes(StandardCharsets.UTF_8);
+        return YamlShardingSphereDataSourceFactory.createDataSource(Map.of("ds_0", physical), config);
+    }
+
+    private static ZLinkHashShardingAlgorithm algorithm(int shardingCount, Integer shardGroupSize) {
+        Properties props = new Properties();
+        props.setProperty(ZLinkHashShardingAlgorithm.SHARDING_COUNT_KEY, String.valueOf(shardingCount));
+        if (shardGroupSize != null) {
+            props.setProperty(ZLinkHashShardingAlgorithm.SHARD_GROUP_SIZE_KEY, String.valueOf(shardGroupSize));
+        }
+        ZLinkHashShardingAlgorithm algorithm = new ZLinkHashShardingAlgorithm();
+        algorithm.init(props);
+        return algorithm;
+    }
+
+    private static PreciseShardingValue<String> value(String shortUrl) {
+        return new PreciseShardingValue<>("z_link", "short_url", new DataNodeInfo("z_link_", 1, '0'), shortUrl);
+    }
+}
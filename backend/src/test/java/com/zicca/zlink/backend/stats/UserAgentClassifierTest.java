@@ -0,0 +1,108 @@
+package com.zicca.zlink.backend.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * User-Agent 分类测试
+ */
+@Slf4j
+public class UserAgentClassifierTest {
+
+    private static final String[] USER_AGENTS = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36 Edg/124.0.2478.51",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Safari/605.1.15",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Mobile/15E148 MicroMessenger/8.0.47(0x18002f2c) NetType/WIFI Language/zh_CN",
+            "Mozilla/5.0 (Linux; Android 14; SM-S9180) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Mobile Safari/537.36",
+            "Mozilla/5.0 (iPad; CPU OS 17_4 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Mobile/15E148 Safari/604.1",
+            "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:125.0) Gecko/20100101 Firefox/125.0",
+            "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)",
+    };
+
+    /**
+     * 测试常见 UA 的分类结果，Edge/微信等包含 Chrome/Safari 标识的 UA 按规则顺序优先识别
+     */
+    @Test
+    public void testClassify() {
+        UserAgentClassifier classifier = new UserAgentClassifier(100);
+        assertInfo(classifier.classify(USER_AGENTS[0]), "Windows", "Chrome", "PC");
+        assertInfo(classifier.classify(USER_AGENTS[1]), "Windows", "Edge", "PC");
+        assertInfo(classifier.classify(USER_AGENTS[2]), "macOS", "Safari", "PC");
+        UserAgentClassifier.UserAgentInfo weChat = classifier.classify(USER_AGENTS[3]);
+        assertInfo(weChat, "iOS", "WeChat", "Mobile");
+        assert "WIFI".equals(weChat.network());
+        assertInfo(classifier.classify(USER_AGENTS[4]), "Android", "Chrome", "Mobile");
+        assertInfo(classifier.classify(USER_AGENTS[5]), "iOS", "Safari", "Tablet");
+        assertInfo(classifier.classify(USER_AGENTS[6]), "Linux", "Firefox", "PC");
+        assertInfo(classifier.classify(USER_AGENTS[7]), UserAgentClassifier.UNKNOWN, "Bot", "Bot");
+        assertInfo(classifier.classify(null), UserAgentClassifier.UNKNOWN, UserAgentClassifier.UNKNOWN, UserAgentClassifier.UNKNOWN);
+        assert classifier.cacheSize() == USER_AGENTS.length;
+        // 缓存命中返回同一结果
+        assert classifier.classify(USER_AGENTS[0]) == classifier.classify(USER_AGENTS[0]);
+    }
+
+    /**
+     * 基准测试：每次跳转分类 UA 的耗时，直接解析 vs 有界缓存
+     * 模拟 200 种 UA 的偏斜分布（少数 UA 占大部分流量）
+     */
+    @Test
+    public void benchmarkClassify() {
+        List<String> userAgents = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            userAgents.add(USER_AGENTS[i % USER_AGENTS.length].replace("124.0.0.0", "124.0." + i + ".0"));
+        }
+        int requests = 100_000;
+        String[] traffic = new String[requests];
+        for (int i = 0; i < requests; i++) {
+            // 平方分布：下标越小越热门
+            double r = ThreadLocalRandom.current().nextDouble();
+            traffic[i] = userAgents.get((int) (r * r * userAgents.size()));
+        }
+        UserAgentClassifier classifier = new UserAgentClassifier(10_000);
+
+        // 预热
+        for (int round = 0; round < 2; round++) {
+            runParse(traffic);
+            runClassify(classifier, traffic);
+        }
+        long parseNanos = runParse(traffic);
+        long cachedNanos = runClassify(classifier, traffic);
+        double parseCost = (double) parseNanos / requests;
+        double cachedCost = (double) cachedNanos / requests;
+        log.info("User-Agent 分类耗时 - 直接解析: {} ns/次, 缓存: {} ns/次, 提升: {}倍",
+                String.format("%.1f", parseCost), String.format("%.1f", cachedCost),
+                String.format("%.1f", parseCost / cachedCost));
+        assert cachedCost < parseCost;
+    }
+
+    private long runParse(String[] traffic) {
+        long start = System.nanoTime();
+        int sink = 0;
+        for (String userAgent : traffic) {
+            sink += UserAgentClassifier.parse(userAgent).os().length();
+        }
+        assert sink > 0;
+        return System.nanoTime() - start;
+    }
+
+    private long runClassify(UserAgentClassifier classifier, String[] traffic) {
+        long start = System.nanoTime();
+        int sink = 0;
+        for (String userAgent : traffic) {
+            sink += classifier.classify(userAgent).os().length();
+        }
+        assert sink > 0;
+        return System.nanoTime() - start;
+    }
+
+    private void assertInfo(UserAgentClassifier.UserAgentInfo info, String os, String browser, String device) {
+        assert os.equals(info.os()) : info;
+        assert browser.equals(info.browser()) : info;
+        assert device.equals(info.device()) : info;
+    }
+}
@@ -0,0 +1,148 @@
+package com.zicca.zlink.backend.stats;
+
+import com.zicca.zlink.backend.dao.entity.ZLink;
+import com.zicca.zlink.backend.dao.mapper.ZLinkGidRouteMapper;
+import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsDeltaDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 点击计数写回聚合测试
+ */
+public class ZLinkClickAggregatorTest {
+
+    /**
+     * 测试并发累加与定时刷写同时进行时增量不丢失，停机时写回剩余增量
+     */
+    @Test
+    public void testConcurrentAddAndFlush() throws InterruptedException {
+        Map<String, Long> database = new ConcurrentHashMap<>();
+        AtomicInteger updates = new AtomicInteger(0);
+        ZLinkMapper zLinkMapper = mock(ZLinkMapper.class);
+        when(zLinkMapper.incrementStats(anyList())).thenAnswer(invocation -> {
+            List<ZLinkStatsDeltaDTO> deltas = invocation.getArgument(0);
+            deltas.forEach(delta -> database.merge(delta.getShortUrl(), delta.getPv(), Long::sum));
+            updates.incrementAndGet();
+            return deltas.size();
+        });
+        ZLinkClickAggregator aggregator = newAggregator(zLinkMapper, 5, 1_000_000);
+
+        int threadCount = 8;
+        int batchesPerThread = 5_000;
+        CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < batchesPerThread; j++) {
+                        aggregator.add(List.of(delta("hot", 1), delta("s" + (j % 100), 1)));
+                    }
+                } finally {
+                    doneLatch.countDown();
+                }
+            });
+        }
+        doneLatch.await();
+        executor.shutdown();
+        aggregator.destroy();
+
+        long total = (long) threadCount * batchesPerThread;
+        assert database.get("hot") == total;
+        assert database.entrySet().stream().filter(entry -> !entry.getKey().equals("hot"))
+                .mapToLong(Map.Entry::getValue).sum() == total;
+        // 热点短链接的多次点击合并写回
+        assert updates.get() < total / 100;
+    }
+
+    /**
+     * 测试累计访问次数达到阈值时提前刷写，写回失败时增量保留到下次
+     */
+    @Test
+    public void testThresholdFlushAndRetry() throws InterruptedException {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        Map<String, Long> database = new ConcurrentHashMap<>();
+        CountDownLatch flushed = new CountDownLatch(1);
+        ZLinkMapper zLinkMapper = mock(ZLinkMapper.class);
+        when(zLinkMapper.incrementStats(anyList())).thenAnswer(invocation -> {
+            if (failing.get()) {
+                throw new IllegalStateException("database unavailable");
+            }
+            List<ZLinkStatsDeltaDTO> deltas = invocation.getArgument(0);
+            deltas.forEach(delta -> database.merge(delta.getShortUrl(), delta.getPv(), Long::sum));
+            flushed.countDown();
+            return deltas.size();
+        });
+        ZLinkClickAggregator aggregator = newAggregator(zLinkMapper, 60_000, 100);
+
+        assert aggregator.flush() == 0;
+        aggregator.add(List.of(delta("a", 60)));
+        assert aggregator.flush() == 0;
+        assert database.isEmpty();
+
+        failing.set(false);
+        // 新增访问达到阈值，不等定时刷写，连同失败保留的 60 次一起写回
+        aggregator.add(List.of(delta("a", 100)));
+        assert flushed.await(2, TimeUnit.SECONDS);
+        assert database.get("a") == 160;
+        aggregator.destroy();
+    }
+
+    /**
+     * 测试分片模式下写回后按分组同步累加路由表的排序统计
+     */
+    @Test
+    public void testSyncRouteStats() throws InterruptedException {
+        ZLinkMapper zLinkMapper = mock(ZLinkMapper.class);
+        when(zLinkMapper.incrementStats(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        when(zLinkMapper.selectGidByShortUrls(anyCollection())).thenReturn(List.of(
+                ZLink.builder().shortUrl("a").gid("g1").build(),
+                ZLink.builder().shortUrl("b").gid("g1").build(),
+                ZLink.builder().shortUrl("c").gid("g2").build()));
+        ZLinkGidRouteMapper routeMapper = mock(ZLinkGidRouteMapper.class);
+        ZLinkClickAggregator aggregator = new ZLinkClickAggregator(zLinkMapper, routeMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(aggregator, "shardingEnabled", true);
+        ReflectionTestUtils.setField(aggregator, "flushInterval", 60_000L);
+        ReflectionTestUtils.setField(aggregator, "flushThreshold", 1_000_000L);
+        ReflectionTestUtils.setField(aggregator, "updateBatchSize", 500);
+        aggregator.init();
+
+        aggregator.add(List.of(delta("a", 1), delta("b", 2), delta("c", 3)));
+        assert aggregator.flush() == 3;
+        verify(routeMapper).incrementStats(eq("g1"), argThat(deltas -> deltas.size() == 2));
+        verify(routeMapper).incrementStats(eq("g2"), argThat(deltas -> deltas.size() == 1 && deltas.get(0).getPv() == 3));
+        aggregator.destroy();
+    }
+
+    private ZLinkClickAggregator newAggregator(ZLinkMapper zLinkMapper, long flushInterval, long flushThreshold) {
+        ZLinkClickAggregator aggregator = new ZLinkClickAggregator(zLinkMapper, null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(aggregator, "flushInterval", flushInterval);
+        ReflectionTestUtils.setField(aggregator, "flushThreshold", flushThreshold);
+        ReflectionTestUtils.setField(aggregator, "updateBatchSize", 500);
+        aggregator.init();
+        return aggregator;
+    }
+
+    private ZLinkStatsDeltaDTO delta(String shortUrl, long pv) {
+        return ZLinkStatsDeltaDTO.builder().shortUrl(shortUrl).pv(pv).build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.zicca.zlink.backend.stats;
+
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsDeltaDTO;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
+import com.zicca.zlink.backend.stats.consumer.ZLinkStatsConsumer;
+import com.zicca.zlink.backend.stats.sink.ZLinkStatsSink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 短链接访问统计采集测试
+ */
+public class ZLinkStatsRecorderTest {
+
+    /**
+     * 测试按批写出，停机时写出剩余记录
+     */
+    @Test
+    public void testBatchFlush() throws InterruptedException {
+        List<List<ZLinkStatsRecordDTO>> batches = new CopyOnWriteArrayList<>();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ZLinkStatsRecorder recorder = newRecorder(batches::add, registry, 4096, 100, "discard");
+
+        for (int i = 0; i < 1050; i++) {
+            recorder.record(record("s" + (i % 10)));
+        }
+        recorder.destroy();
+
+        int written = batches.stream().mapToInt(List::size).sum();
+        assert written == 1050;
+        assert batches.stream().allMatch(batch -> batch.size() <= 100);
+        assert registry.get("zlink.stats.records").tag("outcome", "written").counter().count() == 1050;
+        assert registry.get("zlink.stats.buffer.size").gauge().value() == 0;
+    }
+
+    /**
+     * 测试输出端阻塞、队列满时丢弃新记录，不阻塞调用线程
+     */
+    @Test
+    public void testDiscardWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<ZLinkStatsRecordDTO> written = new CopyOnWriteArrayList<>();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ZLinkStatsRecorder recorder = newRecorder(records -> {
+            awaitQuietly(release);
+            written.addAll(records);
+        }, registry, 16, 4, "discard");
+
+        for (int i = 0; i < 100; i++) {
+            recorder.record(record("s" + i));
+        }
+        double dropped = registry.get("zlink.stats.records").tag("outcome", "dropped").counter().count();
+        assert dropped > 0;
+        release.countDown();
+        recorder.destroy();
+        assert written.size() + dropped == 100;
+    }
+
+    /**
+     * 测试队列满时丢弃最早的记录，保留最新记录
+     */
+    @Test
+    public void testDiscardOldestWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<ZLinkStatsRecordDTO> written = new CopyOnWriteArrayList<>();
+        ZLinkStatsRecorder recorder = newRecorder(records -> {
+            awaitQuietly(release);
+            written.addAll(records);
+        }, new SimpleMeterRegistry(), 16, 4, "discard_oldest");
+
+        for (int i = 0; i < 100; i++) {
+            recorder.record(record("s" + i));
+        }
+        release.countDown();
+        recorder.destroy();
+        assert written.size() < 100;
+        assert written.get(written.size() - 1).getShortUrl().equals("s99");
+    }
+
+    /**
+     * 测试按短链接聚合 PV/UV/UIP
+     */
+    @Test
+    public void testAggregate() {
+        ZLinkStatsRecordDTO first = record("a");
+        first.setUvFirstFlag(true);
+        first.setUipFirstFlag(true);
+        ZLinkStatsRecordDTO second = record("a");
+        second.setUvFirstFlag(false);
+        second.setUipFirstFlag(true);
+        List<ZLinkStatsDeltaDTO> deltas = ZLinkStatsConsumer.aggregate(List.of(first, second, record("b")));
+
+        assert deltas.size() == 2;
+        ZLinkStatsDeltaDTO a = deltas.get(0);
+        assert a.getShortUrl().equals("a") && a.getPv() == 2 && a.getUv() == 1 && a.getUip() == 2;
+        ZLinkStatsDeltaDTO b = deltas.get(1);
+        assert b.getShortUrl().equals("b") && b.getPv() == 1 && b.getUv() == 0 && b.getUip() == 0;
+    }
+
+    private ZLinkStatsRecorder newRecorder(ZLinkStatsSink sink, SimpleMeterRegistry registry,
+                                           int bufferSize, int batchSize, String overflowPolicy) {
+        ZLinkStatsRecorder recorder = new ZLinkStatsRecorder(sink, registry);
+        ReflectionTestUtils.setField(recorder, "enabled", true);
+        ReflectionTestUtils.setField(recorder, "bufferSize", bufferSize);
+        ReflectionTestUtils.setField(recorder, "batchSize", batchSize);
+        ReflectionTestUtils.setField(recorder, "flushInterval", 10L);
+        ReflectionTestUtils.setField(recorder, "overflowPolicy", overflowPolicy);
+        recorder.init();
+        return recorder;
+    }
+
+    private ZLinkStatsRecordDTO record(String shortUrl) {
+        return ZLinkStatsRecordDTO.builder().shortUrl(shortUrl).build();
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
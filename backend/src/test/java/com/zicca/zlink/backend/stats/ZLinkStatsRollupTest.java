@@ -0,0 +1,68 @@
+package com.zicca.zlink.backend.stats;
+
+import com.zicca.zlink.backend.dao.entity.ZLinkAccessStats;
+import com.zicca.zlink.backend.dao.entity.ZLinkDimensionStats;
+import com.zicca.zlink.backend.dao.mapper.ZLinkAccessStatsMapper;
+import com.zicca.zlink.backend.dao.mapper.ZLinkDimensionStatsMapper;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 访问统计预聚合写入测试
+ */
+public class ZLinkStatsRollupTest {
+
+    /**
+     * 测试一批记录按 (短链接, 日期, 小时) 与 (短链接, 日期, 维度, 取值) 聚合，并按唯一键排序写入
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAppend() {
+        ZLinkAccessStatsMapper accessStatsMapper = mock(ZLinkAccessStatsMapper.class);
+        ZLinkDimensionStatsMapper dimensionStatsMapper = mock(ZLinkDimensionStatsMapper.class);
+        ZLinkStatsRollup rollup = new ZLinkStatsRollup(accessStatsMapper, dimensionStatsMapper);
+
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        rollup.append(List.of(
+                record("b", day.atTime(10, 5), "Windows", true),
+                record("a", day.atTime(10, 59), "Android", false),
+                record("a", day.atTime(10, 1), "Android", true),
+                record("a", day.atTime(23, 0), null, false)));
+
+        ArgumentCaptor<List<ZLinkAccessStats>> accessCaptor = ArgumentCaptor.forClass(List.class);
+        verify(accessStatsMapper).upsertBatch(accessCaptor.capture());
+        List<ZLinkAccessStats> access = accessCaptor.getValue();
+        assert access.size() == 3;
+        assert access.get(0).getShortUrl().equals("a") && access.get(0).getHour() == 10;
+        assert access.get(0).getPv() == 2 && access.get(0).getUv() == 1;
+        assert access.get(1).getShortUrl().equals("a") && access.get(1).getHour() == 23;
+        assert access.get(2).getShortUrl().equals("b") && access.get(2).getDate().equals(day);
+
+        ArgumentCaptor<List<ZLinkDimensionStats>> dimensionCaptor = ArgumentCaptor.forClass(List.class);
+        verify(dimensionStatsMapper).upsertBatch(dimensionCaptor.capture());
+        List<ZLinkDimensionStats> dimensions = dimensionCaptor.getValue();
+        // 空维度不写入
+        assert dimensions.size() == 2;
+        assert dimensions.get(0).getShortUrl().equals("a") && dimensions.get(0).getDimValue().equals("Android");
+        assert dimensions.get(0).getDimension().equals("os") && dimensions.get(0).getCnt() == 2;
+    }
+
+    private ZLinkStatsRecordDTO record(String shortUrl, LocalDateTime time, String os, boolean uvFirstFlag) {
+        return ZLinkStatsRecordDTO.builder()
+                .shortUrl(shortUrl)
+                .os(os)
+                .uvFirstFlag(uvFirstFlag)
+                .currentDate(Date.from(time.atZone(ZoneId.systemDefault()).toInstant()))
+                .build();
+    }
+}
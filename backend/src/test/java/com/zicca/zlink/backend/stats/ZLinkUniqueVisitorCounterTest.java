@@ -0,0 +1,125 @@
+package com.zicca.zlink.backend.stats;
+
+import com.zicca.zlink.backend.common.constant.RedisKeyConstants;
+import com.zicca.zlink.backend.dao.entity.ZLink;
+import com.zicca.zlink.backend.dao.mapper.ZLinkMapper;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHyperLogLogCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * UV/UIP HyperLogLog 统计测试
+ */
+public class ZLinkUniqueVisitorCounterTest {
+
+    /**
+     * 测试首次访问标识取自累计 HyperLogLog 的 PFADD 返回值，并写入短链接与分组的按天 HyperLogLog
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMarkFirstVisits() {
+        // 用集合模拟 HyperLogLog：有新元素时返回 1
+        Map<String, Set<String>> sketches = new HashMap<>();
+        List<Object> results = new ArrayList<>();
+        RedisHyperLogLogCommands hyperLogLogCommands = mock(RedisHyperLogLogCommands.class, invocation -> {
+            String key = new String((byte[]) invocation.getArgument(0), StandardCharsets.UTF_8);
+            boolean changed = false;
+            for (int i = 1; i < invocation.getArguments().length; i++) {
+                changed |= sketches.computeIfAbsent(key, k -> new HashSet<>())
+                        .add(new String((byte[]) invocation.getArgument(i), StandardCharsets.UTF_8));
+            }
+            results.add(changed ? 1L : 0L);
+            return null;
+        });
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class, invocation -> {
+            results.add(true);
+            return null;
+        });
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.hyperLogLogCommands()).thenReturn(hyperLogLogCommands);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return results;
+        });
+        ZLinkMapper zLinkMapper = mock(ZLinkMapper.class);
+        ZLink link = new ZLink();
+        link.setShortUrl("abc");
+        link.setGid("g1");
+        when(zLinkMapper.selectGidByShortUrls(anyCollection())).thenReturn(List.of(link));
+
+        ZLinkUniqueVisitorCounter counter = new ZLinkUniqueVisitorCounter(redisTemplate, zLinkMapper);
+        ReflectionTestUtils.setField(counter, "enabled", true);
+        ReflectionTestUtils.setField(counter, "dailyRetentionDays", 31);
+        ReflectionTestUtils.setField(counter, "totalIdleDays", 90);
+
+        Date now = new Date();
+        ZLinkStatsRecordDTO first = record("u1", "1.1.1.1", now);
+        ZLinkStatsRecordDTO repeat = record("u1", "1.1.1.1", now);
+        ZLinkStatsRecordDTO sameIp = record("u2", "1.1.1.1", now);
+        counter.markFirstVisits(List.of(first, repeat, sameIp));
+
+        assert first.getUvFirstFlag() && first.getUipFirstFlag();
+        assert !repeat.getUvFirstFlag() && !repeat.getUipFirstFlag();
+        assert sameIp.getUvFirstFlag() && !sameIp.getUipFirstFlag();
+
+        String day = now.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().format(DateTimeFormatter.BASIC_ISO_DATE);
+        assert sketches.get(RedisKeyConstants.STATS_UV_KEY + "abc:" + day).size() == 2;
+        assert sketches.get(RedisKeyConstants.STATS_UIP_KEY + "abc:" + day).size() == 1;
+        assert sketches.get(RedisKeyConstants.STATS_GROUP_UV_KEY + "g1:" + day).size() == 2;
+
+        // 新发放访客标识的记录保持为新访客
+        ZLinkStatsRecordDTO fresh = record("u1", "2.2.2.2", now);
+        fresh.setUvFirstFlag(true);
+        results.clear();
+        counter.markFirstVisits(List.of(fresh));
+        assert fresh.getUvFirstFlag() && fresh.getUipFirstFlag();
+    }
+
+    /**
+     * 测试日期区间查询按天键求并集
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCountRange() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        // 返回参与并集的键数量
+        HyperLogLogOperations<String, String> operations = mock(HyperLogLogOperations.class,
+                invocation -> (long) invocation.getArguments().length);
+        when(redisTemplate.opsForHyperLogLog()).thenReturn(operations);
+        ZLinkUniqueVisitorCounter counter = new ZLinkUniqueVisitorCounter(redisTemplate, mock(ZLinkMapper.class));
+
+        LocalDate start = LocalDate.of(2024, 1, 30);
+        assert counter.countLinkUv("abc", start, start.plusDays(6)) == 7;
+        assert counter.countGroupUip("g1", start, start) == 1;
+        assert counter.countLinkUip("abc", start, start.minusDays(1)) == 0;
+    }
+
+    private ZLinkStatsRecordDTO record(String uv, String remoteAddr, Date date) {
+        return ZLinkStatsRecordDTO.builder().shortUrl("abc").uv(uv).remoteAddr(remoteAddr).currentDate(date).build();
+    }
+}
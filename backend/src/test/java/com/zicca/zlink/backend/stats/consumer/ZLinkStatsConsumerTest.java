@@ -0,0 +1,75 @@
+package com.zicca.zlink.backend.stats.consumer;
+
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsBatchDTO;
+import com.zicca.zlink.backend.dto.biz.ZLinkStatsRecordDTO;
+import com.zicca.zlink.backend.stats.ZLinkClickAggregator;
+import com.zicca.zlink.backend.stats.ZLinkStatsRollup;
+import com.zicca.zlink.backend.stats.ZLinkUniqueVisitorCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 短链接访问统计消费测试
+ */
+@SuppressWarnings("unchecked")
+public class ZLinkStatsConsumerTest {
+
+    /**
+     * 测试本地输出端：预聚合写入失败时记录日志，PV 照常累加
+     */
+    @Test
+    public void testConsumeToleratesRollupFailure() {
+        ZLinkClickAggregator clickAggregator = mock(ZLinkClickAggregator.class);
+        ZLinkStatsRollup statsRollup = mock(ZLinkStatsRollup.class);
+        doThrow(new IllegalStateException("db down")).when(statsRollup).append(anyList());
+        ZLinkStatsConsumer consumer = new ZLinkStatsConsumer(mock(ZLinkUniqueVisitorCounter.class), clickAggregator, statsRollup);
+
+        consumer.consume(List.of(record("s1")));
+        verify(clickAggregator).add(anyList());
+    }
+
+    /**
+     * 测试消息队列消费端：预聚合写入失败时不累加 PV，清除去重标记并抛出异常等待重投
+     */
+    @Test
+    public void testRocketMQConsumerRethrowsForRedelivery() {
+        ZLinkClickAggregator clickAggregator = mock(ZLinkClickAggregator.class);
+        ZLinkStatsRollup statsRollup = mock(ZLinkStatsRollup.class);
+        doThrow(new IllegalStateException("db down")).when(statsRollup).append(anyList());
+        ZLinkStatsConsumer consumer = new ZLinkStatsConsumer(mock(ZLinkUniqueVisitorCounter.class), clickAggregator, statsRollup);
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        ZLinkStatsRocketMQConsumer rocketMQConsumer = new ZLinkStatsRocketMQConsumer(consumer, redisTemplate);
+
+        ZLinkStatsBatchDTO message = ZLinkStatsBatchDTO.builder().keys("k1").records(List.of(record("s1"))).build();
+        try {
+            rocketMQConsumer.onMessage(message);
+            assert false;
+        } catch (IllegalStateException e) {
+            // 抛出后由消息队列重投
+        }
+        verify(clickAggregator, never()).add(anyList());
+        verify(redisTemplate).delete(eq("zlink:stats:consumed:k1"));
+    }
+
+    private static ZLinkStatsRecordDTO record(String shortUrl) {
+        return ZLinkStatsRecordDTO.builder().shortUrl(shortUrl).build();
+    }
+}
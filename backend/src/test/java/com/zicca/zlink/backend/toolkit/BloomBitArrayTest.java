@@ -0,0 +1,44 @@
+package com.zicca.zlink.backend.toolkit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 布隆过滤器位数组测试
+ */
+@Slf4j
+public class BloomBitArrayTest {
+
+    /**
+     * 测试按 Redis 位序（每字节高位在前）生成的位图分块合并后与直接写入一致
+     */
+    @Test
+    public void testMergeRedisBitmap() {
+        long numBits = BloomFilterUtil.optimalNumOfBits(10_000, 0.01);
+        int numHashFunctions = BloomFilterUtil.optimalNumOfHashFunctions(10_000, numBits);
+        BloomBitArray source = new BloomBitArray(numBits, numHashFunctions);
+        // 模拟 Redis SETBIT：offset 对应字节 offset/8 的第 (7 - offset%8) 位
+        byte[] bitmap = new byte[(int) (numBits / 8)];
+        for (int i = 0; i < 10_000; i++) {
+            String key = "link-" + i;
+            source.put(key);
+            for (long offset : BloomFilterUtil.bitOffsets(key, numHashFunctions, numBits)) {
+                bitmap[(int) (offset >>> 3)] |= (byte) (1 << (7 - (offset & 7)));
+            }
+        }
+
+        BloomBitArray target = new BloomBitArray(numBits, numHashFunctions);
+        int chunkSize = 1000;
+        for (int start = 0; start < bitmap.length; start += chunkSize) {
+            byte[] chunk = new byte[Math.min(chunkSize, bitmap.length - start)];
+            System.arraycopy(bitmap, start, chunk, 0, chunk.length);
+            target.mergeBytes(start, chunk);
+        }
+
+        assert target.bitCount() == source.bitCount();
+        for (int i = 0; i < 10_000; i++) {
+            assert target.mightContain("link-" + i);
+        }
+        log.info("位图合并测试通过: bitCount={}, 估算数量={}", target.bitCount(), target.approximateElementCount());
+    }
+}
@@ -0,0 +1,53 @@
+package com.zicca.zlink.backend.toolkit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 可扩展布隆过滤器测试
+ */
+@Slf4j
+public class BloomFilterChainTest {
+
+    /**
+     * 测试超出基础容量后追加新一代，整体误判率仍受控
+     */
+    @Test
+    public void testGrowth() {
+        long baseCapacity = 10_000;
+        double falseProbability = 0.01;
+        BloomFilterChain single = new BloomFilterChain(0, baseCapacity, falseProbability, 1);
+        BloomFilterChain chain = new BloomFilterChain(0, baseCapacity, falseProbability, 1);
+
+        int inserted = 0;
+        for (int generation = 0; generation < 3; generation++) {
+            long capacity = BloomFilterUtil.generationCapacity(baseCapacity, generation);
+            for (long i = 0; i < capacity; i++) {
+                String key = "link-" + inserted++;
+                single.put(key);
+                chain.put(key);
+            }
+            // 最新一代写满，追加下一代
+            chain.ensureGenerations(generation + 2);
+        }
+        assert chain.generationCount() == 4;
+        for (int i = 0; i < inserted; i++) {
+            assert chain.mightContain("link-" + i);
+        }
+
+        int probes = 100_000;
+        int singleFalsePositives = 0;
+        int chainFalsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            String key = "absent-" + i;
+            singleFalsePositives += single.mightContain(key) ? 1 : 0;
+            chainFalsePositives += chain.mightContain(key) ? 1 : 0;
+        }
+        double singleFpp = (double) singleFalsePositives / probes;
+        double chainFpp = (double) chainFalsePositives / probes;
+        log.info("插入{}个键: 单代误判率={}, 可扩展误判率={}", inserted, singleFpp, chainFpp);
+        // 单代超出容量7倍后误判率失控，可扩展过滤器收敛于 falseProbability / (1 - TIGHTENING_RATIO)
+        assert singleFpp > 0.5;
+        assert chainFpp < falseProbability / (1 - BloomFilterUtil.TIGHTENING_RATIO) * 1.2;
+    }
+}
@@ -0,0 +1,58 @@
+package com.zicca.zlink.backend.toolkit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+/**
+ * 布隆过滤器位偏移计算测试
+ */
+@Slf4j
+public class BloomFilterUtilTest {
+
+    /**
+     * 测试无漏判且误判率接近配置值
+     */
+    @Test
+    public void testFalseProbability() {
+        long expectedInsertions = 100_000;
+        double falseProbability = 0.01;
+        long numBits = BloomFilterUtil.optimalNumOfBits(expectedInsertions, falseProbability);
+        int numHashFunctions = BloomFilterUtil.optimalNumOfHashFunctions(expectedInsertions, numBits);
+        assert numBits % 64 == 0;
+        assert numHashFunctions == 7;
+
+        BitSet bits = new BitSet((int) numBits);
+        for (int i = 0; i < expectedInsertions; i++) {
+            for (long offset : BloomFilterUtil.bitOffsets("link-" + i, numHashFunctions, numBits)) {
+                bits.set((int) offset);
+            }
+        }
+        for (int i = 0; i < expectedInsertions; i++) {
+            assert contains(bits, "link-" + i, numHashFunctions, numBits);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (contains(bits, "absent-" + i, numHashFunctions, numBits)) {
+                falsePositives++;
+            }
+        }
+        double actual = (double) falsePositives / probes;
+        long approximate = BloomFilterUtil.approximateElementCount(bits.cardinality(), numHashFunctions, numBits);
+        log.info("布隆过滤器误判率: {}, 估算元素数量: {}", actual, approximate);
+        assert actual < falseProbability * 1.5;
+        assert Math.abs(approximate - expectedInsertions) < expectedInsertions * 0.02;
+    }
+
+    private boolean contains(BitSet bits, String key, int numHashFunctions, long numBits) {
+        for (long offset : BloomFilterUtil.bitOffsets(key, numHashFunctions, numBits)) {
+            if (!bits.get((int) offset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.zicca.zlink.backend.toolkit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 指数加权移动平均速率测试
+ */
+public class EwmaRateTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 测试稳定速率收敛，停止后按时间窗口衰减
+     */
+    @Test
+    public void testConvergeAndDecay() {
+        EwmaRate ewmaRate = new EwmaRate(Duration.ofSeconds(10), 0);
+        long now = 0;
+        for (int i = 0; i < 100; i++) {
+            ewmaRate.mark(100);
+            now += SECOND;
+            ewmaRate.rate(now);
+        }
+        double steady = ewmaRate.rate(now);
+        assert Math.abs(steady - 100) < 1;
+
+        // 读取频率不影响结果：一次跨越整个窗口与逐秒读取的衰减一致
+        now += 10 * SECOND;
+        double decayed = ewmaRate.rate(now);
+        assert Math.abs(decayed - steady * Math.exp(-1)) < 0.5;
+    }
+
+    /**
+     * 测试突发流量下速率快速上升
+     */
+    @Test
+    public void testBurst() {
+        EwmaRate ewmaRate = new EwmaRate(Duration.ofSeconds(10), 0);
+        long now = 0;
+        for (int i = 0; i < 30; i++) {
+            ewmaRate.mark(10);
+            now += SECOND;
+            ewmaRate.rate(now);
+        }
+        for (int i = 0; i < 5; i++) {
+            ewmaRate.mark(1000);
+            now += SECOND;
+            ewmaRate.rate(now);
+        }
+        // 5秒突发后约 1 - e^(-0.5) ≈ 39% 的增量已反映
+        double rate = ewmaRate.rate(now);
+        assert rate > 350 && rate < 450;
+    }
+}
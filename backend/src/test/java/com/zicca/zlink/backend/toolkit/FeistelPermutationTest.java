@@ -0,0 +1,74 @@
+package com.zicca.zlink.backend.toolkit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Feistel 置换测试
+ */
+@Slf4j
+public class FeistelPermutationTest {
+
+    /**
+     * 测试非 2 的幂区间上的置换为双射，且可逆
+     */
+    @Test
+    public void testBijection() {
+        long domainSize = HashUtil.base62Capacity(3);
+        FeistelPermutation permutation = new FeistelPermutation(domainSize, 20240101L, 4);
+        boolean[] seen = new boolean[(int) domainSize];
+        int fixedOrder = 0;
+        for (long i = 0; i < domainSize; i++) {
+            long permuted = permutation.permute(i);
+            assert permuted >= 0 && permuted < domainSize;
+            assert !seen[(int) permuted];
+            seen[(int) permuted] = true;
+            assert permutation.inverse(permuted) == i;
+            fixedOrder += permuted == i ? 1 : 0;
+        }
+        // 结果不应保持原有顺序
+        assert fixedOrder < domainSize / 100;
+    }
+
+    /**
+     * 测试连续序列号生成的定长短链接互不重复且非顺序
+     */
+    @Test
+    public void testSequenceShortUrl() {
+        int length = 7;
+        FeistelPermutation permutation = new FeistelPermutation(HashUtil.base62Capacity(length), 387829034603L, 4);
+        Set<String> shortUrls = new HashSet<>();
+        String previous = null;
+        int ascending = 0;
+        for (long id = 0; id < 100_000; id++) {
+            String shortUrl = HashUtil.toBase62(permutation.permute(id), length);
+            assert shortUrl.length() == length;
+            assert shortUrls.add(shortUrl);
+            assert permutation.inverse(HashUtil.fromBase62(shortUrl)) == id;
+            if (previous != null && shortUrl.compareTo(previous) > 0) {
+                ascending++;
+            }
+            previous = shortUrl;
+        }
+        log.info("连续序列号生成短链接示例: {}, 升序比例: {}", previous, ascending / 100_000.0);
+        assert ascending > 40_000 && ascending < 60_000;
+    }
+
+    /**
+     * 测试最大编码长度的置换区间
+     */
+    @Test
+    public void testMaxDomain() {
+        long domainSize = HashUtil.base62Capacity(10);
+        FeistelPermutation permutation = new FeistelPermutation(domainSize, 1L, 4);
+        for (long id = domainSize - 1000; id < domainSize; id++) {
+            long permuted = permutation.permute(id);
+            assert permuted < domainSize;
+            assert permutation.inverse(permuted) == id;
+            assert HashUtil.toBase62(permuted, 10).length() == 10;
+        }
+    }
+}
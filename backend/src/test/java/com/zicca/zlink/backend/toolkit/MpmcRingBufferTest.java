@@ -0,0 +1,107 @@
+package com.zicca.zlink.backend.toolkit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 无锁环形队列测试
+ */
+@Slf4j
+public class MpmcRingBufferTest {
+
+    /**
+     * 测试容量限制、FIFO 顺序与批量读写
+     */
+    @Test
+    public void testCapacityAndBatch() {
+        MpmcRingBuffer<String> ringBuffer = new MpmcRingBuffer<>(5);
+        assert ringBuffer.fill(new String[]{"a", "b", "c"}, 0, 3) == 3;
+        assert ringBuffer.offer("d");
+        assert ringBuffer.offer("e");
+        assert !ringBuffer.offer("f");
+        assert ringBuffer.size() == 5 && ringBuffer.remainingCapacity() == 0;
+
+        String[] target = new String[4];
+        assert ringBuffer.drain(target, 1, 3) == 3;
+        assert "a".equals(target[1]) && "c".equals(target[3]);
+        // 跨越数组末尾回绕写入，超出容量部分不写入
+        assert ringBuffer.fill(new String[]{"x", "f", "g", "h", "i"}, 1, 4) == 3;
+        assert ringBuffer.size() == 5;
+        assert "d".equals(ringBuffer.poll());
+        assert "e".equals(ringBuffer.poll());
+        assert "f".equals(ringBuffer.poll());
+        assert ringBuffer.drain(target, 0, 4) == 2;
+        assert "g".equals(target[0]) && "h".equals(target[1]);
+        assert ringBuffer.poll() == null && ringBuffer.isEmpty();
+    }
+
+    /**
+     * 测试多生产者多消费者并发读写不丢失、不重复
+     */
+    @Test
+    public void testConcurrentProducersAndConsumers() throws InterruptedException {
+        MpmcRingBuffer<String> ringBuffer = new MpmcRingBuffer<>(1000);
+        int producerCount = 4;
+        int consumerCount = 4;
+        int itemsPerProducer = 50_000;
+        int total = producerCount * itemsPerProducer;
+        Set<String> consumed = ConcurrentHashMap.newKeySet();
+        AtomicInteger consumedCount = new AtomicInteger(0);
+        CountDownLatch doneLatch = new CountDownLatch(producerCount + consumerCount);
+        ExecutorService executor = Executors.newFixedThreadPool(producerCount + consumerCount);
+
+        for (int p = 0; p < producerCount; p++) {
+            int producer = p;
+            executor.submit(() -> {
+                String[] batch = new String[64];
+                int produced = 0;
+                while (produced < itemsPerProducer) {
+                    // 交替使用单个写入与批量写入
+                    if (produced % 2 == 0) {
+                        if (ringBuffer.offer(producer + "-" + produced)) {
+                            produced++;
+                        }
+                        continue;
+                    }
+                    int size = Math.min(batch.length, itemsPerProducer - produced);
+                    for (int i = 0; i < size; i++) {
+                        batch[i] = producer + "-" + (produced + i);
+                    }
+                    produced += ringBuffer.fill(batch, 0, size);
+                }
+                doneLatch.countDown();
+            });
+        }
+        for (int c = 0; c < consumerCount; c++) {
+            executor.submit(() -> {
+                String[] batch = new String[32];
+                while (consumedCount.get() < total) {
+                    int drained = ringBuffer.drain(batch, 0, batch.length);
+                    for (int i = 0; i < drained; i++) {
+                        assert consumed.add(batch[i]);
+                    }
+                    String single = ringBuffer.poll();
+                    if (single != null) {
+                        assert consumed.add(single);
+                        drained++;
+                    }
+                    consumedCount.addAndGet(drained);
+                }
+                doneLatch.countDown();
+            });
+        }
+        doneLatch.await();
+        executor.shutdown();
+
+        log.info("并发读写完成: 消费 {} 个, 剩余 {} 个", consumed.size(), ringBuffer.size());
+        assert consumed.size() == total;
+        assert ringBuffer.isEmpty();
+    }
+}